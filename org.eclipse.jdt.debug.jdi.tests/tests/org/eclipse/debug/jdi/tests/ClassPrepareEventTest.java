@@ -73,6 +73,15 @@ public class ClassPrepareEventTest extends AbstractJDITest {
 			"org.eclipse.debug.jdi.tests.program.TestClass",
 			fEvent.referenceType().name());
 	}
+	/**
+	 * Test that the prepared class is returned by JDI classesByName().
+	 */
+	public void testJDIClassesByName() {
+		assertTrue(
+			"1",
+			fVM.classesByName(fEvent.referenceType().name()).contains(
+				fEvent.referenceType()));
+	}
 	/**
 	 * Test JDI thread().
 	 */
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2012 IBM Corporation and others.
+ * Copyright (c) 2000, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,6 +13,8 @@ package org.eclipse.debug.jdi.tests;
 
 import java.util.List;
 
+import org.eclipse.jdi.internal.VirtualMachineImpl;
+
 import com.sun.jdi.Type;
 
 /**
@@ -103,6 +105,37 @@ public class ClassesByNameTest extends AbstractJDITest {
 					"[Ljava/lang/String;"));
 	}
 	
+	/**
+	 * Test that a class is returned as soon as it is loaded, before its class
+	 * prepare event has been received
+	 */
+	public void testJDIClassLoadedBeforePrepareEvent() {
+		String name = "org.eclipse.debug.jdi.tests.program.TestClass11";
+		VirtualMachineImpl vm = (VirtualMachineImpl) fVM;
+		assertTrue("1", vm.classesByName(name).isEmpty());
+		// the class prepare event is held until the class has been found
+		vm.holdEvents();
+		try {
+			triggerEvent("ClassPrepareEvent9");
+			long end = System.currentTimeMillis() + TIMEOUT;
+			List<?> classes = vm.classesByName(name);
+			while (classes.isEmpty() && System.currentTimeMillis() < end) {
+				try {
+					Thread.sleep(10);
+				} catch (InterruptedException e) {
+				}
+				classes = vm.classesByName(name);
+			}
+			assertTrue(
+				"Should be a class for " + name,
+				classes.size() == 1
+					&& ((Type) classes.get(0)).name().equals(name));
+		} finally {
+			vm.releaseEvents();
+		}
+		waitUntilReady();
+	}
+	
 	/**
 	 * Test that there is a class object for 'java.lang.String'
 	 */
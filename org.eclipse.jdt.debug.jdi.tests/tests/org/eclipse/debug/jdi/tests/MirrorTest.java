@@ -10,10 +10,16 @@
  *******************************************************************************/
 package org.eclipse.debug.jdi.tests;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
 
+import org.eclipse.jdi.internal.MirrorImpl;
+import org.eclipse.jdi.internal.PendingReply;
+import org.eclipse.jdi.internal.jdwp.JdwpCommandPacket;
+import org.eclipse.jdi.internal.jdwp.JdwpReplyPacket;
+
 import com.sun.jdi.Mirror;
 import com.sun.jdi.request.AccessWatchpointRequest;
 import com.sun.jdi.request.BreakpointRequest;
@@ -136,4 +142,22 @@ public class MirrorTest extends AbstractJDITest {
 			assertEquals(Integer.toString(i), fVM, mirror.virtualMachine());
 		}
 	}
+	/**
+	 * Test pipelined requests: all are sent before the first reply is awaited.
+	 */
+	public void testJDIRequestVMAsync() {
+		MirrorImpl vm = (MirrorImpl) fVM;
+		List<PendingReply> replies = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			replies.add(vm.requestVMAsync(JdwpCommandPacket.VM_VERSION, (byte[]) null));
+		}
+		for (int i = replies.size() - 1; i >= 0; i--) {
+			PendingReply pending = replies.get(i);
+			JdwpReplyPacket reply = pending.reply();
+			assertEquals(Integer.toString(i), pending.getId(), reply.getId());
+			assertEquals(Integer.toString(i), JdwpReplyPacket.NONE, reply.errorCode());
+			assertTrue(Integer.toString(i), pending.isDone());
+			assertSame(Integer.toString(i), reply, pending.reply());
+		}
+	}
 }
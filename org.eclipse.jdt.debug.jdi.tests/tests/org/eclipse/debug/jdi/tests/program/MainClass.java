@@ -376,6 +376,12 @@ public class MainClass extends Date implements Runnable, Printable {
 		new TestClazz9();
 		new TestClazz10();
 	}
+	/**
+	 *	Trigger a class prepare event for the front-end.
+	 */
+	private void triggerClassPrepareEvent9() {
+		new TestClass11();
+	}
 	/**
 	 *	Trigger an event for the front-end.
 	 */
@@ -446,6 +452,8 @@ public class MainClass extends Date implements Runnable, Printable {
 			triggerClassPrepareEvent7();
 		} else if (eventType.equals("ClassPrepareEvent8")) {
 			triggerClassPrepareEvent8();
+		} else if (eventType.equals("ClassPrepareEvent9")) {
+			triggerClassPrepareEvent9();
 		} else if (eventType.equals("ExceptionEvent")) {
 			triggerExceptionEvent();
 		} else if (eventType.equals("ModificationWatchpointEvent")) {
@@ -0,0 +1,280 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.debug.testplugin;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jdi.internal.VirtualMachineImpl;
+import org.eclipse.jdi.internal.jdwp.JdwpCommandPacket;
+import org.eclipse.jdi.internal.jdwp.JdwpPacket;
+import org.eclipse.jdi.internal.jdwp.JdwpReplyPacket;
+
+import com.sun.jdi.VirtualMachine;
+import com.sun.jdi.connect.spi.ClosedConnectionException;
+import com.sun.jdi.connect.spi.Connection;
+
+/**
+ * In memory connection that answers JDWP commands like a VM that has loaded
+ * the classes and methods added to it. Only the commands needed to look up
+ * classes, their methods and the line tables of the methods are answered;
+ * other commands fail with <code>NOT_IMPLEMENTED</code>. Event requests are
+ * accepted, but no events are ever sent.
+ *
+ * @since 3.10
+ */
+public class JdwpTestConnection extends Connection {
+
+	/** Size of all JDWP ids. */
+	private static final int ID_SIZE = 8;
+
+	/**
+	 * A method and its line table.
+	 */
+	static class TestMethod {
+		long fID;
+		String fName;
+		long fHighestCodeIndex;
+		long[] fCodeIndexes;
+		int[] fLineNumbers;
+	}
+
+	/**
+	 * A class and its methods.
+	 */
+	static class TestClass {
+		long fID;
+		String fSignature;
+		List<TestMethod> fMethods = new ArrayList<TestMethod>();
+	}
+
+	private LinkedBlockingQueue<byte[]> fReplies = new LinkedBlockingQueue<byte[]>();
+	private volatile boolean fOpen = true;
+	private Map<Long, TestClass> fClasses = new HashMap<Long, TestClass>();
+	private Map<Long, TestMethod> fMethods = new HashMap<Long, TestMethod>();
+	private long fNextID = 1;
+	private Map<Integer, AtomicInteger> fCommandCounts = new HashMap<Integer, AtomicInteger>();
+
+	/**
+	 * Adds a loaded class.
+	 *
+	 * @param signature
+	 *            signature of the class
+	 * @return the id of the class
+	 */
+	public synchronized long addClass(String signature) {
+		TestClass type = new TestClass();
+		type.fID = fNextID++;
+		type.fSignature = signature;
+		fClasses.put(new Long(type.fID), type);
+		return type.fID;
+	}
+
+	/**
+	 * Adds a static method without arguments to a class added before. The
+	 * code of the method starts at code index 0.
+	 *
+	 * @param classID
+	 *            id of the class
+	 * @param name
+	 *            name of the method
+	 * @param highestCodeIndex
+	 *            highest code index of the method
+	 * @param codeIndexes
+	 *            code indexes of the line table entries, or <code>null</code>
+	 *            if the method has no line information
+	 * @param lineNumbers
+	 *            line numbers of the line table entries
+	 * @return the id of the method
+	 */
+	public synchronized long addMethod(long classID, String name, long highestCodeIndex, long[] codeIndexes, int[] lineNumbers) {
+		TestMethod method = new TestMethod();
+		method.fID = fNextID++;
+		method.fName = name;
+		method.fHighestCodeIndex = highestCodeIndex;
+		method.fCodeIndexes = codeIndexes;
+		method.fLineNumbers = lineNumbers;
+		fClasses.get(new Long(classID)).fMethods.add(method);
+		fMethods.put(new Long(method.fID), method);
+		return method.fID;
+	}
+
+	/**
+	 * Creates a virtual machine mirror connected through this connection.
+	 *
+	 * @return the virtual machine
+	 */
+	public VirtualMachine createVM() {
+		return new VirtualMachineImpl(this);
+	}
+
+	/**
+	 * Returns how often the given command has been received.
+	 *
+	 * @param command
+	 *            command constant of {@link JdwpCommandPacket}
+	 * @return number of received commands
+	 */
+	public synchronized int getCommandCount(int command) {
+		AtomicInteger count = fCommandCounts.get(new Integer(command));
+		return count == null ? 0 : count.get();
+	}
+
+	@Override
+	public byte[] readPacket() throws IOException {
+		try {
+			byte[] bytes = null;
+			while (fOpen && bytes == null) {
+				bytes = fReplies.poll(100, TimeUnit.MILLISECONDS);
+			}
+			if (bytes == null) {
+				throw new ClosedConnectionException();
+			}
+			return bytes;
+		} catch (InterruptedException e) {
+			throw new ClosedConnectionException();
+		}
+	}
+
+	@Override
+	public void writePacket(byte[] pkt) throws IOException {
+		if (!fOpen) {
+			throw new ClosedConnectionException();
+		}
+		JdwpCommandPacket command = (JdwpCommandPacket) JdwpPacket.build(pkt);
+		ByteArrayOutputStream outBytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(outBytes);
+		short error;
+		synchronized (this) {
+			AtomicInteger count = fCommandCounts.get(new Integer(command.getCommand()));
+			if (count == null) {
+				count = new AtomicInteger();
+				fCommandCounts.put(new Integer(command.getCommand()), count);
+			}
+			count.incrementAndGet();
+			error = reply(command.getCommand(), command.dataInStream(), out);
+		}
+		out.flush();
+		byte[] data = error == 0 ? outBytes.toByteArray() : new byte[0];
+		ByteArrayOutputStream replyBytes = new ByteArrayOutputStream();
+		DataOutputStream reply = new DataOutputStream(replyBytes);
+		reply.writeInt(11 + data.length);
+		reply.writeInt(command.getId());
+		reply.writeByte(JdwpPacket.FLAG_REPLY_PACKET);
+		reply.writeShort(error);
+		reply.write(data);
+		reply.flush();
+		fReplies.add(replyBytes.toByteArray());
+	}
+
+	/**
+	 * Writes the reply data of a command.
+	 *
+	 * @return the error code of the reply
+	 */
+	private short reply(int command, DataInputStream in, DataOutputStream out) throws IOException {
+		switch (command) {
+		case JdwpCommandPacket.VM_VERSION:
+			writeString("JdwpTestConnection", out); //$NON-NLS-1$
+			out.writeInt(1);
+			out.writeInt(6);
+			writeString("1.6", out); //$NON-NLS-1$
+			writeString("JdwpTestConnection", out); //$NON-NLS-1$
+			return 0;
+		case JdwpCommandPacket.VM_ID_SIZES:
+			for (int i = 0; i < 5; i++) {
+				out.writeInt(ID_SIZE);
+			}
+			return 0;
+		case JdwpCommandPacket.VM_CAPABILITIES_NEW:
+			// nothing is supported
+			out.write(new byte[32]);
+			return 0;
+		case JdwpCommandPacket.VM_ALL_CLASSES_WITH_GENERIC:
+			out.writeInt(fClasses.size());
+			for (TestClass type : fClasses.values()) {
+				out.writeByte(1); // class
+				out.writeLong(type.fID);
+				writeString(type.fSignature, out);
+				writeString("", out); //$NON-NLS-1$
+				out.writeInt(7); // verified, prepared, initialized
+			}
+			return 0;
+		case JdwpCommandPacket.RT_METHODS_WITH_GENERIC: {
+			TestClass type = fClasses.get(new Long(in.readLong()));
+			if (type == null) {
+				return JdwpReplyPacket.INVALID_CLASS;
+			}
+			out.writeInt(type.fMethods.size());
+			for (TestMethod method : type.fMethods) {
+				out.writeLong(method.fID);
+				writeString(method.fName, out);
+				writeString("()V", out); //$NON-NLS-1$
+				writeString("", out); //$NON-NLS-1$
+				out.writeInt(0x0009); // public static
+			}
+			return 0;
+		}
+		case JdwpCommandPacket.RT_SOURCE_DEBUG_EXTENSION:
+			return JdwpReplyPacket.ABSENT_INFORMATION;
+		case JdwpCommandPacket.M_LINE_TABLE: {
+			in.readLong();
+			TestMethod method = fMethods.get(new Long(in.readLong()));
+			if (method == null) {
+				return JdwpReplyPacket.INVALID_METHODID;
+			}
+			if (method.fCodeIndexes == null) {
+				return JdwpReplyPacket.ABSENT_INFORMATION;
+			}
+			out.writeLong(0);
+			out.writeLong(method.fHighestCodeIndex);
+			out.writeInt(method.fCodeIndexes.length);
+			for (int i = 0; i < method.fCodeIndexes.length; i++) {
+				out.writeLong(method.fCodeIndexes[i]);
+				out.writeInt(method.fLineNumbers[i]);
+			}
+			return 0;
+		}
+		case JdwpCommandPacket.ER_SET:
+			out.writeInt((int) fNextID++);
+			return 0;
+		case JdwpCommandPacket.ER_CLEAR:
+		case JdwpCommandPacket.VM_DISPOSE:
+			return 0;
+		}
+		return JdwpReplyPacket.NOT_IMPLEMENTED;
+	}
+
+	private static void writeString(String string, DataOutputStream out) throws IOException {
+		byte[] bytes = string.getBytes("UTF-8"); //$NON-NLS-1$
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	@Override
+	public void close() throws IOException {
+		fOpen = false;
+	}
+
+	@Override
+	public boolean isOpen() {
+		return fOpen;
+	}
+}
@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps loading a new copy of a class for 10 seconds
+ */
+public class ClassLoadingLoop {
+
+	/**
+	 * Class loaded by each loader
+	 */
+	public static class Loaded {
+		public static int run(int copy) {
+			return copy + 1;
+		}
+	}
+
+	/**
+	 * Loader that defines its own copy of the loaded class
+	 */
+	static class Loader extends ClassLoader {
+
+		Loader() {
+			super(ClassLoadingLoop.class.getClassLoader());
+		}
+
+		protected synchronized Class loadClass(String name, boolean resolve) throws ClassNotFoundException {
+			if (!name.equals(Loaded.class.getName())) {
+				return super.loadClass(name, resolve);
+			}
+			Class loaded = findLoadedClass(name);
+			if (loaded == null) {
+				byte[] bytes = read(name.replace('.', '/') + ".class");
+				loaded = defineClass(name, bytes, 0, bytes.length);
+			}
+			if (resolve) {
+				resolveClass(loaded);
+			}
+			return loaded;
+		}
+
+		private byte[] read(String resource) throws ClassNotFoundException {
+			InputStream in = getParent().getResourceAsStream(resource);
+			if (in == null) {
+				throw new ClassNotFoundException(resource);
+			}
+			try {
+				ByteArrayOutputStream out = new ByteArrayOutputStream();
+				byte[] buffer = new byte[4096];
+				int read;
+				while ((read = in.read(buffer)) != -1) {
+					out.write(buffer, 0, read);
+				}
+				return out.toByteArray();
+			} catch (IOException e) {
+				throw new ClassNotFoundException(resource);
+			} finally {
+				try {
+					in.close();
+				} catch (IOException e) {
+				}
+			}
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		List copies = new ArrayList();
+		long end = System.currentTimeMillis() + 10000;
+		while (System.currentTimeMillis() < end) {
+			copies.add(Class.forName(Loaded.class.getName(), true, new Loader()));
+			Thread.sleep(10);
+		}
+		System.out.println(copies.size() + " copies loaded");
+		for (int i = 0; i < copies.size(); i++) {
+			((Class) copies.get(i)).getMethod("run", new Class[] { int.class }).invoke(null, new Object[] { new Integer(i) });
+		}
+	}
+}
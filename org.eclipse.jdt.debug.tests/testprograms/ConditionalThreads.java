@@ -0,0 +1,60 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+/**
+ * Runs many threads that pass the same line, and a method that only returns
+ * once all of them have called it, or after 20 seconds.
+ */
+public class ConditionalThreads implements Runnable {
+
+	public static final int THREADS = 32;
+
+	private static final Object fgLock = new Object();
+
+	private static int fgArrived = 0;
+
+	public void run() {
+		int arrived = fgArrived;
+		System.out.println(arrived);
+	}
+
+	public static boolean arrive() {
+		synchronized (fgLock) {
+			fgArrived++;
+			fgLock.notifyAll();
+			long end = System.currentTimeMillis() + 20000;
+			while (fgArrived < THREADS) {
+				long left = end - System.currentTimeMillis();
+				if (left <= 0) {
+					return false;
+				}
+				try {
+					fgLock.wait(left);
+				} catch (InterruptedException e) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		Thread[] threads = new Thread[THREADS];
+		for (int i = 0; i < THREADS; i++) {
+			threads[i] = new Thread(new ConditionalThreads(), "Worker-" + i);
+			threads[i].start();
+		}
+		for (int i = 0; i < THREADS; i++) {
+			threads[i].join();
+		}
+		System.out.println(fgArrived + " threads arrived");
+	}
+}
@@ -0,0 +1,32 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+/**
+ * Loads a class only after a few lines of main have run.
+ */
+public class LateLoading {
+
+	public static void main(String[] args) {
+		System.out.println("before loading");
+		new LateLoadingType().run();
+		System.out.println("after loading");
+	}
+}
+
+class LateLoadingType {
+
+	void run() {
+		int i = 1;
+		i++;
+		i++;
+		System.out.println(i);
+	}
+}
@@ -0,0 +1,31 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+/**
+ * Runs a loop below 1000 frames
+ */
+public class PerfDeepStack {
+
+	public static void main(String[] args) {
+		recurse(1000);
+	}
+
+	static void recurse(int depth) {
+		if (depth > 0) {
+			recurse(depth - 1);
+			return;
+		}
+		int sum = 0;
+		for (int i = 0; i < 100000; i++) {
+			sum += i;
+		}
+	}
+}
@@ -0,0 +1,38 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+/**
+ * Runs a loop while 5000 other threads are waiting
+ */
+public class PerfManyThreads {
+
+	public static void main(String[] args) throws InterruptedException {
+		final Object lock = new Object();
+		for (int t = 0; t < 5000; t++) {
+			Thread thread = new Thread(new Runnable() {
+				public void run() {
+					synchronized (lock) {
+						try {
+							lock.wait();
+						} catch (InterruptedException e) {
+						}
+					}
+				}
+			}, "Idle-" + t);
+			thread.setDaemon(true);
+			thread.start();
+		}
+		int sum = 0;
+		for (int i = 0; i < 1000000; i++) {
+			sum += i;
+		}
+	}
+}
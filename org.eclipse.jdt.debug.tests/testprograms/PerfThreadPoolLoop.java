@@ -0,0 +1,36 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+/**
+ * Runs the same loop in 200 threads
+ */
+public class PerfThreadPoolLoop {
+
+	public static void main(String[] args) throws InterruptedException {
+		Thread[] threads = new Thread[200];
+		for (int t = 0; t < threads.length; t++) {
+			threads[t] = new Thread(new Runnable() {
+				public void run() {
+					int sum = 0;
+					for (int i = 0; i < 10; i++) {
+						sum += i;
+					}
+				}
+			}, "Worker-" + t);
+		}
+		for (int t = 0; t < threads.length; t++) {
+			threads[t].start();
+		}
+		for (int t = 0; t < threads.length; t++) {
+			threads[t].join();
+		}
+	}
+}
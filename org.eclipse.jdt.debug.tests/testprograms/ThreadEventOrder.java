@@ -0,0 +1,45 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+/**
+ * Runs many threads that each pass two lines in turn.
+ */
+public class ThreadEventOrder {
+
+	public static final int THREADS = 16;
+
+	public static final int ITERATIONS = 500;
+
+	static class Worker extends Thread {
+		int fCount;
+
+		public void run() {
+			for (int i = 0; i < ITERATIONS; i++) {
+				fCount++;
+				fCount--;
+			}
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		Worker[] workers = new Worker[THREADS];
+		for (int i = 0; i < THREADS; i++) {
+			workers[i] = new Worker();
+		}
+		for (int i = 0; i < THREADS; i++) {
+			workers[i].start();
+		}
+		for (int i = 0; i < THREADS; i++) {
+			workers[i].join();
+		}
+		System.out.println("done");
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2000, 2014 IBM Corporation and others.
+ *  Copyright (c) 2000, 2015 IBM Corporation and others.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -11,13 +11,17 @@
  *******************************************************************************/
 package org.eclipse.jdt.debug.test.stepping;
 
+import java.util.Arrays;
+
 import org.eclipse.debug.core.model.ILineBreakpoint;
 import org.eclipse.jdt.debug.core.IJavaStackFrame;
 import org.eclipse.jdt.debug.core.IJavaThread;
 import org.eclipse.jdt.debug.tests.AbstractDebugTest;
 import org.eclipse.jdt.debug.tests.TestAgainException;
+import org.eclipse.jdt.internal.debug.core.model.StepFilterMatcher;
 import org.eclipse.jdt.internal.debug.ui.IJDIPreferencesConstants;
 import org.eclipse.jdt.internal.debug.ui.JDIDebugUIPlugin;
+import org.eclipse.jdt.internal.debug.ui.monitors.FilteredStackFrames;
 import org.eclipse.jface.preference.IPreferenceStore;
 
 /**
@@ -321,6 +325,48 @@ public class StepFilterTests extends AbstractDebugTest {
 		}
 	}
 
+	/**
+	 * Tests that consecutive stack frames in filtered types are collapsed for
+	 * the debug view, except for the top frame
+	 * @throws Exception
+	 */
+	public void testCollapseFilteredFrames() throws Exception {
+		getPrefStore().setValue(IJDIPreferencesConstants.PREF_ACTIVE_FILTERS_LIST, fOriginalActiveFilters + ",StepFilterThree,StepFilterTw*,*One");
+		String typeName = "StepFilterOne";
+		ILineBreakpoint bp = createLineBreakpoint(19, "StepFilterThree");
+		bp.setEnabled(true);
+		
+		IJavaThread thread = null;
+		try {
+			thread= launchToLineBreakpoint(typeName, bp, false);
+			Object[] children = FilteredStackFrames.getCollapsedFrames(thread);
+			assertEquals("Wrong number of children", 2, children.length);
+			assertEquals("Top frame should not be collapsed", thread.getTopStackFrame(), children[0]);
+			assertTrue("Filtered frames should be collapsed", children[1] instanceof FilteredStackFrames);
+			assertEquals("Wrong number of filtered frames", 3, ((FilteredStackFrames) children[1]).getFrames().length);
+		} finally {
+			terminateAndRemove(thread);
+			removeAllBreakpoints();
+			resetStepFilters();
+		}
+	}
+
+	/**
+	 * Tests that step filters covered by other step filters are not set on
+	 * step requests, and that compiled filters match as the VM does
+	 */
+	public void testCompiledStepFilters() {
+		StepFilterMatcher matcher = new StepFilterMatcher(new String[] {
+				"java.lang.ClassLoader", "java.*", "java.util.*", "*Two", "StepFilterTwo", "StepFilterThree", "*Two" });
+		String[] filters = matcher.getExclusionFilters();
+		assertEquals("Wrong exclusion filters", "[java.*, *Two, StepFilterThree]", Arrays.asList(filters).toString());
+		assertTrue("Should match prefix", matcher.matches("java.lang.String"));
+		assertTrue("Should match suffix", matcher.matches("StepFilterTwo"));
+		assertTrue("Should match name", matcher.matches("StepFilterThree"));
+		assertFalse("Should not match longer name", matcher.matches("StepFilterThreeX"));
+		assertFalse("Should not match other package", matcher.matches("javax.swing.JButton"));
+	}
+
 	/**
 	 * Reset the step filtering preferences
 	 */
@@ -114,6 +114,7 @@ import org.eclipse.jdt.debug.core.IJavaWatchpoint;
 import org.eclipse.jdt.debug.core.JDIDebugModel;
 import org.eclipse.jdt.debug.eval.EvaluationManager;
 import org.eclipse.jdt.debug.eval.IAstEvaluationEngine;
+import org.eclipse.jdt.debug.eval.ICompiledExpression;
 import org.eclipse.jdt.debug.eval.IEvaluationListener;
 import org.eclipse.jdt.debug.eval.IEvaluationResult;
 import org.eclipse.jdt.debug.testplugin.DebugElementEventWaiter;
@@ -191,7 +192,7 @@ public abstract class AbstractDebugTest extends TestCase implements  IEvaluation
 			"EvalAnonymousClassVariableTests", "WorkingDirectoryTest",
 			"OneToTen", "OneToTenPrint", "FloodConsole", "ConditionalStepReturn", "VariableChanges", "DefPkgReturnType", "InstanceFilterObject", "org.eclipse.debug.tests.targets.CallStack", 
 			"org.eclipse.debug.tests.targets.ThreadStack", "org.eclipse.debug.tests.targets.HcrClass", "org.eclipse.debug.tests.targets.StepIntoSelectionClass", 
-			"WatchItemTests", "ArrayTests", "ByteArrayTests", "PerfLoop", "Console80Chars", "ConsoleStackTrace", "ConsoleVariableLineLength", "StackTraces", 
+			"WatchItemTests", "ArrayTests", "ByteArrayTests", "PerfLoop", "PerfThreadPoolLoop", "PerfDeepStack", "PerfManyThreads", "ConditionalThreads", "ThreadEventOrder", "LateLoading", "Console80Chars", "ConsoleStackTrace", "ConsoleVariableLineLength", "StackTraces", 
 			"ConsoleInput", "PrintConcatenation", "VariableDetails", "org.eclipse.debug.tests.targets.ArrayDetailTests", "ArrayDetailTestsDef", "ForceReturnTests", 
 			"ForceReturnTestsTwo", "LogicalStructures", "BreakpointListenerTest", "LaunchHistoryTest", "LaunchHistoryTest2", "RunnableAppletImpl", "java6.AllInstancesTests",
 			"bug329294", "bug401270", "org.eclipse.debug.tests.targets.HcrClass2", "org.eclipse.debug.tests.targets.HcrClass3", "org.eclipse.debug.tests.targets.HcrClass4",
@@ -2700,5 +2701,38 @@ public abstract class AbstractDebugTest extends TestCase implements  IEvaluation
 		}
 	}
 	
+	/**
+	 * Evaluates the given compiled expression in the top stack frame of the
+	 * given thread, as conditional breakpoints do
+	 * @param thread the suspended thread to run the evaluation on
+	 * @param engine the engine to evaluate with
+	 * @param expression the compiled expression
+	 * @return the result of the evaluation
+	 * @throws Exception
+	 */
+	protected IValue doEval(IJavaThread thread, IAstEvaluationEngine engine, ICompiledExpression expression) throws Exception {
+		class Listener implements IEvaluationListener {
+			IEvaluationResult fResult;
+			@Override
+			public void evaluationComplete(IEvaluationResult result) {
+				fResult= result;
+			}
+		}
+		Listener listener = new Listener();
+		IJavaStackFrame frame = (IJavaStackFrame) thread.getTopStackFrame();
+		assertNotNull("There should be a stackframe", frame);
+		engine.evaluateExpression(expression, frame, listener, DebugEvent.EVALUATION_IMPLICIT, false);
+		long timeout = System.currentTimeMillis() + DEFAULT_TIMEOUT;
+		while(listener.fResult == null && System.currentTimeMillis() < timeout) {
+			Thread.sleep(100);
+		}
+		IEvaluationResult result = listener.fResult;
+		assertNotNull("The evaluation should have result: ", result);
+		assertNull("The evaluation should not have exception : " + result.getException(), result.getException());
+		String firstError = result.hasErrors() ? result.getErrorMessages()[0] : "";
+		assertFalse("The evaluation should not have errors : " + firstError, result.hasErrors());
+		return result.getValue();
+	}
+	
 }
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2000, 2011 IBM Corporation and others.
+ *  Copyright (c) 2000, 2015 IBM Corporation and others.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -18,7 +18,10 @@ import org.eclipse.jdt.debug.tests.performance.PerfBreakpointTests;
 import org.eclipse.jdt.debug.tests.performance.PerfConditionalBreakpointsTests;
 import org.eclipse.jdt.debug.tests.performance.PerfConsoleTests;
 import org.eclipse.jdt.debug.tests.performance.PerfContextualLaunchMenu;
+import org.eclipse.jdt.debug.tests.performance.PerfLineTableTests;
+import org.eclipse.jdt.debug.tests.performance.PerfReplyDispatchTests;
 import org.eclipse.jdt.debug.tests.performance.PerfSteppingTests;
+import org.eclipse.jdt.debug.tests.performance.PerfValueCacheTests;
 import org.eclipse.jdt.debug.tests.performance.PerfVariableDetailTests;
 
 /**
@@ -47,5 +50,8 @@ public class PerformanceSuite extends DebugSuite {
         addTest(new TestSuite(PerfConsoleTests.class));
         addTest(new TestSuite(PerfVariableDetailTests.class));
         addTest(new TestSuite(BreakpointManagerPerfTests.class));
+        addTest(new TestSuite(PerfReplyDispatchTests.class));
+        addTest(new TestSuite(PerfLineTableTests.class));
+        addTest(new TestSuite(PerfValueCacheTests.class));
     }
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,6 +12,7 @@ package org.eclipse.jdt.debug.tests.breakpoints;
 
 import org.eclipse.debug.core.model.IBreakpoint;
 import org.eclipse.debug.core.model.IStackFrame;
+import org.eclipse.debug.core.model.IValue;
 import org.eclipse.debug.core.model.IVariable;
 import org.eclipse.jdt.debug.core.IJavaLineBreakpoint;
 import org.eclipse.jdt.debug.core.IJavaPrimitiveValue;
@@ -60,6 +61,77 @@ public class ConditionalBreakpointsTests extends AbstractDebugTest {
 		}		
 	}
 
+	/**
+	 * Tests a condition reading a static field, which is evaluated many times
+	 * with the field and its type resolved once
+	 * @throws Exception
+	 */
+	public void testStaticFieldConditionalBreakpoint() throws Exception {
+		String typeName = "HitCountLooper";
+		IJavaLineBreakpoint bp = createConditionalLineBreakpoint(16, typeName, "i < Integer.MAX_VALUE && i == 3", true);
+		
+		IJavaThread thread= null;
+		try {
+			thread= launchToLineBreakpoint(typeName, bp);
+
+			IJavaStackFrame frame = (IJavaStackFrame)thread.getTopStackFrame();
+			IVariable var = findVariable(frame, "i");
+			assertNotNull("Could not find variable 'i'", var);
+			
+			IJavaPrimitiveValue value = (IJavaPrimitiveValue)var.getValue();
+			assertNotNull("variable 'i' has no value", value);
+			int iValue = value.getIntValue();
+			assertTrue("value of 'i' should be '3', but was " + iValue, iValue == 3);
+			
+			bp.delete();
+		} finally {
+			terminateAndRemove(thread);
+			removeAllBreakpoints();
+		}		
+	}
+
+	/**
+	 * Tests a conditional breakpoint mixing primitive arithmetic of different
+	 * types with a method invocation, and that the operands keep their types
+	 * and values when evaluated at the breakpoint
+	 * @throws Exception
+	 */
+	public void testArithmeticConditionalBreakpoint() throws Exception {
+		String typeName = "HitCountLooper";
+		String condition = "i % 2 == 1 && -i * 2.5 < -5 && Integer.toString(i).length() == 1";
+		IJavaLineBreakpoint bp = createConditionalLineBreakpoint(16, typeName, condition, true);
+
+		IJavaThread thread= null;
+		try {
+			thread= launchToLineBreakpoint(typeName, bp);
+			// 1 is odd, but -2.5 is not less than -5
+			assertPrimitiveValue(doEval(thread, "i"), "I", 3);
+			assertPrimitiveValue(doEval(thread, "i % 2"), "I", 1);
+			assertPrimitiveValue(doEval(thread, "-i * 2.5"), "D", -7.5);
+			assertPrimitiveValue(doEval(thread, "i / 2f"), "F", 1.5);
+			assertPrimitiveValue(doEval(thread, "(long) i << 40"), "J", 3L << 40);
+			assertPrimitiveValue(doEval(thread, "(char) ('a' + i)"), "C", 'd');
+			IJavaPrimitiveValue result = (IJavaPrimitiveValue) doEval(thread, condition);
+			assertTrue("The condition should hold", result.getBooleanValue());
+
+			bp.delete();
+		} finally {
+			terminateAndRemove(thread);
+			removeAllBreakpoints();
+		}
+	}
+
+	/**
+	 * Asserts that the given value is a primitive value with the given
+	 * signature and value
+	 */
+	private void assertPrimitiveValue(IValue value, String signature, double expected) throws Exception {
+		assertTrue("Should be a primitive value", value instanceof IJavaPrimitiveValue);
+		IJavaPrimitiveValue primitive = (IJavaPrimitiveValue) value;
+		assertEquals("Wrong signature", signature, primitive.getSignature());
+		assertEquals("Wrong value", expected, primitive.getDoubleValue(), 0);
+	}
+
 	/**
 	 * Tests a static method call that has a conditional breakpoint on it
 	 * @throws Exception
@@ -215,6 +287,29 @@ public class ConditionalBreakpointsTests extends AbstractDebugTest {
 		}	
 	}
 	
+	/**
+	 * Tests that the conditions of more threads than there are event dispatch
+	 * slots are evaluated at the same time, when the condition of each thread
+	 * only completes once all threads have evaluated it. If the threads waited
+	 * for a slot, the conditions would time out and suspend the workers. The
+	 * program runs 32 threads, more than the slots on most machines.
+	 * 
+	 * @throws Exception
+	 */
+	public void testConditionsOfMoreThreadsThanDispatchSlots() throws Exception {
+		String typeName = "ConditionalThreads";
+		createConditionalLineBreakpoint(25, typeName, "!ConditionalThreads.arrive()", true);
+		IJavaLineBreakpoint last = createLineBreakpoint(58, typeName);
+		IJavaThread thread= null;
+		try {
+			thread= launchToLineBreakpoint(typeName, last);
+			assertEquals("Wrong thread suspended", "main", thread.getName());
+		} finally {
+			terminateAndRemove(thread);
+			removeAllBreakpoints();
+		}
+	}
+
 	/**
 	 * Tests that a conditional breakpoint with an expression that will hit a breakpoint
 	 * will complete the conditional expression evaluation (bug 269231).
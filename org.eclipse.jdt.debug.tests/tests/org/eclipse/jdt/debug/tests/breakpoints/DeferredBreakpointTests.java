@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2000, 2012 IBM Corporation and others.
+ *  Copyright (c) 2000, 2015 IBM Corporation and others.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -22,8 +22,11 @@ import org.eclipse.jdt.debug.core.IJavaDebugTarget;
 import org.eclipse.jdt.debug.core.IJavaLineBreakpoint;
 import org.eclipse.jdt.debug.core.IJavaThread;
 import org.eclipse.jdt.debug.tests.AbstractDebugTest;
+import org.eclipse.jdt.internal.debug.core.model.JDIDebugTarget;
 import org.eclipse.ui.IEditorPart;
 
+import com.sun.jdi.request.EventRequestManager;
+
 /**
  * Tests deferred breakpoints.
  */
@@ -164,4 +167,35 @@ public class DeferredBreakpointTests extends AbstractDebugTest {
 			getBreakpointManager().setEnabled(true);
 		}			    
 	}
+
+	/**
+	 * Tests that breakpoints in the same type that is not loaded yet share
+	 * their class prepare requests, and that the remaining breakpoint is
+	 * installed when the other one is removed.
+	 * @throws Exception
+	 */
+	public void testSharedClassPrepareRequests() throws Exception {
+		String typeName = "LateLoading";
+		ILineBreakpoint bp = createLineBreakpoint(18, typeName);
+		IJavaLineBreakpoint first = createLineBreakpoint(27, "", "LateLoading.java", "LateLoadingType");
+
+		IJavaThread thread = null;
+		try {
+			thread= launchToLineBreakpoint(typeName, bp);
+			EventRequestManager manager = ((JDIDebugTarget) thread.getDebugTarget()).getEventRequestManager();
+			int requests = manager.classPrepareRequests().size();
+			IJavaLineBreakpoint second = createLineBreakpoint(29, "", "LateLoading.java", "LateLoadingType");
+			assertEquals("the breakpoints should share their class prepare requests", requests, manager.classPrepareRequests().size());
+			first.delete();
+			assertEquals("the class prepare requests should be kept for the other breakpoint", requests, manager.classPrepareRequests().size());
+
+			thread = resumeToLineBreakpoint(thread, second);
+			second.delete();
+			// the requests for the type and for its inner types
+			assertEquals("the class prepare requests should be deleted with the last breakpoint", requests - 2, manager.classPrepareRequests().size());
+		} finally {
+			terminateAndRemove(thread);
+			removeAllBreakpoints();
+		}
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2000, 2012 IBM Corporation and others.
+ *  Copyright (c) 2000, 2015 IBM Corporation and others.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -19,6 +19,9 @@ import org.eclipse.jdt.debug.core.IJavaPatternBreakpoint;
 import org.eclipse.jdt.debug.core.IJavaStratumLineBreakpoint;
 import org.eclipse.jdt.debug.core.IJavaThread;
 import org.eclipse.jdt.debug.tests.AbstractDebugTest;
+import org.eclipse.jdt.internal.debug.core.model.JDIDebugTarget;
+
+import com.sun.jdi.ReferenceType;
 
 /**
  * Tests deferred pattern breakpoints.
@@ -229,4 +232,39 @@ public class PatternBreakpointTests extends AbstractDebugTest {
 			getBreakpointManager().setEnabled(true);
 		}		
 	}	
+
+	/**
+	 * Tests pattern breakpoints of a type that is loaded after the breakpoints
+	 * have been installed, and of a type that has been loaded since the target
+	 * was asked for the loaded types.
+	 * @throws Exception
+	 */
+	public void testPatternBreakpointOfLateLoadedType() throws Exception {
+		String typeName = "LateLoading";
+		ILineBreakpoint bp = createLineBreakpoint(18, typeName);
+		IJavaThread thread= null;
+		try {
+			thread= launchToLineBreakpoint(typeName, bp);
+			JDIDebugTarget target = (JDIDebugTarget) thread.getDebugTarget();
+			assertTrue("type should not be loaded yet", target.getLoadedClassesWithNamePrefix("LateLoadingT").isEmpty());
+
+			// installed while no type of the pattern is loaded
+			IJavaPatternBreakpoint first = createPatternBreakpoint(27, "LateLoading.java", "LateLoadingType");
+			thread = resumeToLineBreakpoint(thread, first);
+			List<ReferenceType> types = target.getLoadedClassesWithNamePrefix("LateLoadingT");
+			assertEquals("wrong number of types with the prefix", 1, types.size());
+			assertEquals("wrong type with the prefix", "LateLoadingType", types.get(0).name());
+			types = target.getLoadedClassesWithNameSuffix("LoadingType");
+			assertEquals("wrong number of types with the suffix", 1, types.size());
+			assertEquals("wrong type with the suffix", "LateLoadingType", types.get(0).name());
+
+			// installed once the type is loaded, there is no class prepare
+			// event of the type to come
+			IJavaPatternBreakpoint second = createPatternBreakpoint(29, "LateLoading.java", "LateLoadingType");
+			thread = resumeToLineBreakpoint(thread, second);
+		} finally {
+			terminateAndRemove(thread);
+			removeAllBreakpoints();
+		}
+	}
 }
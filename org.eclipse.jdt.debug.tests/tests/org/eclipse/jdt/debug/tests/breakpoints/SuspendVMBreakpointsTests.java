@@ -19,9 +19,13 @@ import org.eclipse.jdt.debug.core.IJavaDebugTarget;
 import org.eclipse.jdt.debug.core.IJavaExceptionBreakpoint;
 import org.eclipse.jdt.debug.core.IJavaLineBreakpoint;
 import org.eclipse.jdt.debug.core.IJavaMethodBreakpoint;
+import org.eclipse.jdt.debug.core.IJavaStackFrame;
 import org.eclipse.jdt.debug.core.IJavaThread;
 import org.eclipse.jdt.debug.core.IJavaWatchpoint;
 import org.eclipse.jdt.debug.tests.AbstractDebugTest;
+import org.eclipse.jdt.internal.debug.core.model.JDIThread;
+
+import com.sun.jdi.ThreadReference;
 
 /**
  * Test that a SUSPEND_VM breakpoint suspends all threads
@@ -58,6 +62,41 @@ public class SuspendVMBreakpointsTests extends AbstractDebugTest {
 		}		
 	}
 
+	/**
+	 * Tests that the names, frame counts and top frames of all threads served
+	 * from the suspend snapshot match those of the underlying threads
+	 * @throws Exception
+	 */
+	public void testSuspendVmSnapshot() throws Exception {
+		String typeName = "MultiThreadedLoop";
+		IJavaLineBreakpoint bp = createLineBreakpoint(40, typeName);
+		bp.setSuspendPolicy(IJavaBreakpoint.SUSPEND_VM);
+		
+		IJavaThread thread= null;
+		try {
+			thread= launchToLineBreakpoint(typeName, bp);
+			
+			IThread[] threads = thread.getDebugTarget().getThreads();
+			for (int i = 0; i < threads.length; i++) {
+				JDIThread jdiThread = (JDIThread) threads[i];
+				ThreadReference reference = jdiThread.getUnderlyingThread();
+				assertEquals("Wrong thread name", reference.name(), jdiThread.getName());
+				assertEquals("Wrong frame count", reference.frameCount(), jdiThread.getFrameCount());
+				IJavaStackFrame top = (IJavaStackFrame) jdiThread.getTopStackFrame();
+				if (reference.frameCount() > 0) {
+					assertEquals("Wrong top frame", reference.frame(0).location().lineNumber(), top.getLineNumber());
+				} else {
+					assertNull("Should be no top frame", top);
+				}
+			}
+			
+			bp.delete();
+		} finally {
+			terminateAndRemove(thread);
+			removeAllBreakpoints();
+		}		
+	}
+
 	/**
 	 * Tests that the VM is suspended when a specific exception breakpoint is hit
 	 * @throws Exception
@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.debug.tests.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.debug.core.model.ILineBreakpoint;
+import org.eclipse.jdt.debug.core.IJavaThread;
+import org.eclipse.jdt.debug.tests.AbstractDebugTest;
+import org.eclipse.jdt.internal.debug.core.EventDispatcher;
+import org.eclipse.jdt.internal.debug.core.IJDIEventListener;
+import org.eclipse.jdt.internal.debug.core.model.JDIDebugTarget;
+
+import com.sun.jdi.Location;
+import com.sun.jdi.ReferenceType;
+import com.sun.jdi.ThreadReference;
+import com.sun.jdi.VirtualMachine;
+import com.sun.jdi.event.Event;
+import com.sun.jdi.event.EventSet;
+import com.sun.jdi.event.LocatableEvent;
+import com.sun.jdi.request.BreakpointRequest;
+import com.sun.jdi.request.EventRequest;
+import com.sun.jdi.request.EventRequestManager;
+
+/**
+ * Tests the {@link EventDispatcher} of a debug target.
+ */
+public class EventDispatcherTests extends AbstractDebugTest {
+
+	/** Number of threads of the test program. */
+	private static final int THREADS = 16;
+	/** Number of times each thread passes the lines. */
+	private static final int ITERATIONS = 500;
+
+	/**
+	 * Records the requests of the events of each thread, in the order the
+	 * events are dispatched.
+	 */
+	class OrderRecorder implements IJDIEventListener {
+
+		private Map<ThreadReference, List<EventRequest>> fRequests = new HashMap<ThreadReference, List<EventRequest>>();
+		private int fCount = 0;
+
+		@Override
+		public synchronized boolean handleEvent(Event event, JDIDebugTarget target, boolean suspendVote, EventSet eventSet) {
+			ThreadReference thread = ((LocatableEvent) event).thread();
+			List<EventRequest> requests = fRequests.get(thread);
+			if (requests == null) {
+				requests = new ArrayList<EventRequest>();
+				fRequests.put(thread, requests);
+			}
+			requests.add(event.request());
+			fCount++;
+			notifyAll();
+			return true;
+		}
+
+		@Override
+		public void eventSetComplete(Event event, JDIDebugTarget target, boolean suspend, EventSet eventSet) {
+		}
+
+		/**
+		 * Waits until the given number of events has been recorded.
+		 *
+		 * @return whether the events have been recorded in time
+		 */
+		synchronized boolean waitForEvents(int count, long timeout) throws InterruptedException {
+			long end = System.currentTimeMillis() + timeout;
+			while (fCount < count) {
+				long wait = end - System.currentTimeMillis();
+				if (wait <= 0) {
+					return false;
+				}
+				wait(wait);
+			}
+			return true;
+		}
+
+		synchronized Map<ThreadReference, List<EventRequest>> getRequests() {
+			return fRequests;
+		}
+	}
+
+	/**
+	 * Constructor
+	 * @param name
+	 */
+	public EventDispatcherTests(String name) {
+		super(name);
+	}
+
+	/**
+	 * Creates a breakpoint request that does not suspend at the given line of
+	 * the given type.
+	 */
+	private BreakpointRequest createRequest(JDIDebugTarget target, ReferenceType type, int line, IJDIEventListener listener) throws Exception {
+		List<Location> locations = type.locationsOfLine(line);
+		assertEquals("Wrong number of locations of line " + line, 1, locations.size());
+		EventRequestManager manager = target.getEventRequestManager();
+		BreakpointRequest request = manager.createBreakpointRequest(locations.get(0));
+		request.setSuspendPolicy(EventRequest.SUSPEND_NONE);
+		target.addJDIEventListener(listener, request);
+		request.enable();
+		return request;
+	}
+
+	/**
+	 * Tests that the events of each thread are dispatched in the order they
+	 * occurred, while many threads produce events that do not suspend them.
+	 *
+	 * @throws Exception
+	 */
+	public void testEventOrderOfThreads() throws Exception {
+		String typeName = "ThreadEventOrder";
+		ILineBreakpoint bp = createLineBreakpoint(38, typeName);
+		IJavaThread thread = null;
+		try {
+			thread = launchToLineBreakpoint(typeName, bp);
+			bp.delete();
+			JDIDebugTarget target = (JDIDebugTarget) thread.getDebugTarget();
+			VirtualMachine vm = target.getVM();
+			List<ReferenceType> types = vm.classesByName("ThreadEventOrder$Worker");
+			assertEquals("The worker class should be loaded", 1, types.size());
+			OrderRecorder recorder = new OrderRecorder();
+			BreakpointRequest first = createRequest(target, types.get(0), 26, recorder);
+			BreakpointRequest second = createRequest(target, types.get(0), 27, recorder);
+			EventDispatcher dispatcher = target.getEventDispatcher();
+			long dispatched = dispatcher.getDispatchedEventSetCount();
+
+			thread.resume();
+			assertTrue("Not all events have been dispatched", recorder.waitForEvents(THREADS * ITERATIONS * 2, DEFAULT_TIMEOUT * 6));
+			target.removeJDIEventListener(recorder, first);
+			target.removeJDIEventListener(recorder, second);
+
+			Map<ThreadReference, List<EventRequest>> requests = recorder.getRequests();
+			assertEquals("Wrong number of threads with events", THREADS, requests.size());
+			for (List<EventRequest> events : requests.values()) {
+				assertEquals("Wrong number of events of a thread", ITERATIONS * 2, events.size());
+				for (int i = 0; i < events.size(); i++) {
+					assertSame("Event " + i + " of a thread is out of order", i % 2 == 0 ? first : second, events.get(i));
+				}
+			}
+			assertTrue("The event sets have not been counted", dispatcher.getDispatchedEventSetCount() - dispatched >= THREADS * ITERATIONS * 2);
+			assertTrue("Too many pending event sets", dispatcher.getMaxPendingEventSetCount() <= EventDispatcher.MAX_PENDING_EVENT_SETS);
+		} finally {
+			terminateAndRemove(thread);
+			removeAllBreakpoints();
+		}
+	}
+}
@@ -16,14 +16,19 @@ import org.eclipse.jdt.core.IBuffer;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.debug.core.IJavaDebugTarget;
 import org.eclipse.jdt.debug.core.IJavaHotCodeReplaceListener;
+import org.eclipse.jdt.debug.core.IJavaPrimitiveValue;
 import org.eclipse.jdt.debug.core.IJavaStackFrame;
 import org.eclipse.jdt.debug.core.IJavaThread;
 import org.eclipse.jdt.debug.core.IJavaVariable;
 import org.eclipse.jdt.debug.core.JDIDebugModel;
+import org.eclipse.jdt.debug.eval.IAstEvaluationEngine;
+import org.eclipse.jdt.debug.eval.ICompiledExpression;
 import org.eclipse.jdt.debug.testplugin.DebugElementEventWaiter;
 import org.eclipse.jdt.debug.testplugin.DebugEventWaiter;
 import org.eclipse.jdt.debug.tests.AbstractDebugTest;
 import org.eclipse.jdt.debug.tests.TestAgainException;
+import org.eclipse.jdt.internal.debug.core.model.JDIDebugTarget;
+import org.eclipse.jdt.internal.debug.eval.ast.engine.ASTEvaluationEngine;
 
 /**
  * Tests hot code replace
@@ -187,6 +192,82 @@ public class HcrTests extends AbstractDebugTest {
 		}		
 	}
 
+	/**
+	 * Tests that an expression compiled before a hot code replace, as the
+	 * condition of a breakpoint is, evaluates correctly after it, once the
+	 * types and fields it resolved are looked up again.
+	 * 
+	 * @throws Exception
+	 */
+	public void testCompiledExpressionAfterHcr() throws Exception {
+		String typeName = "org.eclipse.debug.tests.targets.HcrClass";
+		createLineBreakpoint(39, typeName);
+		
+		IJavaThread thread= null;
+		IAstEvaluationEngine engine = null;
+		try {
+			thread= launchToBreakpoint(typeName);
+			assertNotNull("Breakpoint not hit within timeout period", thread);
+			
+			JDIDebugTarget target = (JDIDebugTarget)thread.getDebugTarget();
+			if (target.supportsHotCodeReplace()) {
+				engine = new ASTEvaluationEngine(getProjectContext(), target);
+				ICompiledExpression expression = engine.getCompiledExpression("String.valueOf(x).equals(\"Two\") && x == instVar", (IJavaStackFrame)thread.getTopStackFrame());
+				assertFalse("The expression should compile", expression.hasErrors());
+				IJavaPrimitiveValue value = (IJavaPrimitiveValue) doEval(thread, engine, expression);
+				assertFalse("'x' should not be 'Two' before the HCR", value.getBooleanValue());
+				int hotCodeReplaceCount = target.getHotCodeReplaceCount();
+				removeAllBreakpoints();
+				// now do the HCR
+				ICompilationUnit cu = getCompilationUnit(get14Project(), "src", "org.eclipse.debug.tests.targets", "HcrClass.java");
+				cu = cu.getPrimary();
+				if (!cu.isWorkingCopy()) {
+					cu = cu.getWorkingCopy(null);
+				}
+				assertTrue("HcrClass.java does not exist", cu.exists());
+				IBuffer buffer = cu.getBuffer();
+				String contents = buffer.getContents();
+				String originalContent = buffer.getContents();
+				int index = contents.indexOf("\"One\"");
+				assertTrue("Could not find code to replace", index > 0);
+				String newCode = contents.substring(0, index) + "\"Two\"" + contents.substring(index + 5);
+				buffer.setContents(newCode);
+				
+				// save contents
+				DebugElementEventWaiter waiter = new DebugElementEventWaiter(DebugEvent.SUSPEND, thread);
+				cu.commitWorkingCopy(true, null);
+				waitForBuild();
+				waiter.waitForEvent();
+	
+				// should have dropped to frame 'one'
+				IJavaStackFrame frame = (IJavaStackFrame)thread.getTopStackFrame();
+				assertNotNull("No top stack frame", frame);
+				if (!"one".equals(frame.getMethodName())) {
+					// terminate & restore, and try again - @see bug 287084
+					thread.terminate();
+					buffer.setContents(originalContent);
+					cu.commitWorkingCopy(true, null);
+					throw new TestAgainException("Retest - the correct method name was not present after HCR");
+				}
+				
+				// resume to breakpoint and evaluate the same expression
+				createLineBreakpoint(39, typeName);
+				thread = resume(thread);
+				assertTrue("The hot code replace should have been counted", target.getHotCodeReplaceCount() > hotCodeReplaceCount);
+				value = (IJavaPrimitiveValue) doEval(thread, engine, expression);
+				assertTrue("'x' should be 'Two' after the HCR", value.getBooleanValue());
+			} else {
+				System.err.println("Warning: HCR test skipped since target VM does not support HCR.");
+			}
+		} finally {
+			if (engine != null) {
+				engine.dispose();
+			}
+			terminateAndRemove(thread);
+			removeAllBreakpoints();
+		}
+	}
+
 	/**
 	 * Tests a general (plug-in) listener.
 	 * 
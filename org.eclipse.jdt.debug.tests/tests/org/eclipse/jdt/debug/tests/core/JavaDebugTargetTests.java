@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007 IBM Corporation and others.
+ * Copyright (c) 2007, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,9 +10,23 @@
  *******************************************************************************/
 package org.eclipse.jdt.debug.tests.core;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.debug.core.model.IThread;
+import org.eclipse.jdi.internal.ThreadReferenceImpl;
+import org.eclipse.jdi.internal.ThreadStates;
+import org.eclipse.jdt.debug.core.IJavaBreakpoint;
 import org.eclipse.jdt.debug.core.IJavaDebugTarget;
+import org.eclipse.jdt.debug.core.IJavaLineBreakpoint;
 import org.eclipse.jdt.debug.core.IJavaThread;
 import org.eclipse.jdt.debug.tests.AbstractDebugTest;
+import org.eclipse.jdt.internal.debug.core.model.JDIDebugTarget;
+import org.eclipse.jdt.internal.debug.core.model.JDIThread;
+
+import com.sun.jdi.ObjectCollectedException;
+import com.sun.jdi.ThreadReference;
+import com.sun.jdi.VirtualMachine;
 
 /**
  * Tests IJavaDebugTarget API
@@ -60,5 +74,97 @@ public class JavaDebugTargetTests extends AbstractDebugTest {
 			removeAllBreakpoints();
 		}
 	}	
+
+	public void testSystemAndDaemonThreads() throws Exception {
+		String typeName = "Breakpoints";
+		createLineBreakpoint(52, typeName);
+		
+		IJavaThread thread= null;
+		try {
+			thread= launchToBreakpoint(typeName, false);
+			assertNotNull("Breakpoint not hit within timeout period", thread);
+			assertFalse("Main thread should not be a system thread", thread.isSystemThread());
+			assertFalse("Main thread should not be a daemon thread", thread.isDaemon());
+			boolean systemDaemon = false;
+			IThread[] threads = thread.getDebugTarget().getThreads();
+			for (int i = 0; i < threads.length; i++) {
+				IJavaThread other = (IJavaThread) threads[i];
+				if ("Finalizer".equals(other.getName())) {
+					systemDaemon = other.isSystemThread() && other.isDaemon();
+				}
+			}
+			assertTrue("Finalizer thread should be a system daemon thread", systemDaemon);
+		} finally {
+			terminateAndRemove(thread);
+			removeAllBreakpoints();
+		}
+	}
+	
+	/**
+	 * Tests that the states of threads requested up front, as the target does
+	 * for the threads existing when it is initialized, are read for a thread
+	 * that died after it was listed, and that the states are retrieved from
+	 * the threads once the requested states are disposed.
+	 * 
+	 * @throws Exception
+	 */
+	public void testInitialThreadStatesOfDeadThread() throws Exception {
+		String typeName = "MultiThreadedLoop";
+		IJavaLineBreakpoint bp = createLineBreakpoint(34, typeName);
+		bp.setSuspendPolicy(IJavaBreakpoint.SUSPEND_THREAD);
+		
+		IJavaThread thread= null;
+		try {
+			thread= launchToLineBreakpoint(typeName, bp);
+			VirtualMachine vm = ((JDIDebugTarget) thread.getDebugTarget()).getVM();
+			ThreadReference main = ((JDIThread) thread).getUnderlyingThread();
+			ThreadReference second = null;
+			List<ThreadReferenceImpl> threads = new ArrayList<ThreadReferenceImpl>();
+			for (ThreadReference reference : vm.allThreads()) {
+				threads.add((ThreadReferenceImpl) reference);
+				if ("2ndThread".equals(reference.name())) {
+					second = reference;
+				}
+			}
+			assertNotNull("2ndThread should be running", second);
+			// the second thread ends after 20 loops of 100ms
+			long end = System.currentTimeMillis() + 10000;
+			while (!isDead(second) && System.currentTimeMillis() < end) {
+				Thread.sleep(100);
+			}
+			assertTrue("2ndThread should have ended", isDead(second));
+			
+			ThreadStates states = new ThreadStates(threads);
+			assertTrue("Missing state of 2ndThread", states.contains(second));
+			try {
+				assertEquals("2ndThread should be a zombie", ThreadReference.THREAD_STATUS_ZOMBIE, states.status(second));
+				assertFalse("2ndThread should not be suspended", states.isSuspended(second));
+			} catch (ObjectCollectedException e) {
+				// the thread has been collected already
+			}
+			assertEquals("Wrong thread group", main.threadGroup(), states.threadGroup(main));
+			assertTrue("Main thread should be suspended", states.isSuspended(main));
+			
+			states.dispose();
+			assertTrue("Main thread should be suspended after dispose", states.isSuspended(main));
+			assertEquals("Wrong status after dispose", main.status(), states.status(main));
+			
+			bp.delete();
+		} finally {
+			terminateAndRemove(thread);
+			removeAllBreakpoints();
+		}
+	}
+	
+	/**
+	 * Returns whether the given thread has ended.
+	 */
+	private boolean isDead(ThreadReference thread) {
+		try {
+			return thread.status() == ThreadReference.THREAD_STATUS_ZOMBIE;
+		} catch (ObjectCollectedException e) {
+			return true;
+		}
+	}
 	
 }
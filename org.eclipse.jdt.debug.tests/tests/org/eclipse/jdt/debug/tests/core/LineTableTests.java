@@ -0,0 +1,186 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.debug.tests.core;
+
+import java.util.List;
+
+import org.eclipse.jdi.internal.jdwp.JdwpCommandPacket;
+import org.eclipse.jdt.debug.testplugin.JdwpTestConnection;
+
+import com.sun.jdi.AbsentInformationException;
+import com.sun.jdi.Location;
+import com.sun.jdi.Method;
+import com.sun.jdi.ReferenceType;
+import com.sun.jdi.VirtualMachine;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the lookups in the line tables of methods, which are answered by an
+ * in memory connection instead of a VM.
+ */
+public class LineTableTests extends TestCase {
+
+	private JdwpTestConnection fConnection;
+	private VirtualMachine fVM;
+	private ReferenceType fType;
+
+	/**
+	 * Constructor
+	 * @param name
+	 */
+	public LineTableTests(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		fConnection = new JdwpTestConnection();
+		long type = fConnection.addClass("LLineTables;");
+		fConnection.addMethod(type, "empty", 10, new long[0], new int[0]);
+		// lines 10 and 11 have two ranges of code each
+		fConnection.addMethod(type, "duplicates", 20, new long[] { 0, 4, 8, 12, 16, 20 }, new int[] { 10, 10, 11, 10, 12, 13 });
+		fConnection.addMethod(type, "unsorted", 20, new long[] { 8, 0, 4 }, new int[] { 22, 20, 21 });
+		fConnection.addMethod(type, "absent", 10, null, null);
+		fVM = fConnection.createVM();
+		fType = fVM.allClasses().get(0);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		fVM.dispose();
+	}
+
+	private Method getMethod(String name) {
+		for (Method method : fType.methods()) {
+			if (method.name().equals(name)) {
+				return method;
+			}
+		}
+		fail("Missing method " + name);
+		return null;
+	}
+
+	private void assertCodeIndexes(String message, long[] expected, List<Location> locations) {
+		assertEquals(message + ": wrong number of locations", expected.length, locations.size());
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals(message + ": wrong code index", expected[i], locations.get(i).codeIndex());
+		}
+	}
+
+	private int lineOf(Method method, long codeIndex) {
+		return method.locationOfCodeIndex(codeIndex).lineNumber();
+	}
+
+	/**
+	 * Tests that an empty line table is reported as absent information,
+	 * without asking the VM again.
+	 *
+	 * @throws Exception
+	 */
+	public void testEmptyLineTable() throws Exception {
+		Method method = getMethod("empty");
+		for (int i = 0; i < 2; i++) {
+			try {
+				method.allLineLocations();
+				fail("The line locations of a method without lines should be absent");
+			} catch (AbsentInformationException e) {
+			}
+			try {
+				method.locationsOfLine(10);
+				fail("The locations of a line of a method without lines should be absent");
+			} catch (AbsentInformationException e) {
+			}
+			assertEquals("A code index of a method without lines should have no line", -1, lineOf(method, 0));
+		}
+		assertEquals("The line table should have been requested once", 1, fConnection.getCommandCount(JdwpCommandPacket.M_LINE_TABLE));
+	}
+
+	/**
+	 * Tests that a method without line information has no line locations.
+	 *
+	 * @throws Exception
+	 */
+	public void testAbsentLineTable() throws Exception {
+		Method method = getMethod("absent");
+		try {
+			method.allLineLocations();
+			fail("The line locations of a method without line information should be absent");
+		} catch (AbsentInformationException e) {
+		}
+		assertEquals("A code index of a method without line information should have no line", -1, lineOf(method, 0));
+	}
+
+	/**
+	 * Tests that each range of code of a line that occurs more than once in
+	 * the line table is a location of the line.
+	 *
+	 * @throws Exception
+	 */
+	public void testDuplicateLines() throws Exception {
+		Method method = getMethod("duplicates");
+		assertCodeIndexes("Line 10", new long[] { 0, 12 }, method.locationsOfLine(10));
+		assertCodeIndexes("Line 11", new long[] { 8 }, method.locationsOfLine(11));
+		assertCodeIndexes("Line 12", new long[] { 16 }, method.locationsOfLine(12));
+		assertCodeIndexes("Line 9", new long[0], method.locationsOfLine(9));
+		assertCodeIndexes("All lines", new long[] { 0, 4, 8, 12, 16, 20 }, method.allLineLocations());
+		assertEquals("Wrong line of code index 0", 10, lineOf(method, 0));
+		assertEquals("Wrong line of code index 5", 10, lineOf(method, 5));
+		assertEquals("Wrong line of code index 8", 11, lineOf(method, 8));
+		assertEquals("Wrong line of code index 11", 11, lineOf(method, 11));
+		assertEquals("Wrong line of code index 12", 10, lineOf(method, 12));
+	}
+
+	/**
+	 * Tests the line of the last code index of a method, and of code indexes
+	 * after it.
+	 *
+	 * @throws Exception
+	 */
+	public void testLastCodeIndex() throws Exception {
+		Method method = getMethod("duplicates");
+		assertCodeIndexes("Line 13", new long[] { 20 }, method.locationsOfLine(13));
+		assertEquals("Wrong line of code index 19", 12, lineOf(method, 19));
+		assertEquals("Wrong line of the last code index", 13, lineOf(method, 20));
+		assertEquals("A code index after the method should have no line", -1, lineOf(method, 21));
+
+		method = getMethod("unsorted");
+		assertEquals("Wrong line of the last code index", 22, lineOf(method, 20));
+		assertCodeIndexes("Line 22", new long[] { 8 }, method.locationsOfLine(22));
+	}
+
+	/**
+	 * Tests that a line table that is not sorted by code index is looked up
+	 * like a sorted one.
+	 *
+	 * @throws Exception
+	 */
+	public void testUnsortedLineTable() throws Exception {
+		Method method = getMethod("unsorted");
+		assertCodeIndexes("All lines", new long[] { 0, 4, 8 }, method.allLineLocations());
+		assertCodeIndexes("Line 20", new long[] { 0 }, method.locationsOfLine(20));
+		assertCodeIndexes("Line 21", new long[] { 4 }, method.locationsOfLine(21));
+		assertEquals("Wrong line of code index 3", 20, lineOf(method, 3));
+		assertEquals("Wrong line of code index 7", 21, lineOf(method, 7));
+	}
+
+	/**
+	 * Tests the locations of a line in a type, which only has locations in the
+	 * methods that span the line.
+	 *
+	 * @throws Exception
+	 */
+	public void testTypeLocationsOfLine() throws Exception {
+		assertCodeIndexes("Line 10", new long[] { 0, 12 }, fType.locationsOfLine(10));
+		assertCodeIndexes("Line 21", new long[] { 4 }, fType.locationsOfLine(21));
+		assertCodeIndexes("Line 30", new long[0], fType.locationsOfLine(30));
+	}
+}
@@ -0,0 +1,419 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.debug.tests.core;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import org.eclipse.jdi.internal.connect.PacketSendManager;
+import org.eclipse.jdi.internal.connect.SocketTransportService;
+import org.eclipse.jdi.internal.jdwp.JdwpCommandPacket;
+
+import com.sun.jdi.connect.spi.ClosedConnectionException;
+import com.sun.jdi.connect.spi.Connection;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the {@link PacketSendManager} with many concurrent senders. Packets
+ * are written to an in memory connection that records them, unless stated
+ * otherwise. The command of each packet is the number of its sender.
+ */
+public class PacketSendManagerTests extends TestCase {
+
+	/**
+	 * Connection that records the written packets.
+	 */
+	class RecordingConnection extends Connection {
+
+		private List<byte[]> fPackets = new ArrayList<byte[]>();
+		private Set<Integer> fIds = new HashSet<Integer>();
+		private volatile boolean fOpen = true;
+
+		@Override
+		public byte[] readPacket() throws IOException {
+			throw new ClosedConnectionException();
+		}
+
+		@Override
+		public synchronized void writePacket(byte[] pkt) throws IOException {
+			if (!fOpen) {
+				throw new ClosedConnectionException();
+			}
+			fPackets.add(pkt);
+			fIds.add(new Integer(getPacketId(pkt)));
+			notifyAll();
+		}
+
+		/**
+		 * Waits until the given number of packets has been written.
+		 *
+		 * @return the written packets, or <code>null</code> if they have not
+		 *         been written in time
+		 */
+		synchronized List<byte[]> waitForPackets(int count, long timeout) throws InterruptedException {
+			long end = System.currentTimeMillis() + timeout;
+			while (fPackets.size() < count) {
+				long wait = end - System.currentTimeMillis();
+				if (wait <= 0) {
+					return null;
+				}
+				wait(wait);
+			}
+			return new ArrayList<byte[]>(fPackets);
+		}
+
+		/**
+		 * Waits until the packet with the given id has been written.
+		 *
+		 * @return whether the packet has been written in time
+		 */
+		synchronized boolean waitForPacket(int id, long timeout) throws InterruptedException {
+			long end = System.currentTimeMillis() + timeout;
+			while (!fIds.contains(new Integer(id))) {
+				long wait = end - System.currentTimeMillis();
+				if (wait <= 0) {
+					return false;
+				}
+				wait(wait);
+			}
+			return true;
+		}
+
+		synchronized int getPacketCount() {
+			return fPackets.size();
+		}
+
+		@Override
+		public void close() throws IOException {
+			fOpen = false;
+		}
+
+		@Override
+		public boolean isOpen() {
+			return fOpen;
+		}
+	}
+
+	private PacketSendManager fManager;
+	private Thread fSendThread;
+
+	/**
+	 * Constructor
+	 * @param name
+	 */
+	public PacketSendManagerTests(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		if (fManager != null) {
+			fManager.disconnectVM();
+			fSendThread.join(5000);
+			assertFalse("The send thread should have stopped", fSendThread.isAlive());
+		}
+	}
+
+	private void start(Connection connection) {
+		fManager = new PacketSendManager(connection);
+		fSendThread = new Thread(fManager, "Packet send thread");
+		fSendThread.setDaemon(true);
+		fSendThread.start();
+	}
+
+	private static int getPacketId(byte[] packet) {
+		return ((packet[4] & 0xFF) << 24) + ((packet[5] & 0xFF) << 16) + ((packet[6] & 0xFF) << 8) + (packet[7] & 0xFF);
+	}
+
+	private static int getPacketSender(byte[] packet) {
+		return packet[10] & 0xFF;
+	}
+
+	/**
+	 * Runs the given senders concurrently, rethrowing the first failure.
+	 */
+	private void runSenders(Thread[] senders, final Throwable[] failure) throws Exception {
+		for (int i = 0; i < senders.length; i++) {
+			senders[i].start();
+		}
+		for (int i = 0; i < senders.length; i++) {
+			senders[i].join();
+		}
+		synchronized (failure) {
+			if (failure[0] != null) {
+				throw new Exception(failure[0]);
+			}
+		}
+	}
+
+	/**
+	 * Sends the given number of packets from each of the given number of
+	 * senders, all at once.
+	 *
+	 * @return the ids of the packets of each sender, in the order they were
+	 *         sent
+	 */
+	private int[][] send(int senders, final int packets, final int dataLength) throws Exception {
+		final int[][] ids = new int[senders][packets];
+		final CountDownLatch start = new CountDownLatch(1);
+		final Throwable[] failure = new Throwable[1];
+		Thread[] threads = new Thread[senders];
+		for (int i = 0; i < senders; i++) {
+			final int sender = i;
+			threads[i] = new Thread("Sender " + i) {
+				@Override
+				public void run() {
+					try {
+						start.await();
+						for (int j = 0; j < packets; j++) {
+							JdwpCommandPacket packet = new JdwpCommandPacket(sender);
+							if (dataLength > 0) {
+								packet.setData(new byte[dataLength]);
+							}
+							ids[sender][j] = packet.getId();
+							fManager.sendPacket(packet);
+						}
+					} catch (Throwable t) {
+						synchronized (failure) {
+							failure[0] = t;
+						}
+					}
+				}
+			};
+			threads[i].start();
+		}
+		start.countDown();
+		for (int i = 0; i < senders; i++) {
+			threads[i].join();
+		}
+		synchronized (failure) {
+			if (failure[0] != null) {
+				throw new Exception(failure[0]);
+			}
+		}
+		return ids;
+	}
+
+	/**
+	 * Asserts that the packets of each sender have been written in the order
+	 * they were sent.
+	 */
+	private void assertOrder(int[][] ids, int[] senders, int[] written) {
+		int[] next = new int[ids.length];
+		for (int i = 0; i < written.length; i++) {
+			int sender = senders[i];
+			assertTrue("Too many packets of sender " + sender, next[sender] < ids[sender].length);
+			assertEquals("Wrong packet of sender " + sender, ids[sender][next[sender]++], written[i]);
+		}
+		for (int i = 0; i < ids.length; i++) {
+			assertEquals("Missing packets of sender " + i, ids[i].length, next[i]);
+		}
+	}
+
+	private void assertOrder(int[][] ids, List<byte[]> packets) {
+		int[] senders = new int[packets.size()];
+		int[] written = new int[packets.size()];
+		for (int i = 0; i < senders.length; i++) {
+			senders[i] = getPacketSender(packets.get(i));
+			written[i] = getPacketId(packets.get(i));
+		}
+		assertOrder(ids, senders, written);
+	}
+
+	/**
+	 * Tests that the packets of one sender are written in the order they were
+	 * sent.
+	 *
+	 * @throws Exception
+	 */
+	public void testOrder() throws Exception {
+		RecordingConnection connection = new RecordingConnection();
+		start(connection);
+		int[][] ids = send(1, 10000, 0);
+		List<byte[]> packets = connection.waitForPackets(10000, 10000);
+		assertNotNull("The packets have not been written", packets);
+		assertOrder(ids, packets);
+	}
+
+	/**
+	 * Tests that no packets are lost or reordered when many senders add
+	 * packets concurrently.
+	 *
+	 * @throws Exception
+	 */
+	public void testOrderOfConcurrentSenders() throws Exception {
+		RecordingConnection connection = new RecordingConnection();
+		start(connection);
+		int[][] ids = send(16, 2000, 0);
+		List<byte[]> packets = connection.waitForPackets(16 * 2000, 10000);
+		assertNotNull("The packets have not been written", packets);
+		assertOrder(ids, packets);
+		Thread.sleep(100);
+		assertEquals("Packets have been written twice", 16 * 2000, connection.getPacketCount());
+	}
+
+	/**
+	 * Tests that the send thread is woken up for each packet when senders
+	 * wait for their packet to be written before sending the next one, like
+	 * requests wait for their replies. The send thread runs out of packets
+	 * after almost every packet, so a lost wake up leaves a packet unsent.
+	 *
+	 * @throws Exception
+	 */
+	public void testWakeUp() throws Exception {
+		final RecordingConnection connection = new RecordingConnection();
+		start(connection);
+		final Throwable[] failure = new Throwable[1];
+		Thread[] senders = new Thread[16];
+		for (int i = 0; i < senders.length; i++) {
+			final int sender = i;
+			senders[i] = new Thread("Sender " + i) {
+				@Override
+				public void run() {
+					try {
+						for (int j = 0; j < 1000; j++) {
+							JdwpCommandPacket packet = new JdwpCommandPacket(sender);
+							fManager.sendPacket(packet);
+							assertTrue("A packet has not been written", connection.waitForPacket(packet.getId(), 10000));
+						}
+					} catch (Throwable t) {
+						synchronized (failure) {
+							failure[0] = t;
+						}
+					}
+				}
+			};
+		}
+		runSenders(senders, failure);
+		assertNotNull("A packet has not been written", connection.waitForPackets(16 * 1000, 10000));
+	}
+
+	/**
+	 * Tests that the batch window set by the system property delays writing
+	 * until the packets sent during the window can be written with the first.
+	 *
+	 * @throws Exception
+	 */
+	public void testBatchWindow() throws Exception {
+		String old = System.getProperty(PacketSendManager.BATCH_WINDOW_PROPERTY);
+		System.setProperty(PacketSendManager.BATCH_WINDOW_PROPERTY, "500000");
+		RecordingConnection connection = new RecordingConnection();
+		try {
+			start(connection);
+		} finally {
+			if (old == null) {
+				System.getProperties().remove(PacketSendManager.BATCH_WINDOW_PROPERTY);
+			} else {
+				System.setProperty(PacketSendManager.BATCH_WINDOW_PROPERTY, old);
+			}
+		}
+		long start = System.nanoTime();
+		JdwpCommandPacket first = new JdwpCommandPacket(0);
+		JdwpCommandPacket second = new JdwpCommandPacket(0);
+		fManager.sendPacket(first);
+		Thread.sleep(100);
+		assertEquals("The first packet should wait for the window to end", 0, connection.getPacketCount());
+		fManager.sendPacket(second);
+		List<byte[]> packets = connection.waitForPackets(2, 10000);
+		long elapsed = (System.nanoTime() - start) / 1000000;
+		assertNotNull("The packets have not been written", packets);
+		assertTrue("The packets have been written before the window ended: " + elapsed + "ms", elapsed >= 450);
+		assertEquals("Wrong first packet", first.getId(), getPacketId(packets.get(0)));
+		assertEquals("Wrong second packet", second.getId(), getPacketId(packets.get(1)));
+
+		// without a window, packets are written immediately
+		fManager.setBatchWindow(0);
+		start = System.nanoTime();
+		fManager.sendPacket(new JdwpCommandPacket(0));
+		assertNotNull("The packet has not been written", connection.waitForPackets(3, 10000));
+		elapsed = (System.nanoTime() - start) / 1000000;
+		assertTrue("The packet should have been written immediately: " + elapsed + "ms", elapsed < 450);
+	}
+
+	/**
+	 * Tests that no packets are lost or reordered when many senders add
+	 * packets concurrently and the packets are written in batches, through a
+	 * socket channel connection. Some packets are bigger than a batch.
+	 *
+	 * @throws Exception
+	 */
+	public void testBatchedWrites() throws Exception {
+		final ServerSocket serverSocket = new ServerSocket(0);
+		final Socket[] vmSocket = new Socket[1];
+		final Throwable[] failure = new Throwable[1];
+		final int senders = 8;
+		final int packets = 500;
+		final int[] readSenders = new int[senders * packets * 2 + 1];
+		final int[] readIds = new int[readSenders.length];
+		Thread vm = new Thread("Test VM") {
+			@Override
+			public void run() {
+				try {
+					vmSocket[0] = serverSocket.accept();
+					DataInputStream in = new DataInputStream(vmSocket[0].getInputStream());
+					byte[] handshake = new byte[14];
+					in.readFully(handshake);
+					vmSocket[0].getOutputStream().write(handshake);
+					byte[] header = new byte[11];
+					for (int i = 0; i < readSenders.length; i++) {
+						in.readFully(header);
+						int length = ((header[0] & 0xFF) << 24) + ((header[1] & 0xFF) << 16) + ((header[2] & 0xFF) << 8) + (header[3] & 0xFF);
+						in.readFully(new byte[length - 11]);
+						readSenders[i] = getPacketSender(header);
+						readIds[i] = getPacketId(header);
+					}
+				} catch (Throwable t) {
+					synchronized (failure) {
+						failure[0] = t;
+					}
+				}
+			}
+		};
+		vm.start();
+		try {
+			start(new SocketTransportService(true).attach("localhost", serverSocket.getLocalPort(), 5000, 5000));
+			int[][] small = send(senders, packets, 20);
+			int[][] big = send(senders, packets, 200);
+			// one packet bigger than a batch, from a sender of its own
+			JdwpCommandPacket huge = new JdwpCommandPacket(senders);
+			huge.setData(new byte[100 * 1024]);
+			fManager.sendPacket(huge);
+			vm.join(10000);
+			assertFalse("The packets have not been read", vm.isAlive());
+			synchronized (failure) {
+				if (failure[0] != null) {
+					throw new Exception(failure[0]);
+				}
+			}
+			int[][] ids = new int[senders + 1][];
+			for (int i = 0; i < senders; i++) {
+				ids[i] = new int[packets * 2];
+				System.arraycopy(small[i], 0, ids[i], 0, packets);
+				System.arraycopy(big[i], 0, ids[i], packets, packets);
+			}
+			ids[senders] = new int[] { huge.getId() };
+			assertOrder(ids, readSenders, readIds);
+		} finally {
+			if (vmSocket[0] != null) {
+				vmSocket[0].close();
+			}
+			serverSocket.close();
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2000, 2012 IBM Corporation and others.
+ *  Copyright (c) 2000, 2015 IBM Corporation and others.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -11,8 +11,10 @@
 package org.eclipse.jdt.debug.tests.core;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.debug.core.DebugEvent;
@@ -29,11 +31,15 @@ import org.eclipse.jdt.debug.core.IJavaThread;
 import org.eclipse.jdt.debug.testplugin.DebugElementKindEventDetailWaiter;
 import org.eclipse.jdt.debug.testplugin.DebugEventWaiter;
 import org.eclipse.jdt.debug.tests.AbstractDebugTest;
+import org.eclipse.jdt.internal.debug.core.model.JDIDebugTarget;
 import org.eclipse.jdt.launching.IJavaLaunchConfigurationConstants;
 import org.eclipse.jdt.launching.IVMConnector;
 import org.eclipse.jdt.launching.JavaRuntime;
 
+import com.sun.jdi.ReferenceType;
+import com.sun.jdi.VirtualMachine;
 import com.sun.jdi.connect.Connector;
+import com.sun.jdi.request.BreakpointRequest;
 
 /**
  * Tests attaching to a remote java application
@@ -52,35 +58,8 @@ public class RemoteJavaApplicationTests extends AbstractDebugTest {
 		String typeName = "Breakpoints";
 		createLineBreakpoint(52, typeName);
 		
-		// create launch config to launch VM in debug mode waiting for attach
-		ILaunchConfigurationType type = getLaunchManager().getLaunchConfigurationType(IJavaLaunchConfigurationConstants.ID_JAVA_APPLICATION);
-		ILaunchConfigurationWorkingCopy config = type.newInstance(null, "Launch Remote VM");
-		config.setAttribute(IJavaLaunchConfigurationConstants.ATTR_MAIN_TYPE_NAME, "Breakpoints");
-		config.setAttribute(IJavaLaunchConfigurationConstants.ATTR_PROJECT_NAME, get14Project().getElementName());
-		config.setAttribute(IJavaLaunchConfigurationConstants.ATTR_VM_ARGUMENTS, "-Djava.compiler=NONE -Xdebug -Xnoagent -Xrunjdwp:transport=dt_socket,address=8000,suspend=y,server=y");
-		// use 'java' instead of 'javaw' to launch tests (javaw is problematic on JDK1.4.2)
-		Map<String, String> map = new HashMap<String, String>(1);
-		map.put(IJavaLaunchConfigurationConstants.ATTR_JAVA_COMMAND, "java");
-		config.setAttribute(IJavaLaunchConfigurationConstants.ATTR_VM_INSTALL_TYPE_SPECIFIC_ATTRS_MAP, map);		
-		ILaunchConfiguration launchRemoteVMConfig = config.doSave();
-		
-		// create a launch config to do the attach
-		type = getLaunchManager().getLaunchConfigurationType(IJavaLaunchConfigurationConstants.ID_REMOTE_JAVA_APPLICATION);
-		config = type.newInstance(null, "Remote Breakpoints");
-		config.setAttribute(IJavaLaunchConfigurationConstants.ATTR_PROJECT_NAME, get14Project().getElementName());
-		config.setAttribute(IJavaLaunchConfigurationConstants.ATTR_ALLOW_TERMINATE, true);
-		config.setAttribute(IJavaLaunchConfigurationConstants.ATTR_VM_CONNECTOR, IJavaLaunchConfigurationConstants.ID_SOCKET_ATTACH_VM_CONNECTOR);
-		IVMConnector connector = JavaRuntime.getVMConnector(IJavaLaunchConfigurationConstants.ID_SOCKET_ATTACH_VM_CONNECTOR);
-		Map<String, ? extends Connector.Argument> def = connector.getDefaultArguments();
-		Map<String, String> argMap = new HashMap<String, String>(def.size());
-		Iterator<String> iter = connector.getArgumentOrder().iterator();
-		while (iter.hasNext()) {
-			String key = iter.next();
-			Connector.Argument arg = def.get(key);
-			argMap.put(key, arg.toString()); 
-		}
-		config.setAttribute(IJavaLaunchConfigurationConstants.ATTR_CONNECT_MAP, argMap);		
-		ILaunchConfiguration attachConfig = config.doSave();		
+		ILaunchConfiguration launchRemoteVMConfig = createRemoteVMConfiguration(typeName, true);
+		ILaunchConfiguration attachConfig = createAttachConfiguration("Remote Breakpoints");
 			
 		// launch remote VM
 		ILaunch launch = launchRemoteVMConfig.launch(ILaunchManager.RUN_MODE, null);
@@ -88,24 +67,7 @@ public class RemoteJavaApplicationTests extends AbstractDebugTest {
 		// attach	
 		IJavaThread thread= null;
 		try {
-			CoreException exception = null;
-			int attempts = 0;
-			boolean connected = false;
-			while ((attempts < 2) && !connected) {
-				try {
-					attempts++;
-					exception = null;
-					thread= launchToBreakpoint(attachConfig);
-					connected = true;
-				} catch (CoreException e) {
-					// try again, in case the VM is not yet ready
-					exception = e;
-					Thread.sleep(2000);
-				}
-			}
-			if (exception != null) {
-				throw exception;
-			}
+			thread = attachToBreakpoint(attachConfig);
 			assertNotNull("Breakpoint not hit within timeout period", thread);
 			IBreakpoint hit = getBreakpoint(thread);
 			assertNotNull("suspended, but not by breakpoint", hit);
@@ -122,6 +84,128 @@ public class RemoteJavaApplicationTests extends AbstractDebugTest {
 		}		
 	}
 	
+	/**
+	 * Tests attaching to a VM that keeps loading copies of a class. The
+	 * breakpoint in the class must be installed in every copy, including the
+	 * ones loaded while the breakpoints are installed.
+	 * @throws Exception
+	 */
+	public void testAttachWhileLoadingClasses() throws Exception {
+		String typeName = "ClassLoadingLoop";
+		createLineBreakpoint(28, "ClassLoadingLoop.Loaded");
+		createLineBreakpoint(87, typeName);
+		
+		ILaunchConfiguration launchRemoteVMConfig = createRemoteVMConfiguration(typeName, false);
+		ILaunchConfiguration attachConfig = createAttachConfiguration("Remote ClassLoadingLoop");
+		
+		// launch remote VM, which starts loading classes right away
+		ILaunch launch = launchRemoteVMConfig.launch(ILaunchManager.RUN_MODE, null);
+		
+		// attach while classes are loaded, and stop once loading is done
+		IJavaThread thread= null;
+		try {
+			thread = attachToBreakpoint(attachConfig);
+			assertNotNull("Breakpoint not hit within timeout period", thread);
+			ILineBreakpoint hit = (ILineBreakpoint) getBreakpoint(thread);
+			assertNotNull("suspended, but not by breakpoint", hit);
+			assertEquals("suspended at the wrong line", 87, hit.getLineNumber());
+			
+			VirtualMachine vm = ((JDIDebugTarget) thread.getDebugTarget()).getVM();
+			Set<ReferenceType> installed = new HashSet<ReferenceType>();
+			for (BreakpointRequest request : vm.eventRequestManager().breakpointRequests()) {
+				installed.add(request.location().declaringType());
+			}
+			int copies = 0;
+			for (ReferenceType type : vm.allClasses()) {
+				if (type.name().equals("ClassLoadingLoop$Loaded")) {
+					copies++;
+					assertTrue("breakpoint not installed in copy " + copies, installed.contains(type));
+				}
+			}
+			assertTrue("no copy of the class was loaded", copies > 0);
+		} finally {
+			terminateAndRemove(thread);
+			removeAllBreakpoints();
+			DebugPlugin.getDefault().getLaunchManager().removeLaunch(launch);
+		}
+	}
+	
+	/**
+	 * Creates a launch configuration that launches a VM in debug mode waiting
+	 * for a debugger to attach on port 8000.
+	 * @param typeName the main type to run
+	 * @param suspend whether the VM waits for the debugger before it runs
+	 * @return the launch configuration
+	 * @throws CoreException
+	 */
+	private ILaunchConfiguration createRemoteVMConfiguration(String typeName, boolean suspend) throws CoreException {
+		ILaunchConfigurationType type = getLaunchManager().getLaunchConfigurationType(IJavaLaunchConfigurationConstants.ID_JAVA_APPLICATION);
+		ILaunchConfigurationWorkingCopy config = type.newInstance(null, "Launch Remote VM");
+		config.setAttribute(IJavaLaunchConfigurationConstants.ATTR_MAIN_TYPE_NAME, typeName);
+		config.setAttribute(IJavaLaunchConfigurationConstants.ATTR_PROJECT_NAME, get14Project().getElementName());
+		config.setAttribute(IJavaLaunchConfigurationConstants.ATTR_VM_ARGUMENTS, "-Djava.compiler=NONE -Xdebug -Xnoagent -Xrunjdwp:transport=dt_socket,address=8000,suspend=" + (suspend ? "y" : "n") + ",server=y");
+		// use 'java' instead of 'javaw' to launch tests (javaw is problematic on JDK1.4.2)
+		Map<String, String> map = new HashMap<String, String>(1);
+		map.put(IJavaLaunchConfigurationConstants.ATTR_JAVA_COMMAND, "java");
+		config.setAttribute(IJavaLaunchConfigurationConstants.ATTR_VM_INSTALL_TYPE_SPECIFIC_ATTRS_MAP, map);		
+		return config.doSave();
+	}
+	
+	/**
+	 * Creates a launch configuration that attaches to a VM on port 8000.
+	 * @param name the name of the launch configuration
+	 * @return the launch configuration
+	 * @throws CoreException
+	 */
+	private ILaunchConfiguration createAttachConfiguration(String name) throws CoreException {
+		ILaunchConfigurationType type = getLaunchManager().getLaunchConfigurationType(IJavaLaunchConfigurationConstants.ID_REMOTE_JAVA_APPLICATION);
+		ILaunchConfigurationWorkingCopy config = type.newInstance(null, name);
+		config.setAttribute(IJavaLaunchConfigurationConstants.ATTR_PROJECT_NAME, get14Project().getElementName());
+		config.setAttribute(IJavaLaunchConfigurationConstants.ATTR_ALLOW_TERMINATE, true);
+		config.setAttribute(IJavaLaunchConfigurationConstants.ATTR_VM_CONNECTOR, IJavaLaunchConfigurationConstants.ID_SOCKET_ATTACH_VM_CONNECTOR);
+		IVMConnector connector = JavaRuntime.getVMConnector(IJavaLaunchConfigurationConstants.ID_SOCKET_ATTACH_VM_CONNECTOR);
+		Map<String, ? extends Connector.Argument> def = connector.getDefaultArguments();
+		Map<String, String> argMap = new HashMap<String, String>(def.size());
+		Iterator<String> iter = connector.getArgumentOrder().iterator();
+		while (iter.hasNext()) {
+			String key = iter.next();
+			Connector.Argument arg = def.get(key);
+			argMap.put(key, arg.toString()); 
+		}
+		config.setAttribute(IJavaLaunchConfigurationConstants.ATTR_CONNECT_MAP, argMap);		
+		return config.doSave();
+	}
+	
+	/**
+	 * Attaches with the given launch configuration and waits for a breakpoint
+	 * to be hit. Attaching is tried twice, in case the VM is not ready yet.
+	 * @param attachConfig the attach launch configuration
+	 * @return the suspended thread
+	 * @throws Exception
+	 */
+	private IJavaThread attachToBreakpoint(ILaunchConfiguration attachConfig) throws Exception {
+		IJavaThread thread = null;
+		CoreException exception = null;
+		int attempts = 0;
+		boolean connected = false;
+		while ((attempts < 2) && !connected) {
+			try {
+				attempts++;
+				exception = null;
+				thread= launchToBreakpoint(attachConfig);
+				connected = true;
+			} catch (CoreException e) {
+				// try again, in case the VM is not yet ready
+				exception = e;
+				Thread.sleep(2000);
+			}
+		}
+		if (exception != null) {
+			throw exception;
+		}
+		return thread;
+	}
+	
 	/**
 	 * Tests a Standard (Socket Listen) VM connection.
 	 * @throws Exception
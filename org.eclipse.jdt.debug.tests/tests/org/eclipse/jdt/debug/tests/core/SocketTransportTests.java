@@ -0,0 +1,303 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.debug.tests.core;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Arrays;
+
+import org.eclipse.jdi.internal.connect.SocketChannelConnection;
+import org.eclipse.jdi.internal.connect.SocketConnection;
+import org.eclipse.jdi.internal.connect.SocketTransportService;
+
+import com.sun.jdi.connect.spi.ClosedConnectionException;
+import com.sun.jdi.connect.spi.Connection;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the connections of the {@link SocketTransportService} over a loopback
+ * socket, with the test playing the part of the VM.
+ */
+public class SocketTransportTests extends TestCase {
+
+	private static final byte[] HANDSHAKE = "JDWP-Handshake".getBytes();
+
+	private ServerSocket fServerSocket;
+	private Socket fVMSocket;
+	private Connection fConnection;
+
+	/**
+	 * Constructor
+	 * @param name
+	 */
+	public SocketTransportTests(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		if (fConnection != null) {
+			fConnection.close();
+		}
+		if (fVMSocket != null) {
+			fVMSocket.close();
+		}
+		if (fServerSocket != null) {
+			fServerSocket.close();
+		}
+	}
+
+	/**
+	 * Attaches the given transport service to a socket the test answers the
+	 * handshake on.
+	 */
+	private void attach(SocketTransportService transport) throws Exception {
+		fServerSocket = new ServerSocket(0);
+		final Exception[] failure = new Exception[1];
+		Thread vm = new Thread("Test VM") {
+			@Override
+			public void run() {
+				try {
+					fVMSocket = fServerSocket.accept();
+					fVMSocket.setTcpNoDelay(true);
+					byte[] handshake = new byte[HANDSHAKE.length];
+					new DataInputStream(fVMSocket.getInputStream()).readFully(handshake);
+					fVMSocket.getOutputStream().write(HANDSHAKE);
+				} catch (Exception e) {
+					failure[0] = e;
+				}
+			}
+		};
+		vm.start();
+		fConnection = transport.attach("localhost", fServerSocket.getLocalPort(), 5000, 5000);
+		vm.join(5000);
+		if (failure[0] != null) {
+			throw failure[0];
+		}
+		assertTrue("The connection should be open", fConnection.isOpen());
+	}
+
+	/**
+	 * Returns a command packet with the given id and number of data bytes.
+	 */
+	private static byte[] packet(int id, int dataLength) {
+		int length = 11 + dataLength;
+		byte[] packet = new byte[length];
+		packet[0] = (byte) (length >>> 24);
+		packet[1] = (byte) (length >>> 16);
+		packet[2] = (byte) (length >>> 8);
+		packet[3] = (byte) length;
+		packet[4] = (byte) (id >>> 24);
+		packet[5] = (byte) (id >>> 16);
+		packet[6] = (byte) (id >>> 8);
+		packet[7] = (byte) id;
+		packet[9] = 1;
+		packet[10] = 1;
+		for (int i = 11; i < length; i++) {
+			packet[i] = (byte) (i * 31 + id);
+		}
+		return packet;
+	}
+
+	/**
+	 * Sends packets of all sizes in both directions, up to several times the
+	 * size of the buffers of the channel connection.
+	 */
+	private void assertExchange() throws Exception {
+		int[] sizes = { 0, 1, 100, 64 * 1024 - 11, 64 * 1024, 64 * 1024 + 1, 1024 * 1024 };
+		InputStream in = fVMSocket.getInputStream();
+		for (int i = 0; i < sizes.length; i++) {
+			final byte[] expected = packet(i, sizes[i]);
+			Thread vm = new Thread("Test VM") {
+				@Override
+				public void run() {
+					try {
+						fVMSocket.getOutputStream().write(expected);
+					} catch (IOException e) {
+					}
+				}
+			};
+			vm.start();
+			assertTrue("Wrong packet of size " + sizes[i] + " read", Arrays.equals(expected, fConnection.readPacket()));
+			vm.join();
+
+			// the reading side of the VM must keep up with large packets
+			final Exception[] failure = new Exception[1];
+			Thread writer = new Thread("Writer") {
+				@Override
+				public void run() {
+					try {
+						fConnection.writePacket(expected);
+					} catch (Exception e) {
+						failure[0] = e;
+					}
+				}
+			};
+			writer.start();
+			byte[] written = new byte[expected.length];
+			new DataInputStream(in).readFully(written);
+			writer.join();
+			if (failure[0] != null) {
+				throw failure[0];
+			}
+			assertTrue("Wrong packet of size " + sizes[i] + " written", Arrays.equals(expected, written));
+		}
+	}
+
+	/**
+	 * Tests that connections use the socket channel by default.
+	 *
+	 * @throws Exception
+	 */
+	public void testChannelConnection() throws Exception {
+		attach(new SocketTransportService(true));
+		assertTrue("The connection should use the channel", fConnection instanceof SocketChannelConnection);
+		assertExchange();
+	}
+
+	/**
+	 * Tests the socket stream connection the transport falls back to.
+	 *
+	 * @throws Exception
+	 */
+	public void testStreamConnection() throws Exception {
+		attach(new SocketTransportService(false));
+		assertTrue("The connection should use the streams", fConnection instanceof SocketConnection);
+		assertExchange();
+	}
+
+	/**
+	 * Tests that the system property selects the socket stream connection.
+	 *
+	 * @throws Exception
+	 */
+	public void testStreamTransportProperty() throws Exception {
+		String old = System.getProperty(SocketTransportService.STREAM_TRANSPORT_PROPERTY);
+		System.setProperty(SocketTransportService.STREAM_TRANSPORT_PROPERTY, Boolean.TRUE.toString());
+		try {
+			attach(new SocketTransportService());
+		} finally {
+			if (old == null) {
+				System.getProperties().remove(SocketTransportService.STREAM_TRANSPORT_PROPERTY);
+			} else {
+				System.setProperty(SocketTransportService.STREAM_TRANSPORT_PROPERTY, old);
+			}
+		}
+		assertTrue("The connection should use the streams", fConnection instanceof SocketConnection);
+	}
+
+	/**
+	 * Tests reading packets that arrive a few bytes at a time, and several
+	 * packets that arrive at once.
+	 *
+	 * @throws Exception
+	 */
+	public void testSplitPackets() throws Exception {
+		attach(new SocketTransportService(true));
+		byte[][] packets = new byte[20][];
+		byte[] all = new byte[0];
+		for (int i = 0; i < packets.length; i++) {
+			packets[i] = packet(i, i * 7);
+			byte[] joined = Arrays.copyOf(all, all.length + packets[i].length);
+			System.arraycopy(packets[i], 0, joined, all.length, packets[i].length);
+			all = joined;
+		}
+		final byte[] bytes = all;
+		Thread vm = new Thread("Test VM") {
+			@Override
+			public void run() {
+				try {
+					OutputStream out = fVMSocket.getOutputStream();
+					// the first half a few bytes at a time, the rest at once
+					int offset = 0;
+					for (int count = 1; offset + count < bytes.length / 2; count = count % 13 + 1) {
+						out.write(bytes, offset, count);
+						out.flush();
+						offset += count;
+						Thread.sleep(1);
+					}
+					out.write(bytes, offset, bytes.length - offset);
+				} catch (Exception e) {
+				}
+			}
+		};
+		vm.start();
+		for (int i = 0; i < packets.length; i++) {
+			assertTrue("Wrong packet " + i, Arrays.equals(packets[i], fConnection.readPacket()));
+		}
+		vm.join();
+	}
+
+	/**
+	 * Tests reading from a connection that the VM closes, and from one that
+	 * has been closed.
+	 *
+	 * @throws Exception
+	 */
+	public void testClose() throws Exception {
+		attach(new SocketTransportService(true));
+		byte[] expected = packet(1, 10);
+		// half a packet before the VM goes away
+		fVMSocket.getOutputStream().write(expected, 0, 15);
+		fVMSocket.close();
+		try {
+			fConnection.readPacket();
+			fail("Reading from a connection closed by the VM should fail");
+		} catch (ClosedConnectionException e) {
+		}
+		fConnection.close();
+		assertFalse("The connection should be closed", fConnection.isOpen());
+		try {
+			fConnection.readPacket();
+			fail("Reading from a closed connection should fail");
+		} catch (ClosedConnectionException e) {
+		}
+		try {
+			fConnection.writePacket(expected);
+			fail("Writing to a closed connection should fail");
+		} catch (ClosedConnectionException e) {
+		}
+	}
+
+	/**
+	 * Tests that interrupting a thread blocked in reading closes the channel
+	 * connection.
+	 *
+	 * @throws Exception
+	 */
+	public void testInterrupt() throws Exception {
+		attach(new SocketTransportService(true));
+		final Exception[] failure = new Exception[1];
+		Thread reader = new Thread("Reader") {
+			@Override
+			public void run() {
+				try {
+					fConnection.readPacket();
+				} catch (Exception e) {
+					failure[0] = e;
+				}
+			}
+		};
+		reader.start();
+		Thread.sleep(200);
+		reader.interrupt();
+		reader.join(5000);
+		assertFalse("The reader should have stopped", reader.isAlive());
+		assertTrue("The reader should have failed with a closed connection", failure[0] instanceof ClosedConnectionException);
+		assertFalse("The connection should be closed", fConnection.isOpen());
+		assertEquals("The VM should see the connection closed", -1, fVMSocket.getInputStream().read());
+	}
+}
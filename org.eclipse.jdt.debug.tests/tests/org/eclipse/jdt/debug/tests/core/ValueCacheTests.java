@@ -0,0 +1,232 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.debug.tests.core;
+
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jdi.internal.ValueCache;
+import org.eclipse.jdt.debug.tests.ui.Accessor;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the segmented table of the {@link ValueCache}: replacing, removing,
+ * growing and dropping values that have been garbage collected.
+ */
+public class ValueCacheTests extends TestCase {
+
+	/**
+	 * A cached value.
+	 */
+	static class Value {
+		long fKey;
+
+		Value(long key) {
+			fKey = key;
+		}
+	}
+
+	/**
+	 * A cached value of another type.
+	 */
+	static class OtherValue extends Value {
+		OtherValue(long key) {
+			super(key);
+		}
+	}
+
+	private ValueCache fCache;
+
+	/**
+	 * Constructor
+	 * @param name
+	 */
+	public ValueCacheTests(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		fCache = new ValueCache();
+	}
+
+	/**
+	 * Returns the keys used by the tests, spread over all bits of a
+	 * <code>long</code>.
+	 */
+	private static long key(int i) {
+		return i * 0x9E3779B97F4A7C15L;
+	}
+
+	private Object[] getSegments() {
+		return (Object[]) new Accessor(fCache, ValueCache.class).get("fSegments");
+	}
+
+	/**
+	 * Returns the number of entries in the segments of the cache.
+	 */
+	private int getEntryCount() {
+		int count = 0;
+		for (Object segment : getSegments()) {
+			count += new Accessor(segment, segment.getClass()).getInt("fCount");
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the number of buckets of the segments of the cache.
+	 */
+	private int getBucketCount() {
+		int count = 0;
+		for (Object segment : getSegments()) {
+			count += ((Object[]) new Accessor(segment, segment.getClass()).get("fTable")).length;
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the entries of the cache, which are the soft references to the
+	 * values.
+	 */
+	private List<Reference<?>> getEntries() {
+		List<Reference<?>> entries = new ArrayList<Reference<?>>();
+		for (Object segment : getSegments()) {
+			for (Object bucket : (Object[]) new Accessor(segment, segment.getClass()).get("fTable")) {
+				for (Object entry = bucket; entry != null; entry = new Accessor(entry, entry.getClass()).get("fNext")) {
+					entries.add((Reference<?>) entry);
+				}
+			}
+		}
+		return entries;
+	}
+
+	/**
+	 * Tests that values are found after the segments have grown.
+	 *
+	 * @throws Exception
+	 */
+	public void testResize() throws Exception {
+		int count = 5000;
+		Value[] values = new Value[count];
+		for (int i = 0; i < count; i++) {
+			values[i] = new Value(key(i));
+			fCache.put(key(i), values[i]);
+		}
+		assertTrue("The segments should have grown", getBucketCount() >= count);
+		assertEquals("Wrong number of entries", count, getEntryCount());
+		for (int i = 0; i < count; i++) {
+			assertSame("Wrong value of key " + i, values[i], fCache.get(key(i)));
+		}
+		assertEquals("Wrong number of values", count, fCache.values().size());
+		assertEquals("Wrong number of values of the type", count, fCache.valuesWithType(Value.class).size());
+	}
+
+	/**
+	 * Tests that a value put under a key that is already used replaces the
+	 * value of the key, also in the index by type.
+	 *
+	 * @throws Exception
+	 */
+	public void testReplace() throws Exception {
+		Value first = new Value(1);
+		Value second = new OtherValue(1);
+		fCache.put(1, first);
+		fCache.put(1, second);
+		assertSame("Wrong value", second, fCache.get(1));
+		assertEquals("Wrong number of entries", 1, getEntryCount());
+		assertEquals("The replaced value should not be of its type any more", 0, fCache.valuesWithType(Value.class).size());
+		assertEquals("Wrong number of values of the replacing type", 1, fCache.valuesWithType(OtherValue.class).size());
+	}
+
+	/**
+	 * Tests removing values, from anywhere in the buckets of the segments.
+	 *
+	 * @throws Exception
+	 */
+	public void testRemove() throws Exception {
+		int count = 2000;
+		Value[] values = new Value[count];
+		for (int i = 0; i < count; i++) {
+			values[i] = i % 4 == 0 ? new OtherValue(key(i)) : new Value(key(i));
+			fCache.put(key(i), values[i]);
+		}
+		for (int i = 1; i < count; i += 2) {
+			assertSame("Wrong removed value", values[i], fCache.remove(key(i)));
+			assertNull("Removed value should not be removed again", fCache.remove(key(i)));
+		}
+		assertEquals("Wrong number of entries", count / 2, getEntryCount());
+		for (int i = 0; i < count; i++) {
+			if (i % 2 == 0) {
+				assertSame("Wrong value of key " + i, values[i], fCache.get(key(i)));
+			} else {
+				assertNull("Removed value of key " + i + " should not be found", fCache.get(key(i)));
+			}
+		}
+		assertEquals("Wrong number of values", count / 2, fCache.values().size());
+		assertEquals("Wrong number of values of the type", count / 4, fCache.valuesWithType(Value.class).size());
+		assertEquals("Wrong number of values of the other type", count / 4, fCache.valuesWithType(OtherValue.class).size());
+		for (int i = 0; i < count; i += 2) {
+			assertSame("Wrong removed value", values[i], fCache.remove(key(i)));
+		}
+		assertEquals("Wrong number of entries", 0, getEntryCount());
+		assertTrue("No values should be left", fCache.values().isEmpty());
+		assertTrue("No values of the type should be left", fCache.valuesWithType(Value.class).isEmpty());
+		assertTrue("No values of the other type should be left", fCache.valuesWithType(OtherValue.class).isEmpty());
+	}
+
+	/**
+	 * Tests that values whose soft references have been cleared are not found,
+	 * and that their entries are removed on the next put. The garbage
+	 * collector is simulated by clearing and enqueuing the references.
+	 *
+	 * @throws Exception
+	 */
+	public void testClearedReferences() throws Exception {
+		int count = 100;
+		Value[] values = new Value[count];
+		for (int i = 0; i < count; i++) {
+			values[i] = new Value(key(i));
+			fCache.put(key(i), values[i]);
+		}
+		List<Long> collected = new ArrayList<Long>();
+		List<Reference<?>> entries = getEntries();
+		for (int i = 0; i < entries.size(); i += 3) {
+			Reference<?> entry = entries.get(i);
+			collected.add(new Long(((Value) entry.get()).fKey));
+			entry.clear();
+			assertTrue("The reference should have been enqueued", entry.enqueue());
+		}
+		int live = count - collected.size();
+		for (Long key : collected) {
+			assertNull("A collected value should not be found", fCache.get(key.longValue()));
+		}
+		assertEquals("Wrong number of values", live, fCache.values().size());
+		assertEquals("Wrong number of values of the type", live, fCache.valuesWithType(Value.class).size());
+		assertEquals("Collected entries should only be removed on put or remove", count, getEntryCount());
+
+		Value value = new Value(-1);
+		fCache.put(-1, value);
+		assertEquals("Collected entries should have been removed", live + 1, getEntryCount());
+		assertEquals("Wrong number of values of the type", live + 1, fCache.valuesWithType(Value.class).size());
+		for (Long key : collected) {
+			assertNull("A collected value should not be removed", fCache.remove(key.longValue()));
+		}
+
+		// the keys of collected values can be used again
+		Long key = collected.get(0);
+		Value again = new Value(key.longValue());
+		fCache.put(key.longValue(), again);
+		assertSame("Wrong value", again, fCache.get(key.longValue()));
+		assertEquals("Wrong number of entries", live + 2, getEntryCount());
+	}
+}
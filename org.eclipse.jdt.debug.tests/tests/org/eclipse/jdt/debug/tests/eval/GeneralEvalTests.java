@@ -11,8 +11,14 @@
 package org.eclipse.jdt.debug.tests.eval;
 
 import org.eclipse.debug.core.model.IValue;
+import org.eclipse.jdt.debug.core.IJavaDebugTarget;
+import org.eclipse.jdt.debug.core.IJavaPrimitiveValue;
+import org.eclipse.jdt.debug.core.IJavaStackFrame;
 import org.eclipse.jdt.debug.core.IJavaThread;
+import org.eclipse.jdt.debug.eval.IAstEvaluationEngine;
+import org.eclipse.jdt.debug.eval.ICompiledExpression;
 import org.eclipse.jdt.debug.tests.AbstractDebugTest;
+import org.eclipse.jdt.internal.debug.eval.ast.engine.ASTEvaluationEngine;
 
 /**
  * Tests that evaluations in non-generified source
@@ -465,4 +471,67 @@ public class GeneralEvalTests extends AbstractDebugTest {
 			terminateAndRemove(thread);
 		}
 	}
+	
+	/**
+	 * Tests that snippets of different lengths evaluated in the same frame,
+	 * which share the generated source of their host type, evaluate correctly.
+	 * @throws Exception
+	 */
+	public void testSnippetsInSameFrame() throws Exception {
+		IJavaThread thread = null;
+		try {
+			String typename = "bug401270";
+			createLineBreakpoint(13, typename);
+			thread = launchToBreakpoint(typename);
+			assertNotNull("the program did not suspend", thread);
+			IValue value = doEval(thread, "!(1<=2==true||false)");
+			assertFalse("The result of !(1<=2==true||false) should be false", Boolean.parseBoolean(value.getValueString()));
+			value = doEval(thread, "true");
+			assertTrue("The result of true should be true", Boolean.parseBoolean(value.getValueString()));
+			value = doEval(thread, "(true != false && false)");
+			assertFalse("The result of (true != false && false) should be false", Boolean.parseBoolean(value.getValueString()));
+		}
+		finally {
+			removeAllBreakpoints();
+			terminateAndRemove(thread);
+		}
+	}
+	
+	/**
+	 * Tests that an expression compiled once, as the condition of a
+	 * breakpoint is, evaluates correctly for receivers of different types,
+	 * which the types and fields it resolved are cached for.
+	 * @throws Exception
+	 */
+	public void testCompiledExpressionForReceivingTypes() throws Exception {
+		IJavaThread thread = null;
+		IAstEvaluationEngine engine = null;
+		try {
+			String typename = "EvalTypeHierarchyTests";
+			// A.testA() is called on an A, a B and a C
+			createLineBreakpoint(32, typename);
+			thread = launchToBreakpoint(typename);
+			assertNotNull("the program did not suspend", thread);
+			engine = new ASTEvaluationEngine(getProjectContext(), (IJavaDebugTarget) thread.getDebugTarget());
+			ICompiledExpression expression = engine.getCompiledExpression("m1() + (this instanceof EvalTypeHierarchyTests.C ? 1000 : 0)", (IJavaStackFrame) thread.getTopStackFrame());
+			assertFalse("The expression should compile", expression.hasErrors());
+			IJavaPrimitiveValue value = (IJavaPrimitiveValue) doEval(thread, engine, expression);
+			assertEquals("Wrong result for an A", 1, value.getIntValue());
+			thread = resume(thread);
+			assertNotNull("the program did not suspend for a B", thread);
+			value = (IJavaPrimitiveValue) doEval(thread, engine, expression);
+			assertEquals("Wrong result for a B", 11, value.getIntValue());
+			thread = resume(thread);
+			assertNotNull("the program did not suspend for a C", thread);
+			value = (IJavaPrimitiveValue) doEval(thread, engine, expression);
+			assertEquals("Wrong result for a C", 1111, value.getIntValue());
+		}
+		finally {
+			if (engine != null) {
+				engine.dispose();
+			}
+			removeAllBreakpoints();
+			terminateAndRemove(thread);
+		}
+	}
 }
@@ -90,6 +90,43 @@ public class PerfBreakpointTests extends AbstractDebugPerformanceTest implements
         }
     }
 
+    /**
+     * Tests the performance of installing the line breakpoints that exist when
+     * a program is launched. The measured time runs from the launch to the
+     * first breakpoint hit, which happens once all breakpoints are installed.
+     * @throws Exception
+     */
+    public void testLineBreakpointInstallationOnLaunch() throws Exception {
+        tagAsSummary("Install Line Breakpoints On Launch", Dimension.ELAPSED_PROCESS);
+        String typeName = "LargeSourceFile";
+        IResource resource = getBreakpointResource(typeName);
+
+        int[] lineNumbers = new int[300];
+        for (int i = 0; i < lineNumbers.length; i++) {
+            lineNumbers[i] = 15 + i;
+        }
+        try {
+            createLineBreakpoints(resource, typeName, lineNumbers);
+
+            for (int i = 0; i < 3; i++) {
+                IJavaThread thread = launchToBreakpoint(typeName, false);
+                terminateAndRemove(thread);
+            }
+
+            for (int i = 0; i < 20; i++) {
+                System.gc();
+                startMeasuring();
+                IJavaThread thread = launchToBreakpoint(typeName, false);
+                stopMeasuring();
+                terminateAndRemove(thread);
+            }
+            commitMeasurements();
+            assertPerformance();
+        } finally {
+            removeAllBreakpoints();
+        }
+    }
+
     /**
      * Tests the performance of breakpoint removal
      * @throws Exception
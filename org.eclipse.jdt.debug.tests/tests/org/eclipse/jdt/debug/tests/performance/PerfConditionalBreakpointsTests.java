@@ -94,6 +94,35 @@ public class PerfConditionalBreakpointsTests extends AbstractDebugPerformanceTes
         }
     }
 
+    /**
+     * Tests the performance of a conditional breakpoint that is hit by 200
+     * threads running the same code. The condition is never true, so the
+     * measured time is dominated by compiling and evaluating it.
+     * @throws Exception
+     */
+    public void testConditionalBreakpointManyThreads() throws Exception {
+        // just in case
+        removeAllBreakpoints();
+
+        String typeName = "PerfThreadPoolLoop";
+        createConditionalLineBreakpoint(24, typeName, "i < 0", true);
+        ILaunchConfiguration config = getLaunchConfiguration(typeName);
+        try {
+            for (int i = 0; i < fWarmUpRuns; i++) {
+                launchAndTerminate(config, 5 * 60 * 1000, false);
+            }
+            for (int i = 0; i < fMeasuredRuns; i++) {
+                startMeasuring();
+                launchAndTerminate(config, 5 * 60 * 1000, false);
+                stopMeasuring();
+            }
+            commitMeasurements();
+            assertPerformance();
+        } finally {
+            removeAllBreakpoints();
+        }
+    }
+
     private synchronized void breakpointHit(IJavaThread thread) {
         try {
             if (!fConditionalBreakpointSet) {
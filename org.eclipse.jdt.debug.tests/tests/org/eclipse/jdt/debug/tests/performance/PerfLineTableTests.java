@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.debug.tests.performance;
+
+import java.util.List;
+
+import org.eclipse.jdt.debug.testplugin.JdwpTestConnection;
+import org.eclipse.jdt.debug.tests.AbstractDebugPerformanceTest;
+import org.eclipse.test.performance.Dimension;
+
+import com.sun.jdi.Location;
+import com.sun.jdi.Method;
+import com.sun.jdi.ReferenceType;
+import com.sun.jdi.VirtualMachine;
+
+/**
+ * Measures line table lookups in a class with {@link #METHODS} methods. No VM
+ * is involved: the class and its line tables are answered by an in memory
+ * connection.
+ *
+ * @since 3.10
+ */
+public class PerfLineTableTests extends AbstractDebugPerformanceTest {
+
+	/** Number of methods of the class. */
+	private static final int METHODS = 10000;
+	/** Number of lines of each method. */
+	private static final int LINES_PER_METHOD = 20;
+	/** Number of lines looked up per measurement. */
+	private static final int LOOKUPS = 1000;
+
+	/**
+	 * Constructor
+	 */
+	public PerfLineTableTests() {
+		super("Line Table Performance");
+	}
+
+	/**
+	 * Returns a new connection that answers a class with {@link #METHODS}
+	 * methods. Method <code>i</code> spans the lines after line
+	 * <code>i * LINES_PER_METHOD</code>, with one line table entry every 4
+	 * code indexes; its first line is also its last.
+	 */
+	private JdwpTestConnection createConnection() {
+		JdwpTestConnection connection = new JdwpTestConnection();
+		long type = connection.addClass("LPerfLineTable;");
+		for (int i = 0; i < METHODS; i++) {
+			long[] codeIndexes = new long[LINES_PER_METHOD + 1];
+			int[] lineNumbers = new int[LINES_PER_METHOD + 1];
+			for (int j = 0; j < LINES_PER_METHOD; j++) {
+				codeIndexes[j] = j * 4;
+				lineNumbers[j] = i * LINES_PER_METHOD + j + 1;
+			}
+			codeIndexes[LINES_PER_METHOD] = LINES_PER_METHOD * 4;
+			lineNumbers[LINES_PER_METHOD] = lineNumbers[0];
+			connection.addMethod(type, "method" + i, LINES_PER_METHOD * 4 + 3, codeIndexes, lineNumbers); //$NON-NLS-1$
+		}
+		return connection;
+	}
+
+	/**
+	 * Measures retrieving the line locations of all methods of the class.
+	 *
+	 * @throws Exception
+	 */
+	public void testAllLineLocations() throws Exception {
+		tagAsSummary("All line locations of 10,000 methods", Dimension.ELAPSED_PROCESS);
+		for (int n = 0; n < 12; n++) {
+			VirtualMachine vm = createConnection().createVM();
+			try {
+				ReferenceType type = vm.allClasses().get(0);
+				type.methods();
+				if (n > 1) {
+					startMeasuring();
+				}
+				List<Location> locations = type.allLineLocations();
+				if (n > 1) {
+					stopMeasuring();
+				}
+				assertEquals("Wrong number of line locations", METHODS * (LINES_PER_METHOD + 1), locations.size());
+			} finally {
+				vm.dispose();
+			}
+		}
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	/**
+	 * Measures looking up the locations of lines of the class, once the line
+	 * tables are known.
+	 *
+	 * @throws Exception
+	 */
+	public void testLocationsOfLine() throws Exception {
+		VirtualMachine vm = createConnection().createVM();
+		try {
+			ReferenceType type = vm.allClasses().get(0);
+			type.allLineLocations();
+			int line = 1;
+			for (int n = 0; n < 12; n++) {
+				if (n > 1) {
+					startMeasuring();
+				}
+				for (int i = 0; i < LOOKUPS; i++) {
+					// the first line of a method has two locations
+					int locations = line % LINES_PER_METHOD == 1 ? 2 : 1;
+					assertEquals("Wrong number of locations of line " + line, locations, type.locationsOfLine(line).size());
+					line = (line + 7919) % (METHODS * LINES_PER_METHOD) + 1;
+				}
+				if (n > 1) {
+					stopMeasuring();
+				}
+			}
+			commitMeasurements();
+			assertPerformance();
+		} finally {
+			vm.dispose();
+		}
+	}
+
+	/**
+	 * Measures looking up the line of a location in each method of the class,
+	 * once the line tables are known.
+	 *
+	 * @throws Exception
+	 */
+	public void testLineNumbers() throws Exception {
+		VirtualMachine vm = createConnection().createVM();
+		try {
+			ReferenceType type = vm.allClasses().get(0);
+			type.allLineLocations();
+			List<Method> methods = type.methods();
+			for (int n = 0; n < 12; n++) {
+				if (n > 1) {
+					startMeasuring();
+				}
+				for (int i = 0; i < METHODS; i++) {
+					int line = methods.get(i).locationOfCodeIndex(i % (LINES_PER_METHOD * 4)).lineNumber();
+					assertEquals("Wrong line", i * LINES_PER_METHOD + i % (LINES_PER_METHOD * 4) / 4 + 1, line);
+				}
+				if (n > 1) {
+					stopMeasuring();
+				}
+			}
+			commitMeasurements();
+			assertPerformance();
+		} finally {
+			vm.dispose();
+		}
+	}
+}
@@ -0,0 +1,184 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.debug.tests.performance;
+
+import java.io.IOException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jdi.internal.connect.PacketReceiveManager;
+import org.eclipse.jdi.internal.jdwp.JdwpPacket;
+import org.eclipse.jdt.debug.tests.AbstractDebugPerformanceTest;
+
+import com.sun.jdi.connect.spi.ClosedConnectionException;
+import com.sun.jdi.connect.spi.Connection;
+
+/**
+ * Measures how fast the {@link PacketReceiveManager} hands replies to
+ * concurrent requesters. No VM is involved: replies are fed through an in
+ * memory connection as soon as they are requested.
+ *
+ * @since 3.10
+ */
+public class PerfReplyDispatchTests extends AbstractDebugPerformanceTest {
+
+	/** Number of replies each requester waits for per measurement. */
+	private static final int REPLIES_PER_REQUESTER = 2000;
+
+	/**
+	 * Connection that returns queued reply packets.
+	 */
+	class ReplyConnection extends Connection {
+
+		private LinkedBlockingQueue<byte[]> fReplies = new LinkedBlockingQueue<byte[]>();
+		private volatile boolean fOpen = true;
+
+		void reply(int id) {
+			byte[] bytes = new byte[11];
+			bytes[3] = 11;
+			bytes[4] = (byte) (id >>> 24);
+			bytes[5] = (byte) (id >>> 16);
+			bytes[6] = (byte) (id >>> 8);
+			bytes[7] = (byte) id;
+			bytes[8] = JdwpPacket.FLAG_REPLY_PACKET;
+			fReplies.add(bytes);
+		}
+
+		@Override
+		public byte[] readPacket() throws IOException {
+			try {
+				byte[] bytes = null;
+				while (fOpen && bytes == null) {
+					bytes = fReplies.poll(100, TimeUnit.MILLISECONDS);
+				}
+				if (bytes == null) {
+					throw new ClosedConnectionException();
+				}
+				return bytes;
+			} catch (InterruptedException e) {
+				throw new ClosedConnectionException();
+			}
+		}
+
+		@Override
+		public void writePacket(byte[] pkt) throws IOException {
+		}
+
+		@Override
+		public void close() throws IOException {
+			fOpen = false;
+		}
+
+		@Override
+		public boolean isOpen() {
+			return fOpen;
+		}
+	}
+
+	/**
+	 * Constructor
+	 */
+	public PerfReplyDispatchTests() {
+		super("Reply Dispatch Performance");
+	}
+
+	/**
+	 * Tests reply dispatch with a single requester.
+	 *
+	 * @throws Exception
+	 */
+	public void testReplyDispatch1Requester() throws Exception {
+		runReplyDispatch(1);
+	}
+
+	/**
+	 * Tests reply dispatch with 8 concurrent requesters.
+	 *
+	 * @throws Exception
+	 */
+	public void testReplyDispatch8Requesters() throws Exception {
+		runReplyDispatch(8);
+	}
+
+	/**
+	 * Tests reply dispatch with 64 concurrent requesters.
+	 *
+	 * @throws Exception
+	 */
+	public void testReplyDispatch64Requesters() throws Exception {
+		runReplyDispatch(64);
+	}
+
+	/**
+	 * Runs the given number of requesters against one receive manager, each
+	 * waiting for {@link #REPLIES_PER_REQUESTER} replies.
+	 *
+	 * @param requesters number of concurrent requesters
+	 * @throws Exception
+	 */
+	void runReplyDispatch(int requesters) throws Exception {
+		final ReplyConnection connection = new ReplyConnection();
+		final PacketReceiveManager manager = new PacketReceiveManager(connection, null);
+		Thread receiver = new Thread(manager, "Reply dispatch receiver"); //$NON-NLS-1$
+		receiver.setDaemon(true);
+		receiver.start();
+		try {
+			// warm up
+			dispatch(connection, manager, requesters);
+			for (int n = 0; n < 20; n++) {
+				startMeasuring();
+				dispatch(connection, manager, requesters);
+				stopMeasuring();
+			}
+			commitMeasurements();
+			assertPerformance();
+		} finally {
+			manager.disconnectVM();
+			receiver.join(5000);
+		}
+	}
+
+	private void dispatch(final ReplyConnection connection, final PacketReceiveManager manager, int requesters) throws Exception {
+		final AtomicInteger nextId = new AtomicInteger(1);
+		final Throwable[] failure = new Throwable[1];
+		Thread[] threads = new Thread[requesters];
+		for (int i = 0; i < requesters; i++) {
+			threads[i] = new Thread("Requester " + i) { //$NON-NLS-1$
+				@Override
+				public void run() {
+					try {
+						for (int j = 0; j < REPLIES_PER_REQUESTER; j++) {
+							int id = nextId.getAndIncrement();
+							connection.reply(id);
+							assertEquals(id, manager.getReply(id, 10000).getId());
+						}
+					} catch (Throwable t) {
+						synchronized (failure) {
+							failure[0] = t;
+						}
+					}
+				}
+			};
+		}
+		for (int i = 0; i < requesters; i++) {
+			threads[i].start();
+		}
+		for (int i = 0; i < requesters; i++) {
+			threads[i].join();
+		}
+		synchronized (failure) {
+			if (failure[0] != null) {
+				throw new Exception(failure[0]);
+			}
+		}
+	}
+}
@@ -16,6 +16,7 @@ import org.eclipse.debug.core.DebugPlugin;
 import org.eclipse.debug.core.IDebugEventFilter;
 import org.eclipse.jdt.debug.core.IJavaThread;
 import org.eclipse.jdt.debug.tests.AbstractDebugPerformanceTest;
+import org.eclipse.jdt.internal.debug.core.model.JDIThread;
 
 /**
  * Tests performance of stepping.
@@ -134,4 +135,89 @@ public class PerfSteppingTests extends AbstractDebugPerformanceTest {
 			removeAllBreakpoints();
 		}		
 	}
+
+	/**
+	 * Tests stepping over at the bottom of a deep stack, retrieving the top
+	 * frames after each step as the Debug view does.
+	 * 
+	 * @throws Exception
+	 */
+	public void testStepOverDeepStack() throws Exception {
+		String typeName = "PerfDeepStack";
+		createLineBreakpoint(28, typeName);
+		
+		JDIThread thread= null;
+		try {			
+			thread= (JDIThread) launchToBreakpoint(typeName, false);
+			
+			// warm up
+			Object lock = new Object();
+			MyFilter filter = new MyFilter(thread, lock);
+			DebugPlugin.getDefault().addDebugEventFilter(filter);
+			for (int i = 0; i < 100; i++) {
+				filter.step();
+				assertEquals("Wrong frame count", 1002, thread.getFrameCount());
+				thread.computeStackFrames(0, 32);
+			}
+			
+			for (int n= 0; n < 50; n++) {
+				startMeasuring();
+				for (int i = 0; i < 100; i++) {
+					filter.step();
+					thread.getFrameCount();
+					thread.computeStackFrames(0, 32);
+				}
+				stopMeasuring();
+				System.gc();
+			}
+			commitMeasurements();
+			assertPerformance();
+			
+			DebugPlugin.getDefault().removeDebugEventFilter(filter);
+		} finally {
+			terminateAndRemove(thread);
+			removeAllBreakpoints();
+		}		
+	}
+
+	/**
+	 * Tests stepping over in a target with 5000 other threads, measuring the
+	 * cost of looking up the model thread of each event.
+	 * 
+	 * @throws Exception
+	 */
+	public void testStepOverManyThreads() throws Exception {
+		String typeName = "PerfManyThreads";
+		createLineBreakpoint(35, typeName);
+		
+		IJavaThread thread= null;
+		try {			
+			thread= launchToBreakpoint(typeName, false);
+			assertTrue("Missing threads", thread.getDebugTarget().getThreads().length > 5000);
+			
+			// warm up
+			Object lock = new Object();
+			MyFilter filter = new MyFilter(thread, lock);
+			DebugPlugin.getDefault().addDebugEventFilter(filter);
+			for (int i = 0; i < 100; i++) {
+				filter.step();
+			}
+			
+			for (int n= 0; n < 50; n++) {
+				startMeasuring();
+				for (int i = 0; i < 200; i++) {
+					filter.step();
+				}
+				stopMeasuring();
+				System.gc();
+			}
+			commitMeasurements();
+			assertPerformance();
+			
+			DebugPlugin.getDefault().removeDebugEventFilter(filter);
+		} finally {
+			terminateAndRemove(thread);
+			removeAllBreakpoints();
+		}		
+	}
 }
@@ -0,0 +1,199 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.debug.tests.performance;
+
+import org.eclipse.jdi.internal.ValueCache;
+import org.eclipse.jdt.debug.tests.AbstractDebugPerformanceTest;
+
+/**
+ * Measures the {@link ValueCache} that holds the mirrors of a VM, filled with
+ * {@link #VALUES} values of which every tenth is of another type. No VM is
+ * involved.
+ *
+ * @since 3.10
+ */
+public class PerfValueCacheTests extends AbstractDebugPerformanceTest {
+
+	/** Number of cached values. */
+	private static final int VALUES = 60000;
+	/** Number of lookups each thread makes per measurement. */
+	private static final int LOOKUPS = 1000000;
+
+	/**
+	 * A cached value.
+	 */
+	static class Value {
+	}
+
+	/**
+	 * A cached value of the type every tenth value has.
+	 */
+	static class OtherValue extends Value {
+	}
+
+	private Value[] fValues;
+
+	/**
+	 * Constructor
+	 */
+	public PerfValueCacheTests() {
+		super("Value Cache Performance");
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		fValues = new Value[VALUES];
+		for (int i = 0; i < VALUES; i++) {
+			fValues[i] = i % 10 == 0 ? new OtherValue() : new Value();
+		}
+	}
+
+	/**
+	 * Returns the key of the value with the given index. Keys are spread like
+	 * JDWP object ids, which count up from some base.
+	 */
+	private static long key(int i) {
+		return 0x10000000L + i * 8;
+	}
+
+	private ValueCache createCache() {
+		ValueCache cache = new ValueCache();
+		for (int i = 0; i < VALUES; i++) {
+			cache.put(key(i), fValues[i]);
+		}
+		return cache;
+	}
+
+	/**
+	 * Measures lookups from one thread.
+	 *
+	 * @throws Exception
+	 */
+	public void testGet1Thread() throws Exception {
+		runGet(1);
+	}
+
+	/**
+	 * Measures lookups from 8 concurrent threads.
+	 *
+	 * @throws Exception
+	 */
+	public void testGet8Threads() throws Exception {
+		runGet(8);
+	}
+
+	/**
+	 * Measures filling an empty cache.
+	 *
+	 * @throws Exception
+	 */
+	public void testPut() throws Exception {
+		for (int n = 0; n < 22; n++) {
+			ValueCache cache = new ValueCache();
+			if (n > 1) {
+				startMeasuring();
+			}
+			for (int i = 0; i < VALUES; i++) {
+				cache.put(key(i), fValues[i]);
+			}
+			if (n > 1) {
+				stopMeasuring();
+			}
+			assertSame("Wrong value", fValues[VALUES - 1], cache.get(key(VALUES - 1)));
+		}
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	/**
+	 * Measures collecting the values of the type every tenth value has.
+	 *
+	 * @throws Exception
+	 */
+	public void testValuesWithType() throws Exception {
+		ValueCache cache = createCache();
+		for (int n = 0; n < 22; n++) {
+			if (n > 1) {
+				startMeasuring();
+			}
+			int size = 0;
+			for (int i = 0; i < 100; i++) {
+				size = cache.valuesWithType(OtherValue.class).size();
+			}
+			if (n > 1) {
+				stopMeasuring();
+			}
+			assertEquals("Wrong number of values of the type", VALUES / 10, size);
+		}
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	/**
+	 * Runs the given number of threads against one cache, each making
+	 * {@link #LOOKUPS} lookups.
+	 *
+	 * @param threads number of concurrent threads
+	 * @throws Exception
+	 */
+	void runGet(int threads) throws Exception {
+		ValueCache cache = createCache();
+		for (int n = 0; n < 22; n++) {
+			if (n > 1) {
+				startMeasuring();
+			}
+			get(cache, threads);
+			if (n > 1) {
+				stopMeasuring();
+			}
+		}
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	private void get(final ValueCache cache, int threads) throws Exception {
+		final Throwable[] failure = new Throwable[1];
+		Thread[] getters = new Thread[threads];
+		for (int i = 0; i < threads; i++) {
+			final int offset = i * 7919;
+			getters[i] = new Thread("Getter " + i) { //$NON-NLS-1$
+				@Override
+				public void run() {
+					try {
+						int index = offset % VALUES;
+						for (int j = 0; j < LOOKUPS; j++) {
+							if (cache.get(key(index)) != fValues[index]) {
+								fail("Wrong value of key " + key(index)); //$NON-NLS-1$
+							}
+							index = (index + 31) % VALUES;
+						}
+					} catch (Throwable t) {
+						synchronized (failure) {
+							failure[0] = t;
+						}
+					}
+				}
+			};
+		}
+		for (int i = 0; i < threads; i++) {
+			getters[i].start();
+		}
+		for (int i = 0; i < threads; i++) {
+			getters[i].join();
+		}
+		synchronized (failure) {
+			if (failure[0] != null) {
+				throw new Exception(failure[0]);
+			}
+		}
+	}
+}
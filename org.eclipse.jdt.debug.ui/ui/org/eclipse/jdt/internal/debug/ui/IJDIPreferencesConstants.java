@@ -88,6 +88,15 @@ public interface IJDIPreferencesConstants {
 	 */				
 	public static final String PREF_INACTIVE_FILTERS_LIST = IJavaDebugUIConstants.PLUGIN_ID + ".inactive_filters"; //$NON-NLS-1$	
 	
+	/**
+	 * Boolean preference controlling whether consecutive stack frames in
+	 * types that match the active step filters are collapsed into a single
+	 * element in the debug view.
+	 * 
+	 * @since 3.7
+	 */
+	public static final String PREF_COLLAPSE_FILTERED_FRAMES = IJavaDebugUIConstants.PLUGIN_ID + ".collapse_filtered_frames"; //$NON-NLS-1$
+	
 	/**
 	 * Boolean preference controlling whether to alert
 	 * with a dialog when hot code replace fails.
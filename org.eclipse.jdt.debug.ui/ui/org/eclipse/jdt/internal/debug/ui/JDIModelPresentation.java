@@ -70,6 +70,7 @@ import org.eclipse.jdt.internal.debug.core.model.JDIReferenceListValue;
 import org.eclipse.jdt.internal.debug.core.model.JDIReferenceListVariable;
 import org.eclipse.jdt.internal.debug.core.model.JDIThread;
 import org.eclipse.jdt.internal.debug.ui.display.JavaInspectExpression;
+import org.eclipse.jdt.internal.debug.ui.monitors.FilteredStackFrames;
 import org.eclipse.jdt.internal.debug.ui.monitors.JavaContendedMonitor;
 import org.eclipse.jdt.internal.debug.ui.monitors.JavaOwnedMonitor;
 import org.eclipse.jdt.internal.debug.ui.monitors.JavaOwningThread;
@@ -240,6 +241,8 @@ public class JDIModelPresentation extends LabelProvider implements IDebugModelPr
 				return getJavaWaitingTreadText((JavaWaitingThread)item);
 			} else if (item instanceof NoMonitorInformationElement) {
                 return DebugUIMessages.JDIModelPresentation_5; 
+            } else if (item instanceof FilteredStackFrames) {
+				return NLS.bind(DebugUIMessages.JDIModelPresentation_filtered_frames, Integer.toString(((FilteredStackFrames) item).getFrames().length));
             } else {
 				StringBuffer label= new StringBuffer();
 				if (item instanceof IJavaThread) {
@@ -723,6 +726,9 @@ public class JDIModelPresentation extends LabelProvider implements IDebugModelPr
             if (item instanceof NoMonitorInformationElement) {
                 return getDebugImageRegistry().get(new JDIImageDescriptor(
 						getImageDescriptor(JavaDebugImages.IMG_OBJS_MONITOR), 0));
+            }
+            if (item instanceof FilteredStackFrames) {
+				return DebugUITools.getImage(IDebugUIConstants.IMG_OBJS_STACKFRAME);
             }
 		} catch (CoreException e) {
 		    // no need to log errors - elements may no longer exist by the time we render them
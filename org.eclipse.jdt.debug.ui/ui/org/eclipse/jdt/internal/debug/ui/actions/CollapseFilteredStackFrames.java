@@ -0,0 +1,37 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.debug.ui.actions;
+
+import org.eclipse.jdt.internal.debug.ui.IJDIPreferencesConstants;
+
+/**
+ * Toggle to collapse the stack frames in filtered types in the debug view.
+ * 
+ * @since 3.7
+ */
+public class CollapseFilteredStackFrames extends ToggleBooleanPreferenceAction {
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.jdt.internal.debug.ui.actions.ViewFilterAction#getPreferenceKey()
+	 */
+	@Override
+	protected String getPreferenceKey() {
+		return IJDIPreferencesConstants.PREF_COLLAPSE_FILTERED_FRAMES;
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.eclipse.jdt.internal.debug.ui.actions.ViewFilterAction#getCompositeKey()
+	 */
+	@Override
+	protected String getCompositeKey() {
+		return getPreferenceKey();
+	}	
+}
@@ -0,0 +1,164 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.debug.ui.monitors;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.debug.core.DebugException;
+import org.eclipse.debug.core.model.DebugElement;
+import org.eclipse.debug.core.model.IStackFrame;
+import org.eclipse.jdt.debug.core.IJavaStackFrame;
+import org.eclipse.jdt.debug.core.IJavaThread;
+import org.eclipse.jdt.internal.debug.core.model.JDIDebugTarget;
+import org.eclipse.jdt.internal.debug.core.model.JDIStackFrame;
+
+/**
+ * Element displayed in the debug view in place of consecutive stack frames
+ * whose declaring types match the step filters, when filtered frames are
+ * collapsed. The frames are its children.
+ *
+ * @since 3.7
+ */
+public class FilteredStackFrames extends DebugElement {
+
+	private IJavaThread fThread;
+	private IJavaStackFrame[] fFrames;
+
+	/**
+	 * Constructs an element for the given filtered frames of the given thread.
+	 *
+	 * @param thread thread
+	 * @param frames consecutive filtered frames
+	 */
+	public FilteredStackFrames(IJavaThread thread, IJavaStackFrame[] frames) {
+		super(thread.getDebugTarget());
+		fThread = thread;
+		fFrames = frames;
+	}
+
+	/**
+	 * Returns the filtered frames.
+	 *
+	 * @return frames
+	 */
+	public IJavaStackFrame[] getFrames() {
+		return fFrames;
+	}
+
+	/**
+	 * Returns the thread of the frames.
+	 *
+	 * @return thread
+	 */
+	public IJavaThread getThread() {
+		return fThread;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.debug.core.model.IDebugElement#getModelIdentifier()
+	 */
+	@Override
+	public String getModelIdentifier() {
+		return getDebugTarget().getModelIdentifier();
+	}
+
+	/* (non-Javadoc)
+	 * Equal to an element of the same frames, so that the element keeps its
+	 * expansion state while the frames are preserved between suspends.
+	 *
+	 * @see java.lang.Object#equals(java.lang.Object)
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (obj instanceof FilteredStackFrames) {
+			FilteredStackFrames other = (FilteredStackFrames) obj;
+			return fThread.equals(other.fThread) && Arrays.equals(fFrames, other.fFrames);
+		}
+		return false;
+	}
+
+	/* (non-Javadoc)
+	 * @see java.lang.Object#hashCode()
+	 */
+	@Override
+	public int hashCode() {
+		return fThread.hashCode() + fFrames[0].hashCode();
+	}
+
+	/**
+	 * Returns whether the filtered stack frames of the given thread are
+	 * collapsed in the debug view.
+	 *
+	 * @param thread thread
+	 * @return whether filtered frames are collapsed
+	 */
+	public static boolean isCollapsing(IJavaThread thread) {
+		if (!JavaElementContentProvider.isCollapseFilteredFrames()) {
+			return false;
+		}
+		Object target = thread.getDebugTarget();
+		return target instanceof JDIDebugTarget && !((JDIDebugTarget) target).getStepFilterMatcher().isEmpty();
+	}
+
+	/**
+	 * Returns the stack frames of the given thread with each run of
+	 * consecutive filtered frames replaced by a single element.
+	 *
+	 * @param thread thread
+	 * @return frames and elements of filtered frames
+	 * @throws DebugException if unable to retrieve the frames
+	 * @see #collapse(IJavaThread, List)
+	 */
+	public static Object[] getCollapsedFrames(IJavaThread thread) throws DebugException {
+		IStackFrame[] frames = thread.getStackFrames();
+		List<IJavaStackFrame> javaFrames = new ArrayList<IJavaStackFrame>(frames.length);
+		for (IStackFrame frame : frames) {
+			javaFrames.add((IJavaStackFrame) frame);
+		}
+		return collapse(thread, javaFrames);
+	}
+
+	/**
+	 * Returns the given stack frames with each run of consecutive filtered
+	 * frames replaced by a single element. The top frame is never collapsed.
+	 * Only the declaring types of the frames are retrieved.
+	 *
+	 * @param thread thread of the frames
+	 * @param frames stack frames, top frame first
+	 * @return frames and elements of filtered frames
+	 */
+	public static Object[] collapse(IJavaThread thread, List<IJavaStackFrame> frames) {
+		List<Object> children = new ArrayList<Object>(frames.size());
+		int size = frames.size();
+		int i = 0;
+		while (i < size) {
+			IJavaStackFrame frame = frames.get(i);
+			if (i == 0 || !isFiltered(frame)) {
+				children.add(frame);
+				i++;
+				continue;
+			}
+			int start = i;
+			while (i < size && isFiltered(frames.get(i))) {
+				i++;
+			}
+			List<IJavaStackFrame> run = frames.subList(start, i);
+			children.add(new FilteredStackFrames(thread, run.toArray(new IJavaStackFrame[run.size()])));
+		}
+		return children.toArray();
+	}
+
+	private static boolean isFiltered(IJavaStackFrame frame) {
+		return frame instanceof JDIStackFrame && ((JDIStackFrame) frame).isStepFiltered();
+	}
+}
@@ -13,6 +13,7 @@ package org.eclipse.jdt.internal.debug.ui.monitors;
 import org.eclipse.debug.internal.ui.model.elements.ElementContentProvider;
 import org.eclipse.debug.ui.IDebugUIConstants;
 import org.eclipse.jdt.debug.ui.IJavaDebugUIConstants;
+import org.eclipse.jdt.internal.debug.ui.IJDIPreferencesConstants;
 import org.eclipse.jdt.internal.debug.ui.JDIDebugUIPlugin;
 import org.eclipse.jdt.internal.debug.ui.JDIDebugUIPreferenceInitializer;
 import org.eclipse.jface.preference.IPreferenceStore;
@@ -28,6 +29,7 @@ public abstract class JavaElementContentProvider extends ElementContentProvider
 	
 	private static boolean fgDisplayMonitors;
 	private static boolean fgDisplayThreadGroups;
+	private static boolean fgCollapseFilteredFrames;
 	
 	static {
 		IPreferenceStore preferenceStore = JDIDebugUIPlugin.getDefault().getPreferenceStore();
@@ -38,12 +40,15 @@ public abstract class JavaElementContentProvider extends ElementContentProvider
 					fgDisplayMonitors= JDIDebugUIPreferenceInitializer.getBoolean(event);
 				} else if (event.getProperty().equals(IJavaDebugUIConstants.PREF_SHOW_THREAD_GROUPS)) {
 					fgDisplayThreadGroups= JDIDebugUIPreferenceInitializer.getBoolean(event);
+				} else if (event.getProperty().equals(IJDIPreferencesConstants.PREF_COLLAPSE_FILTERED_FRAMES)) {
+					fgCollapseFilteredFrames= JDIDebugUIPreferenceInitializer.getBoolean(event);
 				}
 			}
 		
 		});
 		fgDisplayMonitors= preferenceStore.getBoolean(IJavaDebugUIConstants.PREF_SHOW_MONITOR_THREAD_INFO);
 		fgDisplayThreadGroups = preferenceStore.getBoolean(IJavaDebugUIConstants.PREF_SHOW_THREAD_GROUPS);
+		fgCollapseFilteredFrames = preferenceStore.getBoolean(IJDIPreferencesConstants.PREF_COLLAPSE_FILTERED_FRAMES);
 	}
 	
 	public static boolean isDisplayThreadGroups() {
@@ -53,6 +58,10 @@ public abstract class JavaElementContentProvider extends ElementContentProvider
 	public static boolean isDisplayMonitors() {
 	    return fgDisplayMonitors;
 	}
+
+	public static boolean isCollapseFilteredFrames() {
+		return fgCollapseFilteredFrames;
+	}
 	
 	/* (non-Javadoc)
 	 * @see org.eclipse.debug.internal.ui.viewers.model.provisional.elements.ElementContentProvider#supportsContextId(java.lang.String)
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2006, 2012 IBM Corporation and others.
+ *  Copyright (c) 2006, 2015 IBM Corporation and others.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -10,11 +10,13 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.debug.ui.monitors;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.jobs.ISchedulingRule;
 import org.eclipse.debug.core.DebugException;
 import org.eclipse.debug.core.model.IDebugElement;
-import org.eclipse.debug.core.model.IStackFrame;
 import org.eclipse.debug.internal.ui.viewers.model.provisional.IChildrenCountUpdate;
 import org.eclipse.debug.internal.ui.viewers.model.provisional.IChildrenUpdate;
 import org.eclipse.debug.internal.ui.viewers.model.provisional.IHasChildrenUpdate;
@@ -41,7 +43,12 @@ public class JavaThreadContentProvider extends JavaElementContentProvider {
 		if (!thread.isSuspended()) {
 			return 0;
 		}
-		int childCount = thread.getFrameCount();
+		int childCount;
+		if (FilteredStackFrames.isCollapsing(thread)) {
+			childCount = FilteredStackFrames.getCollapsedFrames(thread).length;
+		} else {
+			childCount = thread.getFrameCount();
+		}
 		if (isDisplayMonitors()) {
 			if (((IJavaDebugTarget) thread.getDebugTarget()).supportsMonitorInformation()) {
 				childCount+= thread.getOwnedMonitors().length;
@@ -65,6 +72,9 @@ public class JavaThreadContentProvider extends JavaElementContentProvider {
 		if (!thread.isSuspended()) {
 			return EMPTY;
 		}
+		if (thread instanceof JDIThread) {
+			return getChildren((JDIThread) thread, index, length);
+		}
 		return getElements(getChildren(thread), index, length);
 	}
 	
@@ -78,38 +88,88 @@ public class JavaThreadContentProvider extends JavaElementContentProvider {
 					}
 				}
 			}
-			IStackFrame[] frames = thread.getStackFrames();
-			if (!isDisplayMonitors()) {
+			Object[] frames;
+			if (FilteredStackFrames.isCollapsing(thread)) {
+				frames = FilteredStackFrames.getCollapsedFrames(thread);
+			} else {
+				frames = thread.getStackFrames();
+			}
+			Object[] monitors = getMonitors(thread);
+			if (monitors.length == 0) {
 				return frames;
 			}
+			Object[] children = new Object[monitors.length + frames.length];
+			System.arraycopy(monitors, 0, children, 0, monitors.length);
+			System.arraycopy(frames, 0, children, monitors.length, frames.length);
+			return children;
+		} catch (DebugException e) {
+			return EMPTY;
+		}		
+	}
 
-			Object[] children;
-			int length = frames.length;
-			if (((IJavaDebugTarget) thread.getDebugTarget()).supportsMonitorInformation()) {
-				IDebugElement[] ownedMonitors = JavaDebugUtils.getOwnedMonitors(thread);
-				IDebugElement contendedMonitor = JavaDebugUtils.getContendedMonitor(thread);
-				length += ownedMonitors.length;
-				if (contendedMonitor != null) {
-					length++;
-				}
-				children = new Object[length];
-				if (ownedMonitors.length > 0) {
-					System.arraycopy(ownedMonitors, 0, children, 0, ownedMonitors.length);
-				}
-				if (contendedMonitor != null) {
-					// Insert the contended monitor after the owned monitors
-					children[ownedMonitors.length] = contendedMonitor;
+	/**
+	 * Returns the children of the given thread in the given range. Only the
+	 * stack frames in the range are computed, so that the frames of a deep
+	 * stack are retrieved from the target as they are displayed. When
+	 * filtered frames are collapsed, the declaring types of all frames are
+	 * needed instead.
+	 * 
+	 * @param thread thread
+	 * @param index index of the first child
+	 * @param length number of children
+	 * @return the children in the given range
+	 */
+	protected Object[] getChildren(JDIThread thread, int index, int length) {
+		try {
+			if (!thread.getDebugTarget().isSuspended() ) {
+				if (thread.isSuspendVoteInProgress()) {
+					return EMPTY;
 				}
-			} else {
-				children = new Object[length + 1];
-				children[0] = new NoMonitorInformationElement(thread.getDebugTarget());
 			}
-			int offset = children.length - frames.length;
-			System.arraycopy(frames, 0, children, offset, frames.length);
-			return children;
+			if (FilteredStackFrames.isCollapsing(thread)) {
+				return getElements(getChildren((IJavaThread) thread), index, length);
+			}
+			Object[] monitors = getMonitors(thread);
+			List<Object> children = new ArrayList<Object>();
+			for (int i = index; i < monitors.length && i < index + length; i++) {
+				children.add(monitors[i]);
+			}
+			int frameIndex = Math.max(index - monitors.length, 0);
+			int frameLength = length - children.size();
+			if (frameLength > 0) {
+				children.addAll(thread.computeStackFrames(frameIndex, frameLength));
+			}
+			return children.toArray();
 		} catch (DebugException e) {
 			return EMPTY;
-		}		
+		}
+	}
+
+	/**
+	 * Returns the monitor elements displayed before the stack frames of the
+	 * given thread, possibly none.
+	 * 
+	 * @param thread thread
+	 * @return monitor elements
+	 * @throws DebugException if unable to retrieve the monitors
+	 */
+	private Object[] getMonitors(IJavaThread thread) throws DebugException {
+		if (!isDisplayMonitors()) {
+			return EMPTY;
+		}
+		if (((IJavaDebugTarget) thread.getDebugTarget()).supportsMonitorInformation()) {
+			IDebugElement[] ownedMonitors = JavaDebugUtils.getOwnedMonitors(thread);
+			IDebugElement contendedMonitor = JavaDebugUtils.getContendedMonitor(thread);
+			if (contendedMonitor == null) {
+				return ownedMonitors;
+			}
+			Object[] monitors = new Object[ownedMonitors.length + 1];
+			System.arraycopy(ownedMonitors, 0, monitors, 0, ownedMonitors.length);
+			// Insert the contended monitor after the owned monitors
+			monitors[ownedMonitors.length] = contendedMonitor;
+			return monitors;
+		}
+		return new Object[] { new NoMonitorInformationElement(thread.getDebugTarget()) };
 	}
 
 	/* (non-Javadoc)
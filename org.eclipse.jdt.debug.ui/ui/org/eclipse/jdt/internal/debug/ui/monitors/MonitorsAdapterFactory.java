@@ -28,6 +28,7 @@ public class MonitorsAdapterFactory implements IAdapterFactory {
     private static IElementContentProvider fgCPWaitingThread;
     private static IElementContentProvider fgCPContendedMonitor;
     private static IElementContentProvider fgCPOwningThread;
+    private static IElementContentProvider fgCPFilteredStackFrames;
     
     /* (non-Javadoc)
      * @see org.eclipse.core.runtime.IAdapterFactory#getAdapter(java.lang.Object, java.lang.Class)
@@ -55,6 +56,9 @@ public class MonitorsAdapterFactory implements IAdapterFactory {
     		if (adaptableObject instanceof JavaOwningThread) {
 				return (T) getOwningThreadContentProvider();
     		}
+    		if (adaptableObject instanceof FilteredStackFrames) {
+				return (T) getFilteredStackFramesContentProvider();
+    		}
     	}
         return null;
     }
@@ -100,5 +104,12 @@ public class MonitorsAdapterFactory implements IAdapterFactory {
 			fgCPOwningThread = new OwningThreadContentProvider();
 		}
 		return fgCPOwningThread;
+	}
+
+	private IElementContentProvider getFilteredStackFramesContentProvider() {
+		if (fgCPFilteredStackFrames == null) {
+			fgCPFilteredStackFrames = new FilteredStackFramesContentProvider();
+		}
+		return fgCPFilteredStackFrames;
 	}		
 }
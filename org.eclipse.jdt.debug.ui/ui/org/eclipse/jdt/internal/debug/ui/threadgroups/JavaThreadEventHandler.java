@@ -33,6 +33,7 @@ import org.eclipse.jdt.debug.ui.IJavaDebugUIConstants;
 import org.eclipse.jdt.internal.debug.core.model.JDIThread;
 import org.eclipse.jdt.internal.debug.ui.JDIDebugUIPlugin;
 import org.eclipse.jdt.internal.debug.ui.JDIDebugUIPreferenceInitializer;
+import org.eclipse.jdt.internal.debug.ui.monitors.FilteredStackFrames;
 import org.eclipse.jdt.internal.debug.ui.monitors.JavaElementContentProvider;
 import org.eclipse.jdt.internal.debug.ui.snippeteditor.ScrapbookLauncher;
 import org.eclipse.jface.preference.IPreferenceStore;
@@ -179,7 +180,12 @@ public class JavaThreadEventHandler extends ThreadEventHandler implements IPrope
 	protected int childCount(IThread thread) {
 		try {
 			IJavaThread jThread = (IJavaThread) thread;
-			int count = jThread.getFrameCount();
+			int count;
+			if (FilteredStackFrames.isCollapsing(jThread)) {
+				count = FilteredStackFrames.getCollapsedFrames(jThread).length;
+			} else {
+				count = jThread.getFrameCount();
+			}
 			if (isDisplayMonitors()) {
 				if (((IJavaDebugTarget)thread.getDebugTarget()).supportsMonitorInformation()) {
 					count += jThread.getOwnedMonitors().length;
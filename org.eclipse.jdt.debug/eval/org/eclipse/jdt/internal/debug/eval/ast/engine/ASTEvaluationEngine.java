@@ -203,6 +203,59 @@ public class ASTEvaluationEngine implements IAstEvaluationEngine {
 				listener, evaluationDetail, hitBreakpoints);
 	}
 
+	/**
+	 * Evaluates the given expression in the given frame on the calling thread,
+	 * if the expression is free of side effects. Such an expression only reads
+	 * variables and operates on their values, so it is interpreted while the
+	 * thread stays suspended: the evaluation is not queued on the thread, the
+	 * thread is not resumed, and no evaluation events are fired.
+	 *
+	 * @param expression
+	 *            the compiled expression to evaluate
+	 * @param frame
+	 *            the stack frame context for the evaluation
+	 * @return the result of the evaluation, or <code>null</code> if the
+	 *         expression has errors or side effects and must be evaluated with
+	 *         {@link #evaluateExpression(ICompiledExpression, IJavaStackFrame, IEvaluationListener, int, boolean)}
+	 */
+	public IEvaluationResult evaluateSideEffectFreeExpression(
+			ICompiledExpression expression, IJavaStackFrame frame) {
+		if (!(expression instanceof InstructionSequence)
+				|| expression.hasErrors()
+				|| !((InstructionSequence) expression).isSideEffectFree()) {
+			return null;
+		}
+		IJavaThread thread = (IJavaThread) frame.getThread();
+		traceCaller(expression.getSnippet(), thread);
+		EvaluationResult result = new EvaluationResult(this,
+				expression.getSnippet(), thread);
+		Interpreter interpreter = new Interpreter(
+				(InstructionSequence) expression, new RuntimeContext(
+						getJavaProject(), frame));
+		try {
+			interpreter.execute();
+			IJavaValue value = interpreter.getResult();
+			if (value != null) {
+				result.setValue(value);
+			} else {
+				result.addError(EvaluationEngineMessages.ASTEvaluationEngine_An_unknown_error_occurred_during_evaluation);
+			}
+		} catch (CoreException exception) {
+			if (exception instanceof DebugException) {
+				result.setException((DebugException) exception);
+			} else {
+				result.setException(new DebugException(exception.getStatus()));
+			}
+		}
+		if (JDIDebugOptions.DEBUG_AST_EVAL) {
+			StringBuffer buf = new StringBuffer();
+			buf.append("\tSide effect free result: "); //$NON-NLS-1$
+			buf.append(result.hasErrors() ? result.getException() : result.getValue());
+			JDIDebugOptions.trace(buf.toString());
+		}
+		return result;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
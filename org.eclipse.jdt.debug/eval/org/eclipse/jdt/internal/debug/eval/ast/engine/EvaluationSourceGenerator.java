@@ -25,9 +25,6 @@ import org.eclipse.jdt.core.ToolFactory;
 import org.eclipse.jdt.core.compiler.IScanner;
 import org.eclipse.jdt.core.compiler.ITerminalSymbols;
 import org.eclipse.jdt.core.compiler.InvalidInputException;
-import org.eclipse.jdt.core.dom.AST;
-import org.eclipse.jdt.core.dom.ASTParser;
-import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.debug.core.IJavaReferenceType;
 import org.eclipse.jdt.internal.debug.core.JDIDebugPlugin;
 import org.eclipse.jdt.internal.debug.core.JavaDebugUtils;
@@ -247,32 +244,31 @@ public class EvaluationSourceGenerator {
 	private void createEvaluationSourceFromSource(String source, IType type,
 			int line, boolean createInAStaticMethod, IJavaProject project)
 			throws DebugException {
-		ASTParser parser = ASTParser.newParser(AST.JLS4);
-		parser.setSource(source.toCharArray());
-		Map<String, String> options = getCompilerOptions(project);
-		String sourceLevel = project.getOption(JavaCore.COMPILER_SOURCE, true);
-		parser.setCompilerOptions(options);
-		CompilationUnit unit = (CompilationUnit) parser.createAST(null);
-		SourceBasedSourceGenerator visitor = new SourceBasedSourceGenerator(
-				type, line, createInAStaticMethod, fLocalVariableTypeNames,
-				fLocalVariableNames, fCodeSnippet, sourceLevel);
-		unit.accept(visitor);
+		// the host is only parsed again when its source changes, the snippet
+		// is inserted into the cached skeleton
+		SourceSkeletonCache.Skeleton skeleton = SourceSkeletonCache.getDefault()
+				.getSkeleton(source, type, line, createInAStaticMethod,
+						fLocalVariableTypeNames, fLocalVariableNames, project);
 
-		if (visitor.hasError()) {
+		if (skeleton.fError != null) {
 			throw new DebugException(new Status(IStatus.ERROR,
 					JDIDebugPlugin.getUniqueIdentifier(), IStatus.OK,
-					visitor.getError(), null));
+					skeleton.fError, null));
 		}
 
-		String sourceRes = visitor.getSource();
-		if (sourceRes == null) {
+		if (skeleton.fSource == null) {
 			return;
 		}
-		setSource(sourceRes);
-		setCompilationUnitName(visitor.getCompilationUnitName());
-		setSnippetStart(visitor.getSnippetStart());
-		setRunMethodStart(visitor.getRunMethodStart());
-		setRunMethodLength(visitor.getRunMethodLength());
+		String codeSnippet = fCodeSnippet.trim();
+		int position = skeleton.getSnippetInsertPosition();
+		setSource(new StringBuffer(skeleton.fSource.length() + codeSnippet.length())
+				.append(skeleton.fSource, 0, position).append(codeSnippet)
+				.append(skeleton.fSource, position, skeleton.fSource.length())
+				.toString());
+		setCompilationUnitName(skeleton.fCompilationUnitName);
+		setSnippetStart(skeleton.fSnippetStart);
+		setRunMethodStart(skeleton.fRunMethodStart);
+		setRunMethodLength(skeleton.fRunMethodLength + codeSnippet.length());
 	}
 
 	/**
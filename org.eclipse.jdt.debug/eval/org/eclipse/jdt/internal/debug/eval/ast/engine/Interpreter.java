@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,12 +10,12 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.debug.eval.ast.engine;
 
-import java.util.ArrayList;
+import java.util.EmptyStackException;
 import java.util.HashMap;
 import java.util.Iterator;
-import java.util.List;
+import java.util.LinkedHashSet;
 import java.util.Map;
-import java.util.Stack;
+import java.util.Set;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IStatus;
@@ -33,25 +33,48 @@ import org.eclipse.jdt.internal.debug.eval.ast.instructions.InstructionSequence;
 import com.sun.jdi.VMDisconnectedException;
 
 public class Interpreter {
+	private InstructionSequence fInstructionSequence;
 	private Instruction[] fInstructions;
 	private int fInstructionCounter;
 	private IRuntimeContext fContext;
-	private Stack<Object> fStack;
 	private IJavaValue fLastValue;
 
+	/**
+	 * The operand stack. Primitive values are kept unboxed, as type ids and
+	 * bits in the parallel arrays, and only become values of the target when
+	 * popped by instructions not operating on them right away.
+	 */
+	private Object[] fStack;
+	private int[] fStackTypeIds;
+	private long[] fStackBits;
+	private int fStackSize;
+
+	/**
+	 * Views of the left and right operand of an operator, created when first
+	 * used.
+	 */
+	private OperandValue[] fOperands = new OperandValue[2];
+
 	/**
 	 * The list of internal variables
 	 */
 	private Map<String, IVariable> fInternalVariables;
 
 	/**
-	 * List of objects for which GC has been disabled
+	 * Objects for which GC has been disabled
 	 */
-	private List<IJavaObject> fPermStorage = null;
+	private Set<IJavaObject> fPermStorage = null;
 
 	private boolean fStopped = false;
 
+	/**
+	 * Whether the inline caches of the instruction sequence have been
+	 * validated for this evaluation.
+	 */
+	private boolean fInlineCachesValidated = false;
+
 	public Interpreter(InstructionSequence instructions, IRuntimeContext context) {
+		fInstructionSequence = instructions;
 		fInstructions = instructions.getInstructions();
 		fContext = context;
 		fInternalVariables = new HashMap<String, IVariable>();
@@ -79,8 +102,12 @@ public class Interpreter {
 	}
 
 	private void reset() {
-		fStack = new Stack<Object>();
+		fStack = new Object[16];
+		fStackTypeIds = new int[16];
+		fStackBits = new long[16];
+		fStackSize = 0;
 		fInstructionCounter = 0;
+		fInlineCachesValidated = false;
 	}
 
 	/**
@@ -96,12 +123,61 @@ public class Interpreter {
 	 * evaluation completes.
 	 */
 	public void push(Object object) {
-		fStack.push(object);
+		ensureStackCapacity();
+		fStack[fStackSize] = object;
+		fStackTypeIds[fStackSize++] = Instruction.T_undefined;
 		if (object instanceof IJavaObject) {
 			disableCollection((IJavaObject) object);
 		}
 	}
 
+	/**
+	 * Pushes a primitive value onto the stack, without creating a value of
+	 * the target for it.
+	 * 
+	 * @param typeId
+	 *            the primitive type id, as defined by {@link Instruction}
+	 * @param bits
+	 *            the value, <code>1</code> or <code>0</code> for booleans, or
+	 *            the bits of the value widened to a double for floating point
+	 *            types
+	 */
+	public void pushPrimitive(int typeId, long bits) {
+		ensureStackCapacity();
+		fStack[fStackSize] = null;
+		fStackTypeIds[fStackSize] = typeId;
+		fStackBits[fStackSize++] = bits;
+	}
+
+	private void ensureStackCapacity() {
+		if (fStackSize == fStack.length) {
+			int capacity = fStackSize * 2;
+			Object[] stack = new Object[capacity];
+			System.arraycopy(fStack, 0, stack, 0, fStackSize);
+			fStack = stack;
+			int[] typeIds = new int[capacity];
+			System.arraycopy(fStackTypeIds, 0, typeIds, 0, fStackSize);
+			fStackTypeIds = typeIds;
+			long[] bits = new long[capacity];
+			System.arraycopy(fStackBits, 0, bits, 0, fStackSize);
+			fStackBits = bits;
+		}
+	}
+
+	/**
+	 * Returns the object at the given index of the stack, creating the value
+	 * of the target for an unboxed primitive value.
+	 */
+	private Object materialize(int index) {
+		int typeId = fStackTypeIds[index];
+		if (typeId != Instruction.T_undefined) {
+			fStack[index] = OperandValue.newValue(getContext().getVM(), typeId,
+					fStackBits[index]);
+			fStackTypeIds[index] = Instruction.T_undefined;
+		}
+		return fStack[index];
+	}
+
 	/**
 	 * Avoid garbage collecting interim results.
 	 * 
@@ -110,7 +186,9 @@ public class Interpreter {
 	 */
 	private void disableCollection(IJavaObject value) {
 		if (fPermStorage == null) {
-			fPermStorage = new ArrayList<IJavaObject>(5);
+			fPermStorage = new LinkedHashSet<IJavaObject>(5);
+		} else if (fPermStorage.contains(value)) {
+			return;
 		}
 		try {
 			value.disableCollection();
@@ -142,18 +220,111 @@ public class Interpreter {
 		}
 	}
 
+	/**
+	 * Returns the value the given instruction resolved under the given key in
+	 * a previous evaluation of the same instruction sequence, or
+	 * <code>null</code> if none. Cached values are discarded when the
+	 * sequence is evaluated for another receiving type or target, or after
+	 * classes have been redefined.
+	 * 
+	 * @param instruction
+	 *            the instruction
+	 * @param key
+	 *            key of the value
+	 * @return the cached value or <code>null</code>
+	 * @throws CoreException
+	 *             if the validity of the cache cannot be determined
+	 * @see InstructionSequence#validateInlineCaches(IRuntimeContext)
+	 */
+	public Object getInlineCache(Instruction instruction, Object key)
+			throws CoreException {
+		validateInlineCaches();
+		return fInstructionSequence.getInlineCache(instruction, key);
+	}
+
+	/**
+	 * Caches a value resolved by the given instruction for later evaluations
+	 * of the same instruction sequence.
+	 * 
+	 * @param instruction
+	 *            the instruction
+	 * @param key
+	 *            key of the value
+	 * @param value
+	 *            the value
+	 * @throws CoreException
+	 *             if the validity of the cache cannot be determined
+	 */
+	public void setInlineCache(Instruction instruction, Object key,
+			Object value) throws CoreException {
+		validateInlineCaches();
+		fInstructionSequence.setInlineCache(instruction, key, value);
+	}
+
+	/**
+	 * Validates the inline caches once per evaluation, when first used, so
+	 * that evaluations not resolving anything do not pay for it.
+	 */
+	private void validateInlineCaches() throws CoreException {
+		if (!fInlineCachesValidated) {
+			fInstructionSequence.validateInlineCaches(fContext);
+			fInlineCachesValidated = true;
+		}
+	}
+
 	/**
 	 * Peeks at the top object of the stack
 	 */
 	public Object peek() {
-		return fStack.peek();
+		if (fStackSize == 0) {
+			throw new EmptyStackException();
+		}
+		return materialize(fStackSize - 1);
 	}
 
 	/**
 	 * Pops an object off of the stack
 	 */
 	public Object pop() {
-		return fStack.pop();
+		Object object = peek();
+		fStack[--fStackSize] = null;
+		return object;
+	}
+
+	/**
+	 * Pops the value of an operand off of the stack, to be operated on right
+	 * away. The value of a variable is returned for a variable. An unboxed
+	 * primitive value is returned as a view that is reused for the next
+	 * operand popped with the same index, and must not be kept.
+	 * 
+	 * @param operand
+	 *            <code>0</code> for the left or only operand, <code>1</code>
+	 *            for the right operand
+	 * @return the value of the operand
+	 * @throws CoreException
+	 *             if the value of a variable cannot be retrieved
+	 */
+	public IJavaValue popOperand(int operand) throws CoreException {
+		if (fStackSize == 0) {
+			throw new EmptyStackException();
+		}
+		int index = fStackSize - 1;
+		int typeId = fStackTypeIds[index];
+		if (typeId != Instruction.T_undefined) {
+			OperandValue value = fOperands[operand];
+			if (value == null) {
+				value = new OperandValue(getContext().getVM());
+				fOperands[operand] = value;
+			}
+			value.set(typeId, fStackBits[index]);
+			fStackSize--;
+			return value;
+		}
+		Object element = pop();
+		if (element instanceof IJavaVariable) {
+			return (IJavaValue) ((IJavaVariable) element).getValue();
+		}
+		return (IJavaValue) element;
 	}
 
 	/**
@@ -164,13 +335,13 @@ public class Interpreter {
 	}
 
 	public IJavaValue getResult() {
-		if (fStack == null || fStack.isEmpty()) {
+		if (fStack == null || fStackSize == 0) {
 			if (fLastValue == null) {
 				return getContext().getVM().voidValue();
 			}
 			return fLastValue;
 		}
-		Object top = fStack.peek();
+		Object top = peek();
 		if (top instanceof IJavaVariable) {
 			try {
 				return (IJavaValue) ((IJavaVariable) top).getValue();
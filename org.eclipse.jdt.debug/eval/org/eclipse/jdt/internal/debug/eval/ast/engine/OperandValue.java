@@ -0,0 +1,277 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.debug.eval.ast.engine;
+
+import org.eclipse.debug.core.DebugException;
+import org.eclipse.debug.core.ILaunch;
+import org.eclipse.debug.core.model.IDebugTarget;
+import org.eclipse.debug.core.model.IVariable;
+import org.eclipse.jdt.debug.core.IJavaDebugTarget;
+import org.eclipse.jdt.debug.core.IJavaPrimitiveValue;
+import org.eclipse.jdt.debug.core.IJavaType;
+import org.eclipse.jdt.debug.core.IJavaValue;
+import org.eclipse.jdt.internal.debug.eval.ast.instructions.Instruction;
+
+/**
+ * A primitive value popped off the stack of an interpreter to be operated on
+ * right away, without creating a value of the target for it. The conversions
+ * are those of the primitive values of the target.
+ * <p>
+ * A view is reused for the next operand popped into it, so it must not be
+ * kept by the instruction it is handed to. Anything but the conversions is
+ * answered by the value of the target the view stands for.
+ * </p>
+ *
+ * @since 3.10
+ */
+class OperandValue implements IJavaPrimitiveValue {
+
+	private final IJavaDebugTarget fTarget;
+
+	/**
+	 * Type id of the value, as defined by {@link Instruction}.
+	 */
+	private int fTypeId;
+
+	/**
+	 * The value, or the bits of the value widened to a double for floating
+	 * point types.
+	 */
+	private long fBits;
+
+	OperandValue(IJavaDebugTarget target) {
+		fTarget = target;
+	}
+
+	void set(int typeId, long bits) {
+		fTypeId = typeId;
+		fBits = bits;
+	}
+
+	/**
+	 * Returns the value of the target with the given type id and bits.
+	 *
+	 * @see Interpreter#pushPrimitive(int, long)
+	 */
+	static IJavaValue newValue(IJavaDebugTarget target, int typeId, long bits) {
+		switch (typeId) {
+		case Instruction.T_boolean:
+			return target.newValue(bits != 0);
+		case Instruction.T_byte:
+			return target.newValue((byte) bits);
+		case Instruction.T_short:
+			return target.newValue((short) bits);
+		case Instruction.T_char:
+			return target.newValue((char) bits);
+		case Instruction.T_int:
+			return target.newValue((int) bits);
+		case Instruction.T_long:
+			return target.newValue(bits);
+		case Instruction.T_float:
+			return target.newValue((float) Double.longBitsToDouble(bits));
+		case Instruction.T_double:
+			return target.newValue(Double.longBitsToDouble(bits));
+		default:
+			throw new IllegalArgumentException();
+		}
+	}
+
+	private boolean isFloatingPoint() {
+		return fTypeId == Instruction.T_double || fTypeId == Instruction.T_float;
+	}
+
+	private double doubleBits() {
+		return Double.longBitsToDouble(fBits);
+	}
+
+	/**
+	 * @return the value of the target this view stands for
+	 */
+	private IJavaValue toValue() {
+		return newValue(fTarget, fTypeId, fBits);
+	}
+
+	/*
+	 * @see org.eclipse.jdt.debug.core.IJavaPrimitiveValue#getBooleanValue()
+	 */
+	@Override
+	public boolean getBooleanValue() {
+		return isFloatingPoint() ? doubleBits() != 0 : fBits != 0;
+	}
+
+	/*
+	 * @see org.eclipse.jdt.debug.core.IJavaPrimitiveValue#getByteValue()
+	 */
+	@Override
+	public byte getByteValue() {
+		return isFloatingPoint() ? (byte) (int) doubleBits() : (byte) fBits;
+	}
+
+	/*
+	 * @see org.eclipse.jdt.debug.core.IJavaPrimitiveValue#getCharValue()
+	 */
+	@Override
+	public char getCharValue() {
+		return isFloatingPoint() ? (char) (int) doubleBits() : (char) fBits;
+	}
+
+	/*
+	 * @see org.eclipse.jdt.debug.core.IJavaPrimitiveValue#getDoubleValue()
+	 */
+	@Override
+	public double getDoubleValue() {
+		return isFloatingPoint() ? doubleBits() : (double) fBits;
+	}
+
+	/*
+	 * @see org.eclipse.jdt.debug.core.IJavaPrimitiveValue#getFloatValue()
+	 */
+	@Override
+	public float getFloatValue() {
+		return isFloatingPoint() ? (float) doubleBits() : (float) fBits;
+	}
+
+	/*
+	 * @see org.eclipse.jdt.debug.core.IJavaPrimitiveValue#getIntValue()
+	 */
+	@Override
+	public int getIntValue() {
+		return isFloatingPoint() ? (int) doubleBits() : (int) fBits;
+	}
+
+	/*
+	 * @see org.eclipse.jdt.debug.core.IJavaPrimitiveValue#getLongValue()
+	 */
+	@Override
+	public long getLongValue() {
+		return isFloatingPoint() ? (long) doubleBits() : fBits;
+	}
+
+	/*
+	 * @see org.eclipse.jdt.debug.core.IJavaPrimitiveValue#getShortValue()
+	 */
+	@Override
+	public short getShortValue() {
+		return isFloatingPoint() ? (short) (int) doubleBits() : (short) fBits;
+	}
+
+	/*
+	 * @see org.eclipse.jdt.debug.core.IJavaValue#getSignature()
+	 */
+	@Override
+	public String getSignature() throws DebugException {
+		return toValue().getSignature();
+	}
+
+	/*
+	 * @see org.eclipse.jdt.debug.core.IJavaValue#getGenericSignature()
+	 */
+	@Override
+	public String getGenericSignature() throws DebugException {
+		return toValue().getGenericSignature();
+	}
+
+	/*
+	 * @see org.eclipse.jdt.debug.core.IJavaValue#getJavaType()
+	 */
+	@Override
+	public IJavaType getJavaType() throws DebugException {
+		return toValue().getJavaType();
+	}
+
+	/*
+	 * @see org.eclipse.jdt.debug.core.IJavaValue#isNull()
+	 */
+	@Override
+	public boolean isNull() {
+		return false;
+	}
+
+	/*
+	 * @see org.eclipse.debug.core.model.IValue#getReferenceTypeName()
+	 */
+	@Override
+	public String getReferenceTypeName() throws DebugException {
+		return toValue().getReferenceTypeName();
+	}
+
+	/*
+	 * @see org.eclipse.debug.core.model.IValue#getValueString()
+	 */
+	@Override
+	public String getValueString() throws DebugException {
+		return toValue().getValueString();
+	}
+
+	/*
+	 * @see org.eclipse.debug.core.model.IValue#isAllocated()
+	 */
+	@Override
+	public boolean isAllocated() throws DebugException {
+		return true;
+	}
+
+	/*
+	 * @see org.eclipse.debug.core.model.IValue#getVariables()
+	 */
+	@Override
+	public IVariable[] getVariables() throws DebugException {
+		return toValue().getVariables();
+	}
+
+	/*
+	 * @see org.eclipse.debug.core.model.IValue#hasVariables()
+	 */
+	@Override
+	public boolean hasVariables() throws DebugException {
+		return false;
+	}
+
+	/*
+	 * @see org.eclipse.debug.core.model.IDebugElement#getModelIdentifier()
+	 */
+	@Override
+	public String getModelIdentifier() {
+		return fTarget.getModelIdentifier();
+	}
+
+	/*
+	 * @see org.eclipse.debug.core.model.IDebugElement#getDebugTarget()
+	 */
+	@Override
+	public IDebugTarget getDebugTarget() {
+		return fTarget;
+	}
+
+	/*
+	 * @see org.eclipse.debug.core.model.IDebugElement#getLaunch()
+	 */
+	@Override
+	public ILaunch getLaunch() {
+		return fTarget.getLaunch();
+	}
+
+	/*
+	 * @see org.eclipse.core.runtime.IAdaptable#getAdapter(java.lang.Class)
+	 */
+	@Override
+	public <T> T getAdapter(Class<T> adapter) {
+		return toValue().getAdapter(adapter);
+	}
+
+	/*
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return toValue().toString();
+	}
+}
@@ -0,0 +1,221 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.debug.eval.ast.engine;
+
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+
+/**
+ * Caches the source generated by {@link SourceBasedSourceGenerator} for host
+ * types, without the code snippet. The generated source only depends on the
+ * snippet by containing it verbatim, so the source for any snippet is obtained
+ * by inserting the snippet into the cached skeleton, and the host source is
+ * only parsed again when it changes.
+ * <p>
+ * Hosts are keyed by type, source and compiler options; the source itself
+ * serves as the modification stamp, so unsaved changes to working copies are
+ * noticed. Skeletons of a host are keyed by the method declarations enclosing
+ * the line of the evaluation, whether a static method is created, the local
+ * variables and the source level. The least recently used hosts and
+ * skeletons are discarded, and hosts are only softly referenced, so that
+ * their ASTs can be reclaimed when memory runs low.
+ * </p>
+ *
+ * @since 3.10
+ */
+public class SourceSkeletonCache {
+
+	/**
+	 * Maximum number of hosts kept.
+	 */
+	private static final int MAX_HOSTS = 16;
+
+	/**
+	 * Maximum number of skeletons kept per host.
+	 */
+	private static final int MAX_SKELETONS = 32;
+
+	private static SourceSkeletonCache fgDefault = new SourceSkeletonCache();
+
+	/**
+	 * Source generated for a host type, with an empty code snippet.
+	 */
+	static class Skeleton {
+		String fSource;
+		String fError;
+		String fCompilationUnitName;
+		int fSnippetStart;
+		int fRunMethodStart;
+		int fRunMethodLength;
+
+		/**
+		 * @return the position at which the snippet is inserted into the
+		 *         source
+		 */
+		int getSnippetInsertPosition() {
+			// the snippet start points at the opening brace of the run method
+			return fSnippetStart + 2;
+		}
+	}
+
+	/**
+	 * The parsed source of a host type and its skeletons.
+	 */
+	private static class Host {
+		final String fSource;
+		final Map<String, String> fOptions;
+		final CompilationUnit fUnit;
+		/** First and last line of each method declaration. */
+		final List<int[]> fMethodLines = new ArrayList<int[]>();
+		final Map<List<Object>, Skeleton> fSkeletons = new LinkedHashMap<List<Object>, Skeleton>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<List<Object>, Skeleton> eldest) {
+				return size() > MAX_SKELETONS;
+			}
+		};
+
+		Host(String source, Map<String, String> options, CompilationUnit unit) {
+			fSource = source;
+			fOptions = options;
+			fUnit = unit;
+			unit.accept(new ASTVisitor() {
+				@Override
+				public boolean visit(MethodDeclaration node) {
+					// same bounds as in SourceBasedSourceGenerator#visit(MethodDeclaration)
+					fMethodLines.add(new int[] {
+							fUnit.getLineNumber(node.getStartPosition()),
+							fUnit.getLineNumber(node.getStartPosition() + node.getLength()) });
+					return true;
+				}
+			});
+		}
+
+		/**
+		 * Returns the indexes of the method declarations enclosing the given
+		 * line. Lines enclosed by the same declarations have the same
+		 * skeleton.
+		 */
+		List<Integer> getLineContext(int line) {
+			List<Integer> context = new ArrayList<Integer>(2);
+			for (int i = 0; i < fMethodLines.size(); i++) {
+				int[] lines = fMethodLines.get(i);
+				if (lines[0] <= line && line <= lines[1]) {
+					context.add(Integer.valueOf(i));
+				}
+			}
+			return context;
+		}
+	}
+
+	private final Map<String, SoftReference<Host>> fHosts = new LinkedHashMap<String, SoftReference<Host>>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, SoftReference<Host>> eldest) {
+			return size() > MAX_HOSTS;
+		}
+	};
+
+	/**
+	 * @return the shared cache
+	 */
+	public static SourceSkeletonCache getDefault() {
+		return fgDefault;
+	}
+
+	/**
+	 * Returns the skeleton for evaluations at the given line of the given
+	 * type, generating it if not cached.
+	 *
+	 * @param source
+	 *            the source of the compilation unit or class file of the type
+	 * @param type
+	 *            the host type
+	 * @param line
+	 *            the line of the evaluation, or -1
+	 * @param createInAStaticMethod
+	 *            whether the snippet is evaluated in a static method
+	 * @param localTypesNames
+	 *            the type names of the local variables
+	 * @param localVariables
+	 *            the names of the local variables
+	 * @param project
+	 *            the project providing the compiler options
+	 * @return the skeleton
+	 */
+	Skeleton getSkeleton(String source, IType type, int line,
+			boolean createInAStaticMethod, String[] localTypesNames,
+			String[] localVariables, IJavaProject project) {
+		String sourceLevel = project.getOption(JavaCore.COMPILER_SOURCE, true);
+		Map<String, String> options = EvaluationSourceGenerator.getCompilerOptions(project);
+		String hostKey = type.getHandleIdentifier();
+		Host host = null;
+		synchronized (fHosts) {
+			SoftReference<Host> reference = fHosts.get(hostKey);
+			if (reference != null) {
+				host = reference.get();
+			}
+		}
+		if (host == null || !host.fSource.equals(source)
+				|| !host.fOptions.equals(options)) {
+			ASTParser parser = ASTParser.newParser(AST.JLS4);
+			parser.setSource(source.toCharArray());
+			parser.setCompilerOptions(options);
+			host = new Host(source, options, (CompilationUnit) parser.createAST(null));
+			synchronized (fHosts) {
+				fHosts.put(hostKey, new SoftReference<Host>(host));
+			}
+		}
+		synchronized (host) {
+			List<Object> key = new ArrayList<Object>(5);
+			key.add(host.getLineContext(line));
+			key.add(Boolean.valueOf(createInAStaticMethod));
+			key.add(Arrays.asList(localTypesNames));
+			key.add(Arrays.asList(localVariables));
+			key.add(sourceLevel);
+			Skeleton skeleton = host.fSkeletons.get(key);
+			if (skeleton == null) {
+				// the AST is only read, but is not thread safe
+				SourceBasedSourceGenerator visitor = new SourceBasedSourceGenerator(
+						type, line, createInAStaticMethod, localTypesNames,
+						localVariables, "", sourceLevel); //$NON-NLS-1$
+				host.fUnit.accept(visitor);
+				skeleton = new Skeleton();
+				if (visitor.hasError()) {
+					skeleton.fError = visitor.getError();
+				} else {
+					skeleton.fSource = visitor.getSource();
+					skeleton.fCompilationUnitName = visitor.getCompilationUnitName();
+					skeleton.fSnippetStart = visitor.getSnippetStart();
+					skeleton.fRunMethodStart = visitor.getRunMethodStart();
+					skeleton.fRunMethodLength = visitor.getRunMethodLength();
+				}
+				host.fSkeletons.put(key, skeleton);
+			}
+			return skeleton;
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -32,7 +32,7 @@ public class ArrayAccess extends ArrayInstruction {
 
 	@Override
 	public void execute() throws CoreException {
-		int index = ((IJavaPrimitiveValue) popValue()).getIntValue();
+		int index = ((IJavaPrimitiveValue) popOperand(0)).getIntValue();
 		IJavaArray array = popArray();
 		if (index >= array.getLength() || index < 0) {
 			throw new CoreException(
@@ -77,4 +77,12 @@ public class ArrayAccess extends ArrayInstruction {
 					"Internal error: attempt to access non-array object", null)); //$NON-NLS-1$
 		}
 	}
+
+	/*
+	 * @see Instruction#isSideEffectFree()
+	 */
+	@Override
+	public boolean isSideEffectFree() {
+		return true;
+	}
 }
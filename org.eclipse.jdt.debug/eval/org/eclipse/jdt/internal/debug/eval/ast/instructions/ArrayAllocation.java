@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -53,7 +53,7 @@ public class ArrayAllocation extends ArrayInstruction {
 			int[] exprDimensions = new int[fExprDimension];
 
 			for (int i = fExprDimension - 1; i >= 0; i--) {
-				exprDimensions[i] = ((IJavaPrimitiveValue) popValue())
+				exprDimensions[i] = ((IJavaPrimitiveValue) popOperand(0))
 						.getIntValue();
 			}
 
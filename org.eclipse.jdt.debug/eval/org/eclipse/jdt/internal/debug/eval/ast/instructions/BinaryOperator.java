@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -80,8 +80,16 @@ public abstract class BinaryOperator extends CompoundInstruction {
 	}
 
 	private void executeBinary() throws CoreException {
-		IJavaValue right = popValue();
-		IJavaValue left = popValue();
+		IJavaValue right;
+		IJavaValue left;
+		if (fResultTypeId == T_String || getInternResultType() == T_undefined) {
+			right = popValue();
+			left = popValue();
+		} else {
+			// primitive operands, operated on without creating values
+			right = popOperand(1);
+			left = popOperand(0);
+		}
 
 		switch (fResultTypeId) {
 		case T_String:
@@ -249,4 +257,11 @@ public abstract class BinaryOperator extends CompoundInstruction {
 		return getBinaryPromotionType(fLeftTypeId, fRightTypeId);
 	}
 
+	/*
+	 * @see Instruction#isSideEffectFree()
+	 */
+	@Override
+	public boolean isSideEffectFree() {
+		return !fIsAssignmentOperator && fResultTypeId != T_String;
+	}
 }
@@ -43,4 +43,11 @@ public class Dup extends SimpleInstruction {
 		return "Dup"; //$NON-NLS-1$
 	}
 
+	/*
+	 * @see Instruction#isSideEffectFree()
+	 */
+	@Override
+	public boolean isSideEffectFree() {
+		return true;
+	}
 }
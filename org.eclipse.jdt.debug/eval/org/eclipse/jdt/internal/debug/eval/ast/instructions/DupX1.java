@@ -41,4 +41,11 @@ public class DupX1 extends SimpleInstruction {
 		push(element1);
 	}
 
+	/*
+	 * @see Instruction#isSideEffectFree()
+	 */
+	@Override
+	public boolean isSideEffectFree() {
+		return true;
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2012 IBM Corporation and others.
+ * Copyright (c) 2000, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -33,6 +33,14 @@ import org.eclipse.osgi.util.NLS;
  */
 public abstract class Instruction {
 
+	/**
+	 * Key of the field resolved by an instruction in its inline cache. Types
+	 * are cached under their names or signatures.
+	 * 
+	 * @see #getInlineCache(Object)
+	 */
+	protected static final Object FIELD_CACHE_KEY = new Object();
+
 	private Interpreter fInterpreter;
 
 	public abstract int getSize();
@@ -55,6 +63,18 @@ public abstract class Instruction {
 
 	public abstract void execute() throws CoreException;
 
+	/**
+	 * Returns whether this instruction neither changes the state of the
+	 * target nor runs code in it, so that it can be executed while the thread
+	 * of the evaluation stays suspended. Instructions that push literals, read
+	 * variables or operate on primitive values override this method.
+	 * 
+	 * @return whether this instruction is free of side effects
+	 */
+	public boolean isSideEffectFree() {
+		return false;
+	}
+
 	protected IRuntimeContext getContext() {
 		return fInterpreter.getContext();
 	}
@@ -93,6 +113,28 @@ public abstract class Instruction {
 		return null;
 	}
 
+	/**
+	 * Returns the value this instruction resolved under the given key in a
+	 * previous evaluation of its instruction sequence, or <code>null</code>
+	 * if none.
+	 * 
+	 * @see Interpreter#getInlineCache(Instruction, Object)
+	 */
+	protected Object getInlineCache(Object key) throws CoreException {
+		return fInterpreter.getInlineCache(this, key);
+	}
+
+	/**
+	 * Caches a value resolved by this instruction for later evaluations of its
+	 * instruction sequence.
+	 * 
+	 * @see Interpreter#setInlineCache(Instruction, Object, Object)
+	 */
+	protected void setInlineCache(Object key, Object value)
+			throws CoreException {
+		fInterpreter.setInlineCache(this, key, value);
+	}
+
 	protected void jump(int offset) {
 		fInterpreter.jump(offset);
 	}
@@ -113,8 +155,19 @@ public abstract class Instruction {
 		return (IJavaValue) element;
 	}
 
+	/**
+	 * Pops the value of an operand to be operated on right away. A primitive
+	 * value may be returned as a view that is reused for the next operand
+	 * popped with the same index, and must not be kept.
+	 * 
+	 * @see Interpreter#popOperand(int)
+	 */
+	protected IJavaValue popOperand(int operand) throws CoreException {
+		return fInterpreter.popOperand(operand);
+	}
+
 	protected void pushNewValue(boolean value) {
-		fInterpreter.push(newValue(value));
+		fInterpreter.pushPrimitive(T_boolean, value ? 1 : 0);
 	}
 
 	protected IJavaValue newValue(boolean value) {
@@ -122,7 +175,7 @@ public abstract class Instruction {
 	}
 
 	protected void pushNewValue(byte value) {
-		fInterpreter.push(newValue(value));
+		fInterpreter.pushPrimitive(T_byte, value);
 	}
 
 	protected IJavaValue newValue(byte value) {
@@ -130,7 +183,7 @@ public abstract class Instruction {
 	}
 
 	protected void pushNewValue(short value) {
-		fInterpreter.push(newValue(value));
+		fInterpreter.pushPrimitive(T_short, value);
 	}
 
 	protected IJavaValue newValue(short value) {
@@ -138,7 +191,7 @@ public abstract class Instruction {
 	}
 
 	protected void pushNewValue(int value) {
-		fInterpreter.push(newValue(value));
+		fInterpreter.pushPrimitive(T_int, value);
 	}
 
 	protected IJavaValue newValue(int value) {
@@ -146,7 +199,7 @@ public abstract class Instruction {
 	}
 
 	protected void pushNewValue(long value) {
-		fInterpreter.push(newValue(value));
+		fInterpreter.pushPrimitive(T_long, value);
 	}
 
 	protected IJavaValue newValue(long value) {
@@ -154,7 +207,7 @@ public abstract class Instruction {
 	}
 
 	protected void pushNewValue(char value) {
-		fInterpreter.push(newValue(value));
+		fInterpreter.pushPrimitive(T_char, value);
 	}
 
 	protected IJavaValue newValue(char value) {
@@ -162,7 +215,7 @@ public abstract class Instruction {
 	}
 
 	protected void pushNewValue(float value) {
-		fInterpreter.push(newValue(value));
+		fInterpreter.pushPrimitive(T_float, Double.doubleToRawLongBits(value));
 	}
 
 	protected IJavaValue newValue(float value) {
@@ -170,7 +223,7 @@ public abstract class Instruction {
 	}
 
 	protected void pushNewValue(double value) {
-		fInterpreter.push(newValue(value));
+		fInterpreter.pushPrimitive(T_double, Double.doubleToRawLongBits(value));
 	}
 
 	protected IJavaValue newValue(double value) {
@@ -198,6 +251,11 @@ public abstract class Instruction {
 	}
 
 	protected IJavaType getType(String qualifiedName) throws CoreException {
+		IJavaType type = (IJavaType) getInlineCache(qualifiedName);
+		if (type != null) {
+			// loaded and resolved in a previous evaluation
+			return type;
+		}
 		// Force the class to be loaded, and record the class reference
 		// for later use if there are multiple classes with the same name.
 		IJavaClassObject classReference = getContext().classForName(
@@ -210,7 +268,9 @@ public abstract class Instruction {
 							InstructionsEvaluationMessages.Instruction_No_type,
 							new String[] { qualifiedName }), null));
 		}
-		return classReference.getInstanceType();
+		type = classReference.getInstanceType();
+		setInlineCache(qualifiedName, type);
+		return type;
 	}
 
 	/**
@@ -222,6 +282,10 @@ public abstract class Instruction {
 	 * @throws CoreException
 	 */
 	protected IJavaType getPrimitiveType(String name) throws CoreException {
+		IJavaType primitiveType = (IJavaType) getInlineCache(name);
+		if (primitiveType != null) {
+			return primitiveType;
+		}
 		IJavaReferenceType type = null;
 		if ("boolean".equals(name)) { //$NON-NLS-1$
 			type = (IJavaReferenceType) getType("java.lang.Boolean"); //$NON-NLS-1$
@@ -245,7 +309,9 @@ public abstract class Instruction {
 		if (type != null) {
 			IJavaFieldVariable field = type.getField("TYPE"); //$NON-NLS-1$
 			IJavaClassObject clazz = (IJavaClassObject) field.getValue();
-			return clazz.getInstanceType();
+			primitiveType = clazz.getInstanceType();
+			setInlineCache(name, primitiveType);
+			return primitiveType;
 		}
 		throw new CoreException(new Status(IStatus.ERROR,
 				JDIDebugPlugin.getUniqueIdentifier(), IStatus.OK,
@@ -263,6 +329,10 @@ public abstract class Instruction {
 			braces += "["; //$NON-NLS-1$
 		}
 		String signature = braces + typeSignature;
+		IJavaArrayType arrayType = (IJavaArrayType) getInlineCache(signature);
+		if (arrayType != null) {
+			return arrayType;
+		}
 		// Force the class to be loaded, and record the class reference
 		// for later use if there are multiple classes with the same name.
 		IJavaObject classReference = getContext().classForName(signature);
@@ -277,12 +347,16 @@ public abstract class Instruction {
 		checkTypes(types, qualifiedName);
 		if (types.length == 1) {
 			// Found only one class.
-			return (IJavaArrayType) types[0];
+			arrayType = (IJavaArrayType) types[0];
+			setInlineCache(signature, arrayType);
+			return arrayType;
 		}
 		// Found many classes, look for the right one for this scope.
 		for (IJavaType type : types) {
 			if (classReference.equals(getClassObject(type))) {
-				return (IJavaArrayType) type;
+				arrayType = (IJavaArrayType) type;
+				setInlineCache(signature, arrayType);
+				return arrayType;
 			}
 		}
 
@@ -11,12 +11,19 @@
 package org.eclipse.jdt.internal.debug.eval.ast.instructions;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.jdt.core.dom.Message;
+import org.eclipse.jdt.debug.core.IJavaDebugTarget;
+import org.eclipse.jdt.debug.core.IJavaReferenceType;
 import org.eclipse.jdt.debug.eval.ICompiledExpression;
+import org.eclipse.jdt.internal.debug.core.model.JDIDebugTarget;
+import org.eclipse.jdt.internal.debug.eval.ast.engine.IRuntimeContext;
 
 public class InstructionSequence implements ICompiledExpression {
 
@@ -29,6 +36,19 @@ public class InstructionSequence implements ICompiledExpression {
 	private String fSnippet;
 	private CoreException fException;
 
+	/**
+	 * Values resolved by the instructions of this sequence in previous
+	 * evaluations, keyed by instruction, or <code>null</code> if none.
+	 */
+	private Map<Instruction, Map<Object, Object>> fInlineCaches;
+	/**
+	 * The target, hot code replace count and receiving type the inline caches
+	 * are valid for.
+	 */
+	private IJavaDebugTarget fInlineCacheTarget;
+	private int fInlineCacheHotCodeReplaceCount;
+	private IJavaReferenceType fInlineCacheReceivingType;
+
 	public InstructionSequence(String snippet) {
 		fInstructions = new ArrayList<Instruction>(10);
 		fErrors = new ArrayList<String>();
@@ -145,4 +165,82 @@ public class InstructionSequence implements ICompiledExpression {
 	public int getEnd() {
 		return fInstructions.size() - 1;
 	}
+
+	/**
+	 * Answers true if none of the instructions in this sequence has side
+	 * effects, so that the sequence can be evaluated without resuming the
+	 * thread of the evaluation.
+	 * 
+	 * @see Instruction#isSideEffectFree()
+	 */
+	public boolean isSideEffectFree() {
+		for (Instruction instruction : fInstructions) {
+			if (!instruction.isSideEffectFree()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Discards the inline caches unless they are valid for the given context.
+	 * They are valid for the same receiving type in the same target until
+	 * classes are redefined.
+	 * 
+	 * @param context
+	 *            the context of an evaluation of this sequence
+	 * @throws CoreException
+	 *             if the receiving type cannot be retrieved
+	 */
+	public void validateInlineCaches(IRuntimeContext context)
+			throws CoreException {
+		IJavaDebugTarget target = context.getVM();
+		int hotCodeReplaceCount = 0;
+		if (target instanceof JDIDebugTarget) {
+			hotCodeReplaceCount = ((JDIDebugTarget) target)
+					.getHotCodeReplaceCount();
+		}
+		IJavaReferenceType receivingType = context.getReceivingType();
+		if (target != fInlineCacheTarget
+				|| hotCodeReplaceCount != fInlineCacheHotCodeReplaceCount
+				|| receivingType == null
+				|| !receivingType.equals(fInlineCacheReceivingType)) {
+			fInlineCaches = null;
+			fInlineCacheTarget = target;
+			fInlineCacheHotCodeReplaceCount = hotCodeReplaceCount;
+			fInlineCacheReceivingType = receivingType;
+		}
+	}
+
+	/**
+	 * Returns the value the given instruction cached under the given key, or
+	 * <code>null</code> if none.
+	 * 
+	 * @see #validateInlineCaches(IRuntimeContext)
+	 */
+	public Object getInlineCache(Instruction instruction, Object key) {
+		if (fInlineCaches == null) {
+			return null;
+		}
+		Map<Object, Object> cache = fInlineCaches.get(instruction);
+		return cache == null ? null : cache.get(key);
+	}
+
+	/**
+	 * Caches a value resolved by the given instruction under the given key,
+	 * for later evaluations of this sequence.
+	 * 
+	 * @see #validateInlineCaches(IRuntimeContext)
+	 */
+	public void setInlineCache(Instruction instruction, Object key, Object value) {
+		if (fInlineCaches == null) {
+			fInlineCaches = new IdentityHashMap<Instruction, Map<Object, Object>>();
+		}
+		Map<Object, Object> cache = fInlineCaches.get(instruction);
+		if (cache == null) {
+			cache = new HashMap<Object, Object>(4);
+			fInlineCaches.put(instruction, cache);
+		}
+		cache.put(key, value);
+	}
 }
@@ -35,4 +35,11 @@ public class Jump extends SimpleInstruction {
 		return InstructionsEvaluationMessages.Jump_jump_1;
 	}
 
+	/*
+	 * @see Instruction#isSideEffectFree()
+	 */
+	@Override
+	public boolean isSideEffectFree() {
+		return true;
+	}
 }
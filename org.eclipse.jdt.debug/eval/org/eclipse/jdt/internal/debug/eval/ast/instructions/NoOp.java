@@ -31,4 +31,11 @@ public class NoOp extends CompoundInstruction {
 		return InstructionsEvaluationMessages.NoOp_no_op_1;
 	}
 
+	/*
+	 * @see Instruction#isSideEffectFree()
+	 */
+	@Override
+	public boolean isSideEffectFree() {
+		return true;
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -24,7 +24,7 @@ public class NotOperator extends UnaryOperator {
 	 */
 	@Override
 	public void execute() throws CoreException {
-		IJavaPrimitiveValue value = (IJavaPrimitiveValue) popValue();
+		IJavaPrimitiveValue value = (IJavaPrimitiveValue) popOperand(0);
 		pushNewValue(!value.getBooleanValue());
 	}
 
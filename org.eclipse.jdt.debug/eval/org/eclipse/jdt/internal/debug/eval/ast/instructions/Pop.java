@@ -49,4 +49,11 @@ public class Pop extends Instruction {
 		return fSize;
 	}
 
+	/*
+	 * @see Instruction#isSideEffectFree()
+	 */
+	@Override
+	public boolean isSideEffectFree() {
+		return true;
+	}
 }
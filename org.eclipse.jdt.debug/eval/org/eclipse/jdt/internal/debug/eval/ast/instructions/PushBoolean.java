@@ -29,4 +29,12 @@ public class PushBoolean extends SimpleInstruction {
 	public String toString() {
 		return InstructionsEvaluationMessages.PushBoolean_push__1 + fValue;
 	}
+
+	/*
+	 * @see Instruction#isSideEffectFree()
+	 */
+	@Override
+	public boolean isSideEffectFree() {
+		return true;
+	}
 }
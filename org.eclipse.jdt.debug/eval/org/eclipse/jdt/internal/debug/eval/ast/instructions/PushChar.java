@@ -31,4 +31,11 @@ public class PushChar extends SimpleInstruction {
 		return InstructionsEvaluationMessages.PushChar_push__1 + fValue;
 	}
 
+	/*
+	 * @see Instruction#isSideEffectFree()
+	 */
+	@Override
+	public boolean isSideEffectFree() {
+		return true;
+	}
 }
@@ -31,4 +31,11 @@ public class PushDouble extends SimpleInstruction {
 		return InstructionsEvaluationMessages.PushDouble_push__1 + fValue;
 	}
 
+	/*
+	 * @see Instruction#isSideEffectFree()
+	 */
+	@Override
+	public boolean isSideEffectFree() {
+		return true;
+	}
 }
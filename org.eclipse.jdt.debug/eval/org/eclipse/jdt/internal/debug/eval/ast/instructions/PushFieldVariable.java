@@ -22,6 +22,9 @@ import org.eclipse.jdt.internal.debug.core.model.JDIObjectValue;
 import org.eclipse.jdt.internal.debug.eval.ast.engine.IRuntimeContext;
 import org.eclipse.osgi.util.NLS;
 
+import com.sun.jdi.Field;
+import com.sun.jdi.ReferenceType;
+
 /**
  * Pops an object off the stack, and pushes the value of one of its fields onto
  * the stack.
@@ -59,9 +62,8 @@ public class PushFieldVariable extends CompoundInstruction {
 
 		IJavaVariable field = null;
 
-		if (fDeclaringTypeSignature == null) {
-			field = ((JDIObjectValue) receiver).getField(fName,
-					fSuperClassLevel);
+		if (fDeclaringTypeSignature == null || receiver instanceof JDIObjectValue) {
+			field = getField((JDIObjectValue) receiver);
 		} else {
 			field = receiver.getField(fName, fDeclaringTypeSignature);
 		}
@@ -94,9 +96,56 @@ public class PushFieldVariable extends CompoundInstruction {
 		push(field);
 	}
 
+	/**
+	 * Returns the variable for the field of the given object, or
+	 * <code>null</code> if there is none. The field is resolved once per type
+	 * of receiver.
+	 */
+	private IJavaVariable getField(JDIObjectValue receiver)
+			throws CoreException {
+		ReferenceType type = receiver.getUnderlyingReferenceType();
+		ResolvedField resolved = (ResolvedField) getInlineCache(FIELD_CACHE_KEY);
+		if (resolved == null || !resolved.fType.equals(type)) {
+			Field field;
+			if (fDeclaringTypeSignature == null) {
+				field = receiver.getUnderlyingField(fName, fSuperClassLevel);
+			} else {
+				field = receiver.getUnderlyingField(fName,
+						fDeclaringTypeSignature);
+			}
+			if (field == null) {
+				return null;
+			}
+			resolved = new ResolvedField(type, field);
+			setInlineCache(FIELD_CACHE_KEY, resolved);
+		}
+		return receiver.getField(resolved.fField);
+	}
+
+	/**
+	 * A field resolved for a type of receiver.
+	 */
+	private static class ResolvedField {
+		final ReferenceType fType;
+		final Field fField;
+
+		ResolvedField(ReferenceType type, Field field) {
+			fType = type;
+			fField = field;
+		}
+	}
+
 	@Override
 	public String toString() {
 		return NLS.bind(InstructionsEvaluationMessages.PushFieldVariable_push_field__0__2,
 						new String[] { fName });
 	}
+
+	/*
+	 * @see Instruction#isSideEffectFree()
+	 */
+	@Override
+	public boolean isSideEffectFree() {
+		return true;
+	}
 }
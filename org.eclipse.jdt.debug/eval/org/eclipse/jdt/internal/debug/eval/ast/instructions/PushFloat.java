@@ -31,4 +31,11 @@ public class PushFloat extends SimpleInstruction {
 		return InstructionsEvaluationMessages.PushFloat_push__1 + fValue;
 	}
 
+	/*
+	 * @see Instruction#isSideEffectFree()
+	 */
+	@Override
+	public boolean isSideEffectFree() {
+		return true;
+	}
 }
@@ -31,4 +31,11 @@ public class PushInt extends SimpleInstruction {
 		return InstructionsEvaluationMessages.PushInt_push__1 + fValue;
 	}
 
+	/*
+	 * @see Instruction#isSideEffectFree()
+	 */
+	@Override
+	public boolean isSideEffectFree() {
+		return true;
+	}
 }
@@ -85,4 +85,12 @@ public class PushLocalVariable extends SimpleInstruction {
 				InstructionsEvaluationMessages.PushLocalVariable_push____0___2,
 				new String[] { getName() });
 	}
+
+	/*
+	 * @see Instruction#isSideEffectFree()
+	 */
+	@Override
+	public boolean isSideEffectFree() {
+		return true;
+	}
 }
@@ -31,4 +31,11 @@ public class PushLong extends SimpleInstruction {
 		return InstructionsEvaluationMessages.PushLong_push__1 + fValue;
 	}
 
+	/*
+	 * @see Instruction#isSideEffectFree()
+	 */
+	@Override
+	public boolean isSideEffectFree() {
+		return true;
+	}
 }
@@ -24,4 +24,12 @@ public class PushNull extends SimpleInstruction {
 	public String toString() {
 		return InstructionsEvaluationMessages.PushNull_push___null__1;
 	}
+
+	/*
+	 * @see Instruction#isSideEffectFree()
+	 */
+	@Override
+	public boolean isSideEffectFree() {
+		return true;
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2012 IBM Corporation and others.
+ * Copyright (c) 2000, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -38,9 +38,14 @@ public class PushStaticFieldVariable extends CompoundInstruction {
 
 	@Override
 	public void execute() throws CoreException {
-		IJavaType receiver = getType(fQualifiedTypeName);
+		// the variable retrieves the current value of the field when asked
+		IJavaVariable field = (IJavaVariable) getInlineCache(FIELD_CACHE_KEY);
+		if (field != null) {
+			push(field);
+			return;
+		}
 
-		IJavaVariable field = null;
+		IJavaType receiver = getType(fQualifiedTypeName);
 
 		if (receiver instanceof IJavaInterfaceType) {
 			field = ((IJavaInterfaceType) receiver).getField(fFieldName);
@@ -54,6 +59,7 @@ public class PushStaticFieldVariable extends CompoundInstruction {
 					JDIDebugPlugin.getUniqueIdentifier(), IStatus.OK, message,
 					null)); // couldn't find the field
 		}
+		setInlineCache(FIELD_CACHE_KEY, field);
 		push(field);
 	}
 
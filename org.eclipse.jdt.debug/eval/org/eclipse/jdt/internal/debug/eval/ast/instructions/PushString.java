@@ -31,4 +31,11 @@ public class PushString extends SimpleInstruction {
 		return InstructionsEvaluationMessages.PushString_push__1 + fValue;
 	}
 
+	/*
+	 * @see Instruction#isSideEffectFree()
+	 */
+	@Override
+	public boolean isSideEffectFree() {
+		return true;
+	}
 }
@@ -58,4 +58,12 @@ public class PushThis extends SimpleInstruction {
 	public String toString() {
 		return InstructionsEvaluationMessages.PushThis_push___this__1;
 	}
+
+	/*
+	 * @see Instruction#isSideEffectFree()
+	 */
+	@Override
+	public boolean isSideEffectFree() {
+		return true;
+	}
 }
@@ -34,4 +34,11 @@ public class ReturnInstruction extends CompoundInstruction {
 		return InstructionsEvaluationMessages.ReturnInstruction_return;
 	}
 
+	/*
+	 * @see Instruction#isSideEffectFree()
+	 */
+	@Override
+	public boolean isSideEffectFree() {
+		return true;
+	}
 }
@@ -17,4 +17,12 @@ public abstract class UnaryOperator extends CompoundInstruction {
 		super(start);
 		fExpressionTypeId = expressionTypeId;
 	}
+
+	/*
+	 * @see Instruction#isSideEffectFree()
+	 */
+	@Override
+	public boolean isSideEffectFree() {
+		return true;
+	}
 }
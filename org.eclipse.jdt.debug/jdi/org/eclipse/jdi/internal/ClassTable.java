@@ -0,0 +1,241 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdi.internal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import com.sun.jdi.ReferenceType;
+
+/**
+ * Table of the reference types that are known to be loaded in the Virtual
+ * Machine, by signature. The table is seeded with all loaded classes once and
+ * then maintained from class prepare and class unload events.
+ * <p>
+ * Until the table is seeded, and for signatures that have been marked stale,
+ * the table cannot answer queries and the Virtual Machine must be asked
+ * instead. A type that is not in the table may have been prepared before its
+ * class prepare event has been received, so an empty answer cannot be trusted
+ * either.
+ * </p>
+ * <p>
+ * Class and interface types are also kept sorted by name and by reversed name,
+ * so that the types whose name starts or ends with a given string are found
+ * without looking at the others. Array types are not prepared and are not
+ * kept by name.
+ * </p>
+ *
+ * @see VirtualMachineImpl#classesBySignature(String)
+ * @since 3.10
+ */
+class ClassTable {
+
+	/** Known types by signature. */
+	private Map<String, List<ReferenceTypeImpl>> fTypesBySignature = new HashMap<String, List<ReferenceTypeImpl>>();
+
+	/** Known class and interface types by name. */
+	private SortedMap<String, List<ReferenceTypeImpl>> fTypesByName = new TreeMap<String, List<ReferenceTypeImpl>>();
+
+	/** Known class and interface types by reversed name. */
+	private SortedMap<String, List<ReferenceTypeImpl>> fTypesByReversedName = new TreeMap<String, List<ReferenceTypeImpl>>();
+
+	/** Signatures for which the known types may be out of date. */
+	private Set<String> fStaleSignatures = new HashSet<String>();
+
+	/** Whether the table has been seeded with all loaded classes. */
+	private boolean fSeeded = false;
+
+	/**
+	 * @return Returns whether the table has been seeded with all loaded
+	 *         classes.
+	 */
+	synchronized boolean isSeeded() {
+		return fSeeded;
+	}
+
+	/**
+	 * Adds all given types, which must be all types loaded in the Virtual
+	 * Machine, and starts answering queries.
+	 */
+	synchronized void seed(List<ReferenceType> types) {
+		// the types have been read with their signature
+		for (ReferenceType type : types) {
+			add(type.signature(), (ReferenceTypeImpl) type);
+		}
+		fSeeded = true;
+	}
+
+	/**
+	 * @return Returns the known types with the given signature, or
+	 *         <code>null</code> if the table cannot tell.
+	 */
+	synchronized List<ReferenceType> typesWithSignature(String signature) {
+		if (!fSeeded || fStaleSignatures.contains(signature)) {
+			return null;
+		}
+		List<ReferenceTypeImpl> types = fTypesBySignature.get(signature);
+		if (types == null) {
+			return new ArrayList<ReferenceType>(0);
+		}
+		return new ArrayList<ReferenceType>(types);
+	}
+
+	/**
+	 * @return Returns the known class and interface types whose name starts
+	 *         with the given prefix, or <code>null</code> if the table cannot
+	 *         tell.
+	 */
+	synchronized List<ReferenceType> typesWithNamePrefix(String prefix) {
+		if (!fSeeded || !fStaleSignatures.isEmpty()) {
+			return null;
+		}
+		return typesInRange(fTypesByName, prefix);
+	}
+
+	/**
+	 * @return Returns the known class and interface types whose name ends
+	 *         with the given suffix, or <code>null</code> if the table cannot
+	 *         tell.
+	 */
+	synchronized List<ReferenceType> typesWithNameSuffix(String suffix) {
+		if (!fSeeded || !fStaleSignatures.isEmpty()) {
+			return null;
+		}
+		return typesInRange(fTypesByReversedName, reverse(suffix));
+	}
+
+	/**
+	 * @return Returns the signatures for which the known types may be out of
+	 *         date.
+	 */
+	synchronized List<String> staleSignatures() {
+		return new ArrayList<String>(fStaleSignatures);
+	}
+
+	/**
+	 * Records the types the Virtual Machine reported for the given signature.
+	 * If the signature was stale, the reported types replace the known ones.
+	 */
+	synchronized void update(String signature, List<ReferenceType> types) {
+		if (fStaleSignatures.remove(signature)) {
+			List<ReferenceTypeImpl> known = fTypesBySignature.remove(signature);
+			if (known != null) {
+				for (ReferenceTypeImpl type : known) {
+					removeName(type);
+				}
+			}
+		}
+		for (ReferenceType type : types) {
+			add(signature, (ReferenceTypeImpl) type);
+		}
+	}
+
+	/**
+	 * Adds a type with the given signature that has been loaded in the
+	 * Virtual Machine.
+	 */
+	synchronized void add(String signature, ReferenceTypeImpl type) {
+		List<ReferenceTypeImpl> types = fTypesBySignature.get(signature);
+		if (types == null) {
+			// there is rarely more than one type per signature
+			types = new ArrayList<ReferenceTypeImpl>(1);
+			fTypesBySignature.put(signature, types);
+		} else if (types.contains(type)) {
+			return;
+		}
+		types.add(type);
+		if (!isArraySignature(signature)) {
+			String name = type.name();
+			addTo(fTypesByName, name, type);
+			addTo(fTypesByReversedName, reverse(name), type);
+		}
+	}
+
+	/**
+	 * Removes a type with the given signature that has been unloaded from the
+	 * Virtual Machine.
+	 */
+	synchronized void remove(String signature, ReferenceTypeImpl type) {
+		List<ReferenceTypeImpl> types = fTypesBySignature.get(signature);
+		if (types != null && types.remove(type)) {
+			if (types.isEmpty()) {
+				fTypesBySignature.remove(signature);
+			}
+			if (!isArraySignature(signature)) {
+				removeName(type);
+			}
+		}
+	}
+
+	/**
+	 * Marks the types with the given signature as out of date, so that they
+	 * are requested from the Virtual Machine again.
+	 */
+	synchronized void invalidate(String signature) {
+		if (fSeeded) {
+			fStaleSignatures.add(signature);
+		}
+	}
+
+	private void removeName(ReferenceTypeImpl type) {
+		String name = type.name();
+		removeFrom(fTypesByName, name, type);
+		removeFrom(fTypesByReversedName, reverse(name), type);
+	}
+
+	private static void addTo(Map<String, List<ReferenceTypeImpl>> map, String key, ReferenceTypeImpl type) {
+		List<ReferenceTypeImpl> types = map.get(key);
+		if (types == null) {
+			types = new ArrayList<ReferenceTypeImpl>(1);
+			map.put(key, types);
+		}
+		types.add(type);
+	}
+
+	private static void removeFrom(Map<String, List<ReferenceTypeImpl>> map, String key, ReferenceTypeImpl type) {
+		List<ReferenceTypeImpl> types = map.get(key);
+		if (types != null && types.remove(type) && types.isEmpty()) {
+			map.remove(key);
+		}
+	}
+
+	/**
+	 * @return Returns the types of all keys that start with the given prefix.
+	 */
+	private static List<ReferenceType> typesInRange(SortedMap<String, List<ReferenceTypeImpl>> map, String prefix) {
+		Collection<List<ReferenceTypeImpl>> range;
+		if (prefix.length() == 0) {
+			range = map.values();
+		} else {
+			range = map.subMap(prefix, prefix + Character.MAX_VALUE).values();
+		}
+		List<ReferenceType> result = new ArrayList<ReferenceType>();
+		for (List<ReferenceTypeImpl> types : range) {
+			result.addAll(types);
+		}
+		return result;
+	}
+
+	private static String reverse(String string) {
+		return new StringBuilder(string).reverse().toString();
+	}
+
+	private static boolean isArraySignature(String signature) {
+		return signature.length() > 0 && signature.charAt(0) == '[';
+	}
+}
@@ -92,14 +92,11 @@ public class ClassTypeImpl extends ReferenceTypeImpl implements ClassType {
 
 		// For all classes that have this class cached as superclass, this cache
 		// must be undone.
-		Iterator<Object> itr = virtualMachineImpl().allCachedRefTypes();
+		Iterator<Object> itr = virtualMachineImpl().allCachedRefTypes(ClassTypeImpl.class);
 		while (itr.hasNext()) {
-			ReferenceTypeImpl refType = (ReferenceTypeImpl) itr.next();
-			if (refType instanceof ClassTypeImpl) {
-				ClassTypeImpl classType = (ClassTypeImpl) refType;
-				if (classType.fSuperclass != null && classType.fSuperclass.equals(this)) {
-					classType.flushStoredJdwpResults();
-				}
+			ClassTypeImpl classType = (ClassTypeImpl) itr.next();
+			if (classType.fSuperclass != null && classType.fSuperclass.equals(this)) {
+				classType.flushStoredJdwpResults();
 			}
 		}
 
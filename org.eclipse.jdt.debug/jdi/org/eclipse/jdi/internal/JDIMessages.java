@@ -47,7 +47,6 @@ public class JDIMessages extends NLS {
 	public static String MethodImpl_Can__t_compare_method_to_given_object_6;
 	public static String MethodImpl_No_local_variable_information_available_9;
 	public static String MethodImpl_Got_MethodID_of_ReferenceType_that_is_not_a_member_of_the_ReferenceType_10;
-	public static String MethodImpl_No_valid_location_at_the_specified_code_index__0__2;
 
 	public static String MirrorImpl_Got_error_code_in_reply___1;
 	public static String MirrorImpl_Got_invalid_data___2;
@@ -0,0 +1,112 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdi.internal;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+import com.sun.jdi.Location;
+
+/**
+ * Unmodifiable list of the locations at given code indexes of one or more
+ * methods. Only the code indexes are held; a location is created when it is
+ * accessed, so that the line locations of large types do not have to be kept
+ * as objects.
+ *
+ * @since 3.10
+ */
+class LineLocationList extends AbstractList<Location> implements RandomAccess {
+
+	private final VirtualMachineImpl fVirtualMachine;
+
+	/** The methods that have locations in the list, in list order. */
+	private final MethodImpl[] fMethods;
+
+	/** The code indexes of the locations in each method, never empty. */
+	private final long[][] fCodeIndexes;
+
+	/** Index in the list of the first location of each method. */
+	private final int[] fOffsets;
+
+	private final int fSize;
+
+	/**
+	 * Creates the list of the locations at the given code indexes of the
+	 * given method. The array is not copied and must not be modified.
+	 */
+	LineLocationList(VirtualMachineImpl vmImpl, MethodImpl method, long[] codeIndexes) {
+		fVirtualMachine = vmImpl;
+		if (codeIndexes.length == 0) {
+			fMethods = new MethodImpl[0];
+			fCodeIndexes = new long[0][];
+			fOffsets = new int[0];
+		} else {
+			fMethods = new MethodImpl[] { method };
+			fCodeIndexes = new long[][] { codeIndexes };
+			fOffsets = new int[] { 0 };
+		}
+		fSize = codeIndexes.length;
+	}
+
+	/**
+	 * Creates the list of all locations in the given lists, in order.
+	 */
+	LineLocationList(VirtualMachineImpl vmImpl, List<LineLocationList> lists) {
+		fVirtualMachine = vmImpl;
+		List<MethodImpl> methods = new ArrayList<MethodImpl>(lists.size());
+		List<long[]> codeIndexes = new ArrayList<long[]>(lists.size());
+		for (LineLocationList list : lists) {
+			methods.addAll(Arrays.asList(list.fMethods));
+			codeIndexes.addAll(Arrays.asList(list.fCodeIndexes));
+		}
+		fMethods = methods.toArray(new MethodImpl[methods.size()]);
+		fCodeIndexes = codeIndexes.toArray(new long[codeIndexes.size()][]);
+		fOffsets = new int[fMethods.length];
+		int size = 0;
+		for (int i = 0; i < fOffsets.length; i++) {
+			fOffsets[i] = size;
+			size += fCodeIndexes[i].length;
+		}
+		fSize = size;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.AbstractList#get(int)
+	 */
+	@Override
+	public Location get(int index) {
+		if (index < 0 || index >= fSize) {
+			throw new IndexOutOfBoundsException(Integer.toString(index));
+		}
+		// the offsets are strictly increasing since no method is empty
+		int method = Arrays.binarySearch(fOffsets, index);
+		if (method < 0) {
+			method = -method - 2;
+		}
+		return new LocationImpl(fVirtualMachine, fMethods[method],
+				fCodeIndexes[method][index - fOffsets[method]]);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.AbstractCollection#size()
+	 */
+	@Override
+	public int size() {
+		return fSize;
+	}
+}
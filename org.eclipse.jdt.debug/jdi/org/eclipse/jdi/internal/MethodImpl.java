@@ -24,14 +24,11 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.TreeSet;
 
 import org.eclipse.jdi.internal.jdwp.JdwpCommandPacket;
 import org.eclipse.jdi.internal.jdwp.JdwpMethodID;
 import org.eclipse.jdi.internal.jdwp.JdwpReplyPacket;
 
-import com.ibm.icu.text.MessageFormat;
 import com.sun.jdi.AbsentInformationException;
 import com.sun.jdi.ClassLoaderReference;
 import com.sun.jdi.ClassNotLoadedException;
@@ -59,17 +56,27 @@ public class MethodImpl extends TypeComponentImpl implements Method, Locatable {
 	private List<LocalVariable> fVariables = null;
 	private long fLowestValidCodeIndex = -1;
 	private long fHighestValidCodeIndex = -1;
-	private Map<Long, Integer> fCodeIndexToLine = null;
-	private Map<Integer, List<Long>> fLineToCodeIndexes = null;
-	private Map<String, Map<String, List<Location>>> fStratumAllLineLocations = null;
+	private Map<String, Map<String, LineLocationList>> fStratumAllLineLocations = null;
 	private int fArgumentSlotsCount = -1;
 	private List<LocalVariable> fArguments = null;
 	private List<Type> fArgumentTypes = null;
 	private List<String> fArgumentTypeNames = null;
 	private List<String> fArgumentTypeSignatures = null;
 	private byte[] fByteCodes = null;
+	/**
+	 * The line table: code indexes in ascending order and the line number of
+	 * each, or <code>null</code> if it has not been retrieved.
+	 */
 	private long[] fCodeIndexTable;
 	private int[] fJavaStratumLineNumberTable;
+	/**
+	 * Positions in the line table sorted by line number, or <code>null</code>
+	 * if the line locations have not been looked up yet.
+	 */
+	private int[] fLineSortedPositions;
+	/** The lowest and the highest line number in the line table. */
+	private int fLowestLine;
+	private int fHighestLine;
 
 	private String fReturnTypeName = null;
 
@@ -92,11 +99,10 @@ public class MethodImpl extends TypeComponentImpl implements Method, Locatable {
 		fVariables = null;
 		fLowestValidCodeIndex = -1;
 		fHighestValidCodeIndex = -1;
-		fCodeIndexToLine = null;
-		fLineToCodeIndexes = null;
 		fStratumAllLineLocations = null;
 		fCodeIndexTable = null;
 		fJavaStratumLineNumberTable = null;
+		fLineSortedPositions = null;
 		fArgumentSlotsCount = -1;
 		fArguments = null;
 		fArgumentTypes = null;
@@ -113,27 +119,47 @@ public class MethodImpl extends TypeComponentImpl implements Method, Locatable {
 	}
 
 	/**
-	 * @return Returns map of location to line number.
+	 * Marks the positions in the line table of the code indexes assigned to
+	 * the given line.
 	 */
-	protected Map<Long, Integer> javaStratumCodeIndexToLine()
-			throws AbsentInformationException {
-		if (isAbstract()) {
-			return Collections.EMPTY_MAP;
+	private void markPositionsOfLine(int line, boolean[] marks) {
+		int[] positions = fLineSortedPositions;
+		if (positions == null) {
+			positions = sortPositionsByLine(fJavaStratumLineNumberTable);
+			fLineSortedPositions = positions;
+		}
+		// find the first position with the line
+		int low = 0;
+		int high = positions.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (fJavaStratumLineNumberTable[positions[middle]] < line) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		for (int i = low; i < positions.length
+				&& fJavaStratumLineNumberTable[positions[i]] == line; i++) {
+			marks[positions[i]] = true;
 		}
-		getLineTable();
-		return fCodeIndexToLine;
 	}
 
 	/**
-	 * @return Returns map of line number to locations.
+	 * @return Returns the positions in the given line number table, sorted by
+	 *         line number and then by position.
 	 */
-	protected List<Long> javaStratumLineToCodeIndexes(int line) throws AbsentInformationException {
-		if (isAbstract() || isNative()) {
-			return null;
+	private static int[] sortPositionsByLine(int[] lineNumbers) {
+		long[] keys = new long[lineNumbers.length];
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = ((long) lineNumbers[i] << 32) | i;
 		}
-		getLineTable();
-
-		return fLineToCodeIndexes.get(new Integer(line));
+		Arrays.sort(keys);
+		int[] positions = new int[keys.length];
+		for (int i = 0; i < keys.length; i++) {
+			positions[i] = (int) keys[i];
+		}
+		return positions;
 	}
 
 	/**
@@ -143,8 +169,8 @@ public class MethodImpl extends TypeComponentImpl implements Method, Locatable {
 		if (isObsolete()) {
 			return;
 		}
-		if (fCodeIndexToLine != null) {
-			if (fCodeIndexToLine.isEmpty()) {
+		if (fCodeIndexTable != null) {
+			if (fCodeIndexTable.length == 0) {
 				throw new AbsentInformationException(
 						JDIMessages.MethodImpl_Got_empty_line_number_table_for_this_method_1);
 			}
@@ -153,12 +179,79 @@ public class MethodImpl extends TypeComponentImpl implements Method, Locatable {
 
 		initJdwpRequest();
 		try {
-			ByteArrayOutputStream outBytes = new ByteArrayOutputStream();
-			DataOutputStream outData = new DataOutputStream(outBytes);
+			readLineTable(requestLineTable().reply());
+		} finally {
+			handledJdwpRequest();
+		}
+	}
+
+	/**
+	 * @return Returns whether the line table of this method still has to be
+	 *         retrieved from the VM.
+	 */
+	private boolean needsLineTable() {
+		return fCodeIndexTable == null && !isAbstract() && !isNative()
+				&& !isObsolete();
+	}
+
+	/**
+	 * Sends the request for the line table without waiting for the reply.
+	 */
+	private PendingReply requestLineTable() {
+		ByteArrayOutputStream outBytes = new ByteArrayOutputStream();
+		DataOutputStream outData = new DataOutputStream(outBytes);
+		try {
 			writeWithReferenceType(this, outData);
+		} catch (IOException e) {
+			defaultIOExceptionHandler(e);
+		}
+		return requestVMAsync(JdwpCommandPacket.M_LINE_TABLE, outBytes);
+	}
 
-			JdwpReplyPacket replyPacket = requestVM(
-					JdwpCommandPacket.M_LINE_TABLE, outBytes);
+	/**
+	 * Retrieves the line tables of all given methods that do not know theirs
+	 * yet. All requests are sent before the first reply is awaited, so this
+	 * costs a single round-trip instead of one per method.
+	 */
+	static void prefetchLineTables(List<Method> methods) {
+		List<MethodImpl> fetching = new ArrayList<MethodImpl>();
+		for (Method method : methods) {
+			MethodImpl methodImpl = (MethodImpl) method;
+			if (methodImpl.needsLineTable()) {
+				fetching.add(methodImpl);
+			}
+		}
+		if (fetching.size() < 2) {
+			// nothing to gain
+			return;
+		}
+		List<PendingReply> replies = new ArrayList<PendingReply>(fetching.size());
+		try {
+			for (MethodImpl method : fetching) {
+				replies.add(method.requestLineTable());
+			}
+			for (int i = 0; i < replies.size(); i++) {
+				MethodImpl method = fetching.get(i);
+				method.initJdwpRequest();
+				try {
+					method.readLineTable(replies.get(i).reply());
+				} catch (AbsentInformationException e) {
+					// reported again when the line table of the method is used
+				} finally {
+					method.handledJdwpRequest();
+				}
+			}
+		} catch (RuntimeException e) {
+			PendingReply.cancelAll(replies);
+			throw e;
+		}
+	}
+
+	/**
+	 * Reads the line table from the given reply.
+	 */
+	private void readLineTable(JdwpReplyPacket replyPacket) throws AbsentInformationException {
+		try {
 			switch (replyPacket.errorCode()) {
 			case JdwpReplyPacket.ABSENT_INFORMATION:
 				throw new AbsentInformationException(
@@ -173,39 +266,53 @@ public class MethodImpl extends TypeComponentImpl implements Method, Locatable {
 			fLowestValidCodeIndex = readLong("lowest index", replyData); //$NON-NLS-1$
 			fHighestValidCodeIndex = readLong("highest index", replyData); //$NON-NLS-1$
 			int nrOfElements = readInt("elements", replyData); //$NON-NLS-1$
-			fCodeIndexToLine = new HashMap<Long, Integer>();
-			fLineToCodeIndexes = new HashMap<Integer, List<Long>>();
+			long[] codeIndexes = new long[nrOfElements];
+			int[] lineNumbers = new int[nrOfElements];
+			boolean sorted = true;
+			int lowestLine = Integer.MAX_VALUE;
+			int highestLine = Integer.MIN_VALUE;
+			for (int i = 0; i < nrOfElements; i++) {
+				codeIndexes[i] = readLong("code index", replyData); //$NON-NLS-1$
+				lineNumbers[i] = readInt("line nr", replyData); //$NON-NLS-1$
+				sorted &= i == 0 || codeIndexes[i - 1] <= codeIndexes[i];
+				lowestLine = Math.min(lowestLine, lineNumbers[i]);
+				highestLine = Math.max(highestLine, lineNumbers[i]);
+			}
+			if (!sorted) {
+				sortByCodeIndex(codeIndexes, lineNumbers);
+			}
+			fJavaStratumLineNumberTable = lineNumbers;
+			fLineSortedPositions = null;
+			fLowestLine = lowestLine;
+			fHighestLine = highestLine;
+			fCodeIndexTable = codeIndexes;
 			if (nrOfElements == 0) {
 				throw new AbsentInformationException(
 						JDIMessages.MethodImpl_Got_empty_line_number_table_for_this_method_3);
 			}
-			fCodeIndexTable = new long[nrOfElements];
-			fJavaStratumLineNumberTable = new int[nrOfElements];
-			for (int i = 0; i < nrOfElements; i++) {
-				long lineCodeIndex = readLong("code index", replyData); //$NON-NLS-1$
-				Long lineCodeIndexLong = new Long(lineCodeIndex);
-				int lineNr = readInt("line nr", replyData); //$NON-NLS-1$
-				Integer lineNrInt = new Integer(lineNr);
-
-				// Add entry to code-index to line mapping.
-				fCodeIndexToLine.put(lineCodeIndexLong, lineNrInt);
-
-				fCodeIndexTable[i] = lineCodeIndex;
-				fJavaStratumLineNumberTable[i] = lineNr;
-
-				List<Long> lineNrEntry = fLineToCodeIndexes.get(lineNrInt);
-				if (lineNrEntry == null) {
-					lineNrEntry = new ArrayList<Long>();
-					fLineToCodeIndexes.put(lineNrInt, lineNrEntry);
-				}
-				lineNrEntry.add(lineCodeIndexLong);
-			}
 		} catch (IOException e) {
-			fCodeIndexToLine = null;
-			fLineToCodeIndexes = null;
+			fCodeIndexTable = null;
+			fJavaStratumLineNumberTable = null;
 			defaultIOExceptionHandler(e);
-		} finally {
-			handledJdwpRequest();
+		}
+	}
+
+	/**
+	 * Sorts the entries of a line table by code index. Line tables are
+	 * normally sorted already.
+	 */
+	private static void sortByCodeIndex(long[] codeIndexes, int[] lineNumbers) {
+		for (int i = 1; i < codeIndexes.length; i++) {
+			long codeIndex = codeIndexes[i];
+			int lineNumber = lineNumbers[i];
+			int j = i;
+			while (j > 0 && codeIndexes[j - 1] > codeIndex) {
+				codeIndexes[j] = codeIndexes[j - 1];
+				lineNumbers[j] = lineNumbers[j - 1];
+				j--;
+			}
+			codeIndexes[j] = codeIndex;
+			lineNumbers[j] = lineNumber;
 		}
 	}
 
@@ -223,28 +330,20 @@ public class MethodImpl extends TypeComponentImpl implements Method, Locatable {
 			throw new AbsentInformationException(JDIMessages.MethodImpl_Invalid_code_index_of_a_location_given_4);
 		}
 
-		Long lineCodeIndexObj;
-		Integer lineNrObj;
-		long index = lineCodeIndex;
-		// Search for the line where this code index is located.
-		do {
-			lineCodeIndexObj = new Long(index);
-			lineNrObj = javaStratumCodeIndexToLine().get(lineCodeIndexObj);
-		} while (lineNrObj == null && --index >= fLowestValidCodeIndex);
-		if (lineNrObj == null) {
-			if (lineCodeIndex >= fLowestValidCodeIndex) {
-				index = lineCodeIndex;
-				do {
-					lineCodeIndexObj = new Long(index);
-					lineNrObj = javaStratumCodeIndexToLine().get(lineCodeIndexObj);
-				} while (lineNrObj == null && ++index <= fHighestValidCodeIndex);
-				if (lineNrObj != null) {
-					return lineNrObj.intValue();
+		// The line of a code index is the line of the closest entry at or
+		// before it, or of the first entry for code before the first entry.
+		int position = Arrays.binarySearch(fCodeIndexTable, lineCodeIndex);
+		if (position < 0) {
+			position = -position - 2;
+			if (position < 0) {
+				if (lineCodeIndex < fLowestValidCodeIndex
+						|| fCodeIndexTable[0] > fHighestValidCodeIndex) {
+					throw new AbsentInformationException(JDIMessages.MethodImpl_Invalid_code_index_of_a_location_given_4);
 				}
+				position = 0;
 			}
-			throw new AbsentInformationException(JDIMessages.MethodImpl_Invalid_code_index_of_a_location_given_4);
 		}
-		return lineNrObj.intValue();
+		return fJavaStratumLineNumberTable[position];
 	}
 
 	/* (non-Javadoc)
@@ -461,13 +560,7 @@ public class MethodImpl extends TypeComponentImpl implements Method, Locatable {
 		if (isAbstract() || isNative()) {
 			return null;
 		}
-		try {
-			Integer lineNrInt = javaStratumCodeIndexToLine().get(new Long(index));
-			if (lineNrInt == null) {
-				throw new AbsentInformationException(MessageFormat.format(JDIMessages.MethodImpl_No_valid_location_at_the_specified_code_index__0__2, new Object[] { Long.toString(index) }));
-			}
-		} catch (AbsentInformationException e) {
-		}
+		// the line number is looked up when the location is asked for it
 		return new LocationImpl(virtualMachineImpl(), this, index);
 	}
 
@@ -825,21 +918,30 @@ public class MethodImpl extends TypeComponentImpl implements Method, Locatable {
 		if (isAbstract() || isNative()) {
 			return Collections.EMPTY_LIST;
 		}
+		return lineLocations(stratum, sourceName);
+	}
+
+	/**
+	 * @return Returns the locations of all lines of this method, which must
+	 *         be neither abstract nor native.
+	 * @see #allLineLocations(String, String)
+	 */
+	LineLocationList lineLocations(String stratum, String sourceName) throws AbsentInformationException {
 		if (stratum == null) { // if stratum not defined use the default stratum for the declaring type
 			stratum = declaringType().defaultStratum();
 		}
-		List<Location> allLineLocations = null;
-		Map<String, List<Location>> sourceNameAllLineLocations = null;
+		LineLocationList allLineLocations = null;
+		Map<String, LineLocationList> sourceNameAllLineLocations = null;
 		if (fStratumAllLineLocations == null) { // the stratum map doesn't
 												// exist, create it
-			fStratumAllLineLocations = new HashMap<String, Map<String, List<Location>>>();
+			fStratumAllLineLocations = new HashMap<String, Map<String, LineLocationList>>();
 		} else {
 			// get the source name map
 			sourceNameAllLineLocations = fStratumAllLineLocations.get(stratum);
 		}
 		if (sourceNameAllLineLocations == null) { // the source name map doesn't
 													// exist, create it
-			sourceNameAllLineLocations = new HashMap<String, List<Location>>();
+			sourceNameAllLineLocations = new HashMap<String, LineLocationList>();
 			fStratumAllLineLocations.put(stratum, sourceNameAllLineLocations);
 		} else {
 			// get the line locations
@@ -866,6 +968,25 @@ public class MethodImpl extends TypeComponentImpl implements Method, Locatable {
 		return referenceTypeImpl().locationsOfLine(stratum, sourceName, lineNumber, this);
 	}
 
+	/**
+	 * Return a list which contains a location for the each disjoint range of
+	 * code indices that have bean assigned to the given line (by the compiler
+	 * or/and the VM). Return an empty list if there is not executable code at
+	 * the specified line.
+	 */
+	protected List<Location> javaStratumLocationsOfLine(int javaLine) throws AbsentInformationException {
+		if (isAbstract() || isNative()) {
+			return new ArrayList<Location>(0);
+		}
+		getLineTable();
+		if (fCodeIndexTable != null
+				&& (javaLine < fLowestLine || javaLine > fHighestLine)) {
+			// most methods of a type do not span a given line
+			return new ArrayList<Location>(0);
+		}
+		return javaStratumLocationsOfLines(Collections.singletonList(new Integer(javaLine)));
+	}
+
 	/**
 	 * Return a list which contains a location for the each disjoint range of
 	 * code indices that have bean assigned to the given lines (by the compiler
@@ -873,27 +994,23 @@ public class MethodImpl extends TypeComponentImpl implements Method, Locatable {
 	 * the specified lines.
 	 */
 	protected List<Location> javaStratumLocationsOfLines(List<Integer> javaLines)	throws AbsentInformationException {
-		Set<Long> tmpLocations = new TreeSet<Long>();
+		if (isAbstract() || isNative()) {
+			return new ArrayList<Location>(0);
+		}
+		getLineTable();
+		if (fCodeIndexTable == null) {
+			// obsolete method
+			return new ArrayList<Location>(0);
+		}
+		boolean[] marks = new boolean[fCodeIndexTable.length];
 		for (Iterator<Integer> iter = javaLines.iterator(); iter.hasNext();) {
-			Integer key = iter.next();
-			List<Long> indexes = javaStratumLineToCodeIndexes(key.intValue());
-			if (indexes != null) {
-				tmpLocations.addAll(indexes);
-			}
+			markPositionsOfLine(iter.next().intValue(), marks);
 		}
 		List<Location> locations = new ArrayList<Location>();
-		for (Iterator<Long> iter = tmpLocations.iterator(); iter.hasNext();) {
-			long index = iter.next().longValue();
-			int position = Arrays.binarySearch(fCodeIndexTable, index);
-			if(position < 0) {
-				//https://bugs.eclipse.org/bugs/show_bug.cgi?id=388172
-				//the key is not in the code index, we should not insert it as the line table is supposed to be 
-				//constant unless the parent class is redefined. 
-				//See http://docs.oracle.com/javase/6/docs/platform/jpda/jdwp/jdwp-protocol.html#JDWP_Method_LineTable for more information
-				continue;
-			}
-			if (position == 0 || !tmpLocations.contains(new Long(fCodeIndexTable[position - 1]))) {
-				locations.add(new LocationImpl(virtualMachineImpl(), this, index));
+		for (int position = 0; position < marks.length; position++) {
+			// one location for each range of code of the lines
+			if (marks[position] && (position == 0 || !marks[position - 1])) {
+				locations.add(new LocationImpl(virtualMachineImpl(), this, fCodeIndexTable[position]));
 			}
 		}
 		return locations;
@@ -15,7 +15,9 @@ import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
 
 import org.eclipse.jdi.Bootstrap;
@@ -181,13 +183,58 @@ public class MirrorImpl implements Mirror {
 	 * @return Returns reply data.
 	 */
 	public JdwpReplyPacket requestVM(int command, byte[] outData) {
+		return requestVMAsync(command, outData).reply();
+	}
+
+	/**
+	 * Sends a VM request without waiting for its reply. The reply is
+	 * retrieved with {@link PendingReply#reply()}, which allows a number of
+	 * requests to be on the wire at the same time.
+	 * 
+	 * @return Returns handle on the reply.
+	 * @since 3.10
+	 */
+	public PendingReply requestVMAsync(int command, byte[] outData) {
 		JdwpCommandPacket commandPacket = new JdwpCommandPacket(command);
 		commandPacket.setData(outData);
 		long sent = System.currentTimeMillis();
 		fVirtualMachineImpl.packetSendManager().sendPacket(commandPacket);
 		fPendingJdwpRequest = true;
 		writeVerboseCommandPacketHeader(commandPacket);
+		return new PendingReply(this, commandPacket, sent);
+	}
+
+	/**
+	 * Sends a VM request without waiting for its reply.
+	 * 
+	 * @return Returns handle on the reply.
+	 * @since 3.10
+	 */
+	public PendingReply requestVMAsync(int command, ByteArrayOutputStream outData) {
+		return requestVMAsync(command, outData.toByteArray());
+	}
 
+	/**
+	 * Sends one VM request per given data block, all with the same command,
+	 * before waiting for any reply.
+	 * 
+	 * @return Returns handles on the replies, in the order of the given data.
+	 * @since 3.10
+	 */
+	public List<PendingReply> requestVMAsync(int command, List<ByteArrayOutputStream> outData) {
+		List<PendingReply> replies = new ArrayList<PendingReply>(outData.size());
+		for (ByteArrayOutputStream data : outData) {
+			replies.add(requestVMAsync(command, data));
+		}
+		return replies;
+	}
+
+	/**
+	 * Waits for the reply to a command packet that has been sent.
+	 * 
+	 * @return Returns reply data.
+	 */
+	JdwpReplyPacket receiveReply(JdwpCommandPacket commandPacket, long sent) {
 		JdwpReplyPacket reply = fVirtualMachineImpl.packetReceiveManager()
 				.getReply(commandPacket);
 		long recieved = System.currentTimeMillis();
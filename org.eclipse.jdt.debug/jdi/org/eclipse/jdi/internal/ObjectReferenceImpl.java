@@ -297,30 +297,41 @@ public class ObjectReferenceImpl extends ValueImpl implements ObjectReference {
 					nonStaticFields.add(field);
 			}
 
-			// First get values for the static fields.
+			// Put the request for the non-static fields on the wire first, so
+			// that its reply is underway while the static fields are read.
+			PendingReply nonStaticReply = null;
+			int nonStaticFieldsSize = nonStaticFields.size();
+			if (nonStaticFieldsSize > 0) {
+				write(this, outData);
+				writeInt(nonStaticFieldsSize, "size", outData); //$NON-NLS-1$
+				for (int i = 0; i < nonStaticFieldsSize; i++) {
+					FieldImpl field = nonStaticFields.get(i);
+					field.write(this, outData);
+				}
+				nonStaticReply = requestVMAsync(JdwpCommandPacket.OR_GET_VALUES, outBytes);
+			}
+
+			// Then get values for the static fields.
 			Map<Field, Value> resultMap;
 			if (staticFields.isEmpty()) {
 				resultMap = new HashMap<Field, Value>();
 			} else {
-				resultMap = referenceType().getValues(staticFields);
+				try {
+					resultMap = referenceType().getValues(staticFields);
+				} catch (RuntimeException e) {
+					if (nonStaticReply != null) {
+						nonStaticReply.cancel();
+					}
+					throw e;
+				}
 			}
 
 			// if no non-static fields are requested, return directly the
 			// result.
-			if (nonStaticFields.isEmpty()) {
+			if (nonStaticReply == null) {
 				return resultMap;
 			}
-			// Then get the values for the non-static fields.
-			int nonStaticFieldsSize = nonStaticFields.size();
-			write(this, outData);
-			writeInt(nonStaticFieldsSize, "size", outData); //$NON-NLS-1$
-			for (int i = 0; i < nonStaticFieldsSize; i++) {
-				FieldImpl field = nonStaticFields.get(i);
-				field.write(this, outData);
-			}
-
-			JdwpReplyPacket replyPacket = requestVM(
-					JdwpCommandPacket.OR_GET_VALUES, outBytes);
+			JdwpReplyPacket replyPacket = nonStaticReply.reply();
 			defaultReplyErrorHandler(replyPacket.errorCode());
 
 			DataInputStream replyData = replyPacket.dataInStream();
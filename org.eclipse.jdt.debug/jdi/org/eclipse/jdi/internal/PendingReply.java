@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdi.internal;
+
+import java.util.List;
+
+import org.eclipse.jdi.internal.jdwp.JdwpCommandPacket;
+import org.eclipse.jdi.internal.jdwp.JdwpReplyPacket;
+
+/**
+ * Handle on a JDWP command that has been sent to the Virtual Machine but whose
+ * reply has not necessarily been received yet. Replies are correlated by the
+ * id of the command packet, so any number of commands can be put on the wire
+ * before waiting for the first reply.
+ *
+ * @see MirrorImpl#requestVMAsync(int, byte[])
+ * @since 3.10
+ */
+public class PendingReply {
+
+	/** Mirror that issued the command. */
+	private MirrorImpl fMirror;
+	/** The command packet that has been sent. */
+	private JdwpCommandPacket fCommandPacket;
+	/** Time the command was handed to the send manager. */
+	private long fSent;
+	/** The reply, once it has been received. */
+	private JdwpReplyPacket fReply = null;
+	/** Whether the reply has been abandoned. */
+	private boolean fCancelled = false;
+
+	/**
+	 * Creates a new handle for the given sent command packet.
+	 */
+	PendingReply(MirrorImpl mirror, JdwpCommandPacket commandPacket, long sent) {
+		fMirror = mirror;
+		fCommandPacket = commandPacket;
+		fSent = sent;
+	}
+
+	/**
+	 * @return Returns the id of the command packet, which is also the id of
+	 *         the reply.
+	 */
+	public int getId() {
+		return fCommandPacket.getId();
+	}
+
+	/**
+	 * @return Returns the command packet that has been sent.
+	 */
+	public JdwpCommandPacket getCommandPacket() {
+		return fCommandPacket;
+	}
+
+	/**
+	 * @return Returns whether the reply has been received, without blocking.
+	 */
+	public synchronized boolean isDone() {
+		if (fReply != null) {
+			return true;
+		}
+		return !fCancelled
+				&& fMirror.virtualMachineImpl().packetReceiveManager()
+						.hasReply(getId());
+	}
+
+	/**
+	 * Waits for the reply, using the request timeout of the Virtual Machine.
+	 * Subsequent calls return the same reply.
+	 *
+	 * @return Returns the reply packet.
+	 * @exception org.eclipse.jdi.TimeoutException
+	 *                if the reply did not arrive in time
+	 * @exception com.sun.jdi.VMDisconnectedException
+	 *                if the connection to the Virtual Machine has been lost
+	 */
+	public synchronized JdwpReplyPacket reply() {
+		if (fReply == null) {
+			if (fCancelled) {
+				throw new IllegalStateException();
+			}
+			fReply = fMirror.receiveReply(fCommandPacket, fSent);
+		}
+		return fReply;
+	}
+
+	/**
+	 * Abandons the reply. If it has not been received yet it is discarded on
+	 * arrival.
+	 */
+	public synchronized void cancel() {
+		if (fReply == null && !fCancelled) {
+			fCancelled = true;
+			fMirror.virtualMachineImpl().packetReceiveManager()
+					.discardReply(getId());
+		}
+	}
+
+	/**
+	 * Abandons all replies in the given list that have not been collected.
+	 * Used to clean up when processing of a batch is aborted.
+	 */
+	public static void cancelAll(List<PendingReply> replies) {
+		for (PendingReply reply : replies) {
+			reply.cancel();
+		}
+	}
+}
@@ -1597,7 +1597,8 @@ public abstract class ReferenceTypeImpl extends TypeImpl implements
 			allLineLocations = sourceNameAllLineLocations.get(sourceName);
 		}
 		if (allLineLocations == null) { // the line locations are not known, compute and store them
-			allLineLocations = new ArrayList<Location>();
+			MethodImpl.prefetchLineTables(methods());
+			List<LineLocationList> methodLineLocations = new ArrayList<LineLocationList>();
 			boolean hasLineInformation = false;
 			AbsentInformationException exception = null;
 			while (allMethods.hasNext()) {
@@ -1606,7 +1607,7 @@ public abstract class ReferenceTypeImpl extends TypeImpl implements
 					continue;
 				}
 				try {
-					allLineLocations.addAll(method.allLineLocations(stratum, sourceName));
+					methodLineLocations.add(method.lineLocations(stratum, sourceName));
 					hasLineInformation = true;
 				} catch (AbsentInformationException e) {
 					exception = e;
@@ -1615,6 +1616,8 @@ public abstract class ReferenceTypeImpl extends TypeImpl implements
 			if (!hasLineInformation && exception != null) {
 				throw exception;
 			}
+			// the locations are created when they are accessed
+			allLineLocations = new LineLocationList(virtualMachineImpl(), methodLineLocations);
 			sourceNameAllLineLocations.put(sourceName, allLineLocations);
 		}
 		return allLineLocations;
@@ -1625,7 +1628,9 @@ public abstract class ReferenceTypeImpl extends TypeImpl implements
 	 */
 	@Override
 	public List<Location> locationsOfLine(String stratum, String sourceName, int lineNumber) throws AbsentInformationException {
-		Iterator<Method> allMethods = methods().iterator();
+		List<Method> methods = methods();
+		MethodImpl.prefetchLineTables(methods);
+		Iterator<Method> allMethods = methods.iterator();
 		List<Location> locations = new ArrayList<Location>();
 		boolean hasLineInformation = false;
 		AbsentInformationException exception = null;
@@ -2009,10 +2014,10 @@ public abstract class ReferenceTypeImpl extends TypeImpl implements
 			if (sourceName != null && !found) {
 				throw new AbsentInformationException(JDIMessages.ReferenceTypeImpl_34);
 			}
-		} else { // Java stratum
-			javaLines.add(new Integer(lineNumber));
+			return method.javaStratumLocationsOfLines(javaLines);
 		}
-		return method.javaStratumLocationsOfLines(javaLines);
+		// Java stratum
+		return method.javaStratumLocationsOfLine(lineNumber);
 	}
 
 	/**
@@ -2034,7 +2039,7 @@ public abstract class ReferenceTypeImpl extends TypeImpl implements
 	 *            as get from the VM/JDWP
 	 * @return
 	 */
-	public List<Location> allLineLocations(String stratumId, String sourceName,
+	public LineLocationList allLineLocations(String stratumId, String sourceName,
 			MethodImpl method, long[] codeIndexTable,
 			int[] javaStratumLineNumberTable) throws AbsentInformationException {
 		Stratum stratum = getStratum(stratumId);
@@ -2077,20 +2082,23 @@ public abstract class ReferenceTypeImpl extends TypeImpl implements
 					}
 				}
 			}
-			List<Location> locations = new ArrayList<Location>();
+			int count = 0;
+			for (int[] lineInfo : lineInfoTable) {
+				if (lineInfo != null) {
+					count++;
+				}
+			}
+			long[] codeIndexes = new long[count];
+			count = 0;
 			for (int i = 0, length = lineInfoTable.length; i < length; i++) {
 				if (lineInfoTable[i] != null) {
-					locations.add(new LocationImpl(virtualMachineImpl(), method, codeIndexTable[i]));
+					codeIndexes[count++] = codeIndexTable[i];
 				}
 			}
-			return locations;
+			return new LineLocationList(virtualMachineImpl(), method, codeIndexes);
 		}
-		// Java stratum
-		List<Location> result = new ArrayList<Location>();
-		for (long element : codeIndexTable) {
-			result.add(new LocationImpl(virtualMachineImpl(), method, element));
-		}
-		return result;
+		// Java stratum, the line table itself holds the code indexes
+		return new LineLocationList(virtualMachineImpl(), method, codeIndexTable);
 	}
 
 	/*
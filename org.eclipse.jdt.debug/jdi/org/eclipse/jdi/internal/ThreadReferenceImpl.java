@@ -215,8 +215,32 @@ public class ThreadReferenceImpl extends ObjectReferenceImpl implements	ThreadRe
 		// Note that this information should not be cached.
 		initJdwpRequest();
 		try {
-			JdwpReplyPacket replyPacket = requestVM(
-					JdwpCommandPacket.TR_FRAME_COUNT, this);
+			return readFrameCount(requestAsync(JdwpCommandPacket.TR_FRAME_COUNT).reply());
+		} finally {
+			handledJdwpRequest();
+		}
+	}
+
+	/**
+	 * Sends a request that only has this thread as data, without waiting for
+	 * the reply.
+	 */
+	PendingReply requestAsync(int command) {
+		ByteArrayOutputStream outBytes = new ByteArrayOutputStream();
+		DataOutputStream outData = new DataOutputStream(outBytes);
+		try {
+			write(this, outData);
+		} catch (IOException e) {
+			defaultIOExceptionHandler(e);
+		}
+		return requestVMAsync(command, outBytes);
+	}
+
+	/**
+	 * Reads the reply to a frame count request.
+	 */
+	int readFrameCount(JdwpReplyPacket replyPacket) throws IncompatibleThreadStateException {
+		try {
 			switch (replyPacket.errorCode()) {
 			case JdwpReplyPacket.INVALID_THREAD:
 				throw new ObjectCollectedException();
@@ -232,8 +256,6 @@ public class ThreadReferenceImpl extends ObjectReferenceImpl implements	ThreadRe
 		} catch (IOException e) {
 			defaultIOExceptionHandler(e);
 			return 0;
-		} finally {
-			handledJdwpRequest();
 		}
 	}
 
@@ -254,14 +276,35 @@ public class ThreadReferenceImpl extends ObjectReferenceImpl implements	ThreadRe
 		// Note that this information should not be cached.
 		initJdwpRequest();
 		try {
-			ByteArrayOutputStream outBytes = new ByteArrayOutputStream();
-			DataOutputStream outData = new DataOutputStream(outBytes);
+			return readFrames(requestFrames(start, length).reply());
+		} finally {
+			handledJdwpRequest();
+		}
+	}
+
+	/**
+	 * Sends a request for the frames in the given range, without waiting for
+	 * the reply.
+	 */
+	PendingReply requestFrames(int start, int length) {
+		ByteArrayOutputStream outBytes = new ByteArrayOutputStream();
+		DataOutputStream outData = new DataOutputStream(outBytes);
+		try {
 			write(this, outData);
 			writeInt(start, "start", outData); //$NON-NLS-1$
 			writeInt(length, "length", outData); //$NON-NLS-1$
+		} catch (IOException e) {
+			defaultIOExceptionHandler(e);
+		}
+		return requestVMAsync(JdwpCommandPacket.TR_FRAMES, outBytes);
+	}
 
-			JdwpReplyPacket replyPacket = requestVM(
-					JdwpCommandPacket.TR_FRAMES, outBytes);
+	/**
+	 * Reads the reply to a frames request.
+	 */
+	List<StackFrame> readFrames(JdwpReplyPacket replyPacket)
+			throws IncompatibleThreadStateException {
+		try {
 			switch (replyPacket.errorCode()) {
 			case JdwpReplyPacket.INVALID_THREAD:
 				throw new ObjectCollectedException();
@@ -289,8 +332,6 @@ public class ThreadReferenceImpl extends ObjectReferenceImpl implements	ThreadRe
 		} catch (IOException e) {
 			defaultIOExceptionHandler(e);
 			return null;
-		} finally {
-			handledJdwpRequest();
 		}
 	}
 
@@ -324,8 +365,18 @@ public class ThreadReferenceImpl extends ObjectReferenceImpl implements	ThreadRe
 		// Note that this information should not be cached.
 		initJdwpRequest();
 		try {
-			JdwpReplyPacket replyPacket = requestVM(
-					JdwpCommandPacket.TR_STATUS, this);
+			return readIsSuspended(requestAsync(JdwpCommandPacket.TR_STATUS).reply());
+		} finally {
+			handledJdwpRequest();
+		}
+	}
+
+	/**
+	 * Reads whether this thread is suspended from the reply to a status
+	 * request.
+	 */
+	boolean readIsSuspended(JdwpReplyPacket replyPacket) {
+		try {
 			switch (replyPacket.errorCode()) {
 			case JdwpReplyPacket.INVALID_THREAD:
 				throw new ObjectCollectedException();
@@ -341,8 +392,6 @@ public class ThreadReferenceImpl extends ObjectReferenceImpl implements	ThreadRe
 		} catch (IOException e) {
 			defaultIOExceptionHandler(e);
 			return false;
-		} finally {
-			handledJdwpRequest();
 		}
 	}
 
@@ -353,8 +402,17 @@ public class ThreadReferenceImpl extends ObjectReferenceImpl implements	ThreadRe
 	public String name() {
 		initJdwpRequest();
 		try {
-			JdwpReplyPacket replyPacket = requestVM(JdwpCommandPacket.TR_NAME,
-					this);
+			return readName(requestAsync(JdwpCommandPacket.TR_NAME).reply());
+		} finally {
+			handledJdwpRequest();
+		}
+	}
+
+	/**
+	 * Reads the reply to a name request.
+	 */
+	String readName(JdwpReplyPacket replyPacket) {
+		try {
 			switch (replyPacket.errorCode()) {
 			case JdwpReplyPacket.INVALID_THREAD:
 				throw new ObjectCollectedException();
@@ -365,8 +423,6 @@ public class ThreadReferenceImpl extends ObjectReferenceImpl implements	ThreadRe
 		} catch (IOException e) {
 			defaultIOExceptionHandler(e);
 			return null;
-		} finally {
-			handledJdwpRequest();
 		}
 	}
 
@@ -484,8 +540,17 @@ public class ThreadReferenceImpl extends ObjectReferenceImpl implements	ThreadRe
 		// Note that this information should not be cached.
 		initJdwpRequest();
 		try {
-			JdwpReplyPacket replyPacket = requestVM(
-					JdwpCommandPacket.TR_STATUS, this);
+			return readStatus(requestAsync(JdwpCommandPacket.TR_STATUS).reply());
+		} finally {
+			handledJdwpRequest();
+		}
+	}
+
+	/**
+	 * Reads the thread status from the reply to a status request.
+	 */
+	int readStatus(JdwpReplyPacket replyPacket) {
+		try {
 			switch (replyPacket.errorCode()) {
 			case JdwpReplyPacket.ABSENT_INFORMATION:
 				return THREAD_STATUS_UNKNOWN;
@@ -517,8 +582,6 @@ public class ThreadReferenceImpl extends ObjectReferenceImpl implements	ThreadRe
 		} catch (IOException e) {
 			defaultIOExceptionHandler(e);
 			return 0;
-		} finally {
-			handledJdwpRequest();
 		}
 	}
 
@@ -609,8 +672,18 @@ public class ThreadReferenceImpl extends ObjectReferenceImpl implements	ThreadRe
 		}
 		initJdwpRequest();
 		try {
-			JdwpReplyPacket replyPacket = requestVM(
-					JdwpCommandPacket.TR_THREAD_GROUP, this);
+			return readThreadGroup(requestAsync(JdwpCommandPacket.TR_THREAD_GROUP).reply());
+		} finally {
+			handledJdwpRequest();
+		}
+	}
+
+	/**
+	 * Reads and caches the thread group of this thread from the reply to a
+	 * thread group request.
+	 */
+	ThreadGroupReference readThreadGroup(JdwpReplyPacket replyPacket) {
+		try {
 			switch (replyPacket.errorCode()) {
 			case JdwpReplyPacket.INVALID_THREAD:
 				throw new ObjectCollectedException();
@@ -622,8 +695,6 @@ public class ThreadReferenceImpl extends ObjectReferenceImpl implements	ThreadRe
 		} catch (IOException e) {
 			defaultIOExceptionHandler(e);
 			return null;
-		} finally {
-			handledJdwpRequest();
 		}
 	}
 
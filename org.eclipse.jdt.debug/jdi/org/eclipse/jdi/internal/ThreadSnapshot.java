@@ -0,0 +1,138 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdi.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jdi.internal.jdwp.JdwpCommandPacket;
+
+import com.sun.jdi.IncompatibleThreadStateException;
+import com.sun.jdi.ObjectCollectedException;
+import com.sun.jdi.StackFrame;
+
+/**
+ * The name, frame count and top frame of a suspended thread, retrieved
+ * together with those of other threads. The requests for all threads are put
+ * on the wire before the first reply is awaited, so a snapshot of any number
+ * of threads costs a single round-trip.
+ * <p>
+ * A snapshot is only valid until its thread resumes.
+ * </p>
+ *
+ * @since 3.10
+ */
+public class ThreadSnapshot {
+
+	/** The thread. */
+	private ThreadReferenceImpl fThread;
+	/** The name of the thread. */
+	private String fName;
+	/** The number of frames, or -1 if the thread was not suspended. */
+	private int fFrameCount = -1;
+	/** The top frame, or <code>null</code> if none. */
+	private StackFrame fTopFrame;
+
+	private ThreadSnapshot(ThreadReferenceImpl thread) {
+		fThread = thread;
+	}
+
+	/**
+	 * @return Returns the thread.
+	 */
+	public ThreadReferenceImpl getThread() {
+		return fThread;
+	}
+
+	/**
+	 * @return Returns the name of the thread.
+	 */
+	public String getName() {
+		return fName;
+	}
+
+	/**
+	 * @return Returns whether the thread was suspended, in which case the
+	 *         frame count and top frame are known.
+	 */
+	public boolean isSuspended() {
+		return fFrameCount >= 0;
+	}
+
+	/**
+	 * @return Returns the number of frames on the stack of the thread.
+	 */
+	public int getFrameCount() {
+		return fFrameCount;
+	}
+
+	/**
+	 * @return Returns the top frame of the thread, or <code>null</code> if its
+	 *         stack is empty.
+	 */
+	public StackFrame getTopFrame() {
+		return fTopFrame;
+	}
+
+	/**
+	 * Takes snapshots of the given threads. Threads that have been collected
+	 * have no snapshot.
+	 *
+	 * @param threads
+	 *            threads of the same Virtual Machine
+	 * @return Returns the snapshots, in the order of the given threads
+	 */
+	public static List<ThreadSnapshot> take(List<ThreadReferenceImpl> threads) {
+		List<ThreadSnapshot> snapshots = new ArrayList<ThreadSnapshot>(threads.size());
+		if (threads.isEmpty()) {
+			return snapshots;
+		}
+		List<PendingReply> replies = new ArrayList<PendingReply>(threads.size() * 3);
+		try {
+			for (ThreadReferenceImpl thread : threads) {
+				replies.add(thread.requestAsync(JdwpCommandPacket.TR_NAME));
+				replies.add(thread.requestAsync(JdwpCommandPacket.TR_FRAME_COUNT));
+				replies.add(thread.requestFrames(0, 1));
+			}
+			for (int i = 0; i < threads.size(); i++) {
+				ThreadReferenceImpl thread = threads.get(i);
+				ThreadSnapshot snapshot = new ThreadSnapshot(thread);
+				thread.initJdwpRequest();
+				try {
+					snapshot.fName = thread.readName(replies.get(i * 3).reply());
+					snapshot.fFrameCount = thread.readFrameCount(replies.get(i * 3 + 1).reply());
+					if (snapshot.fFrameCount > 0) {
+						List<StackFrame> frames = thread.readFrames(replies.get(i * 3 + 2).reply());
+						if (!frames.isEmpty()) {
+							snapshot.fTopFrame = frames.get(0);
+						}
+					} else {
+						replies.get(i * 3 + 2).cancel();
+					}
+					snapshots.add(snapshot);
+				} catch (ObjectCollectedException e) {
+					PendingReply.cancelAll(replies.subList(i * 3, i * 3 + 3));
+					snapshots.add(null);
+				} catch (IncompatibleThreadStateException e) {
+					PendingReply.cancelAll(replies.subList(i * 3, i * 3 + 3));
+					snapshot.fFrameCount = -1;
+					snapshots.add(snapshot);
+				} finally {
+					thread.handledJdwpRequest();
+				}
+			}
+		} catch (RuntimeException e) {
+			PendingReply.cancelAll(replies);
+			throw e;
+		}
+		return snapshots;
+	}
+}
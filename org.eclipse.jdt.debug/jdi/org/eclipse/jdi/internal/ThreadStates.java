@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdi.internal;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.jdi.internal.jdwp.JdwpCommandPacket;
+import org.eclipse.jdi.internal.jdwp.JdwpReplyPacket;
+
+import com.sun.jdi.ObjectCollectedException;
+import com.sun.jdi.ThreadGroupReference;
+import com.sun.jdi.ThreadReference;
+
+/**
+ * The thread group, status and suspend state of a number of threads. The
+ * requests for all threads are sent on creation, before any reply is awaited,
+ * and the replies are read when a state is first asked for. Other requests can
+ * be made while the replies are on their way.
+ * <p>
+ * The thread groups are cached by the threads. Statuses are only valid for the
+ * moment they were retrieved.
+ * </p>
+ *
+ * @since 3.10
+ */
+public class ThreadStates {
+
+	/** The threads. */
+	private List<ThreadReferenceImpl> fThreads;
+	/** The threads, for lookup. */
+	private Set<ThreadReference> fThreadSet;
+	/** Replies to the thread group and status requests, two per thread. */
+	private List<PendingReply> fReplies;
+	/** Replies to the status requests by thread, once read. */
+	private Map<ThreadReference, JdwpReplyPacket> fStatusReplies;
+	/** Whether the replies have been abandoned. */
+	private boolean fDisposed = false;
+
+	/**
+	 * Sends the requests for the states of the given threads.
+	 *
+	 * @param threads
+	 *            threads of the same Virtual Machine
+	 */
+	public ThreadStates(List<ThreadReferenceImpl> threads) {
+		fThreads = threads;
+		fThreadSet = new HashSet<ThreadReference>(threads);
+		fReplies = new ArrayList<PendingReply>(threads.size() * 2);
+		try {
+			for (ThreadReferenceImpl thread : threads) {
+				fReplies.add(thread.requestAsync(JdwpCommandPacket.TR_THREAD_GROUP));
+				fReplies.add(thread.requestAsync(JdwpCommandPacket.TR_STATUS));
+			}
+		} catch (RuntimeException e) {
+			PendingReply.cancelAll(fReplies);
+			throw e;
+		}
+	}
+
+	/**
+	 * Reads all replies, unless done already.
+	 *
+	 * @return Returns the replies to the status requests, or <code>null</code>
+	 *         if the replies have been abandoned.
+	 */
+	private synchronized Map<ThreadReference, JdwpReplyPacket> read() {
+		if (fStatusReplies != null || fDisposed) {
+			return fStatusReplies;
+		}
+		Map<ThreadReference, JdwpReplyPacket> statusReplies = new HashMap<ThreadReference, JdwpReplyPacket>(fThreads.size());
+		try {
+			for (int i = 0; i < fThreads.size(); i++) {
+				ThreadReferenceImpl thread = fThreads.get(i);
+				thread.initJdwpRequest();
+				try {
+					thread.readThreadGroup(fReplies.get(i * 2).reply());
+				} catch (ObjectCollectedException e) {
+					// the status reply tells so
+				} finally {
+					thread.handledJdwpRequest();
+				}
+				statusReplies.put(thread, fReplies.get(i * 2 + 1).reply());
+			}
+		} catch (RuntimeException e) {
+			PendingReply.cancelAll(fReplies);
+			fDisposed = true;
+			throw e;
+		}
+		fStatusReplies = statusReplies;
+		return fStatusReplies;
+	}
+
+	/**
+	 * @return Returns whether the state of the given thread was requested.
+	 */
+	public boolean contains(ThreadReference thread) {
+		return fThreadSet.contains(thread);
+	}
+
+	/**
+	 * @return Returns the thread group of the given thread.
+	 * @see ThreadReference#threadGroup()
+	 */
+	public ThreadGroupReference threadGroup(ThreadReference thread) {
+		read();
+		return thread.threadGroup();
+	}
+
+	/**
+	 * @return Returns the status of the given thread.
+	 * @see ThreadReference#status()
+	 */
+	public int status(ThreadReference thread) {
+		Map<ThreadReference, JdwpReplyPacket> statusReplies = read();
+		if (statusReplies == null) {
+			return thread.status();
+		}
+		ThreadReferenceImpl threadImpl = (ThreadReferenceImpl) thread;
+		threadImpl.initJdwpRequest();
+		try {
+			return threadImpl.readStatus(statusReplies.get(thread));
+		} finally {
+			threadImpl.handledJdwpRequest();
+		}
+	}
+
+	/**
+	 * @return Returns whether the given thread is suspended.
+	 * @exception ObjectCollectedException
+	 *                if the thread has been collected
+	 * @see ThreadReference#isSuspended()
+	 */
+	public boolean isSuspended(ThreadReference thread) {
+		Map<ThreadReference, JdwpReplyPacket> statusReplies = read();
+		if (statusReplies == null) {
+			return thread.isSuspended();
+		}
+		ThreadReferenceImpl threadImpl = (ThreadReferenceImpl) thread;
+		threadImpl.initJdwpRequest();
+		try {
+			return threadImpl.readIsSuspended(statusReplies.get(thread));
+		} finally {
+			threadImpl.handledJdwpRequest();
+		}
+	}
+
+	/**
+	 * Abandons the replies that have not been read. States asked for
+	 * afterwards are retrieved from the threads.
+	 */
+	public synchronized void dispose() {
+		if (fStatusReplies == null) {
+			PendingReply.cancelAll(fReplies);
+		}
+		fStatusReplies = null;
+		fDisposed = true;
+	}
+}
@@ -1,111 +1,328 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2012 IBM Corporation and others.
+ * Copyright (c) 2000, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
  * http://www.eclipse.org/legal/epl-v10.html
- * 
+ *
  * Contributors:
  *     IBM Corporation - initial API and implementation
  *******************************************************************************/
 package org.eclipse.jdi.internal;
 
-import java.lang.ref.Reference;
 import java.lang.ref.ReferenceQueue;
 import java.lang.ref.SoftReference;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Hashtable;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
- * This class is used to cache values. It uses soft references to store cached
- * values. Once a value is garbage collected by the VM, the corresponding entry
- * is removed from the cache on the next invocation of put() or get().
- * 
+ * This class is used to cache values under the <code>long</code> value of
+ * their JDWP ID. It uses soft references to store cached values. Once a value
+ * is garbage collected by the VM, the corresponding entry is removed from the
+ * cache on a later invocation of put() or remove().
+ *
  * Note that WeakHashMap can't be used for this purpose because in WeakHashMap
  * soft references are only used for the keys, and values may not have 'strong'
  * references to keys otherwise they will never be garbage collected.
- * 
+ *
+ * The cache is split into segments that are locked independently, so that
+ * concurrent lookups of different IDs rarely contend. Values are also indexed
+ * by their runtime class, so that {@link #valuesWithType(Class)} does not have
+ * to look at values of other classes.
  */
 public class ValueCache {
+	/** Number of segments, must be a power of 2. */
+	private static final int SEGMENT_COUNT = 16;
+	/** Number of bits of the hash that select the segment. */
+	private static final int SEGMENT_SHIFT = 28;
+	/** Initial number of buckets of a segment, must be a power of 2. */
+	private static final int INITIAL_SEGMENT_CAPACITY = 16;
+
+	/**
+	 * Soft reference to a cached value that also serves as hash table entry.
+	 */
+	private static final class Entry extends SoftReference<Object> {
+		final long fKey;
+		final Class<?> fType;
+		/** Next entry in the same bucket. */
+		Entry fNext;
+		/** Neighbours in the list of entries with the same value type. */
+		Entry fPreviousOfType;
+		Entry fNextOfType;
+
+		Entry(long key, Object value, ReferenceQueue<Object> queue) {
+			super(value, queue);
+			fKey = key;
+			fType = value.getClass();
+		}
+	}
+
 	/**
-	 * Map to store <key, Reference> pairs, where Reference is a soft reference
-	 * to an Object.
+	 * Hash table holding part of the entries. All access must be synchronized
+	 * on the segment.
 	 */
-	private Map<Object, SoftReference<Object>> cacheTable = new Hashtable<Object, SoftReference<Object>>();
+	private static final class Segment {
+		private Entry[] fTable = new Entry[INITIAL_SEGMENT_CAPACITY];
+		private int fCount = 0;
+
+		Entry get(long key, int hash) {
+			Entry entry = fTable[hash & (fTable.length - 1)];
+			while (entry != null && entry.fKey != key) {
+				entry = entry.fNext;
+			}
+			return entry;
+		}
+
+		/**
+		 * Adds the given entry, replacing the entry with the same key.
+		 *
+		 * @return Returns the replaced entry, or null if there was none.
+		 */
+		Entry put(Entry entry, int hash) {
+			int index = hash & (fTable.length - 1);
+			Entry previous = null;
+			Entry current = fTable[index];
+			while (current != null) {
+				if (current.fKey == entry.fKey) {
+					entry.fNext = current.fNext;
+					if (previous == null) {
+						fTable[index] = entry;
+					} else {
+						previous.fNext = entry;
+					}
+					current.fNext = null;
+					return current;
+				}
+				previous = current;
+				current = current.fNext;
+			}
+			entry.fNext = fTable[index];
+			fTable[index] = entry;
+			if (++fCount * 4 > fTable.length * 3) {
+				resize();
+			}
+			return null;
+		}
+
+		/**
+		 * Removes the given entry, if it is still in the table.
+		 *
+		 * @return Returns whether the entry was removed.
+		 */
+		boolean remove(Entry entry, int hash) {
+			int index = hash & (fTable.length - 1);
+			Entry previous = null;
+			Entry current = fTable[index];
+			while (current != null) {
+				if (current == entry) {
+					if (previous == null) {
+						fTable[index] = current.fNext;
+					} else {
+						previous.fNext = current.fNext;
+					}
+					current.fNext = null;
+					fCount--;
+					return true;
+				}
+				previous = current;
+				current = current.fNext;
+			}
+			return false;
+		}
+
+		void collectValues(List<Object> values) {
+			for (Entry bucket : fTable) {
+				for (Entry entry = bucket; entry != null; entry = entry.fNext) {
+					Object value = entry.get();
+					if (value != null) {
+						values.add(value);
+					}
+				}
+			}
+		}
+
+		private void resize() {
+			Entry[] oldTable = fTable;
+			Entry[] newTable = new Entry[oldTable.length * 2];
+			int mask = newTable.length - 1;
+			for (Entry bucket : oldTable) {
+				Entry entry = bucket;
+				while (entry != null) {
+					Entry next = entry.fNext;
+					int index = hash(entry.fKey) & mask;
+					entry.fNext = newTable[index];
+					newTable[index] = entry;
+					entry = next;
+				}
+			}
+			fTable = newTable;
+		}
+	}
+
+	private final Segment[] fSegments = new Segment[SEGMENT_COUNT];
+
+	/**
+	 * List of the entries whose values have the same runtime class. All access
+	 * must be synchronized on the list.
+	 */
+	private static final class TypeList {
+		private Entry fHead = null;
+
+		void add(Entry entry) {
+			entry.fNextOfType = fHead;
+			if (fHead != null) {
+				fHead.fPreviousOfType = entry;
+			}
+			fHead = entry;
+		}
+
+		void remove(Entry entry) {
+			if (entry.fPreviousOfType == null) {
+				fHead = entry.fNextOfType;
+			} else {
+				entry.fPreviousOfType.fNextOfType = entry.fNextOfType;
+			}
+			if (entry.fNextOfType != null) {
+				entry.fNextOfType.fPreviousOfType = entry.fPreviousOfType;
+			}
+			entry.fPreviousOfType = null;
+			entry.fNextOfType = null;
+		}
+
+		void collectValues(List<Object> values) {
+			for (Entry entry = fHead; entry != null; entry = entry.fNextOfType) {
+				Object value = entry.get();
+				if (value != null) {
+					values.add(value);
+				}
+			}
+		}
+	}
+
 	/**
-	 * Map to store <Reference, key> pairs, to find the cacheTable-key of a
-	 * garbage collected Reference.
+	 * Entries by the runtime class of their value. Entries are added and
+	 * removed while holding the lock of the segment of the entry.
 	 */
-	private Map<SoftReference<Object>, Object> refTable = new Hashtable<SoftReference<Object>, Object>();
+	private final ConcurrentHashMap<Class<?>, TypeList> fTypeIndex = new ConcurrentHashMap<Class<?>, TypeList>();
 
 	/**
 	 * The reference-queue that is registered with the soft references. The
 	 * garbage collector will enqueue soft references that are garbage
 	 * collected.
 	 */
-	private ReferenceQueue<Object> refQueue = new ReferenceQueue<Object>();
+	private final ReferenceQueue<Object> fRefQueue = new ReferenceQueue<Object>();
+
+	/** Whether a thread is removing garbage collected entries. */
+	private final AtomicBoolean fCleaningUp = new AtomicBoolean(false);
+
+	/**
+	 * Creates an empty cache.
+	 */
+	public ValueCache() {
+		for (int i = 0; i < SEGMENT_COUNT; i++) {
+			fSegments[i] = new Segment();
+		}
+	}
+
+	private static int hash(long key) {
+		int h = (int) (key ^ (key >>> 32)) * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	private Segment segmentFor(int hash) {
+		return fSegments[hash >>> SEGMENT_SHIFT];
+	}
 
 	/**
 	 * Clean up all entries from the table for which the values were garbage
-	 * collected.
+	 * collected. Only one thread cleans up at a time, others do not wait for
+	 * it.
 	 */
 	private void cleanup() {
-		Reference<?> ref;
-		while ((ref = refQueue.poll()) != null) {
-			Object key = refTable.get(ref);
-			if (key != null)
-				cacheTable.remove(key);
-			refTable.remove(ref);
+		if (!fCleaningUp.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			Entry entry;
+			while ((entry = (Entry) fRefQueue.poll()) != null) {
+				int hash = hash(entry.fKey);
+				Segment segment = segmentFor(hash);
+				synchronized (segment) {
+					if (segment.remove(entry, hash)) {
+						unindex(entry);
+					}
+				}
+			}
+		} finally {
+			fCleaningUp.set(false);
+		}
+	}
+
+	private void index(Entry entry) {
+		TypeList entries = fTypeIndex.get(entry.fType);
+		if (entries == null) {
+			entries = new TypeList();
+			TypeList existing = fTypeIndex.putIfAbsent(entry.fType, entries);
+			if (existing != null) {
+				entries = existing;
+			}
+		}
+		synchronized (entries) {
+			entries.add(entry);
+		}
+	}
+
+	private void unindex(Entry entry) {
+		TypeList entries = fTypeIndex.get(entry.fType);
+		synchronized (entries) {
+			entries.remove(entry);
 		}
 	}
 
 	/**
 	 * Put a new entry in the cache under the given key.
 	 */
-	public void put(Object key, Object value) {
+	public void put(long key, Object value) {
 		cleanup();
-		SoftReference<Object> ref = new SoftReference<Object>(value, refQueue);
-		cacheTable.put(key, ref);
-		refTable.put(ref, key);
+		int hash = hash(key);
+		Entry entry = new Entry(key, value, fRefQueue);
+		Segment segment = segmentFor(hash);
+		synchronized (segment) {
+			Entry replaced = segment.put(entry, hash);
+			if (replaced != null) {
+				unindex(replaced);
+			}
+			index(entry);
+		}
 	}
 
 	/**
 	 * Get entry from the cache.
-	 * 
+	 *
 	 * @return Returns value that is cached under the given key, or null of one
 	 *         of the following is true: - The value has not been cached. - The
 	 *         value had been cached but is garbage collected.
 	 */
-	public Object get(Object key) {
-		cleanup();
-		Object value = null;
-		SoftReference<?> ref = cacheTable.get(key);
-		if (ref != null) {
-			value = ref.get();
+	public Object get(long key) {
+		int hash = hash(key);
+		Segment segment = segmentFor(hash);
+		synchronized (segment) {
+			Entry entry = segment.get(key, hash);
+			return entry == null ? null : entry.get();
 		}
-		return value;
 	}
 
 	/**
 	 * Returns a Collection view of the values contained in this cache.
 	 */
 	public Collection<Object> values() {
-		cleanup();
 		List<Object> returnValues = new ArrayList<Object>();
-		synchronized (cacheTable) {
-			Iterator<SoftReference<Object>> iter = cacheTable.values().iterator();
-			SoftReference<Object> ref;
-			Object value;
-			while (iter.hasNext()) {
-				ref = iter.next();
-				value = ref.get();
-				if (value != null) {
-					returnValues.add(value);
-				}
+		for (Segment segment : fSegments) {
+			synchronized (segment) {
+				segment.collectValues(returnValues);
 			}
 		}
 		return returnValues;
@@ -116,18 +333,11 @@ public class ValueCache {
 	 * the same runtime class as the given Class.
 	 */
 	public Collection<Object> valuesWithType(Class<?> type) {
-		cleanup();
 		List<Object> returnValues = new ArrayList<Object>();
-		synchronized (cacheTable) {
-			Iterator<SoftReference<Object>> iter = cacheTable.values().iterator();
-			SoftReference<Object> ref;
-			Object value;
-			while (iter.hasNext()) {
-				ref = iter.next();
-				value = ref.get();
-				if (value != null && value.getClass().equals(type)) {
-					returnValues.add(value);
-				}
+		TypeList entries = fTypeIndex.get(type);
+		if (entries != null) {
+			synchronized (entries) {
+				entries.collectValues(returnValues);
 			}
 		}
 		return returnValues;
@@ -135,19 +345,22 @@ public class ValueCache {
 
 	/**
 	 * Removes the key and its corresponding value from this cache.
-	 * 
+	 *
 	 * @return Returns The value to which the key had been mapped in this
 	 *         hashtable, or null if the key did not have a mapping.
 	 */
-	public Object remove(Object key) {
+	public Object remove(long key) {
 		cleanup();
-		Object value = null;
-		SoftReference<?> ref = cacheTable.get(key);
-		if (ref != null) {
-			value = ref.get();
-			refTable.remove(ref);
-		}
-		cacheTable.remove(key);
-		return value;
+		int hash = hash(key);
+		Segment segment = segmentFor(hash);
+		synchronized (segment) {
+			Entry entry = segment.get(key, hash);
+			if (entry == null) {
+				return null;
+			}
+			segment.remove(entry, hash);
+			unindex(entry);
+			return entry.get();
+		}
 	}
 }
@@ -34,6 +34,7 @@ import org.eclipse.jdi.internal.jdwp.JdwpReplyPacket;
 import org.eclipse.jdi.internal.request.EventRequestManagerImpl;
 import org.eclipse.osgi.util.NLS;
 
+import com.sun.jdi.ArrayType;
 import com.sun.jdi.BooleanValue;
 import com.sun.jdi.ByteValue;
 import com.sun.jdi.CharValue;
@@ -41,6 +42,7 @@ import com.sun.jdi.DoubleValue;
 import com.sun.jdi.FloatValue;
 import com.sun.jdi.IntegerValue;
 import com.sun.jdi.LongValue;
+import com.sun.jdi.Method;
 import com.sun.jdi.ObjectCollectedException;
 import com.sun.jdi.ReferenceType;
 import com.sun.jdi.ShortValue;
@@ -96,6 +98,18 @@ public class VirtualMachineImpl extends MirrorImpl implements VirtualMachine,
 	private ValueCache fCachedReftypes = new ValueCache();
 	private ValueCache fCachedObjects = new ValueCache();
 
+	/**
+	 * Loaded reference types by signature, seeded on the first query and
+	 * maintained from class prepare and class unload events.
+	 */
+	private ClassTable fClassTable = new ClassTable();
+
+	/**
+	 * Whether the VM holds events, including the class prepare events that
+	 * maintain the table of known classes.
+	 */
+	private volatile boolean fEventsHeld = false;
+
 	/** The following are the stored results of JDWP calls. */
 	private String fVersionDescription = null; // Text information on the VM
 												// version.
@@ -223,21 +237,21 @@ public class VirtualMachineImpl extends MirrorImpl implements VirtualMachine,
 	 * @return Returns cached mirror object, or null if method is not in cache.
 	 */
 	public ReferenceTypeImpl getCachedMirror(JdwpReferenceTypeID ID) {
-		return (ReferenceTypeImpl) fCachedReftypes.get(ID);
+		return (ReferenceTypeImpl) fCachedReftypes.get(ID.value());
 	}
 
 	/**
 	 * @return Returns cached mirror object, or null if method is not in cache.
 	 */
 	public ObjectReferenceImpl getCachedMirror(JdwpObjectID ID) {
-		return (ObjectReferenceImpl) fCachedObjects.get(ID);
+		return (ObjectReferenceImpl) fCachedObjects.get(ID.value());
 	}
 
 	/**
 	 * Adds mirror object to cache.
 	 */
 	public void addCachedMirror(ReferenceTypeImpl mirror) {
-		fCachedReftypes.put(mirror.getRefTypeID(), mirror);
+		fCachedReftypes.put(mirror.getRefTypeID().value(), mirror);
 		// TBD: It is now yet possible to only ask for unload events for
 		// classes that we know of due to a limitation in the J9 VM.
 		// eventRequestManagerImpl().enableInternalClasUnloadEvent(mirror);
@@ -247,7 +261,7 @@ public class VirtualMachineImpl extends MirrorImpl implements VirtualMachine,
 	 * Adds mirror object to cache.
 	 */
 	public void addCachedMirror(ObjectReferenceImpl mirror) {
-		fCachedObjects.put(mirror.getObjectID(), mirror);
+		fCachedObjects.put(mirror.getObjectID().value(), mirror);
 	}
 
 	/**
@@ -272,7 +286,13 @@ public class VirtualMachineImpl extends MirrorImpl implements VirtualMachine,
 	 * it.
 	 */
 	public final void removeKnownRefType(String signature) {
-		List<ReferenceType> refTypeList = classesBySignature(signature);
+		List<ReferenceType> refTypeList = fClassTable.typesWithSignature(signature);
+		if (refTypeList == null) {
+			// The unloaded class is not known, and not returned by the VM
+			// anymore either.
+			fClassTable.invalidate(signature);
+			refTypeList = classesBySignature(signature);
+		}
 		if (refTypeList.isEmpty())
 			return;
 
@@ -282,7 +302,8 @@ public class VirtualMachineImpl extends MirrorImpl implements VirtualMachine,
 		if (refTypeList.size() == 1) {
 			ReferenceTypeImpl refType = (ReferenceTypeImpl) refTypeList.get(0);
 			refType.flushStoredJdwpResults();
-			fCachedReftypes.remove(refType.getRefTypeID());
+			fCachedReftypes.remove(refType.getRefTypeID().value());
+			fClassTable.remove(signature, refType);
 			return;
 		}
 
@@ -300,11 +321,19 @@ public class VirtualMachineImpl extends MirrorImpl implements VirtualMachine,
 			if (!prepared) {
 				refType.flushStoredJdwpResults();
 				iter.remove();
-				fCachedReftypes.remove(refType.getRefTypeID());
+				fCachedReftypes.remove(refType.getRefTypeID().value());
+				fClassTable.remove(signature, refType);
 			}
 		}
 	}
 
+	/**
+	 * Adds a known class, of which a class prepare event has been received.
+	 */
+	public final void addKnownRefType(ReferenceTypeImpl refType) {
+		fClassTable.add(refType.signature(), refType);
+	}
+
 	/*
 	 * @exception Throws UnsupportedOperationException if VM does not support J9
 	 * HCR.
@@ -409,6 +438,14 @@ public class VirtualMachineImpl extends MirrorImpl implements VirtualMachine,
 		return fCachedReftypes.values().iterator();
 	}
 
+	/**
+	 * @return Returns an iterator over all cached classes whose mirror is of
+	 *         the given class.
+	 */
+	protected final Iterator<Object> allCachedRefTypes(Class<? extends ReferenceTypeImpl> type) {
+		return fCachedReftypes.valuesWithType(type).iterator();
+	}
+
 	/**
 	 * Returns a list of the currently running threads. For each running thread
 	 * in the target VM, a ThreadReference that mirrors it is placed in the
@@ -642,6 +679,128 @@ public class VirtualMachineImpl extends MirrorImpl implements VirtualMachine,
 	 * @return Returns the loaded reference types that match a given signature.
 	 */
 	public List<ReferenceType> classesBySignature(String signature) {
+		List<ReferenceType> types = knownClassesBySignature(signature);
+		// The class prepare event of a type that is not known may still be on
+		// its way, only a known type can be trusted.
+		if (types != null && !types.isEmpty()) {
+			return types;
+		}
+		types = requestClassesBySignature(signature);
+		if (types != null && !isArraySignature(signature)) {
+			fClassTable.update(signature, types);
+		}
+		return types;
+	}
+
+	/**
+	 * @return Returns the loaded classes and interfaces whose name starts with
+	 *         the given prefix.
+	 */
+	public List<ReferenceType> classesByNamePrefix(String prefix) {
+		if (canUseClassTableByName()) {
+			List<ReferenceType> types = fClassTable.typesWithNamePrefix(prefix);
+			if (types != null) {
+				return types;
+			}
+		}
+		List<ReferenceType> types = new ArrayList<ReferenceType>();
+		for (ReferenceType type : allClasses()) {
+			if (!(type instanceof ArrayType) && type.name().startsWith(prefix)) {
+				types.add(type);
+			}
+		}
+		return types;
+	}
+
+	/**
+	 * @return Returns the loaded classes and interfaces whose name ends with
+	 *         the given suffix.
+	 */
+	public List<ReferenceType> classesByNameSuffix(String suffix) {
+		if (canUseClassTableByName()) {
+			List<ReferenceType> types = fClassTable.typesWithNameSuffix(suffix);
+			if (types != null) {
+				return types;
+			}
+		}
+		List<ReferenceType> types = new ArrayList<ReferenceType>();
+		for (ReferenceType type : allClasses()) {
+			if (!(type instanceof ArrayType) && type.name().endsWith(suffix)) {
+				types.add(type);
+			}
+		}
+		return types;
+	}
+
+	/**
+	 * Prepares the table of known classes for a query by name.
+	 *
+	 * @return Returns whether the table can be trusted for the query.
+	 */
+	private boolean canUseClassTableByName() {
+		if (!fClassTable.isSeeded()) {
+			seedClassTable();
+		}
+		// Events that are held or have not been read yet may prepare or
+		// unload classes.
+		if (fEventsHeld || packetReceiveManager().hasUnreadCommandPackets()) {
+			return false;
+		}
+		// Only the known types of stale signatures are out of date, ask the
+		// VM for those rather than for all classes.
+		for (String signature : fClassTable.staleSignatures()) {
+			classesBySignature(signature);
+		}
+		return true;
+	}
+
+	/**
+	 * @return Returns the loaded reference types that match a given signature
+	 *         from the table of known classes, or <code>null</code> if the
+	 *         table cannot be trusted for the signature.
+	 */
+	private List<ReferenceType> knownClassesBySignature(String signature) {
+		// Array classes are not prepared, so there are no events to track
+		// them.
+		if (isArraySignature(signature)) {
+			return null;
+		}
+		if (!fClassTable.isSeeded()) {
+			seedClassTable();
+		}
+		// Events that are held or have not been read yet may unload known
+		// classes.
+		if (fEventsHeld || packetReceiveManager().hasUnreadCommandPackets()) {
+			return null;
+		}
+		return fClassTable.typesWithSignature(signature);
+	}
+
+	/**
+	 * Seeds the table of known classes with all loaded classes. Class prepare
+	 * events are requested first, so that no class prepared in between is
+	 * missed.
+	 */
+	private synchronized void seedClassTable() {
+		if (fClassTable.isSeeded()) {
+			return;
+		}
+		eventRequestManagerImpl().enableInternalClassPrepareEvent();
+		List<ReferenceType> types = allClasses();
+		if (types != null) {
+			fClassTable.seed(types);
+		}
+	}
+
+	private static boolean isArraySignature(String signature) {
+		return signature.length() > 0 && signature.charAt(0) == '[';
+	}
+
+	/**
+	 * @return Returns the loaded reference types that match a given signature,
+	 *         as reported by the VM.
+	 */
+	private List<ReferenceType> requestClassesBySignature(String signature) {
 		// Note that this information should not be cached.
 		initJdwpRequest();
 		try {
@@ -873,6 +1032,56 @@ public class VirtualMachineImpl extends MirrorImpl implements VirtualMachine,
 		}
 	}
 
+	/**
+	 * Tells the VM to stop sending events. Events that occur are held by the
+	 * VM until {@link #releaseEvents()} is called. Meanwhile, loaded classes
+	 * are requested from the VM rather than from the table of known classes.
+	 * 
+	 * @since 3.10
+	 */
+	public void holdEvents() {
+		initJdwpRequest();
+		try {
+			fEventsHeld = true;
+			JdwpReplyPacket replyPacket = requestVM(JdwpCommandPacket.VM_HOLD_EVENTS);
+			defaultReplyErrorHandler(replyPacket.errorCode());
+		} finally {
+			handledJdwpRequest();
+		}
+	}
+
+	/**
+	 * Tells the VM to send the events it has held since
+	 * {@link #holdEvents()} and to resume sending events as they occur.
+	 * 
+	 * @since 3.10
+	 */
+	public void releaseEvents() {
+		initJdwpRequest();
+		try {
+			JdwpReplyPacket replyPacket = requestVM(JdwpCommandPacket.VM_RELEASE_EVENTS);
+			defaultReplyErrorHandler(replyPacket.errorCode());
+			fEventsHeld = false;
+		} finally {
+			handledJdwpRequest();
+		}
+	}
+
+	/**
+	 * Retrieves the line tables of all methods of the given types that do not
+	 * know theirs yet, in a single round-trip.
+	 * 
+	 * @since 3.10
+	 */
+	public void prefetchLineTables(List<ReferenceType> types) {
+		List<Method> methods = new ArrayList<Method>();
+		for (ReferenceType type : types) {
+			checkVM(type);
+			methods.addAll(type.methods());
+		}
+		MethodImpl.prefetchLineTables(methods);
+	}
+
 	/* (non-Javadoc)
 	 * @see com.sun.jdi.VirtualMachine#setDebugTraceMode(int)
 	 */
@@ -1262,13 +1471,15 @@ public class VirtualMachineImpl extends MirrorImpl implements VirtualMachine,
 			Iterator<? extends ReferenceType> iter = types.iterator();
 			while (iter.hasNext()) {
 				ReferenceTypeImpl type = (ReferenceTypeImpl) iter.next();
+				// the redefined type gets a new mirror
+				fClassTable.invalidate(type.signature());
 				type.write(this, outData);
 				byte[] bytes = typesToBytes.get(type);
 				writeInt(bytes.length, "classfile", outData); //$NON-NLS-1$
 				for (byte b : bytes) {
 					writeByte(b, "classByte", outData); //$NON-NLS-1$
 				}
-				fCachedReftypes.remove(type.getRefTypeID()); // flush local
+				fCachedReftypes.remove(type.getRefTypeID().value()); // flush local
 																// cache of
 																// redefined
 																// types
@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdi.internal.connect;
+
+/**
+ * Set of <code>int</code> values, backed by an open addressing hash table so
+ * that no values need to be boxed. Not synchronized.
+ */
+class IntHashSet {
+
+	/** Marker for a slot that has never been used. */
+	private static final byte FREE = 0;
+	/** Marker for a slot that holds a value. */
+	private static final byte USED = 1;
+	/** Marker for a slot whose value has been removed. */
+	private static final byte REMOVED = 2;
+
+	private int[] fValues;
+	private byte[] fStates;
+	private int fSize = 0;
+	/** Number of slots that are not free, including removed ones. */
+	private int fOccupied = 0;
+
+	/**
+	 * Creates an empty set.
+	 */
+	IntHashSet() {
+		fValues = new int[16];
+		fStates = new byte[16];
+	}
+
+	/**
+	 * @return Returns the number of values in the set.
+	 */
+	int size() {
+		return fSize;
+	}
+
+	/**
+	 * @return Returns whether the set holds no values.
+	 */
+	boolean isEmpty() {
+		return fSize == 0;
+	}
+
+	/**
+	 * Adds the given value.
+	 *
+	 * @return Returns whether the value was not yet in the set.
+	 */
+	boolean add(int value) {
+		if ((fOccupied + 1) * 4 > fStates.length * 3) {
+			rehash(fSize * 2 > fStates.length / 2 ? fStates.length * 2 : fStates.length);
+		}
+		int mask = fStates.length - 1;
+		int index = hash(value) & mask;
+		int firstRemoved = -1;
+		while (fStates[index] != FREE) {
+			if (fStates[index] == USED) {
+				if (fValues[index] == value) {
+					return false;
+				}
+			} else if (firstRemoved < 0) {
+				firstRemoved = index;
+			}
+			index = (index + 1) & mask;
+		}
+		if (firstRemoved >= 0) {
+			index = firstRemoved;
+		} else {
+			fOccupied++;
+		}
+		fValues[index] = value;
+		fStates[index] = USED;
+		fSize++;
+		return true;
+	}
+
+	/**
+	 * @return Returns whether the given value is in the set.
+	 */
+	boolean contains(int value) {
+		return indexOf(value) >= 0;
+	}
+
+	/**
+	 * Removes the given value.
+	 *
+	 * @return Returns whether the value was in the set.
+	 */
+	boolean remove(int value) {
+		int index = indexOf(value);
+		if (index < 0) {
+			return false;
+		}
+		fStates[index] = REMOVED;
+		fSize--;
+		return true;
+	}
+
+	private int indexOf(int value) {
+		if (fSize == 0) {
+			return -1;
+		}
+		int mask = fStates.length - 1;
+		int index = hash(value) & mask;
+		while (fStates[index] != FREE) {
+			if (fStates[index] == USED && fValues[index] == value) {
+				return index;
+			}
+			index = (index + 1) & mask;
+		}
+		return -1;
+	}
+
+	private void rehash(int capacity) {
+		int[] values = fValues;
+		byte[] states = fStates;
+		fValues = new int[capacity];
+		fStates = new byte[capacity];
+		fSize = 0;
+		fOccupied = 0;
+		for (int i = 0; i < states.length; i++) {
+			if (states[i] == USED) {
+				add(values[i]);
+			}
+		}
+	}
+
+	private static int hash(int value) {
+		int h = value * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+}
@@ -0,0 +1,36 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdi.internal.connect;
+
+import java.io.IOException;
+
+/**
+ * Implemented by connections that can write a run of serialized packets with
+ * a single write.
+ *
+ * @see PacketSendManager
+ * @since 3.10
+ */
+interface PacketBatchWriter {
+
+	/**
+	 * Writes the given bytes, which hold one or more complete JDWP packets
+	 * back to back.
+	 *
+	 * @param packets
+	 *            buffer holding the packets
+	 * @param length
+	 *            number of bytes to write from the start of the buffer
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	void writePackets(byte[] packets, int length) throws IOException;
+}
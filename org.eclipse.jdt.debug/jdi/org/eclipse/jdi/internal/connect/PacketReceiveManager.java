@@ -12,9 +12,9 @@ package org.eclipse.jdi.internal.connect;
 
 import java.io.IOException;
 import java.io.InterruptedIOException;
-import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.ListIterator;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.jdi.TimeoutException;
 import org.eclipse.jdi.internal.VirtualMachineImpl;
@@ -43,14 +43,31 @@ public class PacketReceiveManager extends PacketManager {
 	/** List of Command packets received from Virtual Machine. */
 	private LinkedList<JdwpCommandPacket> fCommandPackets;
 
-	/** List of Reply packets received from Virtual Machine. */
-	private LinkedList<JdwpReplyPacket> fReplyPackets;
+	/**
+	 * Number of event sets that have been taken from the command packets but
+	 * not read yet. Guarded by <code>fCommandPackets</code>.
+	 */
+	private int fEventSetsBeingRead = 0;
+
+	/**
+	 * Reply slots by packet id. A slot is created by whichever comes first, the
+	 * waiter or the reply, and removed when the reply has been retrieved, so
+	 * that each waiter is only woken by its own reply.
+	 */
+	private ConcurrentHashMap<Integer, ReplySlot> fReplySlots;
 
 	/**
-	 * List of Packets that have timed out already. Maintained so that responses
+	 * Ids of Packets that have timed out already. Maintained so that responses
 	 * can be discarded if/when they are received.
 	 */
-	private ArrayList<Integer> fTimedOutPackets;
+	private IntHashSet fTimedOutPackets;
+
+	/**
+	 * Slot in which the reply for one packet id is handed over to its waiter.
+	 */
+	private static class ReplySlot {
+		JdwpReplyPacket fReply = null;
+	}
 
 	private VirtualMachineImpl fVM;
 
@@ -61,8 +78,8 @@ public class PacketReceiveManager extends PacketManager {
 		super(connection);
 		fVM = vmImpl;
 		fCommandPackets = new LinkedList<JdwpCommandPacket>();
-		fReplyPackets = new LinkedList<JdwpReplyPacket>();
-		fTimedOutPackets = new ArrayList<Integer>();
+		fReplySlots = new ConcurrentHashMap<Integer, ReplySlot>();
+		fTimedOutPackets = new IntHashSet();
 	}
 
 	@Override
@@ -71,8 +88,10 @@ public class PacketReceiveManager extends PacketManager {
 		synchronized (fCommandPackets) {
 			fCommandPackets.notifyAll();
 		}
-		synchronized (fReplyPackets) {
-			fReplyPackets.notifyAll();
+		for (ReplySlot slot : fReplySlots.values()) {
+			synchronized (slot) {
+				slot.notifyAll();
+			}
 		}
 	}
 
@@ -96,6 +115,27 @@ public class PacketReceiveManager extends PacketManager {
 		}
 	}
 
+	/**
+	 * @return Returns whether Command Packets have been received that nobody
+	 *         has taken yet, or event sets have been taken that have not been
+	 *         read yet.
+	 */
+	public boolean hasUnreadCommandPackets() {
+		synchronized (fCommandPackets) {
+			return !fCommandPackets.isEmpty() || fEventSetsBeingRead > 0;
+		}
+	}
+
+	/**
+	 * Notifies that an event set returned by
+	 * {@link #getCommand(int, long)} has been read.
+	 */
+	public void eventSetRead() {
+		synchronized (fCommandPackets) {
+			fEventSetsBeingRead--;
+		}
+	}
+
 	/**
 	 * @return Returns a specified Command Packet from the Virtual Machine.
 	 */
@@ -150,16 +190,17 @@ public class PacketReceiveManager extends PacketManager {
 	public JdwpReplyPacket getReply(int id, long timeToWait) {
 		JdwpReplyPacket packet = null;
 		long remainingTime = timeToWait;
-		synchronized (fReplyPackets) {
+		ReplySlot slot = replySlot(id);
+		synchronized (slot) {
 			final long timeBeforeWait = System.currentTimeMillis();
 			// Wait until reply is available.
 			while (!VMIsDisconnected() && remainingTime > 0) {
-				packet = removeReplyPacket(id);
+				packet = slot.fReply;
 				if (packet != null) {
 					break;
 				}
 				try {
-					waitForPacketAvailable(remainingTime, fReplyPackets);
+					waitForPacketAvailable(remainingTime, slot);
 				}
 				// if the remote VM is interrupted DO NOT drop the connection -
 				// see bug 171075
@@ -175,11 +216,15 @@ public class PacketReceiveManager extends PacketManager {
 				long waitedTime = System.currentTimeMillis() - timeBeforeWait;
 				remainingTime = timeToWait - waitedTime;
 			}
-		}
-		if (packet == null) {
-			synchronized (fReplyPackets) {
-				packet = removeReplyPacket(id);
+			packet = slot.fReply;
+			if (packet == null && !VMIsDisconnected()) {
+				// Must be recorded before the slot is released, see
+				// addReplyPacket(JdwpReplyPacket)
+				synchronized (fTimedOutPackets) {
+					fTimedOutPackets.add(id);
+				}
 			}
+			fReplySlots.remove(new Integer(id), slot);
 		}
 		// Check for an IO Exception.
 		if (VMIsDisconnected())
@@ -187,9 +232,6 @@ public class PacketReceiveManager extends PacketManager {
 					ConnectMessages.PacketReceiveManager_Got_IOException_from_Virtual_Machine_2);
 		// Check for a timeout.
 		if (packet == null) {
-			synchronized (fTimedOutPackets) {
-				fTimedOutPackets.add(new Integer(id));
-			}
 			throw new TimeoutException(NLS.bind(
 					ConnectMessages.PacketReceiveManager_0, new String[] { id
 							+ "" })); //$NON-NLS-1$
@@ -204,6 +246,53 @@ public class PacketReceiveManager extends PacketManager {
 		return getReply(commandPacket.getId(), fVM.getRequestTimeout());
 	}
 
+	/**
+	 * @return Returns whether the reply with the given id has been received
+	 *         and not yet retrieved. Does not block.
+	 */
+	public boolean hasReply(int id) {
+		ReplySlot slot = fReplySlots.get(new Integer(id));
+		if (slot == null) {
+			return false;
+		}
+		synchronized (slot) {
+			return slot.fReply != null;
+		}
+	}
+
+	/**
+	 * Discards the reply with the given id, whether it has been received
+	 * already or arrives later.
+	 */
+	public void discardReply(int id) {
+		ReplySlot slot = replySlot(id);
+		synchronized (slot) {
+			if (slot.fReply == null) {
+				synchronized (fTimedOutPackets) {
+					fTimedOutPackets.add(id);
+				}
+			}
+			fReplySlots.remove(new Integer(id), slot);
+		}
+	}
+
+	/**
+	 * @return Returns the slot for the reply with the given id, creating it if
+	 *         necessary.
+	 */
+	private ReplySlot replySlot(int id) {
+		Integer key = new Integer(id);
+		ReplySlot slot = fReplySlots.get(key);
+		if (slot == null) {
+			ReplySlot newSlot = new ReplySlot();
+			slot = fReplySlots.putIfAbsent(key, newSlot);
+			if (slot == null) {
+				slot = newSlot;
+			}
+		}
+		return slot;
+	}
+
 	/**
 	 * Wait for an available packet from the Virtual Machine.
 	 */
@@ -227,21 +316,11 @@ public class PacketReceiveManager extends PacketManager {
 			JdwpCommandPacket packet = iter.next();
 			if (packet.getCommand() == command) {
 				iter.remove();
-				return packet;
-			}
-		}
-		return null;
-	}
-
-	/**
-	 * @return Returns a specified reply packet from the reply packet list.
-	 */
-	private JdwpReplyPacket removeReplyPacket(int id) {
-		ListIterator<JdwpReplyPacket> iter = fReplyPackets.listIterator();
-		while (iter.hasNext()) {
-			JdwpReplyPacket packet = iter.next();
-			if (packet.getId() == id) {
-				iter.remove();
+				if (command == JdwpCommandPacket.E_COMPOSITE) {
+					// Counted until read, the events may prepare or unload
+					// classes.
+					fEventSetsBeingRead++;
+				}
 				return packet;
 			}
 		}
@@ -273,21 +352,25 @@ public class PacketReceiveManager extends PacketManager {
 			if (fTimedOutPackets.isEmpty()) {
 				return false;
 			}
-			Integer id = new Integer(packet.getId());
-			return fTimedOutPackets.remove(id);
+			return fTimedOutPackets.remove(packet.getId());
 		}
 	}
 
 	/**
-	 * Add a reply packet to the reply packet list.
+	 * Hand a reply packet to its slot and wake up the waiter, if any.
 	 */
 	private void addReplyPacket(JdwpReplyPacket packet) {
-		if (isTimedOut(packet)) {
-			return; // already timed out. No need to keep this one
-		}
-		synchronized (fReplyPackets) {
-			fReplyPackets.add(packet);
-			fReplyPackets.notifyAll();
+		ReplySlot slot = replySlot(packet.getId());
+		synchronized (slot) {
+			// A waiter that gives up records the id as timed out before it
+			// releases the slot, so this check also covers a slot that has
+			// been created anew after the waiter removed the old one.
+			if (isTimedOut(packet)) {
+				fReplySlots.remove(new Integer(packet.getId()), slot);
+				return; // already timed out. No need to keep this one
+			}
+			slot.fReply = packet;
+			slot.notify();
 		}
 	}
 
@@ -12,7 +12,9 @@ package org.eclipse.jdi.internal.connect;
 
 import java.io.IOException;
 import java.io.InterruptedIOException;
-import java.util.LinkedList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
 import org.eclipse.jdi.internal.jdwp.JdwpPacket;
 import org.eclipse.osgi.util.NLS;
@@ -23,26 +25,76 @@ import com.sun.jdi.connect.spi.Connection;
 /**
  * This class implements a thread that sends available packets to the Virtual
  * Machine.
- * 
+ * <p>
+ * Senders add packets to a non-blocking queue. The send thread takes all
+ * packets that are queued, serializes them into one reused buffer and writes
+ * them to the connection with a single write, if the connection supports it.
+ * </p>
  */
 public class PacketSendManager extends PacketManager {
-	/** List of packets to be sent to Virtual Machine */
-	private LinkedList<JdwpPacket> fOutgoingPackets;
+
+	/**
+	 * System property specifying the number of microseconds the send thread
+	 * waits for more packets to arrive before writing the ones it has. Zero,
+	 * the default, sends packets as soon as they are available.
+	 *
+	 * @since 3.10
+	 */
+	public static final String BATCH_WINDOW_PROPERTY = "org.eclipse.jdt.debug.sendBatchWindow"; //$NON-NLS-1$
+
+	/** Initial size of the send buffer. */
+	private static final int INITIAL_BUFFER_SIZE = 4 * 1024;
+
+	/**
+	 * Size up to which packets are collected before they are written. Bigger
+	 * packets are still written in one piece.
+	 */
+	private static final int MAX_BATCH_SIZE = 64 * 1024;
+
+	/** Queue of packets to be sent to Virtual Machine */
+	private ConcurrentLinkedQueue<JdwpPacket> fOutgoingPackets;
+
+	/** The thread that sends the packets, once it is running. */
+	private volatile Thread fSendThread;
+
+	/** Whether the send thread is about to park, waiting for packets. */
+	private volatile boolean fWaiting = false;
+
+	/**
+	 * Buffer the packets are serialized into, reused for every write. Only
+	 * accessed by the send thread.
+	 */
+	private byte[] fBuffer = new byte[INITIAL_BUFFER_SIZE];
+
+	/** Micro batching window in nanoseconds. */
+	private long fBatchWindow;
 
 	/**
 	 * Create a new thread that send packets to the Virtual Machine.
 	 */
 	public PacketSendManager(Connection connection) {
 		super(connection);
-		fOutgoingPackets = new LinkedList<JdwpPacket>();
+		fOutgoingPackets = new ConcurrentLinkedQueue<JdwpPacket>();
+		fBatchWindow = TimeUnit.MICROSECONDS.toNanos(Long.getLong(BATCH_WINDOW_PROPERTY, 0).longValue());
+	}
+
+	/**
+	 * Sets the time the send thread waits for more packets before it writes
+	 * the packets it has.
+	 *
+	 * @param window
+	 *            the window, in microseconds, or zero to send packets
+	 *            immediately
+	 * @since 3.10
+	 */
+	public void setBatchWindow(long window) {
+		fBatchWindow = TimeUnit.MICROSECONDS.toNanos(window);
 	}
 
 	@Override
 	public void disconnectVM() {
 		super.disconnectVM();
-		synchronized (fOutgoingPackets) {
-			fOutgoingPackets.notifyAll();
-		}
+		wakeUp();
 	}
 
 	/**
@@ -50,6 +102,7 @@ public class PacketSendManager extends PacketManager {
 	 */
 	@Override
 	public void run() {
+		fSendThread = Thread.currentThread();
 		while (!VMIsDisconnected()) {
 			try {
 				sendAvailablePackets();
@@ -90,35 +143,110 @@ public class PacketSendManager extends PacketManager {
 			throw new VMDisconnectedException(message);
 		}
 
-		synchronized (fOutgoingPackets) {
-			// Add packet to list of packets to send.
-			fOutgoingPackets.add(packet);
-			// Notify PacketSendThread that data is available.
-			fOutgoingPackets.notifyAll();
+		// Add packet to queue of packets to send.
+		fOutgoingPackets.offer(packet);
+		// Notify PacketSendThread that data is available.
+		if (fWaiting) {
+			wakeUp();
 		}
 	}
 
+	/**
+	 * Wakes up the send thread if it is waiting for packets.
+	 */
+	private void wakeUp() {
+		Thread thread = fSendThread;
+		if (thread != null) {
+			LockSupport.unpark(thread);
+		}
+	}
+
+	/**
+	 * Waits until a packet is available.
+	 *
+	 * @return Returns the first available packet, or <code>null</code> if the
+	 *         VM has been disconnected meanwhile.
+	 */
+	private JdwpPacket waitForPacket() throws InterruptedException {
+		JdwpPacket packet = fOutgoingPackets.poll();
+		while (packet == null) {
+			// Announce the wait before checking the queue a last time, so
+			// that a sender either sees the announcement or its packet is
+			// seen here.
+			fWaiting = true;
+			packet = fOutgoingPackets.poll();
+			if (packet == null) {
+				LockSupport.park(this);
+				packet = fOutgoingPackets.poll();
+			}
+			fWaiting = false;
+			if (Thread.interrupted()) {
+				throw new InterruptedException();
+			}
+			if (packet == null && VMIsDisconnected()) {
+				return null;
+			}
+		}
+		return packet;
+	}
+
 	/**
 	 * Send available packets to the Virtual Machine.
 	 */
 	private void sendAvailablePackets() throws InterruptedException,
 			IOException {
-		LinkedList<JdwpPacket> packetsToSend = new LinkedList<JdwpPacket>();
-		synchronized (fOutgoingPackets) {
-			while (fOutgoingPackets.size() == 0) {
-				fOutgoingPackets.wait();
+		JdwpPacket packet = waitForPacket();
+		if (packet == null) {
+			return;
+		}
+		if (fBatchWindow > 0) {
+			// give senders the chance to add more packets to this write
+			LockSupport.parkNanos(this, fBatchWindow);
+			if (Thread.interrupted()) {
+				throw new InterruptedException();
 			}
-			packetsToSend.addAll(fOutgoingPackets);
-			fOutgoingPackets.clear();
 		}
 
-		// Put available packets on Output Stream.
-		while (packetsToSend.size() > 0) {
-			// Note that only JdwpPackets are added to the list, so a
-			// ClassCastException can't occur.
-			JdwpPacket packet = packetsToSend.removeFirst();
-			byte[] bytes = packet.getPacketAsBytes();
-			getConnection().writePacket(bytes);
+		Connection connection = getConnection();
+		if (!(connection instanceof PacketBatchWriter)) {
+			// Put available packets on Output Stream.
+			while (packet != null) {
+				connection.writePacket(packet.getPacketAsBytes());
+				packet = fOutgoingPackets.poll();
+			}
+			return;
+		}
+
+		// Serialize all available packets into the buffer and write them at
+		// once, in chunks of at most MAX_BATCH_SIZE bytes unless a single
+		// packet is bigger.
+		PacketBatchWriter writer = (PacketBatchWriter) connection;
+		int length = 0;
+		while (packet != null) {
+			int packetLength = packet.getLength();
+			if (length > 0 && length + packetLength > MAX_BATCH_SIZE) {
+				writer.writePackets(fBuffer, length);
+				length = 0;
+			}
+			ensureCapacity(length + packetLength);
+			length = packet.writeTo(fBuffer, length);
+			packet = fOutgoingPackets.poll();
+		}
+		writer.writePackets(fBuffer, length);
+		if (fBuffer.length > MAX_BATCH_SIZE) {
+			// do not keep the space of an exceptionally big packet
+			fBuffer = new byte[MAX_BATCH_SIZE];
+		}
+	}
+
+	/**
+	 * Grows the send buffer to hold at least the given number of bytes.
+	 */
+	private void ensureCapacity(int capacity) {
+		if (capacity > fBuffer.length) {
+			byte[] buffer = new byte[Math.max(capacity, Math.min(fBuffer.length * 2, MAX_BATCH_SIZE))];
+			System.arraycopy(fBuffer, 0, buffer, 0, fBuffer.length);
+			fBuffer = buffer;
 		}
 	}
 }
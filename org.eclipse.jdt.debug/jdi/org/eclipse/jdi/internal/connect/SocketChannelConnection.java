@@ -0,0 +1,253 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdi.internal.connect;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SocketChannel;
+
+import com.sun.jdi.connect.spi.ClosedConnectionException;
+import com.sun.jdi.connect.spi.Connection;
+
+/**
+ * Connection that talks to the Virtual Machine through the
+ * {@link SocketChannel} of the transport. Reads and writes go through direct
+ * buffers that are reused for the lifetime of the connection, so that a
+ * single system call reads as many packets as are available and writes as
+ * many packets as the {@link PacketSendManager} has queued. The
+ * {@link Connection} API still returns each packet as a new array, so every
+ * packet read is copied once out of the read buffer.
+ * <p>
+ * Unlike the socket streams, the channel is closed when a thread blocked in
+ * {@link #readPacket()} or {@link #writePacket(byte[])} is interrupted. The
+ * connection is closed with it, and the interrupted call throws a
+ * {@link ClosedConnectionException}.
+ * </p>
+ *
+ * @see SocketConnection
+ * @since 3.10
+ */
+public class SocketChannelConnection extends Connection implements PacketBatchWriter {
+
+	/** Size of the read and the write buffer. */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private SocketTransportService fTransport;
+
+	/**
+	 * Received bytes that have not been returned as packet yet. The buffer is
+	 * kept ready for reading, i.e. the unconsumed bytes are between position
+	 * and limit.
+	 */
+	private final ByteBuffer fReadBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+	/** Buffer packets are collected in before they are written. */
+	private final ByteBuffer fWriteBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+	private final Object fReadLock = new Object();
+
+	private final Object fWriteLock = new Object();
+
+	SocketChannelConnection(SocketTransportService transport) {
+		fTransport = transport;
+		fReadBuffer.flip();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see com.sun.jdi.connect.spi.Connection#close()
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (fTransport == null)
+			return;
+
+		fTransport.close();
+		fTransport = null;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see com.sun.jdi.connect.spi.Connection#isOpen()
+	 */
+	@Override
+	public synchronized boolean isOpen() {
+		return fTransport != null;
+	}
+
+	/**
+	 * @return Returns the channel of the transport.
+	 * @throws ClosedConnectionException
+	 *             if the connection has been closed
+	 */
+	private synchronized SocketChannel getChannel() throws ClosedConnectionException {
+		SocketChannel channel = null;
+		if (isOpen()) {
+			channel = fTransport.getChannel();
+		}
+		if (channel == null) {
+			throw new ClosedConnectionException();
+		}
+		return channel;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see com.sun.jdi.connect.spi.Connection#readPacket()
+	 */
+	@Override
+	public byte[] readPacket() throws IOException {
+		SocketChannel channel = getChannel();
+		synchronized (fReadLock) {
+			try {
+				fill(channel, 4);
+			} catch (IOException e) {
+				closeAfter(e);
+				throw new ClosedConnectionException();
+			}
+			int packetLength = fReadBuffer.getInt(fReadBuffer.position());
+			if (packetLength < 11) {
+				throw new IOException("JDWP Packet under 11 bytes"); //$NON-NLS-1$
+			}
+
+			byte[] packet = new byte[packetLength];
+			int offset = 0;
+			try {
+				while (offset < packetLength) {
+					if (!fReadBuffer.hasRemaining()) {
+						fill(channel, 1);
+					}
+					int count = Math.min(fReadBuffer.remaining(), packetLength - offset);
+					fReadBuffer.get(packet, offset, count);
+					offset += count;
+				}
+			} catch (ClosedChannelException e) {
+				closeAfter(e);
+				throw new ClosedConnectionException();
+			}
+			return packet;
+		}
+	}
+
+	/**
+	 * Closes this connection if the given exception has closed the channel,
+	 * which is the case when the reading or writing thread was interrupted.
+	 */
+	private void closeAfter(IOException e) throws IOException {
+		if (e instanceof ClosedChannelException) {
+			close();
+		}
+	}
+
+	/**
+	 * Reads from the channel until at least the given number of bytes is
+	 * available in the read buffer.
+	 */
+	private void fill(SocketChannel channel, int required) throws IOException {
+		if (fReadBuffer.remaining() >= required) {
+			return;
+		}
+		fReadBuffer.compact();
+		try {
+			while (fReadBuffer.position() < required) {
+				if (channel.read(fReadBuffer) < 0) {
+					throw new ClosedConnectionException();
+				}
+			}
+		} finally {
+			fReadBuffer.flip();
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see com.sun.jdi.connect.spi.Connection#writePacket(byte[])
+	 */
+	@Override
+	public void writePacket(byte[] packet) throws IOException {
+		checkPacket(packet);
+		// packet.length can be > packetSize. Sending too much will cause
+		// errors on the other side
+		writePackets(packet, getPacketLength(packet));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.jdi.internal.connect.PacketBatchWriter#writePackets(byte[], int)
+	 */
+	@Override
+	public void writePackets(byte[] packets, int length) throws IOException {
+		SocketChannel channel = getChannel();
+		synchronized (fWriteLock) {
+			fWriteBuffer.clear();
+			int offset = 0;
+			try {
+				while (offset < length) {
+					int count = Math.min(fWriteBuffer.remaining(), length - offset);
+					fWriteBuffer.put(packets, offset, count);
+					offset += count;
+					flush(channel);
+				}
+			} catch (ClosedChannelException e) {
+				closeAfter(e);
+				throw new ClosedConnectionException();
+			}
+		}
+	}
+
+	/**
+	 * Writes the content of the write buffer to the channel and clears it.
+	 */
+	private void flush(SocketChannel channel) throws IOException {
+		fWriteBuffer.flip();
+		while (fWriteBuffer.hasRemaining()) {
+			channel.write(fWriteBuffer);
+		}
+		fWriteBuffer.clear();
+	}
+
+	private void checkPacket(byte[] packet) {
+		if (packet == null) {
+			throw new IllegalArgumentException(
+					"Invalid JDWP Packet, packet cannot be null"); //$NON-NLS-1$
+		}
+		if (packet.length < 11) {
+			throw new IllegalArgumentException(
+					"Invalid JDWP Packet, must be at least 11 bytes. PacketSize:" + packet.length); //$NON-NLS-1$
+		}
+
+		int packetSize = getPacketLength(packet);
+		if (packetSize < 11) {
+			throw new IllegalArgumentException(
+					"Invalid JDWP Packet, must be at least 11 bytes. PacketSize:" + packetSize); //$NON-NLS-1$
+		}
+
+		if (packetSize > packet.length) {
+			throw new IllegalArgumentException(
+					"Invalid JDWP packet: Specified length is greater than actual length"); //$NON-NLS-1$
+		}
+	}
+
+	private int getPacketLength(byte[] packet) {
+		int len = 0;
+		if (packet.length >= 4) {
+			len = (((packet[0] & 0xFF) << 24) + ((packet[1] & 0xFF) << 16)
+					+ ((packet[2] & 0xFF) << 8) + ((packet[3] & 0xFF) << 0));
+		}
+		return len;
+	}
+}
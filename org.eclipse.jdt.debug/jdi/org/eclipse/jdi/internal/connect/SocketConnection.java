@@ -17,7 +17,7 @@ import java.io.OutputStream;
 import com.sun.jdi.connect.spi.ClosedConnectionException;
 import com.sun.jdi.connect.spi.Connection;
 
-public class SocketConnection extends Connection {
+public class SocketConnection extends Connection implements PacketBatchWriter {
 
 	private SocketTransportService fTransport;
 
@@ -131,6 +131,26 @@ public class SocketConnection extends Connection {
 		}
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.eclipse.jdi.internal.connect.PacketBatchWriter#writePackets(byte[], int)
+	 */
+	@Override
+	public void writePackets(byte[] packets, int length) throws IOException {
+		OutputStream stream = null;
+		synchronized (this) {
+			if (!isOpen()) {
+				throw new ClosedConnectionException();
+			}
+			stream = fTransport.getOutputStream();
+		}
+
+		synchronized (stream) {
+			stream.write(packets, 0, length);
+		}
+	}
+
 	private int getPacketLength(byte[] packet) {
 		int len = 0;
 		if (packet.length >= 4) {
@@ -22,6 +22,7 @@ import com.sun.jdi.VirtualMachine;
 import com.sun.jdi.connect.Connector;
 import com.sun.jdi.connect.IllegalConnectorArgumentsException;
 import com.sun.jdi.connect.ListeningConnector;
+import com.sun.jdi.connect.spi.Connection;
 
 public class SocketListeningConnectorImpl extends ConnectorImpl implements ListeningConnector {
 	/** Port to which is attached. */
@@ -153,8 +154,8 @@ public class SocketListeningConnectorImpl extends ConnectorImpl implements Liste
 	@Override
 	public VirtualMachine accept(Map<String, ? extends Connector.Argument> connectionArgs) throws IOException, IllegalConnectorArgumentsException {
 		getConnectionArguments(connectionArgs);
-		SocketConnection connection = (SocketConnection) ((SocketTransportImpl) fTransport)
-				.accept(fTimeout, 0);
+		Connection connection = ((SocketTransportImpl) fTransport).accept(
+				fTimeout, 0);
 		return establishedConnection(connection);
 	}
 
@@ -17,9 +17,12 @@ import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.SocketTimeoutException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
 import java.util.Arrays;
 
 import org.eclipse.jdi.TimeoutException;
@@ -33,6 +36,20 @@ public class SocketTransportService extends TransportService {
 	/** Handshake bytes used just after connecting VM. */
 	private static final byte[] handshakeBytes = "JDWP-Handshake".getBytes(); //$NON-NLS-1$
 
+	/**
+	 * System property that, when set to <code>true</code>, makes connections
+	 * use the socket streams instead of the socket channel.
+	 *
+	 * @since 3.10
+	 */
+	public static final String STREAM_TRANSPORT_PROPERTY = "org.eclipse.jdt.debug.streamTransport"; //$NON-NLS-1$
+
+	/**
+	 * Whether sockets are opened through channels, so that connections can
+	 * use a {@link SocketChannelConnection}.
+	 */
+	private boolean fUseChannels;
+
 	private Capabilities fCapabilities = new Capabilities() {
 		@Override
 		public boolean supportsAcceptTimeout() {
@@ -83,6 +100,26 @@ public class SocketTransportService extends TransportService {
 	// for listening or accepting connectors
 	private ServerSocket fServerSocket;
 
+	/**
+	 * Creates a transport service that uses socket channels unless the
+	 * {@link #STREAM_TRANSPORT_PROPERTY} system property is set.
+	 */
+	public SocketTransportService() {
+		this(!Boolean.getBoolean(STREAM_TRANSPORT_PROPERTY));
+	}
+
+	/**
+	 * Creates a transport service.
+	 *
+	 * @param useChannels
+	 *            whether connections use the socket channel rather than the
+	 *            socket streams
+	 * @since 3.10
+	 */
+	public SocketTransportService(boolean useChannels) {
+		fUseChannels = useChannels;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -107,7 +144,7 @@ public class SocketTransportService extends TransportService {
 		fInput = fSocket.getInputStream();
 		fOutput = fSocket.getOutputStream();
 		performHandshake(fInput, fOutput, handshakeTimeout);
-		return new SocketConnection(this);
+		return createConnection();
 	}
 
 	/*
@@ -145,7 +182,11 @@ public class SocketTransportService extends TransportService {
 			@Override
 			public void run() {
 				try {
-					fSocket = new Socket(host, port);
+					if (fUseChannels) {
+						fSocket = SocketChannel.open(new InetSocketAddress(host, port)).socket();
+					} else {
+						fSocket = new Socket(host, port);
+					}
 					fInput = fSocket.getInputStream();
 					fOutput = fSocket.getOutputStream();
 					performHandshake(fInput, fOutput, handshakeTimeout);
@@ -169,6 +210,17 @@ public class SocketTransportService extends TransportService {
 			throw ex[0];
 		}
 
+		return createConnection();
+	}
+
+	/**
+	 * @return Returns a connection on the current socket, using its channel if
+	 *         there is one.
+	 */
+	private Connection createConnection() {
+		if (getChannel() != null) {
+			return new SocketChannelConnection(this);
+		}
 		return new SocketConnection(this);
 	}
 
@@ -293,7 +345,12 @@ public class SocketTransportService extends TransportService {
 			host = "localhost"; //$NON-NLS-1$
 		}
 
-		fServerSocket = new ServerSocket(port);
+		if (fUseChannels) {
+			fServerSocket = ServerSocketChannel.open().socket();
+			fServerSocket.bind(new InetSocketAddress(port));
+		} else {
+			fServerSocket = new ServerSocket(port);
+		}
 		port = fServerSocket.getLocalPort();
 		ListenKey listenKey = new SocketListenKey(host + ":" + port); //$NON-NLS-1$
 		return listenKey;
@@ -346,4 +403,17 @@ public class SocketTransportService extends TransportService {
 	public OutputStream getOutputStream() {
 		return fOutput;
 	}
+
+	/**
+	 * @return current socket channel or <code>null</code> if there is no
+	 *         socket or it has not been opened through a channel
+	 * @since 3.10
+	 */
+	public SocketChannel getChannel() {
+		Socket socket = fSocket;
+		if (socket == null || !fUseChannels) {
+			return null;
+		}
+		return socket.getChannel();
+	}
 }
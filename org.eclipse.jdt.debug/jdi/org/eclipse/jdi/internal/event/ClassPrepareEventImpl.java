@@ -57,6 +57,11 @@ public class ClassPrepareEventImpl extends EventImpl implements
 				target, false, dataInStream);
 		target.readInt(
 				"class status", ReferenceTypeImpl.classStatusStrings(), dataInStream); //$NON-NLS-1$
+		// Add the class to classes that are known by the application to be
+		// loaded in the VM.
+		if (event.fReferenceType != null) {
+			vmImpl.addKnownRefType(event.fReferenceType);
+		}
 		return event;
 	}
 
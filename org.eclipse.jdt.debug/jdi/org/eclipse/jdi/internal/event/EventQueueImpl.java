@@ -67,8 +67,12 @@ public class EventQueueImpl extends MirrorImpl implements EventQueue {
 			do {
 				JdwpCommandPacket packet = getCommandVM(
 						JdwpCommandPacket.E_COMPOSITE, timeout);
-				initJdwpEventSet(packet);
-				set = EventSetImpl.read(this, packet.dataInStream());
+				try {
+					initJdwpEventSet(packet);
+					set = EventSetImpl.read(this, packet.dataInStream());
+				} finally {
+					virtualMachineImpl().packetReceiveManager().eventSetRead();
+				}
 				handledJdwpEventSet();
 			} while (set.isEmpty());
 			return set;
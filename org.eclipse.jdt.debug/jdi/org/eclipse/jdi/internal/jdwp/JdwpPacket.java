@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -33,6 +33,13 @@ public abstract class JdwpPacket {
 	protected int fId = 0;
 	protected byte fFlags = 0;
 	protected byte[] fDataBuf = null;
+	/**
+	 * Offset of the data in {@link #fDataBuf}. Packets that are built from
+	 * received bytes keep referring to those bytes instead of copying them.
+	 */
+	protected int fDataOffset = 0;
+	/** Length of the data in {@link #fDataBuf}. */
+	protected int fDataLength = 0;
 
 	/**
 	 * Set Id.
@@ -73,13 +80,19 @@ public abstract class JdwpPacket {
 	 * @return Returns length of data in packet.
 	 */
 	public int getDataLength() {
-		return fDataBuf == null ? 0 : fDataBuf.length;
+		return fDataBuf == null ? 0 : fDataLength;
 	}
 
 	/**
 	 * @return Returns data of packet.
 	 */
 	public byte[] data() {
+		if (fDataBuf != null
+				&& (fDataOffset != 0 || fDataLength != fDataBuf.length)) {
+			byte[] data = new byte[fDataLength];
+			System.arraycopy(fDataBuf, fDataOffset, data, 0, fDataLength);
+			setData(data);
+		}
 		return fDataBuf;
 	}
 
@@ -89,7 +102,8 @@ public abstract class JdwpPacket {
 	 */
 	public DataInputStream dataInStream() {
 		if (fDataBuf != null) {
-			return new DataInputStream(new ByteArrayInputStream(fDataBuf));
+			return new DataInputStream(new ByteArrayInputStream(fDataBuf,
+					fDataOffset, fDataLength));
 		}
 
 		return new DataInputStream(new ByteArrayInputStream(new byte[0]));
@@ -100,6 +114,8 @@ public abstract class JdwpPacket {
 	 */
 	public void setData(byte[] data) {
 		fDataBuf = data;
+		fDataOffset = 0;
+		fDataLength = data == null ? 0 : data.length;
 	}
 
 	/**
@@ -115,7 +131,8 @@ public abstract class JdwpPacket {
 			throws IOException;
 
 	/**
-	 * Constructs a JdwpPacket from a byte[].
+	 * Constructs a JdwpPacket from a byte[]. The data of the packet is not
+	 * copied, the packet refers to the given bytes instead.
 	 */
 	public static JdwpPacket build(byte[] bytes) throws IOException {
 		// length (int)
@@ -150,43 +167,55 @@ public abstract class JdwpPacket {
 		int index = 9;
 		index += packet.readSpecificHeaderFields(bytes, 9);
 		if (packetLength - MIN_PACKET_LENGTH > 0) {
-			packet.fDataBuf = new byte[packetLength - MIN_PACKET_LENGTH];
-			System.arraycopy(bytes, index, packet.fDataBuf, 0,
-					packet.fDataBuf.length);
+			packet.fDataBuf = bytes;
+			packet.fDataOffset = index;
+			packet.fDataLength = packetLength - MIN_PACKET_LENGTH;
 		}
 
 		return packet;
 	}
 
 	public byte[] getPacketAsBytes() throws IOException {
+		byte[] bytes = new byte[getLength()];
+		writeTo(bytes, 0);
+		return bytes;
+	}
+
+	/**
+	 * Writes the packet into the given array, which must have room for
+	 * {@link #getLength()} bytes from the given offset on.
+	 *
+	 * @return Returns the offset behind the packet.
+	 * @since 3.10
+	 */
+	public int writeTo(byte[] bytes, int offset) throws IOException {
 		int len = getLength();
-		byte[] bytes = new byte[len];
 
 		// convert len to bytes
-		bytes[0] = (byte) (len >>> 24);
-		bytes[1] = (byte) (len >>> 16);
-		bytes[2] = (byte) (len >>> 8);
-		bytes[3] = (byte) (len >>> 0);
+		bytes[offset] = (byte) (len >>> 24);
+		bytes[offset + 1] = (byte) (len >>> 16);
+		bytes[offset + 2] = (byte) (len >>> 8);
+		bytes[offset + 3] = (byte) (len >>> 0);
 
 		// convert id to bytes
 		int id = getId();
-		bytes[4] = (byte) (id >>> 24);
-		bytes[5] = (byte) (id >>> 16);
-		bytes[6] = (byte) (id >>> 8);
-		bytes[7] = (byte) (id >>> 0);
+		bytes[offset + 4] = (byte) (id >>> 24);
+		bytes[offset + 5] = (byte) (id >>> 16);
+		bytes[offset + 6] = (byte) (id >>> 8);
+		bytes[offset + 7] = (byte) (id >>> 0);
 
 		// flags
-		bytes[8] = getFlags();
+		bytes[offset + 8] = getFlags();
 
 		// convert specific header fields
-		int index = 9;
+		int index = offset + 9;
 		index += writeSpecificHeaderFields(bytes, index);
 
-		if (index < len && fDataBuf != null) {
+		if (index < offset + len && fDataBuf != null) {
 			// copy data
-			System.arraycopy(fDataBuf, 0, bytes, index, fDataBuf.length);
+			System.arraycopy(fDataBuf, fDataOffset, bytes, index, fDataLength);
 		}
-		return bytes;
+		return offset + len;
 	}
 
 	/**
@@ -23,6 +23,7 @@ import org.eclipse.jdi.internal.FieldImpl;
 import org.eclipse.jdi.internal.LocationImpl;
 import org.eclipse.jdi.internal.MirrorImpl;
 import org.eclipse.jdi.internal.ObjectReferenceImpl;
+import org.eclipse.jdi.internal.PendingReply;
 import org.eclipse.jdi.internal.ReferenceTypeImpl;
 import org.eclipse.jdi.internal.ThreadReferenceImpl;
 import org.eclipse.jdi.internal.VirtualMachineImpl;
@@ -96,6 +97,11 @@ public abstract class EventRequestImpl extends MirrorImpl implements
 	 * Reuqest Set command, null if request had not yet been enabled.
 	 */
 	protected RequestID fRequestID = null;
+	/**
+	 * Reply to the JDWP Event Request Set command of a request that has been
+	 * enabled in a batch, null if there is none outstanding.
+	 */
+	private PendingReply fPendingEnable = null;
 	/**
 	 * Determines the threads to suspend when the requested event occurs in the
 	 * target VM.
@@ -255,12 +261,53 @@ public abstract class EventRequestImpl extends MirrorImpl implements
 			writeInt(modifierCount(), "modifiers", outData); //$NON-NLS-1$
 			writeModifiers(outData);
 
-			JdwpReplyPacket replyPacket = requestVM(JdwpCommandPacket.ER_SET,
+			PendingReply reply = requestVMAsync(JdwpCommandPacket.ER_SET,
 					outBytes);
-			defaultReplyErrorHandler(replyPacket.errorCode());
-			DataInputStream replyData = replyPacket.dataInStream();
-			fRequestID = RequestID.read(this, replyData);
-			virtualMachineImpl().eventRequestManagerImpl().addRequestIDMapping(this);
+			EventRequestManagerImpl manager = virtualMachineImpl()
+					.eventRequestManagerImpl();
+			if (manager.isEnablingBatch()) {
+				// the reply is read when the batch ends, or when the state of
+				// this request is needed
+				fPendingEnable = reply;
+				manager.addPendingEnable(this);
+				return;
+			}
+			readEnableReply(reply.reply());
+		} catch (IOException e) {
+			defaultIOExceptionHandler(e);
+		} finally {
+			handledJdwpRequest();
+		}
+	}
+
+	/**
+	 * Reads the request ID assigned by the reply to the JDWP Event Request Set
+	 * command.
+	 */
+	private void readEnableReply(JdwpReplyPacket replyPacket)
+			throws IOException {
+		defaultReplyErrorHandler(replyPacket.errorCode());
+		DataInputStream replyData = replyPacket.dataInStream();
+		fRequestID = RequestID.read(this, replyData);
+		virtualMachineImpl().eventRequestManagerImpl().addRequestIDMapping(this);
+	}
+
+	/**
+	 * Completes enabling this request if it has been enabled in a batch and
+	 * the reply of the Virtual Machine has not been read yet.
+	 * 
+	 * @see EventRequestManagerImpl#beginEnableBatch()
+	 * @since 3.10
+	 */
+	public synchronized void completeEnable() {
+		if (fPendingEnable == null) {
+			return;
+		}
+		PendingReply reply = fPendingEnable;
+		fPendingEnable = null;
+		initJdwpRequest();
+		try {
+			readEnableReply(reply.reply());
 		} catch (IOException e) {
 			defaultIOExceptionHandler(e);
 		} finally {
@@ -287,6 +334,7 @@ public abstract class EventRequestImpl extends MirrorImpl implements
 	 */
 	@Override
 	public synchronized final boolean isEnabled() {
+		completeEnable();
 		return fRequestID != null;
 	}
 
@@ -334,6 +382,7 @@ public abstract class EventRequestImpl extends MirrorImpl implements
 	 * @return Returns requestID, or null if request ID is not (yet) assigned.
 	 */
 	public final RequestID requestID() {
+		completeEnable();
 		return fRequestID;
 	}
 
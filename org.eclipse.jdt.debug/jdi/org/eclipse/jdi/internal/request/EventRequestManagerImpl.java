@@ -114,6 +114,15 @@ public class EventRequestManagerImpl extends MirrorImpl implements EventRequestM
 	private EventRequestType<MonitorWaitedRequest> MONITOR_WAITED_TYPE= new EventRequestType<MonitorWaitedRequest>();
 	private EventRequestType<MonitorWaitRequest> MONITOR_WAIT_TYPE= new EventRequestType<MonitorWaitRequest>();
 
+	/** Class prepare request generated from inside, once enabled. */
+	private ClassPrepareRequestImpl fInternalClassPrepareRequest = null;
+
+	/** Thread that enables requests in a batch, null if there is no batch. */
+	private Thread fBatchThread = null;
+
+	/** Requests enabled in the current batch whose reply has not been read. */
+	private List<EventRequestImpl> fPendingEnables = null;
+
 	/**
 	 * Creates new EventRequestManager.
 	 */
@@ -307,13 +316,85 @@ public class EventRequestManagerImpl extends MirrorImpl implements EventRequestM
 		return req;
 	}
 	
+	/**
+	 * Starts a batch in which the requests enabled by the calling thread are
+	 * sent to the Virtual Machine without waiting for the replies, so that a
+	 * large number of requests costs a single round-trip. The replies are read
+	 * by {@link #endEnableBatch()}, or earlier when the state of a request is
+	 * queried.
+	 * <p>
+	 * Events of the requests cannot be matched to them until the replies are
+	 * read, so events should be held in the Virtual Machine during the batch.
+	 * </p>
+	 * 
+	 * @see VirtualMachineImpl#holdEvents()
+	 * @since 3.10
+	 */
+	public synchronized void beginEnableBatch() {
+		if (fBatchThread != null) {
+			throw new IllegalStateException();
+		}
+		fBatchThread = Thread.currentThread();
+		fPendingEnables = new ArrayList<EventRequestImpl>();
+	}
+
+	/**
+	 * Ends the batch started by {@link #beginEnableBatch()} and reads the
+	 * replies for all requests enabled in it. If enabling requests failed, the
+	 * first failure is thrown after all replies have been read.
+	 * 
+	 * @since 3.10
+	 */
+	public void endEnableBatch() {
+		List<EventRequestImpl> pending;
+		synchronized (this) {
+			if (fBatchThread != Thread.currentThread()) {
+				throw new IllegalStateException();
+			}
+			pending = fPendingEnables;
+			fBatchThread = null;
+			fPendingEnables = null;
+		}
+		RuntimeException failure = null;
+		for (EventRequestImpl request : pending) {
+			try {
+				request.completeEnable();
+			} catch (RuntimeException e) {
+				if (failure == null) {
+					failure = e;
+				}
+			}
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	/**
+	 * @return Returns whether requests enabled by the calling thread are part
+	 *         of a batch.
+	 */
+	synchronized boolean isEnablingBatch() {
+		return fBatchThread == Thread.currentThread();
+	}
+
+	/**
+	 * Adds a request whose enabling is to be completed when the batch ends.
+	 */
+	synchronized void addPendingEnable(EventRequestImpl request) {
+		fPendingEnables.add(request);
+	}
+
 	/**
 	 * Enables class prepare requests for all loaded classes.  This is
-	 * necessary for current versions of the KVM to function correctly.
-	 * This method is only called when the remote VM is determined to be
-	 * the KVM.
+	 * necessary for current versions of the KVM to function correctly,
+	 * and to maintain the classes known to the VirtualMachineImpl.
+	 * The request is only enabled once.
 	 */
-	public void enableInternalClassPrepareEvent() {
+	public synchronized void enableInternalClassPrepareEvent() {
+		if (fInternalClassPrepareRequest != null) {
+			return;
+		}
 		// Note that these requests are not stored in the set of outstanding requests because
 		// they must be invisible from outside.
 		ClassPrepareRequestImpl requestPrepare =
@@ -322,6 +403,7 @@ public class EventRequestManagerImpl extends MirrorImpl implements EventRequestM
 		requestPrepare.setSuspendPolicy(EventRequest.SUSPEND_NONE);
 
 		requestPrepare.enable();
+		fInternalClassPrepareRequest = requestPrepare;
 	}
 	
 	/**
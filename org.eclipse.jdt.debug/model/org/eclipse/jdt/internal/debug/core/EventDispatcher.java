@@ -10,11 +10,17 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.debug.core;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -26,13 +32,19 @@ import org.eclipse.debug.core.DebugException;
 import org.eclipse.debug.core.DebugPlugin;
 import org.eclipse.jdt.debug.core.IJavaLineBreakpoint;
 import org.eclipse.jdt.internal.debug.core.model.JDIDebugTarget;
+import org.eclipse.jdt.internal.debug.core.model.JDIThread;
 
+import com.sun.jdi.ThreadReference;
 import com.sun.jdi.VMDisconnectedException;
 import com.sun.jdi.VirtualMachine;
+import com.sun.jdi.event.ClassPrepareEvent;
 import com.sun.jdi.event.Event;
 import com.sun.jdi.event.EventIterator;
 import com.sun.jdi.event.EventQueue;
 import com.sun.jdi.event.EventSet;
+import com.sun.jdi.event.LocatableEvent;
+import com.sun.jdi.event.ThreadDeathEvent;
+import com.sun.jdi.event.ThreadStartEvent;
 import com.sun.jdi.event.VMDeathEvent;
 import com.sun.jdi.event.VMDisconnectEvent;
 import com.sun.jdi.event.VMStartEvent;
@@ -55,9 +67,185 @@ import com.sun.jdi.request.EventRequest;
  * only resumed in if all event handlers agree that the thread should be
  * resumed.
  * </p>
+ * <p>
+ * Event sets are dispatched by one job per Java thread, which processes the
+ * event sets of its thread in the order they were received. Event sets of
+ * different threads are processed in parallel, by at most
+ * {@link #MAX_DISPATCH_JOBS} jobs at a time; the jobs of other threads wait
+ * for a running job to finish or to yield. A job gives up its slot while its
+ * handlers wait for an evaluation or method invocation in the target, which
+ * may depend on the events of other threads. Event sets not associated with a
+ * thread are processed in order by one other job. At most
+ * {@link #MAX_PENDING_EVENT_SETS} event sets are waiting to be processed; when
+ * this limit is reached no more events are read from the VM.
+ * </p>
+ * <p>
+ * Listeners may be added and removed by any thread while events are
+ * dispatched.
+ * </p>
  */
 
 public class EventDispatcher implements Runnable {
+	/**
+	 * Maximum number of event sets that have been read but not yet processed.
+	 */
+	public static final int MAX_PENDING_EVENT_SETS = 1000;
+	/**
+	 * Maximum number of event sets a dispatch job processes before it
+	 * reschedules itself, so that a busy thread does not occupy a worker
+	 * indefinitely.
+	 */
+	private static final int MAX_EVENT_SETS_PER_RUN = 32;
+	/**
+	 * Maximum number of dispatch jobs of one dispatcher that are scheduled or
+	 * running at the same time.
+	 */
+	public static final int MAX_DISPATCH_JOBS = Math.max(4, Runtime
+			.getRuntime().availableProcessors());
+	/**
+	 * The dispatch job dispatching an event set in the current thread, if any.
+	 */
+	private static final ThreadLocal<DispatchJob> fgCurrentJob = new ThreadLocal<DispatchJob>();
+
+	/**
+	 * Job that dispatches the event sets of one thread, in order.
+	 */
+	private class DispatchJob extends Job {
+		/**
+		 * The thread the event sets belong to, or <code>null</code> for event
+		 * sets that are not associated with a thread.
+		 */
+		private ThreadReference fThread;
+		/**
+		 * Event sets waiting to be dispatched. Access synchronized on
+		 * <code>fDispatchJobs</code>.
+		 */
+		private ArrayDeque<EventSet> fEventSets = new ArrayDeque<EventSet>();
+		/**
+		 * The event set being dispatched, or <code>null</code>. Access
+		 * synchronized on <code>fDispatchJobs</code>.
+		 */
+		private EventSet fCurrentSet;
+		/**
+		 * Whether this job holds one of the {@link #MAX_DISPATCH_JOBS} slots,
+		 * i.e. is scheduled or running. Access synchronized on
+		 * <code>fDispatchJobs</code>.
+		 */
+		private boolean fActive;
+		/**
+		 * Whether this job is waiting for a slot in <code>fWaitingJobs</code>.
+		 * Access synchronized on <code>fDispatchJobs</code>.
+		 */
+		private boolean fWaiting;
+		/**
+		 * Number of nested blocking operations of the handlers of the current
+		 * event set. The job does not hold a slot while this is not zero.
+		 * Access synchronized on <code>fDispatchJobs</code>.
+		 */
+		private int fBlocked;
+
+		DispatchJob(ThreadReference thread) {
+			super("JDI Event Dispatch"); //$NON-NLS-1$
+			fThread = thread;
+			setSystem(true);
+		}
+
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			for (int i = 0; i < MAX_EVENT_SETS_PER_RUN; i++) {
+				EventSet set;
+				DispatchJob next = null;
+				synchronized (fDispatchJobs) {
+					set = fEventSets.poll();
+					fCurrentSet = set;
+					if (set == null) {
+						if (fDispatchJobs.get(fThread) == this) {
+							fDispatchJobs.remove(fThread);
+						}
+						fActive = false;
+						next = releaseSlot();
+					}
+				}
+				if (set == null) {
+					if (next != null) {
+						next.schedule();
+					}
+					return Status.OK_STATUS;
+				}
+				fgCurrentJob.set(this);
+				try {
+					dispatch(set);
+				} finally {
+					fgCurrentJob.remove();
+					eventSetDispatched(true);
+				}
+			}
+			DispatchJob next = this;
+			synchronized (fDispatchJobs) {
+				fCurrentSet = null;
+				if (!fWaitingJobs.isEmpty()) {
+					// yield the slot to a waiting thread and queue behind it
+					fActive = false;
+					fWaiting = true;
+					fWaitingJobs.add(this);
+					next = releaseSlot();
+				}
+			}
+			if (next != null) {
+				next.schedule();
+			}
+			return Status.OK_STATUS;
+		}
+
+		/**
+		 * Gives up the slot of this job while a handler blocks.
+		 */
+		void blockingOperationStarted() {
+			DispatchJob next;
+			synchronized (fDispatchJobs) {
+				if (fBlocked++ > 0) {
+					return;
+				}
+				next = releaseSlot();
+			}
+			if (next != null) {
+				next.schedule();
+			}
+		}
+
+		/**
+		 * Takes a slot again when a handler no longer blocks. The slot is
+		 * taken even if all slots are in use, the number of running jobs
+		 * then exceeds the limit until enough of them have released their
+		 * slots.
+		 */
+		void blockingOperationFinished() {
+			synchronized (fDispatchJobs) {
+				if (--fBlocked == 0) {
+					fActiveJobs++;
+				}
+			}
+		}
+
+		@Override
+		public boolean belongsTo(Object family) {
+			if (family instanceof Class) {
+				Class<?> clazz = (Class<?>) family;
+				synchronized (fDispatchJobs) {
+					if (fCurrentSet != null && contains(fCurrentSet, clazz)) {
+						return true;
+					}
+					for (EventSet set : fEventSets) {
+						if (contains(set, clazz)) {
+							return true;
+						}
+					}
+				}
+			}
+			return false;
+		}
+	}
+
 	/**
 	 * The debug target this event dispatcher belongs to.
 	 */
@@ -68,9 +256,10 @@ public class EventDispatcher implements Runnable {
 	private boolean fShutdown;
 	/**
 	 * Table of event listeners. Table is a mapping of <code>EventRequest</code>
-	 * to <code>IJDIEventListener</code>.
+	 * to <code>IJDIEventListener</code>, read while dispatching and modified
+	 * by any thread.
 	 */
-	private HashMap<EventRequest, IJDIEventListener> fEventHandlers;
+	private Map<EventRequest, IJDIEventListener> fEventHandlers;
 
 	/**
 	 * Queue of debug model events to fire, created when processing events on
@@ -78,6 +267,42 @@ public class EventDispatcher implements Runnable {
 	 */
 	private Map<EventSet, List<DebugEvent>> fSetToQueue = new HashMap<EventSet, List<DebugEvent>>();
 
+	/**
+	 * Jobs dispatching event sets, keyed by thread. A job is removed once it
+	 * has no more event sets to dispatch.
+	 */
+	private Map<ThreadReference, DispatchJob> fDispatchJobs = new HashMap<ThreadReference, DispatchJob>();
+
+	/**
+	 * Dispatch jobs that have event sets to dispatch and wait for a slot, in
+	 * the order they will get one. Access synchronized on
+	 * <code>fDispatchJobs</code>.
+	 */
+	private ArrayDeque<DispatchJob> fWaitingJobs = new ArrayDeque<DispatchJob>();
+
+	/**
+	 * Number of dispatch jobs holding a slot. Access synchronized on
+	 * <code>fDispatchJobs</code>.
+	 */
+	private int fActiveJobs = 0;
+
+	/**
+	 * Limits the number of event sets waiting to be dispatched.
+	 */
+	private Semaphore fCapacity = new Semaphore(MAX_PENDING_EVENT_SETS);
+
+	/**
+	 * Number of event sets read but not yet dispatched, and the maximum that
+	 * number ever reached.
+	 */
+	private AtomicInteger fPendingEventSets = new AtomicInteger();
+	private volatile int fMaxPendingEventSets = 0;
+
+	/**
+	 * Number of event sets dispatched.
+	 */
+	private AtomicLong fDispatchedEventSets = new AtomicLong();
+
 	/**
 	 * Constructs a new event dispatcher listening for events originating from
 	 * the specified debug target's underlying VM.
@@ -86,7 +311,7 @@ public class EventDispatcher implements Runnable {
 	 *            the target this event dispatcher belongs to
 	 */
 	public EventDispatcher(JDIDebugTarget target) {
-		fEventHandlers = new HashMap<EventRequest, IJDIEventListener>(10);
+		fEventHandlers = new ConcurrentHashMap<EventRequest, IJDIEventListener>(16, 0.75f, 4);
 		fTarget = target;
 		fShutdown = false;
 	}
@@ -129,7 +354,7 @@ public class EventDispatcher implements Runnable {
 				continue;
 			}
 			// Dispatch events to registered listeners, if any
-			IJDIEventListener listener = fEventHandlers.get(event.request());
+			IJDIEventListener listener = getListener(event);
 			listeners[index] = listener;
 			if (listener != null) {
 				if (listener instanceof IJavaLineBreakpoint) {
@@ -179,8 +404,7 @@ public class EventDispatcher implements Runnable {
 					continue;
 				}
 				// Dispatch events to registered listeners, if any
-				IJDIEventListener listener = fEventHandlers
-						.get(event.request());
+				IJDIEventListener listener = getListener(event);
 				if (listener != null) {
 					vote = true;
 					resume = listener.handleEvent(event, fTarget, !resume, eventSet) && resume;
@@ -231,6 +455,7 @@ public class EventDispatcher implements Runnable {
 	public void run() {
 		VirtualMachine vm = fTarget.getVM();
 		if (vm != null) {
+			long start = System.currentTimeMillis();
 			EventQueue q = vm.eventQueue();
 			EventSet eventSet = null;
 			while (!isShutdown()) {
@@ -243,39 +468,253 @@ public class EventDispatcher implements Runnable {
 					}
 
 					if (!isShutdown() && eventSet != null) {
-						final EventSet set = eventSet;
-						Job job = new Job("JDI Event Dispatch") { //$NON-NLS-1$
-							@Override
-							protected IStatus run(IProgressMonitor monitor) {
-								dispatch(set);
-								return Status.OK_STATUS;
-							}
-
-							@Override
-							public boolean belongsTo(Object family) {
-								if (family instanceof Class) {
-									Class<?> clazz = (Class<?>) family;
-									EventIterator iterator = set.eventIterator();
-									while (iterator.hasNext()) {
-										Event event = iterator.nextEvent();
-										if (clazz.isInstance(event)) {
-											return true;
-										}
-									}
-								}
-								return false;
-							}
-						};
-						job.setSystem(true);
-						job.schedule();
+						schedule(eventSet);
 					}
 				} catch (InterruptedException e) {
 					break;
 				}
 			}
+			if (JDIDebugOptions.DEBUG_JDI_EVENTS) {
+				JDIDebugOptions.trace("JDI event dispatch: " + getDispatchedEventSetCount() //$NON-NLS-1$
+						+ " event sets in " + (System.currentTimeMillis() - start) //$NON-NLS-1$
+						+ "ms, max. pending " + getMaxPendingEventSetCount()); //$NON-NLS-1$
+			}
 		}
 	}
 
+	/**
+	 * Queues the given event set with the job of its thread, and schedules
+	 * the job. Waits while {@link #MAX_PENDING_EVENT_SETS} event sets are
+	 * pending.
+	 *
+	 * @param set
+	 *            the event set to dispatch
+	 * @throws InterruptedException
+	 *             if interrupted while waiting
+	 */
+	private void schedule(final EventSet set) throws InterruptedException {
+		ThreadReference thread = getThread(set);
+		if (isInvokingMethod(thread)) {
+			// Events that occur while a handler evaluates in the thread must
+			// not wait for the handler to finish
+			fPendingEventSets.incrementAndGet();
+			Job job = new Job("JDI Event Dispatch") { //$NON-NLS-1$
+				@Override
+				protected IStatus run(IProgressMonitor monitor) {
+					try {
+						dispatch(set);
+					} finally {
+						eventSetDispatched(false);
+					}
+					return Status.OK_STATUS;
+				}
+
+				@Override
+				public boolean belongsTo(Object family) {
+					return family instanceof Class
+							&& contains(set, (Class<?>) family);
+				}
+			};
+			job.setSystem(true);
+			job.schedule();
+			return;
+		}
+		while (!fCapacity.tryAcquire(1000, TimeUnit.MILLISECONDS)) {
+			if (isShutdown()) {
+				return;
+			}
+		}
+		int pending = fPendingEventSets.incrementAndGet();
+		if (pending > fMaxPendingEventSets) {
+			fMaxPendingEventSets = pending;
+		}
+		DispatchJob job;
+		synchronized (fDispatchJobs) {
+			job = fDispatchJobs.get(thread);
+			if (job == null) {
+				job = new DispatchJob(thread);
+				fDispatchJobs.put(thread, job);
+			}
+			job.fEventSets.add(set);
+			if (job.fActive || job.fWaiting) {
+				// the job dispatches the set when it runs
+				return;
+			}
+			if (fActiveJobs < MAX_DISPATCH_JOBS) {
+				job.fActive = true;
+				fActiveJobs++;
+			} else {
+				job.fWaiting = true;
+				fWaitingJobs.add(job);
+				return;
+			}
+		}
+		// the job manager asks jobs whether they belong to a family while
+		// holding its lock, so do not schedule while holding ours
+		job.schedule();
+	}
+
+	/**
+	 * Releases the slot of a dispatch job that stops running, and passes it
+	 * to the next waiting job, if any. Must be called while synchronized on
+	 * <code>fDispatchJobs</code>; the returned job is to be scheduled after
+	 * releasing that lock.
+	 *
+	 * @return the job to schedule or <code>null</code>
+	 */
+	private DispatchJob releaseSlot() {
+		fActiveJobs--;
+		if (fActiveJobs >= MAX_DISPATCH_JOBS) {
+			// jobs that stopped blocking took more slots than there are
+			return null;
+		}
+		DispatchJob next = fWaitingJobs.poll();
+		if (next != null) {
+			next.fWaiting = false;
+			next.fActive = true;
+			fActiveJobs++;
+		}
+		return next;
+	}
+
+	/**
+	 * Notes that the calling thread is about to wait for an evaluation or a
+	 * method invocation in the target. When called by the handler of an event
+	 * set, the dispatch job of the event set releases its slot until
+	 * {@link #blockingOperationFinished()} is called, such that the event sets
+	 * of other threads, which the operation may depend on, are dispatched
+	 * meanwhile. Has no effect when not called from a dispatch job.
+	 */
+	public static void blockingOperationStarted() {
+		DispatchJob job = fgCurrentJob.get();
+		if (job != null) {
+			job.blockingOperationStarted();
+		}
+	}
+
+	/**
+	 * Notes that a wait announced by {@link #blockingOperationStarted()} has
+	 * ended. Must be called by the same thread.
+	 */
+	public static void blockingOperationFinished() {
+		DispatchJob job = fgCurrentJob.get();
+		if (job != null) {
+			job.blockingOperationFinished();
+		}
+	}
+
+	/**
+	 * Returns the listener registered for the request of the given event.
+	 *
+	 * @param event
+	 *            event
+	 * @return listener or <code>null</code>
+	 */
+	private IJDIEventListener getListener(Event event) {
+		EventRequest request = event.request();
+		if (request == null) {
+			// VM start and death events have no request
+			return null;
+		}
+		return fEventHandlers.get(request);
+	}
+
+	/**
+	 * Notes that an event set has been processed.
+	 *
+	 * @param queued
+	 *            whether the event set was queued with a dispatch job
+	 */
+	private void eventSetDispatched(boolean queued) {
+		fPendingEventSets.decrementAndGet();
+		fDispatchedEventSets.incrementAndGet();
+		if (queued) {
+			fCapacity.release();
+		}
+	}
+
+	/**
+	 * Returns the thread the events in the given set occurred in.
+	 *
+	 * @param set
+	 *            event set
+	 * @return the thread of the events or <code>null</code> if not associated
+	 *         with a thread
+	 */
+	private static ThreadReference getThread(EventSet set) {
+		EventIterator iterator = set.eventIterator();
+		while (iterator.hasNext()) {
+			Event event = iterator.nextEvent();
+			if (event instanceof LocatableEvent) {
+				return ((LocatableEvent) event).thread();
+			} else if (event instanceof ThreadStartEvent) {
+				return ((ThreadStartEvent) event).thread();
+			} else if (event instanceof ThreadDeathEvent) {
+				return ((ThreadDeathEvent) event).thread();
+			} else if (event instanceof ClassPrepareEvent) {
+				return ((ClassPrepareEvent) event).thread();
+			} else if (event instanceof VMStartEvent) {
+				return ((VMStartEvent) event).thread();
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns whether a handler is invoking a method in the given thread.
+	 */
+	private boolean isInvokingMethod(ThreadReference thread) {
+		if (thread == null) {
+			return false;
+		}
+		JDIThread jdiThread = fTarget.findThread(thread);
+		return jdiThread != null
+				&& (jdiThread.isPerformingEvaluation() || jdiThread.isInvokingMethod());
+	}
+
+	/**
+	 * Returns whether the given event set contains an event of the given
+	 * type.
+	 */
+	static boolean contains(EventSet set, Class<?> type) {
+		EventIterator iterator = set.eventIterator();
+		while (iterator.hasNext()) {
+			if (type.isInstance(iterator.nextEvent())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the number of event sets that have been read from the VM but
+	 * not yet dispatched.
+	 *
+	 * @return number of pending event sets
+	 */
+	public int getPendingEventSetCount() {
+		return fPendingEventSets.get();
+	}
+
+	/**
+	 * Returns the highest number of event sets that were pending at the same
+	 * time.
+	 *
+	 * @return maximum number of pending event sets
+	 */
+	public int getMaxPendingEventSetCount() {
+		return fMaxPendingEventSets;
+	}
+
+	/**
+	 * Returns the number of event sets that have been dispatched.
+	 *
+	 * @return number of dispatched event sets
+	 */
+	public long getDispatchedEventSetCount() {
+		return fDispatchedEventSets.get();
+	}
+
 	/**
 	 * Shutdown this event dispatcher - i.e. causes this event dispatcher to
 	 * stop reading and dispatching events from the event queue. The thread
@@ -307,7 +746,9 @@ public class EventDispatcher implements Runnable {
 	 */
 	public void addJDIEventListener(IJDIEventListener listener,
 			EventRequest request) {
-		fEventHandlers.put(request, listener);
+		if (request != null) {
+			fEventHandlers.put(request, listener);
+		}
 	}
 
 	/**
@@ -321,7 +762,9 @@ public class EventDispatcher implements Runnable {
 	 *            the event request to de-register
 	 */
 	public void removeJDIEventListener(IJDIEventListener listener, EventRequest request) {
-		fEventHandlers.remove(request);
+		if (request != null) {
+			fEventHandlers.remove(request);
+		}
 	}
 
 	/**
@@ -32,12 +32,20 @@ public class JDIDebugOptions implements DebugOptionsListener {
 	public static final String DEBUG_JDI_REQUEST_TIMES_FLAG = "org.eclipse.jdt.debug/debug/jdiRequestTimes"; //$NON-NLS-1$
 	public static final String DEBUG_JDI_EVENTS_FLAG = "org.eclipse.jdt.debug/debug/jdiEvents"; //$NON-NLS-1$
 	public static final String DEBUG_FLAG = "org.eclipse.jdt.debug/debug"; //$NON-NLS-1$
+	/**
+	 * @since 3.10
+	 */
+	public static final String DEBUG_TARGET_INIT_FLAG = "org.eclipse.jdt.debug/debug/targetInitialization"; //$NON-NLS-1$
 	
 	public static boolean DEBUG = false;
 	public static boolean DEBUG_JDI_EVENTS = false;
 	public static boolean DEBUG_JDI_REQUEST_TIMES = false;
 	public static boolean DEBUG_AST_EVAL = false;
 	public static boolean DEBUG_AST_EVAL_THREAD_TRACE = false;
+	/**
+	 * @since 3.10
+	 */
+	public static boolean DEBUG_TARGET_INIT = false;
 
 	/**
 	 * The {@link DebugTrace} object to print to OSGi tracing
@@ -68,6 +76,7 @@ public class JDIDebugOptions implements DebugOptionsListener {
 		DEBUG_JDI_REQUEST_TIMES = DEBUG && options.getBooleanOption(DEBUG_JDI_REQUEST_TIMES_FLAG, false);
 		DEBUG_AST_EVAL = DEBUG && options.getBooleanOption(DEBUG_AST_EVALUATIONS_FLAG, false);
 		DEBUG_AST_EVAL_THREAD_TRACE = DEBUG && options.getBooleanOption(DEBUG_AST_EVALUATIONS_CALLING_THREADS_FLAG, false);
+		DEBUG_TARGET_INIT = DEBUG && options.getBooleanOption(DEBUG_TARGET_INIT_FLAG, false);
 	}
 	
 	/**
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2012 IBM Corporation and others.
+ * Copyright (c) 2009, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -31,9 +31,11 @@ import org.eclipse.jdt.debug.eval.IAstEvaluationEngine;
 import org.eclipse.jdt.debug.eval.ICompiledExpression;
 import org.eclipse.jdt.debug.eval.IEvaluationListener;
 import org.eclipse.jdt.debug.eval.IEvaluationResult;
+import org.eclipse.jdt.internal.debug.core.EventDispatcher;
 import org.eclipse.jdt.internal.debug.core.JDIDebugPlugin;
 import org.eclipse.jdt.internal.debug.core.model.JDIDebugTarget;
 import org.eclipse.jdt.internal.debug.core.model.JDIThread;
+import org.eclipse.jdt.internal.debug.eval.ast.engine.ASTEvaluationEngine;
 
 import com.ibm.icu.text.MessageFormat;
 import com.sun.jdi.VMDisconnectedException;
@@ -73,18 +75,63 @@ public class ConditionalBreakpointHandler implements IJavaBreakpointListener {
 		 */
 		private int fVote;
 
+		/**
+		 * Whether the evaluation has completed, guarded by the lock
+		 */
+		private boolean fCompleted = false;
+
+		/**
+		 * The expression of an evaluation that was abandoned before it
+		 * completed, to be released once it does, or <code>null</code>.
+		 * Guarded by the lock.
+		 */
+		private ICompiledExpression fAbandonedExpression;
+
 		EvaluationListener(JavaLineBreakpoint breakpoint) {
 			fBreakpoint = breakpoint;
 		}
 
 		@Override
 		public void evaluationComplete(IEvaluationResult result) {
-			fVote = determineVote(result);
+			int vote = determineVote(result);
 			synchronized (fLock) {
+				fVote = vote;
+				fCompleted = true;
+				if (fAbandonedExpression != null) {
+					fBreakpoint.releaseExpression(fAbandonedExpression);
+					fAbandonedExpression = null;
+				}
 				fLock.notifyAll();
 			}
 		}
 
+		/**
+		 * Returns whether the evaluation has completed. Must be called holding
+		 * the lock.
+		 * 
+		 * @return whether the evaluation has completed
+		 */
+		boolean isCompleted() {
+			return fCompleted;
+		}
+
+		/**
+		 * Abandons the evaluation of the given expression. Must be called
+		 * holding the lock.
+		 * 
+		 * @param expression
+		 *            the expression being evaluated
+		 * @return whether the evaluation is still running, in which case the
+		 *         expression is released once it completes
+		 */
+		boolean abandon(ICompiledExpression expression) {
+			if (fCompleted) {
+				return false;
+			}
+			fAbandonedExpression = expression;
+			return true;
+		}
+
 		/**
 		 * Processes the result to determine whether to suspend or resume.
 		 * 
@@ -211,37 +258,65 @@ public class ConditionalBreakpointHandler implements IJavaBreakpointListener {
 					return SUSPEND;
 				}
 				ICompiledExpression expression = lineBreakpoint
-						.getExpression(thread);
+						.acquireExpression(frame);
 				if (expression == null) {
 					expression = engine.getCompiledExpression(condition, frame);
-					lineBreakpoint.setExpression(thread, expression);
-				}
-				if (expression.hasErrors()) {
-					fireConditionHasErrors(lineBreakpoint,
-							getMessages(expression));
-					return SUSPEND;
+					lineBreakpoint.setExpression(frame, expression);
 				}
-				Object lock = listener.getLock();
-				synchronized (lock) {
-					engine.evaluateExpression(expression, frame, listener,
-							DebugEvent.EVALUATION_IMPLICIT, false);
-					// TODO: timeout?
-					try {
-						lock.wait();
-					} catch (InterruptedException e) {
-						fireConditionHasRuntimeErrors(
-								lineBreakpoint,
-								new DebugException(
-										new Status(
-												IStatus.ERROR,
-												JDIDebugPlugin
-														.getUniqueIdentifier(),
-												JDIDebugBreakpointMessages.ConditionalBreakpointHandler_0,
-												e)));
+				// the expression is shared with other threads once released,
+				// which must not happen while it may still be evaluated
+				boolean release = true;
+				try {
+					if (expression.hasErrors()) {
+						fireConditionHasErrors(lineBreakpoint,
+								getMessages(expression));
 						return SUSPEND;
 					}
+					if (engine instanceof ASTEvaluationEngine) {
+						// conditions that only read variables do not need the
+						// thread to be resumed, evaluate them right here
+						IEvaluationResult result = ((ASTEvaluationEngine) engine)
+								.evaluateSideEffectFreeExpression(expression, frame);
+						if (result != null) {
+							return listener.determineVote(result);
+						}
+					}
+					Object lock = listener.getLock();
+					synchronized (lock) {
+						engine.evaluateExpression(expression, frame, listener,
+								DebugEvent.EVALUATION_IMPLICIT, false);
+						// the evaluation may need the events of other threads
+						// to be dispatched while this one waits for it
+						EventDispatcher.blockingOperationStarted();
+						// TODO: timeout?
+						try {
+							while (!listener.isCompleted()) {
+								lock.wait();
+							}
+						} catch (InterruptedException e) {
+							// the evaluation still uses the expression, the
+							// listener releases it once it completes
+							release = !listener.abandon(expression);
+							fireConditionHasRuntimeErrors(
+									lineBreakpoint,
+									new DebugException(
+											new Status(
+													IStatus.ERROR,
+													JDIDebugPlugin
+															.getUniqueIdentifier(),
+													JDIDebugBreakpointMessages.ConditionalBreakpointHandler_0,
+													e)));
+							return SUSPEND;
+						} finally {
+							EventDispatcher.blockingOperationFinished();
+						}
+					}
+					return listener.getVote();
+				} finally {
+					if (release) {
+						lineBreakpoint.releaseExpression(expression);
+					}
 				}
-				return listener.getVote();
 			} catch (CoreException e) {
 				DebugException de = null;
 				if (e instanceof DebugException) {
@@ -606,19 +606,15 @@ public abstract class JavaBreakpoint extends Breakpoint implements IJavaBreakpoi
 		}
 		// create request to listen to class loads
 		if (referenceTypeName.indexOf('$') == -1) {
-			registerRequest(
-					target.createClassPrepareRequest(enclosingTypeName), target);
+			target.addClassPrepareListener(this, enclosingTypeName, null);
 			// register to ensure we hear about local and anonymous inner
 			// classes
-			registerRequest(
-					target.createClassPrepareRequest(enclosingTypeName + "$*"), target); //$NON-NLS-1$
+			target.addClassPrepareListener(this, enclosingTypeName + "$*", null); //$NON-NLS-1$
 		} else {
-			registerRequest(
-					target.createClassPrepareRequest(referenceTypeName), target);
+			target.addClassPrepareListener(this, referenceTypeName, null);
 			// register to ensure we hear about local and anonymous inner
 			// classes
-			registerRequest(target.createClassPrepareRequest(enclosingTypeName
-					+ "$*", referenceTypeName), target); //$NON-NLS-1$
+			target.addClassPrepareListener(this, enclosingTypeName + "$*", referenceTypeName); //$NON-NLS-1$
 		}
 
 		// create breakpoint requests for each class currently loaded
@@ -754,6 +750,7 @@ public abstract class JavaBreakpoint extends Breakpoint implements IJavaBreakpoi
 	 * target.
 	 */
 	protected void removeRequests(final JDIDebugTarget target) throws CoreException {
+		target.removeClassPrepareListener(this);
 		// removing was previously done is a workspace runnable, but that is
 		// not possible since it can be a resource callback (marker deletion)
 		// that causes a breakpoint to be removed
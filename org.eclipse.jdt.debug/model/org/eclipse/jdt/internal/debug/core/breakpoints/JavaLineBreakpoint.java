@@ -13,7 +13,9 @@
 package org.eclipse.jdt.internal.debug.core.breakpoints;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -97,11 +99,77 @@ public class JavaLineBreakpoint extends JavaBreakpoint implements
 	 */
 	private Map<IJavaThread, ICompiledExpression> fSuspendEvents = new HashMap<IJavaThread, ICompiledExpression>();
 	/**
-	 * The map of cached compiled expressions (ICompiledExpression) for this
-	 * breakpoint, keyed by thread. This value must be cleared every time the
-	 * breakpoint is added to a target.
+	 * The location in a debug target that the condition of this breakpoint is
+	 * compiled for. Threads that hit the breakpoint at the same location share
+	 * the compiled condition.
+	 */
+	private static final class ExpressionLocation {
+
+		private final JDIDebugTarget fTarget;
+		private final String fTypeName;
+		private final String fMethodName;
+		private final String fSignature;
+		private final int fLineNumber;
+
+		ExpressionLocation(JDIDebugTarget target, String typeName,
+				String methodName, String signature, int lineNumber) {
+			fTarget = target;
+			fTypeName = typeName;
+			fMethodName = methodName;
+			fSignature = signature;
+			fLineNumber = lineNumber;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof ExpressionLocation)) {
+				return false;
+			}
+			ExpressionLocation other = (ExpressionLocation) obj;
+			return fTarget == other.fTarget && fLineNumber == other.fLineNumber
+					&& fTypeName.equals(other.fTypeName)
+					&& fMethodName.equals(other.fMethodName)
+					&& fSignature.equals(other.fSignature);
+		}
+
+		@Override
+		public int hashCode() {
+			return ((fTypeName.hashCode() * 31 + fMethodName.hashCode()) * 31 + fSignature
+					.hashCode()) * 31 + fLineNumber;
+		}
+	}
+
+	/**
+	 * The compiled expressions for the condition at one location that are not
+	 * being evaluated, and the hot code replace count of the target they were
+	 * compiled at.
 	 */
-	private Map<IJavaThread, ICompiledExpression> fCompiledExpressions = new HashMap<IJavaThread, ICompiledExpression>();
+	private static final class CompiledExpressions {
+
+		private final int fHotCodeReplaceCount;
+		private final List<ICompiledExpression> fIdle = new ArrayList<ICompiledExpression>(1);
+
+		CompiledExpressions(int hotCodeReplaceCount) {
+			fHotCodeReplaceCount = hotCodeReplaceCount;
+		}
+	}
+
+	/**
+	 * The map of cached compiled expressions for the condition of this
+	 * breakpoint, keyed by the location they were compiled for, so that the
+	 * condition is compiled once per location rather than once per thread.
+	 * Since instructions are bound to the interpreter executing them, a thread
+	 * takes an expression out of the cache while it evaluates it and puts it
+	 * back afterwards. This value must be cleared every time the breakpoint is
+	 * added to a target. All access must be synchronized on the map.
+	 */
+	private Map<ExpressionLocation, CompiledExpressions> fCompiledExpressions = new HashMap<ExpressionLocation, CompiledExpressions>();
+
+	/**
+	 * The locations of the compiled expressions that are being evaluated.
+	 * Access must be synchronized on {@link #fCompiledExpressions}.
+	 */
+	private Map<ICompiledExpression, ExpressionLocation> fExpressionsInUse = new IdentityHashMap<ICompiledExpression, ExpressionLocation>();
 
 	/**
 	 * Cache of projects for stack frames to avoid repetitive project resolution
@@ -216,12 +284,24 @@ public class JavaLineBreakpoint extends JavaBreakpoint implements
 		}
 	}
 
+	private void removeCachedLocations(Collection<ExpressionLocation> locations, JDIDebugTarget target) {
+		Iterator<ExpressionLocation> iter = locations.iterator();
+		while (iter.hasNext()) {
+			if (iter.next().fTarget == target) {
+				iter.remove();
+			}
+		}
+	}
+
 	/**
 	 * Removes all compiled expressions which are currently being cached for
-	 * threads in the given target.
+	 * locations in the given target.
 	 */
 	protected void clearCachedExpressionFor(JDIDebugTarget target) {
-		removeCachedThreads(fCompiledExpressions, target);
+		synchronized (fCompiledExpressions) {
+			removeCachedLocations(fCompiledExpressions.keySet(), target);
+			removeCachedLocations(fExpressionsInUse.values(), target);
+		}
 
 		// clean up cached projects for stack frames
 		synchronized (fProjectsByFrame) {
@@ -495,7 +575,10 @@ public class JavaLineBreakpoint extends JavaBreakpoint implements
 	@Override
 	public void setCondition(String condition) throws CoreException {
 		// Clear the cached compiled expressions
-		fCompiledExpressions.clear();
+		synchronized (fCompiledExpressions) {
+			fCompiledExpressions.clear();
+			fExpressionsInUse.clear();
+		}
 		fConditionValues.clear();
 		fSuspendEvents.clear();
 		if (condition != null && condition.trim().length() == 0) {
@@ -558,7 +641,6 @@ public class JavaLineBreakpoint extends JavaBreakpoint implements
 	@Override
 	protected void cleanupForThreadTermination(JDIThread thread) {
 		fSuspendEvents.remove(thread);
-		fCompiledExpressions.remove(thread);
 		super.cleanupForThreadTermination(thread);
 	}
 
@@ -607,28 +689,86 @@ public class JavaLineBreakpoint extends JavaBreakpoint implements
 	}
 
 	/**
-	 * Returns existing compiled expression for the given thread or
-	 * <code>null</code>.
+	 * Returns a compiled expression for the location of the given frame that
+	 * no other thread is evaluating, or <code>null</code> if the condition has
+	 * to be compiled. The expression must be handed back with
+	 * {@link #releaseExpression(ICompiledExpression)} after the evaluation.
 	 * 
-	 * @param thread
-	 *            thread the breakpoint was hit in
+	 * @param frame
+	 *            the frame the breakpoint was hit in
 	 * @return compiled expression or <code>null</code>
+	 * @throws DebugException
+	 *             if the location of the frame cannot be determined
 	 */
-	protected ICompiledExpression getExpression(IJavaThread thread) {
-		return fCompiledExpressions.get(thread);
+	protected ICompiledExpression acquireExpression(IJavaStackFrame frame)
+			throws DebugException {
+		JDIDebugTarget target = (JDIDebugTarget) frame.getDebugTarget();
+		ExpressionLocation location = new ExpressionLocation(target,
+				frame.getDeclaringTypeName(), frame.getMethodName(),
+				frame.getSignature(), frame.getLineNumber());
+		int hotCodeReplaceCount = target.getHotCodeReplaceCount();
+		synchronized (fCompiledExpressions) {
+			CompiledExpressions expressions = fCompiledExpressions.get(location);
+			ICompiledExpression expression = null;
+			if (expressions != null
+					&& expressions.fHotCodeReplaceCount == hotCodeReplaceCount) {
+				if (!expressions.fIdle.isEmpty()) {
+					expression = expressions.fIdle.remove(expressions.fIdle.size() - 1);
+					fExpressionsInUse.put(expression, location);
+				}
+			} else {
+				// the locals or members at the location may have changed
+				fCompiledExpressions.put(location, new CompiledExpressions(hotCodeReplaceCount));
+			}
+			return expression;
+		}
 	}
 
 	/**
-	 * Sets the compiled expression for a thread.
+	 * Associates an expression compiled for the location of the given frame
+	 * with this breakpoint. The expression is considered in use until it is
+	 * handed back with {@link #releaseExpression(ICompiledExpression)}.
 	 * 
-	 * @param thread
-	 *            thread the breakpoint was hit in
+	 * @param frame
+	 *            the frame the breakpoint was hit in
 	 * @param expression
-	 *            associated compiled expression
-	 */
-	protected void setExpression(IJavaThread thread,
-			ICompiledExpression expression) {
-		fCompiledExpressions.put(thread, expression);
+	 *            expression compiled for the location of the frame
+	 * @throws DebugException
+	 *             if the location of the frame cannot be determined
+	 */
+	protected void setExpression(IJavaStackFrame frame,
+			ICompiledExpression expression) throws DebugException {
+		ExpressionLocation location = new ExpressionLocation(
+				(JDIDebugTarget) frame.getDebugTarget(),
+				frame.getDeclaringTypeName(), frame.getMethodName(),
+				frame.getSignature(), frame.getLineNumber());
+		synchronized (fCompiledExpressions) {
+			if (fCompiledExpressions.containsKey(location)) {
+				fExpressionsInUse.put(expression, location);
+			}
+		}
+	}
+
+	/**
+	 * Hands back an expression that has been acquired or set, so that other
+	 * threads hitting the breakpoint at the same location can evaluate it.
+	 * Expressions for a condition, a target or code that has changed in the
+	 * meantime are discarded.
+	 * 
+	 * @param expression
+	 *            expression that is no longer being evaluated
+	 */
+	protected void releaseExpression(ICompiledExpression expression) {
+		synchronized (fCompiledExpressions) {
+			ExpressionLocation location = fExpressionsInUse.remove(expression);
+			if (location != null) {
+				CompiledExpressions expressions = fCompiledExpressions.get(location);
+				if (expressions != null
+						&& expressions.fHotCodeReplaceCount == location.fTarget.getHotCodeReplaceCount()) {
+					expressions.fIdle.add(expression);
+				}
+			}
+		}
 	}
 
 	/**
@@ -10,7 +10,6 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.debug.core.breakpoints;
 
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -199,8 +198,7 @@ public class JavaPatternBreakpoint extends JavaLineBreakpoint implements
 		if (!referenceTypeName.endsWith("*")) { //$NON-NLS-1$
 			classPrepareTypeName = classPrepareTypeName + '*';
 		}
-		registerRequest(target.createClassPrepareRequest(classPrepareTypeName),
-				target);
+		target.addClassPrepareListener(this, classPrepareTypeName, null);
 
 		// create breakpoint requests for each class currently loaded
 		VirtualMachine vm = target.getVM();
@@ -211,21 +209,14 @@ public class JavaPatternBreakpoint extends JavaLineBreakpoint implements
 		}
 		List<ReferenceType> classes = null;
 		try {
-			classes = vm.allClasses();
+			classes = target.getLoadedClassesWithNamePrefix(referenceTypeName);
 		} catch (RuntimeException e) {
 			target.targetRequestFailed(
 					JDIDebugBreakpointMessages.JavaPatternBreakpoint_0, e);
 		}
 		if (classes != null) {
-			Iterator<ReferenceType> iter = classes.iterator();
-			String typeName = null;
-			ReferenceType type = null;
-			while (iter.hasNext()) {
-				type = iter.next();
-				typeName = type.name();
-				if (typeName != null && typeName.startsWith(referenceTypeName)) {
-					createRequest(target, type);
-				}
+			for (ReferenceType type : classes) {
+				createRequest(target, type);
 			}
 		}
 	}
@@ -11,8 +11,10 @@
 package org.eclipse.jdt.internal.debug.core.breakpoints;
 
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IWorkspaceRunnable;
@@ -419,17 +421,15 @@ public class JavaStratumLineBreakpoint extends JavaLineBreakpoint implements
 					JDIDebugBreakpointMessages.JavaPatternBreakpoint_Unable_to_add_breakpoint___VM_disconnected__1,
 					null);
 		}
-		List<ReferenceType> classes = null;
+		Set<ReferenceType> classes = null;
 		try {
-			classes = vm.allClasses();
+			classes = getLoadedClasses(target);
 		} catch (RuntimeException e) {
 			target.targetRequestFailed(
 					JDIDebugBreakpointMessages.JavaPatternBreakpoint_0, e);
 		}
 		if (classes != null) {
-			Iterator<ReferenceType> iter = classes.iterator();
-			while (iter.hasNext()) {
-				ReferenceType type = iter.next();
+			for (ReferenceType type : classes) {
 				if (installableReferenceType(type, target)) {
 					createRequest(target, type);
 				}
@@ -437,6 +437,27 @@ public class JavaStratumLineBreakpoint extends JavaLineBreakpoint implements
 		}
 	}
 
+	/**
+	 * Returns the loaded types whose name matches one of the type name
+	 * patterns of this breakpoint, in the order they are found.
+	 */
+	private Set<ReferenceType> getLoadedClasses(JDIDebugTarget target)
+			throws CoreException {
+		String[] patterns = getTypeNamePatterns();
+		Set<ReferenceType> classes = new LinkedHashSet<ReferenceType>();
+		for (int i = 0; i < patterns.length; i++) {
+			if (fSuffix[i] != null) {
+				// pattern starting with '*'
+				classes.addAll(target.getLoadedClassesWithNameSuffix(fSuffix[i]));
+			} else if (fPrefix[i] != null) {
+				classes.addAll(target.getLoadedClassesWithNamePrefix(fPrefix[i]));
+			} else {
+				classes.addAll(target.getLoadedClassesWithNamePrefix(patterns[i]));
+			}
+		}
+		return classes;
+	}
+
 	public synchronized String[] getTypeNamePatterns() throws CoreException {
 		if (fTypeNamePatterns != null)
 			return fTypeNamePatterns;
@@ -106,21 +106,15 @@ public class JavaTargetPatternBreakpoint extends JavaLineBreakpoint implements
 		if (!referenceTypeName.endsWith("*")) { //$NON-NLS-1$
 			classPrepareTypeName = classPrepareTypeName + '*';
 		}
-		registerRequest(target.createClassPrepareRequest(classPrepareTypeName),
-				target);
+		target.addClassPrepareListener(this, classPrepareTypeName, null);
 
 		// create breakpoint requests for each class currently loaded
 		VirtualMachine vm = target.getVM();
 		if (vm != null) {
-			List<ReferenceType> classes = vm.allClasses();
-			if (classes != null) {
-				String typeName = null;
-				for(ReferenceType type : classes) {
-					typeName = type.name();
-					if (typeName != null && typeName.startsWith(referenceTypeName)) {
-						createRequest(target, type);
-					}
-				}
+			List<ReferenceType> classes = target
+					.getLoadedClassesWithNamePrefix(referenceTypeName);
+			for (ReferenceType type : classes) {
+				createRequest(target, type);
 			}
 		} else {
 			target.requestFailed(
@@ -0,0 +1,434 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.debug.core.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.jdt.internal.debug.core.IJDIEventListener;
+import org.eclipse.jdt.internal.debug.core.JDIDebugPlugin;
+
+import com.sun.jdi.ReferenceType;
+import com.sun.jdi.VMDisconnectedException;
+import com.sun.jdi.event.ClassPrepareEvent;
+import com.sun.jdi.event.Event;
+import com.sun.jdi.event.EventIterator;
+import com.sun.jdi.event.EventSet;
+import com.sun.jdi.request.ClassPrepareRequest;
+import com.sun.jdi.request.EventRequest;
+import com.sun.jdi.request.EventRequestManager;
+
+/**
+ * Class prepare requests of a debug target that are shared by all listeners
+ * interested in the same types.
+ * <p>
+ * Listeners register class name patterns of the form accepted by
+ * {@link ClassPrepareRequest#addClassFilter(String)}. One request is created
+ * per pattern, and none for a pattern that is covered by the wildcard pattern
+ * of another listener. The events of the requests are routed to the
+ * interested listeners by matching the name of the prepared type against the
+ * registered patterns, which are kept in tries of prefixes and suffixes.
+ * </p>
+ *
+ * @since 3.10
+ */
+class ClassPrepareMultiplexer implements IJDIEventListener {
+
+	/** Request property that identifies the requests of a multiplexer. */
+	private static final String MULTIPLEXER = "org.eclipse.jdt.debug.core.classPrepareMultiplexer"; //$NON-NLS-1$
+
+	/**
+	 * A listener registered for a pattern.
+	 */
+	private static final class Registration {
+		final IJDIEventListener fListener;
+		final String fExclusionPattern;
+
+		Registration(IJDIEventListener listener, String exclusionPattern) {
+			fListener = listener;
+			fExclusionPattern = exclusionPattern;
+		}
+	}
+
+	/**
+	 * Node of a trie of the literal part of wildcard patterns.
+	 */
+	private static final class Node {
+		Map<Character, Node> fChildren;
+		/**
+		 * Registrations of the pattern whose literal part ends at this node,
+		 * or <code>null</code>.
+		 */
+		List<Registration> fRegistrations;
+	}
+
+	private final JDIDebugTarget fTarget;
+
+	/** Registrations by pattern, in the order the patterns were added. */
+	private final Map<String, List<Registration>> fRegistrations = new LinkedHashMap<String, List<Registration>>();
+
+	/** Trie of the prefixes of the patterns "prefix*", including "*". */
+	private final Node fPrefixes = new Node();
+
+	/** Trie of the reversed suffixes of the patterns "*suffix". */
+	private final Node fSuffixes = new Node();
+
+	/** The requests that have been created, by pattern. */
+	private final Map<String, ClassPrepareRequest> fRequests = new HashMap<String, ClassPrepareRequest>();
+
+	/**
+	 * Listeners that have been notified of an event and must be notified when
+	 * its event set is complete.
+	 */
+	private final Map<Event, List<IJDIEventListener>> fNotified = new HashMap<Event, List<IJDIEventListener>>();
+
+	ClassPrepareMultiplexer(JDIDebugTarget target) {
+		fTarget = target;
+	}
+
+	/**
+	 * Registers the given listener for the class prepare events of the types
+	 * whose name matches the given pattern and does not match the given
+	 * exclusion pattern.
+	 *
+	 * @exception CoreException
+	 *                if unable to create a request
+	 */
+	synchronized void addListener(IJDIEventListener listener,
+			String classPattern, String classExclusionPattern)
+			throws CoreException {
+		List<Registration> registrations = fRegistrations.get(classPattern);
+		if (registrations == null) {
+			registrations = new ArrayList<Registration>(2);
+			fRegistrations.put(classPattern, registrations);
+			Node node = getNode(classPattern, true);
+			if (node != null) {
+				node.fRegistrations = registrations;
+			}
+		}
+		registrations.add(new Registration(listener, classExclusionPattern));
+		updateRequests();
+	}
+
+	/**
+	 * Removes all registrations of the given listener.
+	 */
+	synchronized void removeListener(IJDIEventListener listener) {
+		boolean changed = false;
+		Iterator<Map.Entry<String, List<Registration>>> entries = fRegistrations
+				.entrySet().iterator();
+		while (entries.hasNext()) {
+			Map.Entry<String, List<Registration>> entry = entries.next();
+			List<Registration> registrations = entry.getValue();
+			Iterator<Registration> iter = registrations.iterator();
+			while (iter.hasNext()) {
+				if (iter.next().fListener == listener) {
+					iter.remove();
+				}
+			}
+			if (registrations.isEmpty()) {
+				entries.remove();
+				Node node = getNode(entry.getKey(), false);
+				if (node != null) {
+					node.fRegistrations = null;
+				}
+				changed = true;
+			}
+		}
+		if (!fTarget.isAvailable()) {
+			// no request can be created or deleted any more
+			for (ClassPrepareRequest request : fRequests.values()) {
+				fTarget.removeJDIEventListener(this, request);
+			}
+			fRequests.clear();
+		} else if (changed) {
+			try {
+				updateRequests();
+			} catch (CoreException e) {
+				JDIDebugPlugin.log(e);
+			}
+		}
+	}
+
+	/**
+	 * Creates the requests for the registered patterns that are not covered
+	 * by another pattern, and deletes the requests that are no longer needed.
+	 * New requests are created before old ones are deleted so that no class
+	 * prepare is missed.
+	 */
+	private void updateRequests() throws CoreException {
+		Set<String> needed = new HashSet<String>();
+		for (String pattern : fRegistrations.keySet()) {
+			if (!isCovered(pattern)) {
+				needed.add(pattern);
+			}
+		}
+		for (String pattern : needed) {
+			if (!fRequests.containsKey(pattern)) {
+				ClassPrepareRequest request = fTarget
+						.createClassPrepareRequest(pattern, null, false);
+				request.putProperty(MULTIPLEXER, this);
+				request.enable();
+				fTarget.addJDIEventListener(this, request);
+				fRequests.put(pattern, request);
+			}
+		}
+		Iterator<Map.Entry<String, ClassPrepareRequest>> requests = fRequests
+				.entrySet().iterator();
+		while (requests.hasNext()) {
+			Map.Entry<String, ClassPrepareRequest> entry = requests.next();
+			if (!needed.contains(entry.getKey())) {
+				deleteRequest(entry.getValue());
+				requests.remove();
+			}
+		}
+	}
+
+	private void deleteRequest(ClassPrepareRequest request) {
+		fTarget.removeJDIEventListener(this, request);
+		EventRequestManager manager = fTarget.getEventRequestManager();
+		if (manager == null || !fTarget.isAvailable()) {
+			return;
+		}
+		try {
+			manager.deleteEventRequest(request);
+		} catch (VMDisconnectedException e) {
+			// the request is gone with the VM
+		} catch (RuntimeException e) {
+			fTarget.internalError(e);
+		}
+	}
+
+	/**
+	 * Returns whether every type the given pattern matches is also matched by
+	 * another registered pattern.
+	 */
+	private boolean isCovered(String pattern) {
+		int length = pattern.length();
+		if (pattern.charAt(length - 1) == '*') {
+			// a prefix is covered by shorter prefixes
+			return hasPattern(fPrefixes, pattern, false, length - 2);
+		}
+		if (pattern.charAt(0) == '*') {
+			// a suffix is covered by "*" and by shorter suffixes
+			return fPrefixes.fRegistrations != null
+					|| hasPattern(fSuffixes, pattern.substring(1), true, length - 2);
+		}
+		return hasPattern(fPrefixes, pattern, false, length)
+				|| hasPattern(fSuffixes, pattern, true, length);
+	}
+
+	/**
+	 * Returns whether the given trie holds a pattern whose literal part is a
+	 * prefix (or, for a reversed trie, a suffix) of the given string and is
+	 * not longer than the given length.
+	 */
+	private static boolean hasPattern(Node root, String string,
+			boolean reversed, int maxLength) {
+		Node node = root;
+		int length = string.length();
+		for (int i = 0; i <= maxLength; i++) {
+			if (node.fRegistrations != null) {
+				return true;
+			}
+			if (i == maxLength || node.fChildren == null) {
+				return false;
+			}
+			char c = string.charAt(reversed ? length - 1 - i : i);
+			node = node.fChildren.get(Character.valueOf(c));
+			if (node == null) {
+				return false;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the trie node of the given wildcard pattern, or
+	 * <code>null</code> if the pattern is not a wildcard pattern or, when not
+	 * creating, has no node.
+	 */
+	private Node getNode(String pattern, boolean create) {
+		int length = pattern.length();
+		Node node;
+		String literal;
+		boolean reversed;
+		if (pattern.charAt(length - 1) == '*') {
+			node = fPrefixes;
+			literal = pattern.substring(0, length - 1);
+			reversed = false;
+		} else if (pattern.charAt(0) == '*') {
+			node = fSuffixes;
+			literal = pattern.substring(1);
+			reversed = true;
+		} else {
+			return null;
+		}
+		int literalLength = literal.length();
+		for (int i = 0; i < literalLength; i++) {
+			Character c = Character.valueOf(literal.charAt(reversed ? literalLength - 1 - i : i));
+			Node child = node.fChildren == null ? null : node.fChildren.get(c);
+			if (child == null) {
+				if (!create) {
+					return null;
+				}
+				if (node.fChildren == null) {
+					node.fChildren = new HashMap<Character, Node>(4);
+				}
+				child = new Node();
+				node.fChildren.put(c, child);
+			}
+			node = child;
+		}
+		return node;
+	}
+
+	/**
+	 * Returns the listeners interested in the type with the given name, in no
+	 * particular order and without duplicates.
+	 */
+	private synchronized List<IJDIEventListener> getListeners(String typeName) {
+		List<Registration> matches = new ArrayList<Registration>();
+		List<Registration> exact = fRegistrations.get(typeName);
+		if (exact != null) {
+			matches.addAll(exact);
+		}
+		collectMatches(fPrefixes, typeName, false, matches);
+		collectMatches(fSuffixes, typeName, true, matches);
+		Set<IJDIEventListener> listeners = new LinkedHashSet<IJDIEventListener>();
+		for (Registration registration : matches) {
+			if (registration.fExclusionPattern == null
+					|| !matches(registration.fExclusionPattern, typeName)) {
+				listeners.add(registration.fListener);
+			}
+		}
+		return new ArrayList<IJDIEventListener>(listeners);
+	}
+
+	/**
+	 * Adds the registrations of all patterns of the given trie that match the
+	 * given type name.
+	 */
+	private static void collectMatches(Node root, String typeName,
+			boolean reversed, List<Registration> matches) {
+		Node node = root;
+		int length = typeName.length();
+		for (int i = 0; node != null; i++) {
+			if (node.fRegistrations != null) {
+				matches.addAll(node.fRegistrations);
+			}
+			if (i == length || node.fChildren == null) {
+				return;
+			}
+			char c = typeName.charAt(reversed ? length - 1 - i : i);
+			node = node.fChildren.get(Character.valueOf(c));
+		}
+	}
+
+	/**
+	 * Returns whether the given type name matches the given class filter
+	 * pattern.
+	 */
+	private static boolean matches(String pattern, String typeName) {
+		int length = pattern.length();
+		if (pattern.charAt(length - 1) == '*') {
+			return typeName.startsWith(pattern.substring(0, length - 1));
+		}
+		if (pattern.charAt(0) == '*') {
+			return typeName.endsWith(pattern.substring(1));
+		}
+		return typeName.equals(pattern);
+	}
+
+	/**
+	 * Returns whether the given event is the first event of the given event
+	 * set for its type that was caused by a request of this multiplexer. A
+	 * type that matches more than one request causes an event per request, of
+	 * which only the first one is routed.
+	 */
+	private boolean isFirstEvent(ClassPrepareEvent event, EventSet eventSet) {
+		ReferenceType type = event.referenceType();
+		EventIterator iter = eventSet.eventIterator();
+		while (iter.hasNext()) {
+			Event other = iter.nextEvent();
+			if (other instanceof ClassPrepareEvent
+					&& ((ClassPrepareEvent) other).referenceType().equals(type)) {
+				EventRequest request = other.request();
+				if (request != null && request.getProperty(MULTIPLEXER) == this) {
+					return other == event;
+				}
+			}
+		}
+		return true;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * org.eclipse.jdt.internal.debug.core.IJDIEventListener#handleEvent(com
+	 * .sun.jdi.event.Event,
+	 * org.eclipse.jdt.internal.debug.core.model.JDIDebugTarget, boolean,
+	 * com.sun.jdi.event.EventSet)
+	 */
+	@Override
+	public boolean handleEvent(Event event, JDIDebugTarget target,
+			boolean suspendVote, EventSet eventSet) {
+		ClassPrepareEvent prepareEvent = (ClassPrepareEvent) event;
+		if (!isFirstEvent(prepareEvent, eventSet)) {
+			return true;
+		}
+		List<IJDIEventListener> listeners = getListeners(prepareEvent
+				.referenceType().name());
+		if (listeners.isEmpty()) {
+			return true;
+		}
+		synchronized (fNotified) {
+			fNotified.put(event, listeners);
+		}
+		boolean resume = true;
+		for (IJDIEventListener listener : listeners) {
+			resume = listener.handleEvent(event, target, suspendVote || !resume, eventSet) && resume;
+		}
+		return resume;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * org.eclipse.jdt.internal.debug.core.IJDIEventListener#eventSetComplete
+	 * (com.sun.jdi.event.Event,
+	 * org.eclipse.jdt.internal.debug.core.model.JDIDebugTarget, boolean,
+	 * com.sun.jdi.event.EventSet)
+	 */
+	@Override
+	public void eventSetComplete(Event event, JDIDebugTarget target,
+			boolean suspend, EventSet eventSet) {
+		List<IJDIEventListener> listeners;
+		synchronized (fNotified) {
+			listeners = fNotified.remove(event);
+		}
+		if (listeners != null) {
+			for (IJDIEventListener listener : listeners) {
+				listener.eventSetComplete(event, target, suspend, eventSet);
+			}
+		}
+	}
+}
@@ -13,12 +13,16 @@ package org.eclipse.jdt.internal.debug.core.model;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.core.resources.IMarkerDelta;
 import org.eclipse.core.resources.IResource;
@@ -53,10 +57,15 @@ import org.eclipse.debug.core.model.ITerminate;
 import org.eclipse.debug.core.model.IThread;
 
 import org.eclipse.jdi.TimeoutException;
+import org.eclipse.jdi.internal.ThreadReferenceImpl;
+import org.eclipse.jdi.internal.ThreadSnapshot;
+import org.eclipse.jdi.internal.ThreadStates;
 import org.eclipse.jdi.internal.VirtualMachineImpl;
 import org.eclipse.jdi.internal.jdwp.JdwpReplyPacket;
+import org.eclipse.jdi.internal.request.EventRequestManagerImpl;
 
 import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.Signature;
 
 import org.eclipse.jdt.debug.core.IJavaBreakpoint;
 import org.eclipse.jdt.debug.core.IJavaDebugTarget;
@@ -72,11 +81,14 @@ import org.eclipse.jdt.debug.eval.IAstEvaluationEngine;
 
 import org.eclipse.jdt.internal.debug.core.EventDispatcher;
 import org.eclipse.jdt.internal.debug.core.IJDIEventListener;
+import org.eclipse.jdt.internal.debug.core.JDIDebugOptions;
 import org.eclipse.jdt.internal.debug.core.JDIDebugPlugin;
 import org.eclipse.jdt.internal.debug.core.breakpoints.JavaBreakpoint;
 import org.eclipse.jdt.internal.debug.core.breakpoints.JavaLineBreakpoint;
 
 import com.ibm.icu.text.MessageFormat;
+import com.sun.jdi.ArrayType;
+import com.sun.jdi.Field;
 import com.sun.jdi.InternalException;
 import com.sun.jdi.ObjectCollectedException;
 import com.sun.jdi.ReferenceType;
@@ -106,18 +118,82 @@ public class JDIDebugTarget extends JDIDebugElement implements
 
 	/**
 	 * Threads contained in this debug target. When a thread starts it is added
-	 * to the list. When a thread ends it is removed from the list.
+	 * to the list. When a thread ends it is removed from the list. Modified
+	 * while synchronized on the list, which also updates
+	 * <code>fThreadIndex</code> and <code>fThreadSnapshot</code>.
 	 * 
-	 * TODO investigate making this a synchronized collection, to remove all this copying
 	 * @see #getThreadIterator()
 	 */
 	private ArrayList<JDIThread> fThreads;
 
+	/**
+	 * Threads contained in this debug target keyed by their underlying thread,
+	 * whose equality is based on its unique id.
+	 * 
+	 * @see #findThread(ThreadReference)
+	 */
+	private Map<ThreadReference, JDIThread> fThreadIndex = new ConcurrentHashMap<ThreadReference, JDIThread>();
+
+	/**
+	 * Copy of <code>fThreads</code>, replaced when a thread is added or
+	 * removed. Never modified.
+	 */
+	private volatile JDIThread[] fThreadSnapshot = new JDIThread[0];
+
+	/**
+	 * Whether all threads have been suspended since the last suspend snapshot
+	 * was taken.
+	 * 
+	 * @see #prefetchSuspendSnapshot()
+	 */
+	private volatile boolean fSuspendSnapshotStale = false;
+
+	/**
+	 * Lock held while taking a suspend snapshot.
+	 */
+	private final Object fSuspendSnapshotLock = new Object();
+
+	/**
+	 * The threads that existed when this target was initialized, or
+	 * <code>null</code> once their models have been created.
+	 */
+	private List<ThreadReference> fInitialThreads;
+
+	/**
+	 * The states of the initial threads, requested before the breakpoints are
+	 * installed and read as the thread models are created, or
+	 * <code>null</code> if none.
+	 */
+	private volatile ThreadStates fInitialThreadStates;
+
 	/**
 	 * List of thread groups in this target.
 	 */
 	private ArrayList<JDIThreadGroup> fGroups;
 
+	/**
+	 * Thread groups in this target keyed by their underlying thread group.
+	 * Access synchronized on <code>fGroups</code>.
+	 */
+	private Map<ThreadGroupReference, JDIThreadGroup> fGroupIndex = new HashMap<ThreadGroupReference, JDIThreadGroup>();
+
+	/**
+	 * Whether thread groups are system thread groups, for the thread groups
+	 * whose threads have been asked.
+	 * 
+	 * @see #isSystemThreadGroup(ThreadGroupReference)
+	 */
+	private Map<ThreadGroupReference, Boolean> fSystemThreadGroups = new ConcurrentHashMap<ThreadGroupReference, Boolean>();
+
+	/**
+	 * The field holding whether a thread is a daemon, keyed by thread class.
+	 * Maps to <code>null</code> if a class has no such field. Access
+	 * synchronized on the map.
+	 * 
+	 * @see #getDaemonField(ReferenceType)
+	 */
+	private Map<ReferenceType, Field> fDaemonFields = new HashMap<ReferenceType, Field>();
+
 	/**
 	 * Associated system process, or <code>null</code> if not available.
 	 */
@@ -180,6 +256,11 @@ public class JDIDebugTarget extends JDIDebugElement implements
 	 */
 	private EventDispatcher fEventDispatcher = null;
 
+	/**
+	 * The class prepare requests shared by the breakpoints of this target.
+	 */
+	private ClassPrepareMultiplexer fClassPrepareMultiplexer = new ClassPrepareMultiplexer(this);
+
 	/**
 	 * The thread start event handler
 	 */
@@ -205,6 +286,13 @@ public class JDIDebugTarget extends JDIDebugElement implements
 	 */
 	private int fSuspendCount = 0;
 
+	/**
+	 * Count of the changes of the target's state that invalidate variable
+	 * values fetched in bulk: resumes, including resumes for method
+	 * invocations, and variable modifications.
+	 */
+	private volatile int fStateChangeCount = 0;
+
 	/**
 	 * Evaluation engine cache by Java project. Engines are disposed when this
 	 * target terminates.
@@ -217,6 +305,11 @@ public class JDIDebugTarget extends JDIDebugElement implements
 	 */
 	private String[] fStepFilters = null;
 
+	/**
+	 * Compiled form of the step filters.
+	 */
+	private StepFilterMatcher fStepFilterMatcher = StepFilterMatcher.EMPTY;
+
 	/**
 	 * Step filter state mask.
 	 */
@@ -273,6 +366,11 @@ public class JDIDebugTarget extends JDIDebugElement implements
 	 */
 	private boolean fIsPerformingHotCodeReplace = false;
 
+	/**
+	 * The number of hot code replaces this debug target has completed
+	 */
+	private volatile int fHotCodeReplaceCount = 0;
+
 	/**
 	 * Target specific HCR listeners
 	 * 
@@ -351,18 +449,21 @@ public class JDIDebugTarget extends JDIDebugElement implements
 
 	/**
 	 * Returns an iterator over the collection of threads. The returned iterator
-	 * is made on a copy of the thread list so that it is thread safe. This
+	 * is made on a snapshot of the thread list so that it is thread safe. This
 	 * method should always be used instead of getThreadList().iterator()
 	 * 
 	 * @return an iterator over the collection of threads
 	 */
 	private Iterator<JDIThread> getThreadIterator() {
-		List<JDIThread> threadList;
-		synchronized (fThreads) {
-			//TODO investigate making fThreads be a synchronized collection, to remove all this copying
-			threadList = new ArrayList<JDIThread>(fThreads);
-		}
-		return threadList.iterator();
+		return Arrays.asList(fThreadSnapshot).iterator();
+	}
+
+	/**
+	 * Replaces the snapshot of the thread list after the list has been
+	 * modified. Must be called while synchronized on <code>fThreads</code>.
+	 */
+	private void threadsChanged() {
+		fThreadSnapshot = fThreads.toArray(new JDIThread[fThreads.size()]);
 	}
 
 	/**
@@ -453,9 +554,22 @@ public class JDIDebugTarget extends JDIDebugElement implements
 				JDIDebugModel.PREF_REQUEST_TIMEOUT,
 				JDIDebugModel.DEF_REQUEST_TIMEOUT,
 				null));
+		long start = System.currentTimeMillis();
 		initializeRequests();
-		initializeState();
+		long requests = System.currentTimeMillis();
+		// request the state of the existing threads without waiting for the
+		// replies, which arrive while the breakpoints are installed
+		requestInitialThreadStates();
 		initializeBreakpoints();
+		long breakpoints = System.currentTimeMillis();
+		initializeState();
+		if (JDIDebugOptions.DEBUG_TARGET_INIT) {
+			long end = System.currentTimeMillis();
+			JDIDebugOptions.trace("Debug target initialization: requests " + (requests - start) //$NON-NLS-1$
+					+ "ms, breakpoints " + (breakpoints - requests) //$NON-NLS-1$
+					+ "ms, threads " + (end - breakpoints) //$NON-NLS-1$
+					+ "ms, " + fThreadSnapshot.length + " threads"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
 		getLaunch().addDebugTarget(this);
 		DebugPlugin plugin = DebugPlugin.getDefault();
 		plugin.addDebugEventListener(this);
@@ -478,29 +592,78 @@ public class JDIDebugTarget extends JDIDebugElement implements
 		});
 	}
 
+	/**
+	 * Determines the capabilities of the VM that breakpoints may depend on,
+	 * retrieves the pre-existing threads and requests their states, without
+	 * waiting for the replies.
+	 */
+	private void requestInitialThreadStates() {
+		VirtualMachine vm = getVM();
+		if (vm == null) {
+			return;
+		}
+		try {
+			String name = vm.name();
+			fSupportsDisableGC = !name.equals("Classic VM"); //$NON-NLS-1$
+		} catch (RuntimeException e) {
+			internalError(e);
+		}
+		try {
+			fInitialThreads = vm.allThreads();
+		} catch (RuntimeException e) {
+			internalError(e);
+			return;
+		}
+		if (vm instanceof VirtualMachineImpl) {
+			List<ThreadReferenceImpl> threads = new ArrayList<ThreadReferenceImpl>(fInitialThreads.size());
+			for (ThreadReference thread : fInitialThreads) {
+				threads.add((ThreadReferenceImpl) thread);
+			}
+			try {
+				fInitialThreadStates = new ThreadStates(threads);
+			} catch (RuntimeException e) {
+				// the states are retrieved per thread
+			}
+		}
+	}
+
+	/**
+	 * Returns the states of the threads that existed when this target was
+	 * initialized, while their models are being created.
+	 *
+	 * @return thread states or <code>null</code> if none
+	 */
+	ThreadStates getInitialThreadStates() {
+		return fInitialThreadStates;
+	}
+
 	/**
 	 * Adds all of the pre-existing threads to this debug target.
 	 */
 	protected void initializeState() {
 
-		List<ThreadReference> threads = null;
+		List<ThreadReference> threads = fInitialThreads;
 		VirtualMachine vm = getVM();
 		if (vm != null) {
-			try {
-				String name = vm.name();
-				fSupportsDisableGC = !name.equals("Classic VM"); //$NON-NLS-1$
-			} catch (RuntimeException e) {
-				internalError(e);
-			}
-			try {
-				threads = vm.allThreads();
-			} catch (RuntimeException e) {
-				internalError(e);
+			if (threads == null) {
+				try {
+					threads = vm.allThreads();
+				} catch (RuntimeException e) {
+					internalError(e);
+				}
 			}
 			if (threads != null) {
-				Iterator<ThreadReference> initialThreads = threads.iterator();
-				while (initialThreads.hasNext()) {
-					createThread(initialThreads.next());
+				try {
+					Iterator<ThreadReference> initialThreads = threads.iterator();
+					while (initialThreads.hasNext()) {
+						createThread(initialThreads.next());
+					}
+				} finally {
+					if (fInitialThreadStates != null) {
+						fInitialThreadStates.dispose();
+						fInitialThreadStates = null;
+					}
+					fInitialThreads = null;
 				}
 			}
 		}
@@ -528,9 +691,94 @@ public class JDIDebugTarget extends JDIDebugElement implements
 		manager.addBreakpointListener(this);
 		IBreakpoint[] bps = manager.getBreakpoints(JDIDebugModel
 				.getPluginIdentifier());
+		Map<String, List<IBreakpoint>> bpsByType = new LinkedHashMap<String, List<IBreakpoint>>();
+		Set<String> lineBreakpointTypeNames = new HashSet<String>();
 		for (IBreakpoint bp : bps) {
 			if (bp instanceof IJavaBreakpoint) {
-				breakpointAdded(bp);
+				String typeName = null;
+				try {
+					typeName = ((IJavaBreakpoint) bp).getTypeName();
+				} catch (CoreException e) {
+					logError(e);
+				}
+				List<IBreakpoint> group = bpsByType.get(typeName);
+				if (group == null) {
+					group = new ArrayList<IBreakpoint>();
+					bpsByType.put(typeName, group);
+				}
+				group.add(bp);
+				if (bp instanceof JavaLineBreakpoint && typeName != null
+						&& typeName.indexOf('*') == -1) {
+					lineBreakpointTypeNames.add(typeName);
+				}
+			}
+		}
+		VirtualMachine vm = getVM();
+		if (vm instanceof VirtualMachineImpl && !bpsByType.isEmpty()) {
+			installBreakpoints((VirtualMachineImpl) vm, bpsByType,
+					lineBreakpointTypeNames);
+		} else {
+			for (List<IBreakpoint> group : bpsByType.values()) {
+				for (IBreakpoint bp : group) {
+					breakpointAdded(bp);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Installs the given breakpoints, grouped by type name, in one pass. The
+	 * line tables of the loaded types of line breakpoints are retrieved
+	 * together, and the event requests of all breakpoints are sent without
+	 * waiting for the reply to each. Events are held by the VM meanwhile, so
+	 * that no event is reported for a request before its reply has been read.
+	 * The class prepare events that keep the class table of the VM up to date
+	 * are held too, so loaded types are requested from the VM until events
+	 * are released.
+	 */
+	private void installBreakpoints(VirtualMachineImpl vm,
+			Map<String, List<IBreakpoint>> bpsByType,
+			Set<String> lineBreakpointTypeNames) {
+		List<ReferenceType> types = new ArrayList<ReferenceType>();
+		for (String typeName : lineBreakpointTypeNames) {
+			types.addAll(jdiClassesByName(typeName));
+		}
+		boolean holding = false;
+		try {
+			vm.prefetchLineTables(types);
+			vm.holdEvents();
+			holding = true;
+		} catch (VMDisconnectedException e) {
+			return;
+		} catch (RuntimeException e) {
+			// install the breakpoints one by one
+			logError(e);
+		}
+		EventRequestManagerImpl requestManager = vm.eventRequestManagerImpl();
+		try {
+			if (holding) {
+				requestManager.beginEnableBatch();
+			}
+			try {
+				for (List<IBreakpoint> group : bpsByType.values()) {
+					for (IBreakpoint bp : group) {
+						breakpointAdded(bp);
+					}
+				}
+			} finally {
+				if (holding) {
+					requestManager.endEnableBatch();
+				}
+			}
+		} catch (RuntimeException e) {
+			logError(e);
+		} finally {
+			if (holding) {
+				try {
+					vm.releaseEvents();
+				} catch (RuntimeException e) {
+					logError(e);
+				}
 			}
 		}
 	}
@@ -555,6 +803,8 @@ public class JDIDebugTarget extends JDIDebugElement implements
 		}
 		synchronized (fThreads) {
 			fThreads.add(jdiThread);
+			fThreadIndex.put(thread, jdiThread);
+			threadsChanged();
 		}
 		jdiThread.fireCreationEvent();
 		return jdiThread;
@@ -583,9 +833,10 @@ public class JDIDebugTarget extends JDIDebugElement implements
 	 */
 	@Override
 	public IThread[] getThreads() {
-		synchronized (fThreads) {
-			return fThreads.toArray(new IThread[0]);
-		}
+		JDIThread[] threads = fThreadSnapshot;
+		IThread[] copy = new IThread[threads.length];
+		System.arraycopy(threads, 0, copy, 0, threads.length);
+		return copy;
 	}
 
 	/**
@@ -954,14 +1205,10 @@ public class JDIDebugTarget extends JDIDebugElement implements
 	 * @return the associated model thread
 	 */
 	public JDIThread findThread(ThreadReference tr) {
-		Iterator<JDIThread> iter = getThreadIterator();
-		while (iter.hasNext()) {
-			JDIThread thread = iter.next();
-			if (thread.getUnderlyingThread().equals(tr)) {
-				return thread;
-			}
+		if (tr == null) {
+			return null;
 		}
-		return null;
+		return fThreadIndex.get(tr);
 	}
 
 	/**
@@ -1098,6 +1345,97 @@ public class JDIDebugTarget extends JDIDebugElement implements
 		return fDisconnected;
 	}
 
+	/**
+	 * Returns the classes and interfaces loaded in this target whose name
+	 * starts with the given prefix. The types are found in the table of loaded
+	 * classes that the VM keeps up to date from class prepare events, so that
+	 * all loaded classes do not have to be retrieved.
+	 * 
+	 * @param prefix
+	 *            the prefix of the type names, may be empty
+	 * @return the loaded types whose name starts with the prefix
+	 */
+	public List<ReferenceType> getLoadedClassesWithNamePrefix(String prefix) {
+		VirtualMachine vm = getVM();
+		if (vm == null) {
+			return Collections.EMPTY_LIST;
+		}
+		if (vm instanceof VirtualMachineImpl) {
+			return ((VirtualMachineImpl) vm).classesByNamePrefix(prefix);
+		}
+		List<ReferenceType> types = new ArrayList<ReferenceType>();
+		for (ReferenceType type : vm.allClasses()) {
+			if (!(type instanceof ArrayType) && type.name().startsWith(prefix)) {
+				types.add(type);
+			}
+		}
+		return types;
+	}
+
+	/**
+	 * Returns the classes and interfaces loaded in this target whose name ends
+	 * with the given suffix.
+	 * 
+	 * @param suffix
+	 *            the suffix of the type names, may be empty
+	 * @return the loaded types whose name ends with the suffix
+	 * @see #getLoadedClassesWithNamePrefix(String)
+	 */
+	public List<ReferenceType> getLoadedClassesWithNameSuffix(String suffix) {
+		VirtualMachine vm = getVM();
+		if (vm == null) {
+			return Collections.EMPTY_LIST;
+		}
+		if (vm instanceof VirtualMachineImpl) {
+			return ((VirtualMachineImpl) vm).classesByNameSuffix(suffix);
+		}
+		List<ReferenceType> types = new ArrayList<ReferenceType>();
+		for (ReferenceType type : vm.allClasses()) {
+			if (!(type instanceof ArrayType) && type.name().endsWith(suffix)) {
+				types.add(type);
+			}
+		}
+		return types;
+	}
+
+	/**
+	 * Registers the given listener to be notified of the class prepare events
+	 * of the types whose name matches the given pattern and does not match the
+	 * given exclusion pattern. Unlike a request created by
+	 * {@link #createClassPrepareRequest(String, String)}, the class prepare
+	 * request is shared by all listeners interested in the same types, and
+	 * each type prepare is reported once to each listener.
+	 * 
+	 * @param listener
+	 *            the listener to notify
+	 * @param classPattern
+	 *            pattern of the class names to listen to. Patterns may begin
+	 *            with a '*', end with a '*', or be an exact match.
+	 * @param classExclusionPattern
+	 *            pattern of the class names not to listen to, or
+	 *            <code>null</code>
+	 * @exception CoreException
+	 *                if unable to create a request
+	 * @see #removeClassPrepareListener(IJDIEventListener)
+	 */
+	public void addClassPrepareListener(IJDIEventListener listener,
+			String classPattern, String classExclusionPattern)
+			throws CoreException {
+		fClassPrepareMultiplexer.addListener(listener, classPattern,
+				classExclusionPattern);
+	}
+
+	/**
+	 * Removes all class prepare registrations of the given listener.
+	 * 
+	 * @param listener
+	 *            the listener to remove
+	 * @see #addClassPrepareListener(IJDIEventListener, String, String)
+	 */
+	public void removeClassPrepareListener(IJDIEventListener listener) {
+		fClassPrepareMultiplexer.removeListener(listener);
+	}
+
 	/**
 	 * Creates, enables and returns a class prepare request for the specified
 	 * class name in this target.
@@ -1417,18 +1755,68 @@ public class JDIDebugTarget extends JDIDebugElement implements
 		while (threads.hasNext()) {
 			threads.next().suspendedByVM();
 		}
+		fSuspendSnapshotStale = true;
 	}
 
 	/**
 	 * Notifies threads that they have been resumed
 	 */
 	protected void resumeThreads() throws DebugException {
+		fSuspendSnapshotStale = false;
 		Iterator<JDIThread> threads = getThreadIterator();
 		while (threads.hasNext()) {
 			threads.next().resumedByVM();
 		}
 	}
 
+	/**
+	 * Retrieves the name, frame count and top frame of every suspended thread
+	 * after all threads have been suspended, unless already done since. The
+	 * requests for all threads are pipelined, so that the presentation of
+	 * hundreds of threads does not cost several round-trips per thread. The
+	 * threads answer from the snapshot until they resume.
+	 */
+	public void prefetchSuspendSnapshot() {
+		if (!fSuspendSnapshotStale) {
+			return;
+		}
+		List<JDIThread> threads = new ArrayList<JDIThread>();
+		List<ThreadSnapshot> snapshots;
+		int stateChangeCount;
+		synchronized (fSuspendSnapshotLock) {
+			if (!fSuspendSnapshotStale || !isSuspended()) {
+				return;
+			}
+			fSuspendSnapshotStale = false;
+			stateChangeCount = getStateChangeCount();
+			List<ThreadReferenceImpl> references = new ArrayList<ThreadReferenceImpl>();
+			for (JDIThread thread : fThreadSnapshot) {
+				ThreadReference reference = thread.getUnderlyingThread();
+				if (thread.isSuspended() && !thread.isTerminated()
+						&& reference instanceof ThreadReferenceImpl) {
+					threads.add(thread);
+					references.add((ThreadReferenceImpl) reference);
+				}
+			}
+			try {
+				snapshots = ThreadSnapshot.take(references);
+			} catch (VMDisconnectedException e) {
+				return;
+			} catch (RuntimeException e) {
+				logError(e);
+				return;
+			}
+		}
+		// apply outside of the lock, threads may be waiting for it while
+		// holding their own
+		for (int i = 0; i < snapshots.size(); i++) {
+			ThreadSnapshot snapshot = snapshots.get(i);
+			if (snapshot != null) {
+				threads.get(i).setSuspendSnapshot(snapshot, stateChangeCount);
+			}
+		}
+	}
+
 	/**
 	 * Notifies this VM to update its state in preparation for a suspend.
 	 * 
@@ -1581,6 +1969,8 @@ public class JDIDebugTarget extends JDIDebugElement implements
 		}
 		synchronized (fThreads) {
 			fThreads.clear();
+			fThreadIndex.clear();
+			threadsChanged();
 		}
 	}
 
@@ -2110,6 +2500,8 @@ public class JDIDebugTarget extends JDIDebugElement implements
 			if (thread != null) {
 				synchronized (fThreads) {
 					fThreads.remove(thread);
+					fThreadIndex.remove(ref);
+					threadsChanged();
 				}
 				thread.terminated();
 			}
@@ -2398,9 +2790,24 @@ public class JDIDebugTarget extends JDIDebugElement implements
 	 */
 	@Override
 	public void setStepFilters(String[] list) {
+		if (!Arrays.equals(list, fStepFilters)) {
+			// keep the decisions made for types while the filters are the
+			// same
+			fStepFilterMatcher = new StepFilterMatcher(list);
+		}
 		fStepFilters = list;
 	}
 
+	/**
+	 * Returns the compiled form of this target's step filters.
+	 * 
+	 * @return step filter matcher, never <code>null</code>
+	 * @see #getStepFilters()
+	 */
+	public StepFilterMatcher getStepFilterMatcher() {
+		return fStepFilterMatcher;
+	}
+
 	/**
 	 * @see IJavaDebugTarget#setStepFiltersEnabled(boolean)
 	 */
@@ -2419,7 +2826,7 @@ public class JDIDebugTarget extends JDIDebugElement implements
 	 */
 	@Override
 	public boolean hasThreads() {
-		return fThreads.size() > 0;
+		return fThreadSnapshot.length > 0;
 	}
 
 	/**
@@ -2449,6 +2856,25 @@ public class JDIDebugTarget extends JDIDebugElement implements
 		return fSuspendCount;
 	}
 
+	/**
+	 * Returns the number of changes of this target's state that invalidate
+	 * variable values fetched in bulk. Values fetched while the count stays
+	 * the same are still current.
+	 *
+	 * @return the number of state changes that have occurred in this target
+	 */
+	protected int getStateChangeCount() {
+		return fStateChangeCount;
+	}
+
+	/**
+	 * Notes that a thread is resumed or a variable is modified, which
+	 * invalidates variable values fetched in bulk.
+	 */
+	protected synchronized void incrementStateChangeCount() {
+		fStateChangeCount++;
+	}
+
 	/**
 	 * Increments the suspend counter for this target based on the reason for
 	 * the suspend event. The suspend count is not updated for implicit
@@ -2505,9 +2931,23 @@ public class JDIDebugTarget extends JDIDebugElement implements
 	 * replace.
 	 */
 	public void setIsPerformingHotCodeReplace(boolean isPerformingHotCodeReplace) {
+		if (fIsPerformingHotCodeReplace && !isPerformingHotCodeReplace) {
+			fHotCodeReplaceCount++;
+		}
 		fIsPerformingHotCodeReplace = isPerformingHotCodeReplace;
 	}
 
+	/**
+	 * Returns the number of hot code replaces this debug target has completed,
+	 * successfully or not. Information derived from the code of the target,
+	 * like compiled expressions, is out of date once the count changes.
+	 * 
+	 * @return the number of hot code replaces that have completed
+	 */
+	public int getHotCodeReplaceCount() {
+		return fHotCodeReplaceCount;
+	}
+
 	/**
 	 * @see IJavaDebugTarget#isPerformingHotCodeReplace()
 	 */
@@ -2651,6 +3091,7 @@ public class JDIDebugTarget extends JDIDebugElement implements
 					JDIThreadGroup modelGroup = new JDIThreadGroup(this,
 							currentGroup);
 					fGroups.add(modelGroup);
+					fGroupIndex.put(currentGroup, modelGroup);
 					currentGroup = currentGroup.parent();
 				} else {
 					currentGroup = null;
@@ -2661,15 +3102,73 @@ public class JDIDebugTarget extends JDIDebugElement implements
 
 	JDIThreadGroup findThreadGroup(ThreadGroupReference group) {
 		synchronized (fGroups) {
-			Iterator<JDIThreadGroup> groups = fGroups.iterator();
-			while (groups.hasNext()) {
-				JDIThreadGroup modelGroup = groups.next();
-				if (modelGroup.getUnderlyingThreadGroup().equals(group)) {
-					return modelGroup;
-				}
+			return fGroupIndex.get(group);
+		}
+	}
+
+	/**
+	 * Returns whether the given thread group is a system thread group, that
+	 * is neither the main thread group nor contained in it. The answer is
+	 * remembered for the group and the groups between it and the first group
+	 * already known, so the parents of a group are only walked once.
+	 * 
+	 * @param group
+	 *            thread group
+	 * @return whether the group is a system thread group
+	 * @exception RuntimeException
+	 *                if unable to retrieve the name or parent of a group
+	 */
+	boolean isSystemThreadGroup(ThreadGroupReference group) {
+		List<ThreadGroupReference> unknown = new ArrayList<ThreadGroupReference>(4);
+		Boolean system = null;
+		ThreadGroupReference current = group;
+		while (current != null) {
+			system = fSystemThreadGroups.get(current);
+			if (system != null) {
+				break;
+			}
+			unknown.add(current);
+			if (JDIThread.MAIN_THREAD_GROUP.equals(current.name())) {
+				system = Boolean.FALSE;
+				break;
 			}
+			current = current.parent();
 		}
-		return null;
+		if (system == null) {
+			// reached a top level group other than the main group
+			system = Boolean.TRUE;
+		}
+		for (ThreadGroupReference unknownGroup : unknown) {
+			fSystemThreadGroups.put(unknownGroup, system);
+		}
+		return system.booleanValue();
+	}
+
+	/**
+	 * Returns the boolean field of the given thread class that holds whether
+	 * a thread is a daemon, looking it up only once per class.
+	 * 
+	 * @param threadType
+	 *            class of a thread
+	 * @return the daemon field or <code>null</code> if none
+	 */
+	Field getDaemonField(ReferenceType threadType) {
+		synchronized (fDaemonFields) {
+			if (fDaemonFields.containsKey(threadType)) {
+				return fDaemonFields.get(threadType);
+			}
+		}
+		Field field = threadType.fieldByName("daemon"); //$NON-NLS-1$
+		if (field == null) {
+			field = threadType.fieldByName("isDaemon"); //$NON-NLS-1$
+		}
+		if (field != null && !field.signature().equals(Signature.SIG_BOOLEAN)) {
+			field = null;
+		}
+		synchronized (fDaemonFields) {
+			fDaemonFields.put(threadType, field);
+		}
+		return field;
 	}
 
 	/*
@@ -59,6 +59,13 @@ public class JDIFieldVariable extends JDIModificationVariable implements
 	 */
 	private IJavaValue fLogicalParent;
 
+	/**
+	 * The value whose child this variable is, which fetches the values of all
+	 * its fields at once, or <code>null</code> if the value of this variable
+	 * is fetched on its own.
+	 */
+	private JDIValue fParent;
+
 	/**
 	 * Constructs a field for the given field.
 	 */
@@ -73,6 +80,16 @@ public class JDIFieldVariable extends JDIModificationVariable implements
 		fLogicalParent = logicalParent;
 	}
 
+	/**
+	 * Constructs a field for the given field that is a child of the given
+	 * value.
+	 */
+	JDIFieldVariable(JDIDebugTarget target, Field field,
+			ObjectReference objectRef, IJavaValue logicalParent, JDIValue parent) {
+		this(target, field, objectRef, logicalParent);
+		fParent = parent;
+	}
+
 	/**
 	 * Constructs a field to wrap the given field.
 	 */
@@ -88,6 +105,9 @@ public class JDIFieldVariable extends JDIModificationVariable implements
 	 */
 	@Override
 	protected Value retrieveValue() {
+		if (fParent != null) {
+			return fParent.getFieldValue(getField());
+		}
 		if (getField().isStatic()) {
 			return (getField().declaringType().getValue(getField()));
 		}
@@ -134,6 +154,7 @@ public class JDIFieldVariable extends JDIModificationVariable implements
 			} else {
 				getObjectReference().setValue(getField(), value);
 			}
+			getJavaDebugTarget().incrementStateChangeCount();
 			fireChangeEvent(DebugEvent.CONTENT);
 		} catch (ClassNotLoadedException e) {
 			targetRequestFailed(
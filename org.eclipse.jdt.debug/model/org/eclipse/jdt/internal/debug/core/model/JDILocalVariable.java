@@ -54,8 +54,7 @@ public class JDILocalVariable extends JDIModificationVariable {
 	protected Value retrieveValue() throws DebugException {
 		synchronized (fStackFrame.getThread()) {
 			if (getStackFrame().isSuspended()) {
-				return getStackFrame().getUnderlyingStackFrame().getValue(
-						fLocal);
+				return getStackFrame().getLocalValue(fLocal);
 			}
 		}
 		// bug 6518
@@ -90,6 +89,7 @@ public class JDILocalVariable extends JDIModificationVariable {
 				getStackFrame().getUnderlyingStackFrame().setValue(getLocal(),
 						value);
 			}
+			getJavaDebugTarget().incrementStateChangeCount();
 			fireChangeEvent(DebugEvent.CONTENT);
 		} catch (ClassNotLoadedException e) {
 			targetRequestFailed(
@@ -264,34 +264,68 @@ public class JDIObjectValue extends JDIValue implements IJavaObject {
 	@Override
 	public IJavaFieldVariable getField(String name,
 			String declaringTypeSignature) throws DebugException {
+		Field field = getUnderlyingField(name, declaringTypeSignature);
+		if (field != null) {
+			return getField(field);
+		}
+		// it is possible to return null
+		return null;
+	}
+
+	/**
+	 * Returns the field of this object's type with the given name that is
+	 * declared in the type with the given signature, or <code>null</code> if
+	 * there is none.
+	 * 
+	 * @param name
+	 *            field name
+	 * @param declaringTypeSignature
+	 *            signature of the type declaring the field
+	 * @return the field, or <code>null</code>
+	 * @exception DebugException
+	 *                if this method fails. Reasons include:
+	 *                <ul>
+	 *                <li>Failure communicating with the VM. The
+	 *                DebugException's status code contains the underlying
+	 *                exception responsible for the failure.</li>
+	 * @since 3.10
+	 */
+	public Field getUnderlyingField(String name, String declaringTypeSignature)
+			throws DebugException {
 		ReferenceType ref = getUnderlyingReferenceType();
 		try {
-			Field field = null;
-			Field fieldTmp = null;
 			Iterator<Field> fields = ref.allFields().iterator();
 			while (fields.hasNext()) {
-				fieldTmp = fields.next();
-				if (name.equals(fieldTmp.name())
-						&& declaringTypeSignature.equals(fieldTmp
+				Field field = fields.next();
+				if (name.equals(field.name())
+						&& declaringTypeSignature.equals(field
 								.declaringType().signature())) {
-					field = fieldTmp;
-					break;
+					return field;
 				}
 			}
-			if (field != null) {
-				return new JDIFieldVariable((JDIDebugTarget) getDebugTarget(),
-						field, getUnderlyingObject(), fLogicalParent);
-			}
 		} catch (RuntimeException e) {
 			targetRequestFailed(
 					MessageFormat.format(
 							JDIDebugModelMessages.JDIObjectValue_exception_retrieving_field,
 							e.toString()), e);
 		}
-		// it is possible to return null
 		return null;
 	}
 
+	/**
+	 * Returns a variable representing the given field of this object. The
+	 * field must be a field of this object's type.
+	 * 
+	 * @param field
+	 *            field of this object's type
+	 * @return the variable representing the field
+	 * @since 3.10
+	 */
+	public IJavaFieldVariable getField(Field field) {
+		return new JDIFieldVariable((JDIDebugTarget) getDebugTarget(), field,
+				getUnderlyingObject(), fLogicalParent);
+	}
+
 	/**
 	 * Returns a variable representing the field in this object with the given
 	 * name, or <code>null</code> if there is no field with the given name, or
@@ -313,23 +347,47 @@ public class JDIObjectValue extends JDIValue implements IJavaObject {
 	 */
 	public IJavaFieldVariable getField(String name, int superClassLevel)
 			throws DebugException {
+		Field field = getUnderlyingField(name, superClassLevel);
+		if (field != null) {
+			return getField(field);
+		}
+		// it is possible to return null
+		return null;
+	}
+
+	/**
+	 * Returns the field with the given name in the given level of this
+	 * object's type hierarchy, or <code>null</code> if there is none.
+	 * 
+	 * @param name
+	 *            field name
+	 * @param superClassLevel
+	 *            the level of the desired field in the hierarchy. Level 0
+	 *            returns the field from the current type, level 1 from the
+	 *            super type, etc.
+	 * @return the field, or <code>null</code>
+	 * @exception DebugException
+	 *                if this method fails. Reasons include:
+	 *                <ul>
+	 *                <li>Failure communicating with the VM. The
+	 *                DebugException's status code contains the underlying
+	 *                exception responsible for the failure.</li>
+	 * @since 3.10
+	 */
+	public Field getUnderlyingField(String name, int superClassLevel)
+			throws DebugException {
 		ReferenceType ref = getUnderlyingReferenceType();
 		try {
 			for (int i = 0; i < superClassLevel; i++) {
 				ref = ((ClassType) ref).superclass();
 			}
-			Field field = ref.fieldByName(name);
-			if (field != null) {
-				return new JDIFieldVariable((JDIDebugTarget) getDebugTarget(),
-						field, getUnderlyingObject(), fLogicalParent);
-			}
+			return ref.fieldByName(name);
 		} catch (RuntimeException e) {
 			targetRequestFailed(
 					MessageFormat.format(
 							JDIDebugModelMessages.JDIObjectValue_exception_retrieving_field,
 							e.toString()), e);
 		}
-		// it is possible to return null
 		return null;
 	}
 
@@ -343,7 +401,7 @@ public class JDIObjectValue extends JDIValue implements IJavaObject {
 	 *                DebugException's status code contains the underlying
 	 *                exception responsible for the failure.</li>
 	 */
-	protected ReferenceType getUnderlyingReferenceType() throws DebugException {
+	public ReferenceType getUnderlyingReferenceType() throws DebugException {
 		try {
 			return getUnderlyingObject().referenceType();
 		} catch (RuntimeException e) {
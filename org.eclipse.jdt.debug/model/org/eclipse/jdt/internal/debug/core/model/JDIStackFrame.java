@@ -16,6 +16,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.core.runtime.IAdaptable;
 import org.eclipse.core.runtime.IStatus;
@@ -62,6 +63,7 @@ import com.sun.jdi.ObjectReference;
 import com.sun.jdi.ReferenceType;
 import com.sun.jdi.StackFrame;
 import com.sun.jdi.Type;
+import com.sun.jdi.Value;
 import com.sun.jdi.VirtualMachine;
 
 /**
@@ -90,6 +92,15 @@ public class JDIStackFrame extends JDIDebugElement implements IJavaStackFrame {
 	 */
 	private List<IJavaVariable> fVariables;
 
+	/**
+	 * Values of the visible local variables, fetched in one request, the
+	 * underlying frame they were fetched from and the state change count of
+	 * the target at that time.
+	 */
+	private Map<LocalVariable, Value> fLocalValues;
+	private StackFrame fLocalValuesFrame;
+	private int fLocalValuesStateChangeCount;
+
 	/**
 	 * The underlying Object associated with this stack frame. Cached lazily on
 	 * first access.
@@ -274,7 +285,7 @@ public class JDIStackFrame extends JDIDebugElement implements IJavaStackFrame {
 	 */
 	public Method getUnderlyingMethod() {
 		synchronized (fThread) {
-			return fLocation.method();
+			return getLocation().method();
 		}
 	}
 
@@ -416,7 +427,7 @@ public class JDIStackFrame extends JDIDebugElement implements IJavaStackFrame {
 	public int getLineNumber() throws DebugException {
 		synchronized (fThread) {
 			try {
-				return fLocation.lineNumber();
+				return getLocation().lineNumber();
 			} catch (RuntimeException e) {
 				if (getThread().isSuspended()) {
 					targetRequestFailed(
@@ -831,6 +842,28 @@ public class JDIStackFrame extends JDIDebugElement implements IJavaStackFrame {
 		}
 	}
 
+	/**
+	 * Returns whether the declaring type of this frame's method matches the
+	 * step filters of the target. Only the name of the type is retrieved, not
+	 * the line number or the variables of this frame, and the decision is
+	 * remembered for the type.
+	 * 
+	 * @return whether this frame is in a filtered type
+	 */
+	public boolean isStepFiltered() {
+		StepFilterMatcher matcher = getJavaDebugTarget().getStepFilterMatcher();
+		if (matcher.isEmpty()) {
+			return false;
+		}
+		synchronized (fThread) {
+			try {
+				return matcher.matches(getUnderlyingMethod().declaringType());
+			} catch (RuntimeException e) {
+				return false;
+			}
+		}
+	}
+
 	/**
 	 * @see IJavaStackFrame#getDeclaringTypeName()
 	 */
@@ -998,7 +1031,7 @@ public class JDIStackFrame extends JDIDebugElement implements IJavaStackFrame {
 	@Override
 	public String getSourceName() throws DebugException {
 		synchronized (fThread) {
-			return getSourceName(fLocation);
+			return getSourceName(getLocation());
 		}
 	}
 
@@ -1139,7 +1172,7 @@ public class JDIStackFrame extends JDIDebugElement implements IJavaStackFrame {
 				}
 				if (fThread.isSuspended()) {
 					// re-index stack frames - See Bug 47198
-					fThread.computeStackFrames();
+					fThread.bindStackFrame(this);
 					if (fDepth == -1) {
 						// If depth is -1, then this is an invalid frame
 						throw new DebugException(new Status(IStatus.ERROR,
@@ -1158,6 +1191,72 @@ public class JDIStackFrame extends JDIDebugElement implements IJavaStackFrame {
 		}
 	}
 
+	/**
+	 * Returns the location of this stack frame. Stack frames are only bound
+	 * to their underlying frame when accessed, so the frame is bound first if
+	 * its thread has suspended since it was last bound. The last known
+	 * location is returned if the frame cannot be bound.
+	 */
+	private Location getLocation() {
+		synchronized (fThread) {
+			if (fStackFrame == null && fDepth != -1 && fThread.isSuspended()) {
+				try {
+					fThread.bindStackFrame(this);
+				} catch (DebugException e) {
+				}
+			}
+			return fLocation;
+		}
+	}
+
+	/**
+	 * Returns the current value of the given local variable. The values of
+	 * all local variables of this frame are fetched with a single request,
+	 * and served until the underlying frame or the target's state changes.
+	 *
+	 * @param local
+	 *            a local variable visible in this frame
+	 * @return the value of the local variable
+	 * @exception DebugException
+	 *                if this frame does not currently have an underlying
+	 *                frame
+	 */
+	protected Value getLocalValue(LocalVariable local) throws DebugException {
+		synchronized (fThread) {
+			StackFrame frame = getUnderlyingStackFrame();
+			int stateChangeCount = getJavaDebugTarget().getStateChangeCount();
+			if (fLocalValues == null || fLocalValuesFrame != frame
+					|| fLocalValuesStateChangeCount != stateChangeCount) {
+				fLocalValues = null;
+				List<LocalVariable> locals = new ArrayList<LocalVariable>();
+				if (fVariables != null) {
+					for (IJavaVariable variable : fVariables) {
+						if (variable instanceof JDILocalVariable) {
+							locals.add(((JDILocalVariable) variable).getLocal());
+						}
+					}
+				}
+				if (!locals.contains(local)) {
+					locals.add(local);
+				}
+				try {
+					fLocalValues = frame.getValues(locals);
+				} catch (IllegalArgumentException e) {
+					// a variable is not visible at the current location any
+					// more, the variables have not been updated yet
+					return frame.getValue(local);
+				}
+				fLocalValuesFrame = frame;
+				fLocalValuesStateChangeCount = stateChangeCount;
+			}
+			Value value = fLocalValues.get(local);
+			if (value == null && !fLocalValues.containsKey(local)) {
+				return frame.getValue(local);
+			}
+			return value;
+		}
+	}
+
 	/**
 	 * Sets the underlying JDI StackFrame. Called by a thread when incrementally
 	 * updating after a step has completed.
@@ -1338,8 +1437,7 @@ public class JDIStackFrame extends JDIDebugElement implements IJavaStackFrame {
 	@Override
 	public boolean canStepWithFilters() {
 		if (canStepInto()) {
-			String[] filters = getJavaDebugTarget().getStepFilters();
-			return filters != null && filters.length > 0;
+			return !getJavaDebugTarget().getStepFilterMatcher().isEmpty();
 		}
 		return false;
 	}
@@ -1359,7 +1457,7 @@ public class JDIStackFrame extends JDIDebugElement implements IJavaStackFrame {
 	public String getSourcePath(String stratum) throws DebugException {
 		synchronized (fThread) {
 			try {
-				return fLocation.sourcePath(stratum);
+				return getLocation().sourcePath(stratum);
 			} catch (AbsentInformationException e) {
 			} catch (RuntimeException e) {
 				targetRequestFailed(
@@ -1378,7 +1476,7 @@ public class JDIStackFrame extends JDIDebugElement implements IJavaStackFrame {
 	public String getSourcePath() throws DebugException {
 		synchronized (fThread) {
 			try {
-				return fLocation.sourcePath();
+				return getLocation().sourcePath();
 			} catch (AbsentInformationException e) {
 			} catch (RuntimeException e) {
 				targetRequestFailed(
@@ -1399,7 +1497,7 @@ public class JDIStackFrame extends JDIDebugElement implements IJavaStackFrame {
 	public int getLineNumber(String stratum) throws DebugException {
 		synchronized (fThread) {
 			try {
-				return fLocation.lineNumber(stratum);
+				return getLocation().lineNumber(stratum);
 			} catch (RuntimeException e) {
 				if (getThread().isSuspended()) {
 					targetRequestFailed(
@@ -1421,7 +1519,7 @@ public class JDIStackFrame extends JDIDebugElement implements IJavaStackFrame {
 	public String getSourceName(String stratum) throws DebugException {
 		synchronized (fThread) {
 			try {
-				return fLocation.sourceName(stratum);
+				return getLocation().sourceName(stratum);
 			} catch (AbsentInformationException e) {
 			} catch (NativeMethodException e) {
 			} catch (RuntimeException e) {
@@ -14,6 +14,7 @@
 package org.eclipse.jdt.internal.debug.core.model;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
@@ -39,7 +40,8 @@ import org.eclipse.debug.core.model.IStepFilter;
 import org.eclipse.debug.core.model.ISuspendResume;
 import org.eclipse.debug.core.model.ITerminate;
 import org.eclipse.debug.core.model.IThread;
-import org.eclipse.jdt.core.Signature;
+import org.eclipse.jdi.internal.ThreadSnapshot;
+import org.eclipse.jdi.internal.ThreadStates;
 import org.eclipse.jdt.debug.core.IEvaluationRunnable;
 import org.eclipse.jdt.debug.core.IJavaBreakpoint;
 import org.eclipse.jdt.debug.core.IJavaBreakpointListener;
@@ -50,6 +52,7 @@ import org.eclipse.jdt.debug.core.IJavaThreadGroup;
 import org.eclipse.jdt.debug.core.IJavaValue;
 import org.eclipse.jdt.debug.core.IJavaVariable;
 import org.eclipse.jdt.debug.core.JDIDebugModel;
+import org.eclipse.jdt.internal.debug.core.EventDispatcher;
 import org.eclipse.jdt.internal.debug.core.IJDIEventListener;
 import org.eclipse.jdt.internal.debug.core.JDIDebugPlugin;
 import org.eclipse.jdt.internal.debug.core.breakpoints.ConditionalBreakpointHandler;
@@ -97,7 +100,7 @@ public class JDIThread extends JDIDebugElement implements IJavaThread {
 	/**
 	 * Constant for the name of the main thread group.
 	 */
-	private static final String MAIN_THREAD_GROUP = "main"; //$NON-NLS-1$
+	static final String MAIN_THREAD_GROUP = "main"; //$NON-NLS-1$
 
 	/**
 	 * @since 3.5
@@ -123,9 +126,27 @@ public class JDIThread extends JDIDebugElement implements IJavaThread {
 	 */
 	private String fPreviousName;
 	/**
-	 * Collection of stack frames
+	 * Name taken from the suspend snapshot of the target, or
+	 * <code>null</code>. Cleared when this thread runs.
+	 * 
+	 * @see JDIDebugTarget#prefetchSuspendSnapshot()
+	 */
+	private volatile String fSnapshotName;
+	/**
+	 * Collection of stack frames. Frames are fetched from the target in pages
+	 * as they are accessed, so the collection holds <code>null</code> for
+	 * frames that have not been created yet.
 	 */
 	private List<IJavaStackFrame> fStackFrames;
+	/**
+	 * Indexes of the stack frames that have been bound to the underlying
+	 * frames of the current suspend.
+	 */
+	private BitSet fBoundFrames = new BitSet();
+	/**
+	 * Number of stack frames fetched from the target at once.
+	 */
+	private static final int FRAME_PAGE_SIZE = 32;
 	/**
 	 * Underlying thread group, cached on first access.
 	 */
@@ -154,16 +175,18 @@ public class JDIThread extends JDIDebugElement implements IJavaThread {
 	private boolean fTerminated;
 
 	/**
-	 * Whether this thread is a system thread.
+	 * Whether this thread is a system thread, or <code>null</code> until
+	 * first asked.
 	 */
-	private boolean fIsSystemThread;
+	private volatile Boolean fIsSystemThread;
 
 	/**
-	 * Whether this thread is a daemon thread
+	 * Whether this thread is a daemon thread, or <code>null</code> until
+	 * first asked.
 	 * 
 	 * @since 3.3
 	 */
-	private boolean fIsDaemon = false;
+	private volatile Boolean fIsDaemon;
 
 	/**
 	 * The collection of breakpoints that caused the last suspend, or an empty
@@ -270,7 +293,7 @@ public class JDIThread extends JDIDebugElement implements IJavaThread {
 	/**
 	 * Thread initialization:
 	 * <ul>
-	 * <li>Determines if this thread is a system thread</li>
+	 * <li>Adds the thread group of this thread to the target</li>
 	 * <li>Sets terminated state to <code>false</code></li>
 	 * <li>Determines suspended state from underlying thread</li>
 	 * <li>Sets this threads stack frames to an empty collection</li>
@@ -282,37 +305,8 @@ public class JDIThread extends JDIDebugElement implements IJavaThread {
 	 */
 	protected void initialize() throws ObjectCollectedException {
 		fStackFrames = new ArrayList<IJavaStackFrame>();
-		// system thread
-		try {
-			determineIfSystemThread();
-		} catch (DebugException e) {
-			Throwable underlyingException = e.getStatus().getException();
-			if (underlyingException instanceof VMDisconnectedException) {
-				// Threads may be created by the VM at shutdown
-				// as finalizers. The VM may be disconnected by
-				// the time we hear about the thread creation.
-				disconnected();
-				return;
-			}
-			if (underlyingException instanceof ObjectCollectedException) {
-				throw (ObjectCollectedException) underlyingException;
-			}
-			logError(e);
-		}
-
-		try {
-			determineIfDaemonThread();
-		} catch (DebugException e) {
-			Throwable underlyingException = e.getStatus().getException();
-			if (underlyingException instanceof VMDisconnectedException) {
-				// Threads may be created by the VM at shutdown
-				// as finalizers. The VM may be disconnected by
-				// the time we hear about the thread creation.
-				disconnected();
-				return;
-			}
-			logError(e);
-		}
+		// whether this is a system or daemon thread is determined when first
+		// asked, so that thread start events are handled quickly
 
 		try {
 			ThreadGroupReference group = getUnderlyingThreadGroup();
@@ -323,12 +317,15 @@ public class JDIThread extends JDIDebugElement implements IJavaThread {
 		} catch (DebugException e1) {
 		}
 
-		// state
+		// state, prefetched for the threads that exist when the target is
+		// initialized
+		ThreadStates states = getInitialThreadStates();
 		setTerminated(false);
 		setRunning(false);
 		try {
 			// see bug 30816
-			if (fThread.status() == ThreadReference.THREAD_STATUS_UNKNOWN) {
+			int status = states != null ? states.status(fThread) : fThread.status();
+			if (status == ThreadReference.THREAD_STATUS_UNKNOWN) {
 				setRunning(true);
 				return;
 			}
@@ -347,7 +344,7 @@ public class JDIThread extends JDIDebugElement implements IJavaThread {
 			// class prepare event quietly). The class prepare event handler
 			// will notify
 			// this thread when it resumes
-			setRunning(!fThread.isSuspended());
+			setRunning(!(states != null ? states.isSuspended(fThread) : fThread.isSuspended()));
 		} catch (VMDisconnectedException e) {
 			disconnected();
 			return;
@@ -358,6 +355,20 @@ public class JDIThread extends JDIDebugElement implements IJavaThread {
 		}
 	}
 
+	/**
+	 * Returns the states prefetched by the debug target for this thread, while
+	 * the target is being initialized.
+	 * 
+	 * @return thread states or <code>null</code> if none
+	 */
+	private ThreadStates getInitialThreadStates() {
+		ThreadStates states = getJavaDebugTarget().getInitialThreadStates();
+		if (states != null && states.contains(fThread)) {
+			return states;
+		}
+		return null;
+	}
+
 	/**
 	 * Adds the given breakpoint to the list of breakpoints this thread is
 	 * suspended at
@@ -486,30 +497,22 @@ public class JDIThread extends JDIDebugElement implements IJavaThread {
 	 *                </ul>
 	 */
 	protected void determineIfSystemThread() throws DebugException {
-		fIsSystemThread = false;
-		ThreadGroupReference tgr = getUnderlyingThreadGroup();
-		fIsSystemThread = tgr != null;
-		while (tgr != null) {
-			String tgn = null;
-			try {
-				tgn = tgr.name();
-				tgr = tgr.parent();
-			} catch (UnsupportedOperationException e) {
-				fIsSystemThread = false;
-				break;
-			} catch (RuntimeException e) {
-				targetRequestFailed(
-						MessageFormat.format(
-								JDIDebugModelMessages.JDIThread_exception_determining_if_system_thread,
-								e.toString()), e);
-				// execution will not reach this line, as
-				// #targetRequestFailed will throw an exception
-				return;
-			}
-			if (tgn != null && tgn.equals(MAIN_THREAD_GROUP)) {
-				fIsSystemThread = false;
-				break;
+		// the field is shared with concurrent callers, only assign the result
+		boolean isSystemThread = false;
+		try {
+			ThreadGroupReference tgr = getUnderlyingThreadGroup();
+			if (tgr != null) {
+				isSystemThread = getJavaDebugTarget().isSystemThreadGroup(tgr);
 			}
+		} catch (UnsupportedOperationException e) {
+			// not a system thread
+		} catch (RuntimeException e) {
+			targetRequestFailed(
+					MessageFormat.format(
+							JDIDebugModelMessages.JDIThread_exception_determining_if_system_thread,
+							e.toString()), e);
+		} finally {
+			fIsSystemThread = Boolean.valueOf(isSystemThread);
 		}
 	}
 
@@ -520,19 +523,15 @@ public class JDIThread extends JDIDebugElement implements IJavaThread {
 	 *             on failure
 	 */
 	protected void determineIfDaemonThread() throws DebugException {
-		fIsDaemon = false;
+		// the field is shared with concurrent callers, only assign the result
+		boolean isDaemon = false;
 		try {
 			ReferenceType referenceType = getUnderlyingThread().referenceType();
-			Field field = referenceType.fieldByName("daemon"); //$NON-NLS-1$
-			if (field == null) {
-				field = referenceType.fieldByName("isDaemon"); //$NON-NLS-1$
-			}
+			Field field = getJavaDebugTarget().getDaemonField(referenceType);
 			if (field != null) {
-				if (field.signature().equals(Signature.SIG_BOOLEAN)) {
-					Value value = getUnderlyingThread().getValue(field);
-					if (value instanceof BooleanValue) {
-						fIsDaemon = ((BooleanValue) value).booleanValue();
-					}
+				Value value = getUnderlyingThread().getValue(field);
+				if (value instanceof BooleanValue) {
+					isDaemon = ((BooleanValue) value).booleanValue();
 				}
 			}
 		} catch (ObjectCollectedException oce) {/*
@@ -541,6 +540,8 @@ public class JDIThread extends JDIDebugElement implements IJavaThread {
 												 */
 		} catch (RuntimeException e) {
 			targetRequestFailed(JDIDebugModelMessages.JDIThread_47, e);
+		} finally {
+			fIsDaemon = Boolean.valueOf(isDaemon);
 		}
 	}
 
@@ -570,41 +571,12 @@ public class JDIThread extends JDIDebugElement implements IJavaThread {
 		if (isSuspended()) {
 			if (isTerminated()) {
 				fStackFrames.clear();
-			} else if (refreshChildren) {
-				List<StackFrame> frames = getUnderlyingFrames();
-				int oldSize = fStackFrames.size();
-				int newSize = frames.size();
-				int discard = oldSize - newSize; // number of old frames to
-													// discard, if any
-				for (int i = 0; i < discard; i++) {
-					JDIStackFrame invalid = (JDIStackFrame) fStackFrames
-							.remove(0);
-					invalid.bind(null, -1);
-				}
-				int newFrames = newSize - oldSize; // number of frames to
-													// create, if any
-				int depth = oldSize;
-				for (int i = newFrames - 1; i >= 0; i--) {
-					fStackFrames.add(0, new JDIStackFrame(this,
-							frames.get(i), depth));
-					depth++;
-				}
-				int numToRebind = Math.min(newSize, oldSize); // number of
-																// frames to
-																// attempt to
-																// re-bind
-				int offset = newSize - 1;
-				for (depth = 0; depth < numToRebind; depth++) {
-					JDIStackFrame oldFrame = (JDIStackFrame) fStackFrames
-							.get(offset);
-					StackFrame frame = frames.get(offset);
-					JDIStackFrame newFrame = oldFrame.bind(frame, depth);
-					if (newFrame != oldFrame) {
-						fStackFrames.set(offset, newFrame);
-					}
-					offset--;
+				fBoundFrames.clear();
+			} else {
+				if (refreshChildren) {
+					refreshStackFrames();
 				}
-
+				bindStackFrames(0, fStackFrames.size());
 			}
 			fRefreshChildren = false;
 		} else {
@@ -613,6 +585,193 @@ public class JDIThread extends JDIDebugElement implements IJavaThread {
 		return fStackFrames;
 	}
 
+	/**
+	 * Returns the stack frames of this thread in the given range, where index
+	 * 0 is the top of the stack, computing only the pages of frames in the
+	 * range if required. Returns an empty collection if this thread is not
+	 * currently suspended, or this thread is terminated.
+	 * 
+	 * @param index
+	 *            index of the first frame to return
+	 * @param length
+	 *            maximum number of frames to return
+	 * @return list of <code>IJavaStackFrame</code>, possibly shorter than the
+	 *         given length when the range exceeds the stack
+	 * @exception DebugException
+	 *                if this method fails. Reasons include:
+	 *                <ul>
+	 *                <li>Failure communicating with the VM. The
+	 *                DebugException's status code contains the underlying
+	 *                exception responsible for the failure.</li>
+	 *                </ul>
+	 * @see #computeStackFrames()
+	 */
+	public synchronized List<IJavaStackFrame> computeStackFrames(int index,
+			int length) throws DebugException {
+		if (!isSuspended() || isTerminated()) {
+			return Collections.EMPTY_LIST;
+		}
+		if (fRefreshChildren) {
+			refreshStackFrames();
+		}
+		int size = fStackFrames.size();
+		if (index < 0 || index >= size || length <= 0) {
+			return Collections.EMPTY_LIST;
+		}
+		int end = length > size - index ? size : index + length;
+		bindStackFrames(index, end - index);
+		return new ArrayList<IJavaStackFrame>(fStackFrames.subList(index, end));
+	}
+
+	/**
+	 * Binds the given stack frame of this thread to its underlying frame if
+	 * this thread has suspended since the frame was last bound. Only the page
+	 * of frames that contains the frame is fetched.
+	 * 
+	 * @param frame
+	 *            a stack frame of this thread
+	 * @exception DebugException
+	 *                if unable to retrieve the underlying frames
+	 */
+	protected synchronized void bindStackFrame(JDIStackFrame frame)
+			throws DebugException {
+		if (!isSuspended() || isTerminated()) {
+			return;
+		}
+		if (fRefreshChildren) {
+			refreshStackFrames();
+		}
+		int index = fStackFrames.indexOf(frame);
+		if (index >= 0) {
+			bindStackFrames(index, 1);
+		}
+	}
+
+	/**
+	 * Aligns the stack frames with the underlying stack after a suspend,
+	 * without fetching any frame. Frames are matched by their depth from the
+	 * bottom of the stack: frames are discarded from, or room for new frames
+	 * is made at, the top of the stack. All frames are left to be bound.
+	 */
+	private void refreshStackFrames() throws DebugException {
+		refreshStackFrames(getUnderlyingFrameCount());
+	}
+
+	/**
+	 * Aligns the stack frames with an underlying stack of the given size.
+	 * 
+	 * @see #refreshStackFrames()
+	 */
+	private void refreshStackFrames(int newSize) {
+		int oldSize = fStackFrames.size();
+		int discard = oldSize - newSize; // number of old frames to discard, if
+											// any
+		for (int i = 0; i < discard; i++) {
+			JDIStackFrame invalid = (JDIStackFrame) fStackFrames.remove(0);
+			if (invalid != null) {
+				invalid.bind(null, -1);
+			}
+		}
+		if (newSize > oldSize) {
+			fStackFrames.addAll(0, Collections.<IJavaStackFrame> nCopies(
+					newSize - oldSize, null));
+		}
+		fBoundFrames.clear();
+		fRefreshChildren = false;
+	}
+
+	/**
+	 * Binds the stack frames in the given range to their underlying frames,
+	 * creating frames that do not exist yet. The range is extended to whole
+	 * pages, and the frames that are not bound yet are fetched with a single
+	 * request.
+	 */
+	private void bindStackFrames(int index, int length) throws DebugException {
+		int size = fStackFrames.size();
+		int start = fBoundFrames.nextClearBit(index - index % FRAME_PAGE_SIZE);
+		int end = index + length;
+		if (end % FRAME_PAGE_SIZE != 0) {
+			end += FRAME_PAGE_SIZE - end % FRAME_PAGE_SIZE;
+		}
+		end = Math.min(end, size);
+		while (end > start && fBoundFrames.get(end - 1)) {
+			end--;
+		}
+		if (start >= end) {
+			return;
+		}
+		List<StackFrame> frames = getUnderlyingFrames(start, end - start);
+		for (int i = start; i < end; i++) {
+			if (fBoundFrames.get(i)) {
+				continue;
+			}
+			bindStackFrame(i, frames.get(i - start));
+		}
+		fBoundFrames.set(start, end);
+	}
+
+	/**
+	 * Binds the stack frame at the given index to the given underlying frame,
+	 * creating the frame if it does not exist yet.
+	 */
+	private void bindStackFrame(int index, StackFrame frame) {
+		int depth = fStackFrames.size() - 1 - index;
+		JDIStackFrame oldFrame = (JDIStackFrame) fStackFrames.get(index);
+		if (oldFrame == null) {
+			fStackFrames.set(index, new JDIStackFrame(this, frame, depth));
+		} else {
+			JDIStackFrame newFrame = oldFrame.bind(frame, depth);
+			if (newFrame != oldFrame) {
+				fStackFrames.set(index, newFrame);
+			}
+		}
+	}
+
+	/**
+	 * Takes the name, frame count and top frame of this thread from a
+	 * snapshot taken after the target suspended, unless this thread has
+	 * changed state since.
+	 * 
+	 * @param snapshot
+	 *            snapshot of the underlying thread
+	 * @param stateChangeCount
+	 *            the state change count of the target when the snapshot was
+	 *            taken
+	 * @see JDIDebugTarget#prefetchSuspendSnapshot()
+	 */
+	protected synchronized void setSuspendSnapshot(ThreadSnapshot snapshot,
+			int stateChangeCount) {
+		if (!isSuspended() || isTerminated()
+				|| getJavaDebugTarget().getStateChangeCount() != stateChangeCount) {
+			return;
+		}
+		if (snapshot.getName() != null) {
+			fSnapshotName = snapshot.getName();
+			fPreviousName = fSnapshotName;
+		}
+		if (!snapshot.isSuspended() || !fRefreshChildren) {
+			// frames already computed for this suspend
+			return;
+		}
+		refreshStackFrames(snapshot.getFrameCount());
+		StackFrame top = snapshot.getTopFrame();
+		if (top != null && !fStackFrames.isEmpty()) {
+			bindStackFrame(0, top);
+			fBoundFrames.set(0);
+		}
+	}
+
+	/**
+	 * Has the target take a snapshot of all suspended threads if it has
+	 * suspended since the last one, unless the lock of this thread is held:
+	 * the snapshot is applied to every thread.
+	 */
+	private void prefetchSuspendSnapshot() {
+		if (!Thread.holdsLock(this)) {
+			getJavaDebugTarget().prefetchSuspendSnapshot();
+		}
+	}
+
 	/**
 	 * Returns this thread's current stack frames as a list, computing them if
 	 * required. Returns an empty collection if this thread is not currently
@@ -662,7 +821,8 @@ public class JDIThread extends JDIDebugElement implements IJavaThread {
 		return computeStackFrames(true);
 	}
 
-	private List<StackFrame> getUnderlyingFrames() throws DebugException {
+	private List<StackFrame> getUnderlyingFrames(int start, int length)
+			throws DebugException {
 		if (!isSuspended()) {
 			// Checking isSuspended here eliminates a race condition in resume
 			// between the time stack frames are preserved and the time the
@@ -672,7 +832,7 @@ public class JDIThread extends JDIDebugElement implements IJavaThread {
 					null, IJavaThread.ERR_THREAD_NOT_SUSPENDED);
 		}
 		try {
-			return fThread.frames();
+			return fThread.frames(start, length);
 		} catch (IncompatibleThreadStateException e) {
 			requestFailed(
 					JDIDebugModelMessages.JDIThread_Unable_to_retrieve_stack_frame___thread_not_suspended__1,
@@ -970,12 +1130,19 @@ public class JDIThread extends JDIDebugElement implements IJavaThread {
 				// Superclass method invocation must be performed non-virtual.
 				flags |= ObjectReference.INVOKE_NONVIRTUAL;
 			}
-			if (receiverClass == null) {
-				result = receiverObject.invokeMethod(fThread, method, args,
-						flags);
-			} else {
-				result = receiverClass.invokeMethod(fThread, method, args,
-						flags);
+			// the invocation may need the events of other threads to be
+			// dispatched while this one waits for it
+			EventDispatcher.blockingOperationStarted();
+			try {
+				if (receiverClass == null) {
+					result = receiverObject.invokeMethod(fThread, method, args,
+							flags);
+				} else {
+					result = receiverClass.invokeMethod(fThread, method, args,
+							flags);
+				}
+			} finally {
+				EventDispatcher.blockingOperationFinished();
 			}
 		} catch (InvalidTypeException e) {
 			invokeFailed(e, timeout);
@@ -1074,8 +1241,13 @@ public class JDIThread extends JDIDebugElement implements IJavaThread {
 			}
 			preserveStackFrames();
 			int flags = ClassType.INVOKE_SINGLE_THREADED;
-			result = receiverInterface.invokeMethod(fThread, method, args,
-					flags);
+			EventDispatcher.blockingOperationStarted();
+			try {
+				result = receiverInterface.invokeMethod(fThread, method, args,
+						flags);
+			} finally {
+				EventDispatcher.blockingOperationFinished();
+			}
 		} catch (InvalidTypeException e) {
 			invokeFailed(e, timeout);
 		} catch (ClassNotLoadedException e) {
@@ -1150,8 +1322,13 @@ public class JDIThread extends JDIDebugElement implements IJavaThread {
 			setRunning(true);
 			setInvokingMethod(true);
 			preserveStackFrames();
-			result = receiverClass.newInstance(fThread, constructor, args,
-					ClassType.INVOKE_SINGLE_THREADED);
+			EventDispatcher.blockingOperationStarted();
+			try {
+				result = receiverClass.newInstance(fThread, constructor, args,
+						ClassType.INVOKE_SINGLE_THREADED);
+			} finally {
+				EventDispatcher.blockingOperationFinished();
+			}
 		} catch (InvalidTypeException e) {
 			invokeFailed(e, timeout);
 		} catch (ClassNotLoadedException e) {
@@ -1241,9 +1418,10 @@ public class JDIThread extends JDIDebugElement implements IJavaThread {
 		setInvokingMethod(false);
 		setRunning(false);
 		setRequestTimeout(restoreTimeout);
-		// update preserved stack frames
+		// update the preserved top stack frame, the others are bound when
+		// they are next accessed
 		try {
-			computeStackFrames();
+			computeStackFrames(0, 1);
 		} catch (DebugException e) {
 			logError(e);
 		}
@@ -1256,6 +1434,11 @@ public class JDIThread extends JDIDebugElement implements IJavaThread {
 	 */
 	@Override
 	public String getName() throws DebugException {
+		prefetchSuspendSnapshot();
+		String name = fSnapshotName;
+		if (name != null) {
+			return name;
+		}
 		try {
 			fPreviousName = fThread.name();
 		} catch (RuntimeException e) {
@@ -1325,8 +1508,9 @@ public class JDIThread extends JDIDebugElement implements IJavaThread {
 	 * @see org.eclipse.debug.core.model.IThread#getTopStackFrame()
 	 */
 	@Override
-	public synchronized IStackFrame getTopStackFrame() throws DebugException {
-		List<IJavaStackFrame> c = computeStackFrames();
+	public IStackFrame getTopStackFrame() throws DebugException {
+		prefetchSuspendSnapshot();
+		List<IJavaStackFrame> c = computeStackFrames(0, 1);
 		if (c.isEmpty()) {
 			return null;
 		}
@@ -1504,7 +1688,14 @@ public class JDIThread extends JDIDebugElement implements IJavaThread {
 	 */
 	@Override
 	public boolean isSystemThread() {
-		return fIsSystemThread;
+		if (fIsSystemThread == null) {
+			try {
+				determineIfSystemThread();
+			} catch (DebugException e) {
+				logUnlessGone(e);
+			}
+		}
+		return fIsSystemThread.booleanValue();
 	}
 
 	/*
@@ -1514,7 +1705,26 @@ public class JDIThread extends JDIDebugElement implements IJavaThread {
 	 */
 	@Override
 	public boolean isDaemon() throws DebugException {
-		return fIsDaemon;
+		if (fIsDaemon == null) {
+			try {
+				determineIfDaemonThread();
+			} catch (DebugException e) {
+				logUnlessGone(e);
+			}
+		}
+		return fIsDaemon.booleanValue();
+	}
+
+	/**
+	 * Logs the given exception, unless it was caused by this thread having
+	 * been collected or the VM having disconnected.
+	 */
+	private void logUnlessGone(DebugException e) {
+		Throwable underlyingException = e.getStatus().getException();
+		if (!(underlyingException instanceof VMDisconnectedException)
+				&& !(underlyingException instanceof ObjectCollectedException)) {
+			logError(e);
+		}
 	}
 
 	/*
@@ -1661,6 +1871,7 @@ public class JDIThread extends JDIDebugElement implements IJavaThread {
 		fRunning = running;
 		if (running) {
 			fCurrentBreakpoints.clear();
+			fSnapshotName = null;
 		}
 	}
 
@@ -1673,9 +1884,12 @@ public class JDIThread extends JDIDebugElement implements IJavaThread {
 	 * @see #computeStackFrames()
 	 */
 	protected synchronized void preserveStackFrames() {
+		getJavaDebugTarget().incrementStateChangeCount();
 		fRefreshChildren = true;
 		for(IJavaStackFrame frame : fStackFrames) {
-			((JDIStackFrame)frame).setUnderlyingStackFrame(null);
+			if (frame != null) {
+				((JDIStackFrame)frame).setUnderlyingStackFrame(null);
+			}
 		}
 	}
 
@@ -1687,7 +1901,9 @@ public class JDIThread extends JDIDebugElement implements IJavaThread {
 	 * @see #computeStackFrames()
 	 */
 	protected synchronized void disposeStackFrames() {
+		getJavaDebugTarget().incrementStateChangeCount();
 		fStackFrames.clear();
+		fBoundFrames.clear();
 		fRefreshChildren = true;
 	}
 
@@ -2226,7 +2442,8 @@ public class JDIThread extends JDIDebugElement implements IJavaThread {
 			throws DebugException {
 		if (fThreadGroup == null) {
 			try {
-				fThreadGroup = fThread.threadGroup();
+				ThreadStates states = getInitialThreadStates();
+				fThreadGroup = states != null ? states.threadGroup(fThread) : fThread.threadGroup();
 			} catch (UnsupportedOperationException e) {
 				requestFailed(
 						MessageFormat.format(
@@ -2337,6 +2554,12 @@ public class JDIThread extends JDIDebugElement implements IJavaThread {
 		 */
 		private StepRequest fStepRequest;
 
+		/**
+		 * Step filters contributed for the Java debug model, retrieved once
+		 * per step.
+		 */
+		private IStepFilter[] fContributedFilters;
+
 		/**
 		 * Initiates a step in the underlying VM by creating a step request of
 		 * the appropriate kind (over, into, return), and resuming this thread.
@@ -2370,7 +2593,7 @@ public class JDIThread extends JDIDebugElement implements IJavaThread {
 				setOriginalStepKind(getStepKind());
 				Location location = top.getUnderlyingStackFrame().location();
 				setOriginalStepLocation(location);
-				setOriginalStepStackDepth(computeStackFrames().size());
+				setOriginalStepStackDepth(getFrameCount());
 				setStepRequest(createStepRequest());
 				setPendingStepHandler(this);
 				addJDIEventListener(this, getStepRequest());
@@ -2556,18 +2779,12 @@ public class JDIThread extends JDIDebugElement implements IJavaThread {
 				// //is so do not filter @see bug 5587
 				// ReferenceType type= currentLocation.declaringType();
 				// String typeName= type.name();
-				String[] activeFilters = getJavaDebugTarget().getStepFilters();
-				// for (int i = 0; i < activeFilters.length; i++) {
-				// StringMatcher matcher = new StringMatcher(activeFilters[i],
-				// false, false);
-				// if (matcher.match(typeName)) {
-				// return;
-				// }
-				// }
-				if (activeFilters != null) {
-					for (String activeFilter : activeFilters) {
-						request.addClassExclusionFilter(activeFilter);
-					}
+				// filters covered by another filter are left out, since the
+				// VM matches every filter on every step event
+				String[] activeFilters = getJavaDebugTarget()
+						.getStepFilterMatcher().getExclusionFilters();
+				for (String activeFilter : activeFilters) {
+					request.addClassExclusionFilter(activeFilter);
 				}
 			}
 		}
@@ -2684,7 +2901,7 @@ public class JDIThread extends JDIDebugElement implements IJavaThread {
 						.isFilterConstructors();
 				boolean filterSetters = getJavaDebugTarget().isFilterSetters();
 				boolean filterGetters = getJavaDebugTarget().isFilterGetters();
-				IStepFilter[] contributedFilters = DebugPlugin.getStepFilters(JDIDebugPlugin.getUniqueIdentifier());
+				IStepFilter[] contributedFilters = getContributedStepFilters();
 				if (!(filterStatics || filterSynthetics || filterConstructors
  || filterGetters || filterSetters || contributedFilters.length > 0)) {
 					return false;
@@ -2731,7 +2948,7 @@ public class JDIThread extends JDIDebugElement implements IJavaThread {
 					return true;
 				}
 				if(!orig) {
-					IStepFilter[] contributedFilters = DebugPlugin.getStepFilters(JDIDebugPlugin.getUniqueIdentifier());
+					IStepFilter[] contributedFilters = getContributedStepFilters();
 					for (int i = 0; i < contributedFilters.length; i++) {
 						if (contributedFilters[i].isFiltered(method)) {
 							return true;
@@ -2742,6 +2959,21 @@ public class JDIThread extends JDIDebugElement implements IJavaThread {
 			return false;
 		}
 
+		/**
+		 * Returns the step filters contributed for the Java debug model.
+		 * Contributions do not change while stepping, so they are retrieved
+		 * once per step rather than on every step event.
+		 * 
+		 * @return contributed step filters
+		 */
+		protected IStepFilter[] getContributedStepFilters() {
+			if (fContributedFilters == null) {
+				fContributedFilters = DebugPlugin.getStepFilters(JDIDebugPlugin
+						.getUniqueIdentifier());
+			}
+			return fContributedFilters;
+		}
+
 		/**
 		 * Cleans up when a step completes.
 		 * <ul>
@@ -3275,8 +3507,7 @@ public class JDIThread extends JDIDebugElement implements IJavaThread {
 	@Override
 	public boolean canStepWithFilters() {
 		if (canStepInto()) {
-			String[] filters = getJavaDebugTarget().getStepFilters();
-			return filters != null && filters.length > 0;
+			return !getJavaDebugTarget().getStepFilterMatcher().isEmpty();
 		}
 		return false;
 	}
@@ -3410,6 +3641,17 @@ public class JDIThread extends JDIDebugElement implements IJavaThread {
 	 */
 	@Override
 	public int getFrameCount() throws DebugException {
+		prefetchSuspendSnapshot();
+		synchronized (this) {
+			if (isSuspended() && !isTerminated()) {
+				// the count is queried once per suspend, without fetching
+				// frames
+				if (fRefreshChildren) {
+					refreshStackFrames();
+				}
+				return fStackFrames.size();
+			}
+		}
 		return getUnderlyingFrameCount();
 	}
 
@@ -15,6 +15,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.debug.core.DebugException;
 import org.eclipse.debug.core.model.IValue;
@@ -47,6 +48,13 @@ public class JDIValue extends JDIDebugElement implements IJavaValue {
 	private Value fValue;
 	private List<IJavaVariable> fVariables;
 
+	/**
+	 * Values of the fields of the underlying object, fetched in one request,
+	 * and the state change count of the target when they were fetched.
+	 */
+	private Map<Field, Value> fFieldValues;
+	private int fFieldValuesStateChangeCount;
+
 	/**
 	 * A flag indicating if this value is still allocated (valid)
 	 */
@@ -275,7 +283,7 @@ public class JDIValue extends JDIDebugElement implements IJavaValue {
 					Field field = list.next();
 					fVariables.add(new JDIFieldVariable(
 							(JDIDebugTarget) getDebugTarget(), field, object,
-							fLogicalParent));
+							fLogicalParent, this));
 				}
 				Collections.sort(fVariables, new Comparator<IJavaVariable>() {
 					@Override
@@ -291,6 +299,42 @@ public class JDIValue extends JDIDebugElement implements IJavaValue {
 		}
 	}
 
+	/**
+	 * Returns the current value of the given field of the underlying object.
+	 * The values of all fields that are children of this value are fetched
+	 * with a single request, and served until the target's state changes.
+	 *
+	 * @param field
+	 *            a field of the underlying object
+	 * @return the value of the field
+	 */
+	protected synchronized Value getFieldValue(Field field) {
+		ObjectReference object = (ObjectReference) fValue;
+		int stateChangeCount = getJavaDebugTarget().getStateChangeCount();
+		if (fFieldValues == null
+				|| fFieldValuesStateChangeCount != stateChangeCount) {
+			fFieldValues = null;
+			List<Field> fields = new ArrayList<Field>();
+			if (fVariables != null) {
+				for (IJavaVariable variable : fVariables) {
+					if (variable instanceof JDIFieldVariable) {
+						fields.add(((JDIFieldVariable) variable).getField());
+					}
+				}
+			}
+			if (!fields.contains(field)) {
+				fields.add(field);
+			}
+			fFieldValues = object.getValues(fields);
+			fFieldValuesStateChangeCount = stateChangeCount;
+		}
+		Value value = fFieldValues.get(field);
+		if (value == null && !fFieldValues.containsKey(field)) {
+			return object.getValue(field);
+		}
+		return value;
+	}
+
 	/**
 	 * Group statics and instance variables, sort alphabetically within each
 	 * group.
@@ -0,0 +1,223 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.debug.core.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import com.sun.jdi.ReferenceType;
+
+/**
+ * Compiled form of a set of step filters, matching type names in time
+ * proportional to the length of the name rather than to the number of
+ * filters.
+ * <p>
+ * Filters have the form accepted by
+ * {@link com.sun.jdi.request.StepRequest#addClassExclusionFilter(String)}:
+ * a fully qualified type name, a name prefix followed by '*', or '*'
+ * followed by a name suffix. Prefixes and reversed suffixes are kept in
+ * tries. The filters are immutable; the decisions made for reference types
+ * are remembered, so a matcher is only created when the filters change.
+ * </p>
+ *
+ * @since 3.10
+ */
+public class StepFilterMatcher {
+
+	/**
+	 * A matcher that matches no type.
+	 */
+	public static final StepFilterMatcher EMPTY = new StepFilterMatcher(null);
+
+	/**
+	 * Node of a trie of prefixes or reversed suffixes.
+	 */
+	private static final class Node {
+		Map<Character, Node> fChildren;
+		/** Whether a filter ends at this node. */
+		boolean fMatch;
+
+		Node child(char c, boolean create) {
+			Character key = Character.valueOf(c);
+			Node child = fChildren == null ? null : fChildren.get(key);
+			if (child == null && create) {
+				if (fChildren == null) {
+					fChildren = new HashMap<Character, Node>(4);
+				}
+				child = new Node();
+				fChildren.put(key, child);
+			}
+			return child;
+		}
+	}
+
+	private final Set<String> fNames = new HashSet<String>();
+	private final Node fPrefixes = new Node();
+	private final Node fSuffixes = new Node();
+	private final boolean fEmpty;
+
+	/**
+	 * The filters that are not covered by another filter, to be set on step
+	 * requests.
+	 */
+	private final String[] fExclusionFilters;
+
+	/** Decisions made for reference types. */
+	private final Map<ReferenceType, Boolean> fTypeDecisions = Collections
+			.synchronizedMap(new WeakHashMap<ReferenceType, Boolean>());
+
+	/**
+	 * Compiles the given step filters.
+	 *
+	 * @param filters
+	 *            step filters, or <code>null</code>
+	 */
+	public StepFilterMatcher(String[] filters) {
+		Set<String> distinct = new LinkedHashSet<String>();
+		if (filters != null) {
+			for (String filter : filters) {
+				int length = filter.length();
+				if (length == 0 || !distinct.add(filter)) {
+					continue;
+				}
+				if (filter.charAt(length - 1) == '*') {
+					add(fPrefixes, filter.substring(0, length - 1), false);
+				} else if (filter.charAt(0) == '*') {
+					add(fSuffixes, filter.substring(1), true);
+				} else {
+					fNames.add(filter);
+				}
+			}
+		}
+		fEmpty = distinct.isEmpty();
+		List<String> exclusionFilters = new ArrayList<String>(distinct.size());
+		for (String filter : distinct) {
+			if (!isCovered(filter)) {
+				exclusionFilters.add(filter);
+			}
+		}
+		fExclusionFilters = exclusionFilters
+				.toArray(new String[exclusionFilters.size()]);
+	}
+
+	/**
+	 * Returns whether every type the given filter matches is also matched by
+	 * another filter.
+	 */
+	private boolean isCovered(String filter) {
+		int length = filter.length();
+		if (filter.charAt(length - 1) == '*') {
+			// a prefix is covered by shorter prefixes
+			return matches(fPrefixes, filter, false, length - 2);
+		}
+		if (filter.charAt(0) == '*') {
+			// a suffix is covered by "*" and by shorter suffixes
+			return fPrefixes.fMatch
+					|| matches(fSuffixes, filter.substring(1), true, length - 2);
+		}
+		return matches(fPrefixes, filter, false, length)
+				|| matches(fSuffixes, filter, true, length);
+	}
+
+	private static void add(Node root, String literal, boolean reversed) {
+		Node node = root;
+		int length = literal.length();
+		for (int i = 0; i < length; i++) {
+			node = node.child(literal.charAt(reversed ? length - 1 - i : i), true);
+		}
+		node.fMatch = true;
+	}
+
+	/**
+	 * Returns whether there are no filters, in which case no type matches.
+	 *
+	 * @return whether there are no filters
+	 */
+	public boolean isEmpty() {
+		return fEmpty;
+	}
+
+	/**
+	 * Returns the filters to set as class exclusion filters on step requests.
+	 * Filters that are duplicated or covered by another filter are left out.
+	 *
+	 * @return exclusion filters, not to be modified
+	 */
+	public String[] getExclusionFilters() {
+		return fExclusionFilters;
+	}
+
+	/**
+	 * Returns whether the given reference type matches one of the filters.
+	 * The decision is remembered for the type.
+	 *
+	 * @param type
+	 *            reference type
+	 * @return whether the type is filtered
+	 */
+	public boolean matches(ReferenceType type) {
+		if (fEmpty) {
+			return false;
+		}
+		Boolean decision = fTypeDecisions.get(type);
+		if (decision == null) {
+			decision = Boolean.valueOf(matches(type.name()));
+			fTypeDecisions.put(type, decision);
+		}
+		return decision.booleanValue();
+	}
+
+	/**
+	 * Returns whether the type with the given fully qualified name matches
+	 * one of the filters.
+	 *
+	 * @param typeName
+	 *            fully qualified type name
+	 * @return whether the type is filtered
+	 */
+	public boolean matches(String typeName) {
+		if (fEmpty) {
+			return false;
+		}
+		int length = typeName.length();
+		return fNames.contains(typeName)
+				|| matches(fPrefixes, typeName, false, length)
+				|| matches(fSuffixes, typeName, true, length);
+	}
+
+	/**
+	 * Returns whether a filter of the given trie is a prefix (or, for a
+	 * reversed trie, a suffix) of the given string that is not longer than
+	 * the given length.
+	 */
+	private static boolean matches(Node root, String string, boolean reversed,
+			int maxLength) {
+		Node node = root;
+		int length = string.length();
+		for (int i = 0; node != null && i <= maxLength; i++) {
+			if (node.fMatch) {
+				return true;
+			}
+			if (i == length) {
+				return false;
+			}
+			node = node.child(string.charAt(reversed ? length - 1 - i : i), false);
+		}
+		return false;
+	}
+}